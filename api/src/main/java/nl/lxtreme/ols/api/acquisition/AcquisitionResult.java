@@ -21,6 +21,9 @@
 package nl.lxtreme.ols.api.acquisition;
 
 
+import nl.lxtreme.ols.api.data.*;
+
+
 /**
  * Denotes a concrete result of a single acquisition.
  */
@@ -68,6 +71,18 @@ public interface AcquisitionResult
    */
   public abstract int getSampleRate();
 
+  /**
+   * Returns the sample store that holds the actual transitions.
+   * <p>
+   * Unlike {@link #getValues()} and {@link #getTimestamps()}, the sample store
+   * provides access to the individual transitions without the need to
+   * materialize all of them as arrays.
+   * </p>
+   * 
+   * @return the sample store, never <code>null</code>.
+   */
+  public abstract SampleStore getSampleStore();
+
   /**
    * Returns the time stamps of the individual samples.
    * <p>
@@ -0,0 +1,123 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+/**
+ * Provides a {@link SampleStore} that keeps its transitions in plain arrays.
+ * <p>
+ * This is the default storage layout, in which each transition takes up 12
+ * bytes. The arrays are used as-is and returned without copying.
+ * </p>
+ */
+final class ArraySampleStore implements SampleStore
+{
+  // VARIABLES
+
+  private final int[] values;
+  private final long[] timestamps;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new ArraySampleStore instance.
+   * 
+   * @param aValues
+   *          the sample values of the transitions, cannot be <code>null</code>;
+   * @param aTimestamps
+   *          the timestamps of the transitions, cannot be <code>null</code>.
+   */
+  public ArraySampleStore( final int[] aValues, final long[] aTimestamps )
+  {
+    if ( aValues.length != aTimestamps.length )
+    {
+      throw new IllegalArgumentException( "Values and timestamps size mismatch!" );
+    }
+
+    this.values = aValues;
+    this.timestamps = aTimestamps;
+  }
+
+  // METHODS
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int findIndex( final long aTimestamp )
+  {
+    return CapturedData.binarySearch( this.timestamps, 0, this.timestamps.length, aTimestamp );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMemorySize()
+  {
+    return ( 4L * this.values.length ) + ( 8L * this.timestamps.length );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimestamp( final int aIndex )
+  {
+    return this.timestamps[aIndex];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long[] getTimestamps()
+  {
+    return this.timestamps;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getValue( final int aIndex )
+  {
+    return this.values[aIndex];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int[] getValues()
+  {
+    return this.values;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size()
+  {
+    return this.values.length;
+  }
+}
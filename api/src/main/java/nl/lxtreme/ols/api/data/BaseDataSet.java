@@ -28,6 +28,12 @@ import nl.lxtreme.ols.api.acquisition.*;
 
 /**
  * Provides a base data set implementation.
+ * <p>
+ * The decoded data is published in a thread-safe manner, allowing it to be
+ * shown while it is still being decoded. Iterating over the data, however,
+ * should only be done after the decoding is finished, or while synchronizing
+ * on the list returned by {@link #getData()}.
+ * </p>
  * 
  * @param <DATA>
  *          the actual data entity of this base data set.
@@ -59,7 +65,7 @@ public class BaseDataSet<DATA extends BaseData<DATA>>
    */
   public BaseDataSet( final int aStartOfDecodeIdx, final int aEndOfDecodeIdx, final AcquisitionResult aData )
   {
-    this.data = new ArrayList<DATA>();
+    this.data = Collections.synchronizedList( new ArrayList<DATA>() );
 
     this.startOfDecode = aStartOfDecodeIdx;
     this.endOfDecode = aEndOfDecodeIdx;
@@ -173,6 +179,9 @@ public class BaseDataSet<DATA extends BaseData<DATA>>
    */
   protected void sort()
   {
-    Collections.sort( this.data );
+    synchronized ( this.data )
+    {
+      Collections.sort( this.data );
+    }
   }
 }
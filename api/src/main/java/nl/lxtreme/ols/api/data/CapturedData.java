@@ -41,11 +41,8 @@ public class CapturedData implements AcquisitionResult
 {
   // VARIABLES
 
-  /** captured values */
-  private final int[] values;
-
-  /** timestamp values in samples count from start */
-  private final long[] timestamps;
+  /** captured values and their timestamps in samples count from start */
+  private final SampleStore store;
 
   /** position of trigger as time value */
   private final long triggerPosition;
@@ -62,6 +59,12 @@ public class CapturedData implements AcquisitionResult
   /** absolute sample length */
   private final long absoluteLength;
 
+  /** lazily created index of the edges of each channel */
+  private volatile ChannelEdgeIndex edgeIndex;
+
+  /** lazily created statistics of each channel */
+  private volatile ChannelStatistics statistics;
+
   // CONSTRUCTORS
 
   /**
@@ -98,10 +101,10 @@ public class CapturedData implements AcquisitionResult
       tmp = value;
     }
 
-    this.timestamps = new long[count];
-    this.values = new int[count];
-    this.timestamps[0] = 0;
-    this.values[0] = values[0];
+    final long[] newTimestamps = new long[count];
+    final int[] newValues = new int[count];
+    newTimestamps[0] = 0;
+    newValues[0] = values[0];
 
     tmp = values[0];
     count = 1;
@@ -110,19 +113,20 @@ public class CapturedData implements AcquisitionResult
       if ( tmp != values[i] )
       {
         // store only transitions
-        this.timestamps[count] = i;
-        this.values[count] = values[i];
+        newTimestamps[count] = i;
+        newValues[count] = values[i];
         count++;
       }
       tmp = values[i];
     }
 
-    long absLength = this.timestamps[this.timestamps.length - 1];
+    long absLength = newTimestamps[newTimestamps.length - 1];
     if ( values.length > 1 )
     {
-      absLength -= this.timestamps[0];
+      absLength -= newTimestamps[0];
     }
 
+    this.store = new ArraySampleStore( newValues, newTimestamps );
     this.absoluteLength = absLength;
   }
 
@@ -165,6 +169,8 @@ public class CapturedData implements AcquisitionResult
       absLength = Math.max( aAbsLen, aTimestamps[aTimestamps.length - 1] );
     }
 
+    final int[] newValues;
+    final long[] newTimestamps;
     if ( aValues.length > 0 )
     {
       // 1: calculate the number of unique transitions...
@@ -190,19 +196,19 @@ public class CapturedData implements AcquisitionResult
       }
 
       // 2: copy *only* the unique transitions...
-      this.values = new int[count];
-      this.timestamps = new long[count];
+      newValues = new int[count];
+      newTimestamps = new long[count];
 
-      this.values[0] = aValues[0];
-      this.timestamps[0] = aTimestamps[0];
+      newValues[0] = aValues[0];
+      newTimestamps[0] = aTimestamps[0];
 
       oldValue = aValues[0];
       for ( int i = 1, j = 1; i < aValues.length; i++ )
       {
         if ( aValues[i] != oldValue )
         {
-          this.values[j] = aValues[i];
-          this.timestamps[j] = aTimestamps[i];
+          newValues[j] = aValues[i];
+          newTimestamps[j] = aTimestamps[i];
           j++;
         }
         oldValue = aValues[i];
@@ -211,20 +217,21 @@ public class CapturedData implements AcquisitionResult
       // Issue #167: make sure the absolute length is *always* present...
       if ( addExtraSample )
       {
-        this.values[count - 1] = aValues[aValues.length - 1];
-        this.timestamps[count - 1] = absLength;
+        newValues[count - 1] = aValues[aValues.length - 1];
+        newTimestamps[count - 1] = absLength;
       }
     }
     else
     {
-      this.values = new int[0];
-      this.timestamps = new long[0];
+      newValues = new int[0];
+      newTimestamps = new long[0];
     }
 
     this.triggerPosition = aTriggerPosition;
     this.rate = aRate;
     this.channels = aChannels;
     this.enabledChannels = aEnabledChannels;
+    this.store = new ArraySampleStore( newValues, newTimestamps );
     this.absoluteLength = absLength;
   }
 
@@ -265,6 +272,8 @@ public class CapturedData implements AcquisitionResult
       absLength = Math.max( aAbsoluteLength, aTimestamps.get( aTimestamps.size() - 1 ).longValue() );
     }
 
+    final int[] newValues;
+    final long[] newTimestamps;
     if ( !aValues.isEmpty() )
     {
       final int size = aValues.size();
@@ -293,11 +302,11 @@ public class CapturedData implements AcquisitionResult
       }
 
       // 2: copy *only* the unique transitions...
-      this.values = new int[count];
-      this.timestamps = new long[count];
+      newValues = new int[count];
+      newTimestamps = new long[count];
 
-      this.values[0] = aValues.get( 0 ).intValue();
-      this.timestamps[0] = aTimestamps.get( 0 ).longValue();
+      newValues[0] = aValues.get( 0 ).intValue();
+      newTimestamps[0] = aTimestamps.get( 0 ).longValue();
 
       oldValue = aValues.get( 0 );
       for ( int i = 1, j = 1; i < size; i++ )
@@ -306,8 +315,8 @@ public class CapturedData implements AcquisitionResult
         Long timestamp = aTimestamps.get( i );
         if ( value.compareTo( oldValue ) != 0 )
         {
-          this.values[j] = value.intValue();
-          this.timestamps[j] = timestamp.longValue();
+          newValues[j] = value.intValue();
+          newTimestamps[j] = timestamp.longValue();
           j++;
         }
         oldValue = value;
@@ -316,23 +325,95 @@ public class CapturedData implements AcquisitionResult
       // Issue #167: make sure the absolute length is *always* present...
       if ( addExtraSample )
       {
-        this.values[count - 1] = aValues.get( size - 1 ).intValue();
-        this.timestamps[count - 1] = absLength;
+        newValues[count - 1] = aValues.get( size - 1 ).intValue();
+        newTimestamps[count - 1] = absLength;
       }
     }
     else
     {
-      this.values = new int[0];
-      this.timestamps = new long[0];
+      newValues = new int[0];
+      newTimestamps = new long[0];
     }
 
     this.triggerPosition = aTriggerPosition;
     this.rate = aRate;
     this.channels = aChannels;
     this.enabledChannels = aEnabledChannels;
+    this.store = new ArraySampleStore( newValues, newTimestamps );
     this.absoluteLength = aAbsoluteLength;
   }
 
+  /**
+   * Constructs CapturedData based on the given sample store.
+   * <p>
+   * The given sample store is used as-is, hence it should only contain unique
+   * transitions. This constructor allows the use of alternative storage
+   * layouts, such as {@link SampleStores#compact(SampleStore)}.
+   * </p>
+   * 
+   * @param aStore
+   *          the sample store to use, cannot be <code>null</code>;
+   * @param aTriggerPosition
+   *          position of trigger as time value
+   * @param aRate
+   *          sampling rate (may be set to <code>NOT_AVAILABLE</code>)
+   * @param aChannels
+   *          number of used channels
+   * @param aEnabledChannels
+   *          bit mask identifying used channels
+   * @param aAbsLen
+   *          absolute number of samples
+   */
+  public CapturedData( final SampleStore aStore, final long aTriggerPosition, final int aRate, final int aChannels,
+      final int aEnabledChannels, final long aAbsLen )
+  {
+    if ( aStore == null )
+    {
+      throw new IllegalArgumentException( "Sample store cannot be null!" );
+    }
+
+    this.store = aStore;
+    this.triggerPosition = aTriggerPosition;
+    this.rate = aRate;
+    this.channels = aChannels;
+    this.enabledChannels = aEnabledChannels;
+    this.absoluteLength = aAbsLen;
+  }
+
+  /**
+   * Constructs CapturedData by directly adopting the given transitions.
+   * <p>
+   * The given arrays are <b>not</b> copied nor filtered, hence they should
+   * only contain unique transitions and must not be modified afterwards. Used
+   * by {@link CapturedDataBuilder}.
+   * </p>
+   * 
+   * @param aValues
+   *          the unique transition values;
+   * @param aTimestamps
+   *          the timestamps of the unique transitions;
+   * @param aAbsLen
+   *          absolute number of samples;
+   * @param aTriggerPosition
+   *          position of trigger as time value
+   * @param aRate
+   *          sampling rate (may be set to <code>NOT_AVAILABLE</code>)
+   * @param aChannels
+   *          number of used channels
+   * @param aEnabledChannels
+   *          bit mask identifying used channels
+   */
+  CapturedData( final int[] aValues, final long[] aTimestamps, final long aAbsLen, final long aTriggerPosition,
+      final int aRate, final int aChannels, final int aEnabledChannels )
+  {
+    this.store = new ArraySampleStore( aValues, aTimestamps );
+    this.triggerPosition = aTriggerPosition;
+    this.rate = aRate;
+    this.channels = aChannels;
+    this.enabledChannels = aEnabledChannels;
+    this.absoluteLength = aAbsLen;
+  }
+
   /**
    * Provides a binary search for arrays of long-values.
    * <p>
@@ -353,7 +434,7 @@ public class CapturedData implements AcquisitionResult
    *         the value less or equal to the given key.
    * @see Arrays#binarySearch(long[], long)
    */
-  static final int binarySearch( final long[] aArray, final int aFromIndex, final int aToIndex, final Long aKey )
+  static final int binarySearch( final long[] aArray, final int aFromIndex, final int aToIndex, final long aKey )
   {
     int mid = -1;
     int low = aFromIndex;
@@ -362,14 +443,13 @@ public class CapturedData implements AcquisitionResult
     while ( low <= high )
     {
       mid = ( low + high ) >>> 1;
-      final Long midVal = Long.valueOf( aArray[mid] );
+      final long midVal = aArray[mid];
 
-      final int c = aKey.compareTo( midVal );
-      if ( c > 0 )
+      if ( aKey > midVal )
       {
         low = mid + 1;
       }
-      else if ( c < 0 )
+      else if ( aKey < midVal )
       {
         high = mid - 1;
       }
@@ -389,7 +469,7 @@ public class CapturedData implements AcquisitionResult
     {
       // If the searched value is greater than the value of the found index,
       // insert it after this value, otherwise before it (= the last return)...
-      if ( aKey.longValue() > aArray[mid] )
+      if ( aKey > aArray[mid] )
       {
         return mid + 1;
       }
@@ -416,6 +496,53 @@ public class CapturedData implements AcquisitionResult
     return this.channels;
   }
 
+  /**
+   * Returns the channel statistics of this captured data, creating them if
+   * necessary.
+   * 
+   * @return the channel statistics, never <code>null</code>.
+   * @see ChannelStatistics#getInstance(AcquisitionResult)
+   */
+  final ChannelStatistics getChannelStatistics()
+  {
+    ChannelStatistics result = this.statistics;
+    if ( result == null )
+    {
+      synchronized ( this )
+      {
+        result = this.statistics;
+        if ( result == null )
+        {
+          result = this.statistics = new ChannelStatistics( this.store );
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the edge index of this captured data, creating it if necessary.
+   * 
+   * @return the edge index, never <code>null</code>.
+   * @see ChannelEdgeIndex#getInstance(AcquisitionResult)
+   */
+  final ChannelEdgeIndex getEdgeIndex()
+  {
+    ChannelEdgeIndex result = this.edgeIndex;
+    if ( result == null )
+    {
+      synchronized ( this )
+      {
+        result = this.edgeIndex;
+        if ( result == null )
+        {
+          result = this.edgeIndex = new ChannelEdgeIndex( this.store, this.enabledChannels );
+        }
+      }
+    }
+    return result;
+  }
+
   /**
    * @see nl.lxtreme.ols.api.data.CapturedData#getEnabledChannels()
    */
@@ -431,7 +558,7 @@ public class CapturedData implements AcquisitionResult
   @Override
   public final int getSampleIndex( final long abs )
   {
-    return binarySearch( this.timestamps, 0, this.timestamps.length, Long.valueOf( abs ) );
+    return this.store.findIndex( abs );
   }
 
   /**
@@ -443,13 +570,22 @@ public class CapturedData implements AcquisitionResult
     return this.rate;
   }
 
+  /**
+   * @see nl.lxtreme.ols.api.acquisition.AcquisitionResult#getSampleStore()
+   */
+  @Override
+  public final SampleStore getSampleStore()
+  {
+    return this.store;
+  }
+
   /**
    * @see nl.lxtreme.ols.api.data.CapturedData#getTimestamps()
    */
   @Override
   public final long[] getTimestamps()
   {
-    return this.timestamps;
+    return this.store.getTimestamps();
   }
 
   /**
@@ -467,7 +603,7 @@ public class CapturedData implements AcquisitionResult
   @Override
   public final int[] getValues()
   {
-    return this.values;
+    return this.store.getValues();
   }
 
   /**
@@ -0,0 +1,443 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.logging.*;
+
+
+/**
+ * Provides a growable, primitive-backed collector of sample transitions that
+ * can be turned into a {@link CapturedData} instance.
+ * <p>
+ * Only <em>unique</em> transitions are stored: adding a sample value that
+ * equals the previously added value is a no-op, apart from remembering its
+ * timestamp. This way, sample processors can feed their samples directly into
+ * this builder without any boxing or intermediary copies.
+ * </p>
+ * <p>
+ * Optionally, in case the number of transitions grows beyond a given threshold
+ * (see {@link #MAPPED_THRESHOLD}), the transitions are spilled to memory-mapped
+ * scratch files. The built {@link CapturedData} then keeps its transitions
+ * outside the heap. As most consumers still access all transitions through
+ * {@link CapturedData#getValues()} and {@link CapturedData#getTimestamps()},
+ * which copy them back onto the heap, spilling is disabled by default.
+ * </p>
+ * <p>
+ * This class is <b>not</b> thread-safe.
+ * </p>
+ */
+public final class CapturedDataBuilder
+{
+  // CONSTANTS
+
+  private static final Logger LOG = Logger.getLogger( CapturedDataBuilder.class.getName() );
+
+  private static final int DEFAULT_CAPACITY = 1024;
+  /**
+   * Whether or not to use a compact storage layout for the built data, see
+   * {@link SampleStores#compact(int[], long[])}. As consumers that still call
+   * {@link CapturedData#getValues()} would make the compact store materialize
+   * (and cache) all transitions as arrays as well, this is disabled by
+   * default.
+   */
+  private static final boolean COMPACT_STORAGE = Boolean.getBoolean( "nl.lxtreme.ols.compactCaptures" );
+  /**
+   * The number of transitions after which they are spilled to memory-mapped
+   * scratch files, as set by the system property
+   * <tt>nl.lxtreme.ols.mappedCaptureThreshold</tt>. Defaults to 0, meaning
+   * that spilling is disabled.
+   */
+  static final long MAPPED_THRESHOLD = Long.getLong( "nl.lxtreme.ols.mappedCaptureThreshold", 0L ).longValue();
+  /** The number of transitions buffered in memory once spilled to disk. */
+  private static final int SPILL_BUFFER_SIZE = 65536;
+
+  private static final String SCRATCH_DIR_PROPERTY = "nl.lxtreme.ols.scratchDir";
+
+  // VARIABLES
+
+  private final long mappedThreshold;
+
+  private int[] values;
+  private long[] timestamps;
+  private int size;
+  private int lastValue;
+  private long lastTransition;
+  private long lastTimestamp;
+
+  private MappedSampleStore.Writer spillWriter;
+  private long spilled;
+  private IOException spillFailure;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new CapturedDataBuilder instance with a default initial
+   * capacity.
+   */
+  public CapturedDataBuilder()
+  {
+    this( DEFAULT_CAPACITY );
+  }
+
+  /**
+   * Creates a new CapturedDataBuilder instance.
+   *
+   * @param aInitialCapacity
+   *          the initial number of transitions to reserve room for, >= 0.
+   */
+  public CapturedDataBuilder( final int aInitialCapacity )
+  {
+    this( aInitialCapacity, MAPPED_THRESHOLD );
+  }
+
+  /**
+   * Creates a new CapturedDataBuilder instance.
+   *
+   * @param aInitialCapacity
+   *          the initial number of transitions to reserve room for, >= 0;
+   * @param aMappedThreshold
+   *          the number of transitions after which they are spilled to
+   *          memory-mapped scratch files, or <= 0 to never spill.
+   */
+  CapturedDataBuilder( final int aInitialCapacity, final long aMappedThreshold )
+  {
+    if ( aInitialCapacity < 0 )
+    {
+      throw new IllegalArgumentException( "Initial capacity cannot be negative!" );
+    }
+
+    int capacity = aInitialCapacity;
+    if ( ( aMappedThreshold > 0L ) && ( capacity > aMappedThreshold ) )
+    {
+      // No need to reserve more room than we'll ever keep in memory...
+      capacity = ( int )aMappedThreshold;
+    }
+
+    this.mappedThreshold = aMappedThreshold;
+    this.values = new int[Math.max( 2, capacity )];
+    this.timestamps = new long[this.values.length];
+    this.size = 0;
+    this.spilled = 0L;
+    this.lastTimestamp = -1L;
+  }
+
+  // METHODS
+
+  /**
+   * Adds a sample value with its timestamp.
+   * <p>
+   * Timestamps are expected to be added in increasing order. If the given
+   * sample value equals the last added sample value, no new transition is
+   * stored.
+   * </p>
+   *
+   * @param aSampleValue
+   *          the sample value to add;
+   * @param aTimestamp
+   *          the timestamp of the sample value, >= 0.
+   */
+  public void add( final int aSampleValue, final long aTimestamp )
+  {
+    if ( this.spillFailure != null )
+    {
+      // Nothing to do; the failure is reported upon build...
+      return;
+    }
+
+    if ( ( size() == 0 ) || ( this.lastValue != aSampleValue ) )
+    {
+      append( aSampleValue, aTimestamp );
+    }
+
+    this.lastTimestamp = aTimestamp;
+  }
+
+  /**
+   * Creates a new {@link CapturedData} instance from all transitions added to
+   * this builder.
+   * <p>
+   * This yields the same result as
+   * {@link CapturedData#CapturedData(int[], long[], long, int, int, int, long)}
+   * would for the same sequence of samples, but avoids the additional
+   * filtering and copying. After this method returns, this builder is reset
+   * and can be reused.
+   * </p>
+   * <p>
+   * If the system property <tt>nl.lxtreme.ols.compactCaptures</tt> is set to
+   * <tt>true</tt>, the transitions are stored in a compact storage layout.
+   * </p>
+   *
+   * @param aTriggerPosition
+   *          position of trigger as time value;
+   * @param aRate
+   *          sampling rate (may be set to <code>NOT_AVAILABLE</code>);
+   * @param aChannels
+   *          number of used channels;
+   * @param aEnabledChannels
+   *          bit mask identifying used channels;
+   * @param aAbsoluteLength
+   *          absolute number of samples, or a negative value to use the last
+   *          added timestamp.
+   * @return a new {@link CapturedData} instance, never <code>null</code>.
+   * @throws IOException
+   *           in case the transitions could not be spilled to disk, or could
+   *           not be mapped into memory.
+   */
+  public CapturedData build( final long aTriggerPosition, final int aRate, final int aChannels,
+      final int aEnabledChannels, final long aAbsoluteLength ) throws IOException
+  {
+    checkSpillFailure();
+    if ( size() == 0 )
+    {
+      throw new IllegalStateException( "No samples added!" );
+    }
+
+    // Ensure we've got an absolute length available...
+    final long absLength;
+    if ( aAbsoluteLength < 0L )
+    {
+      absLength = this.lastTimestamp;
+    }
+    else
+    {
+      absLength = Math.max( aAbsoluteLength, this.lastTimestamp );
+    }
+
+    // Issue #167: make sure the absolute length is *always* present...
+    if ( ( this.lastTransition != absLength ) || ( size() < 2 ) )
+    {
+      append( this.lastValue, absLength );
+      checkSpillFailure();
+    }
+
+    if ( this.spillWriter != null )
+    {
+      final MappedSampleStore.Writer writer = this.spillWriter;
+      spill();
+      checkSpillFailure();
+
+      reset();
+
+      return new CapturedData( writer.finish(), aTriggerPosition, aRate, aChannels, aEnabledChannels, absLength );
+    }
+
+    final int count = this.size;
+    int[] resultValues = this.values;
+    long[] resultTimestamps = this.timestamps;
+    if ( count != resultValues.length )
+    {
+      resultValues = Arrays.copyOf( resultValues, count );
+      resultTimestamps = Arrays.copyOf( resultTimestamps, count );
+    }
+
+    reset();
+
+    if ( COMPACT_STORAGE )
+    {
+      final SampleStore store = SampleStores.compact( resultValues, resultTimestamps );
+      return new CapturedData( store, aTriggerPosition, aRate, aChannels, aEnabledChannels, absLength );
+    }
+
+    return new CapturedData( resultValues, resultTimestamps, absLength, aTriggerPosition, aRate, aChannels,
+        aEnabledChannels );
+  }
+
+  /**
+   * Ensures that this builder has room for at least the given number of
+   * transitions without having to grow its internal buffers.
+   *
+   * @param aCapacity
+   *          the minimal capacity to ensure.
+   */
+  public void ensureCapacity( final int aCapacity )
+  {
+    if ( ( this.spillWriter == null ) && ( aCapacity > this.values.length ) )
+    {
+      grow( aCapacity );
+    }
+  }
+
+  /**
+   * Returns the timestamp of the last added sample.
+   *
+   * @return a timestamp, or -1L if no samples were added yet.
+   */
+  public long getLastTimestamp()
+  {
+    return this.lastTimestamp;
+  }
+
+  /**
+   * Returns the number of unique transitions currently stored.
+   *
+   * @return a transition count, >= 0.
+   */
+  public int size()
+  {
+    return ( int )( this.spilled + this.size );
+  }
+
+  /**
+   * Appends the given transition, growing the internal buffers or spilling
+   * them to disk if needed.
+   */
+  private void append( final int aSampleValue, final long aTimestamp )
+  {
+    final int idx = this.size;
+    if ( idx == this.values.length )
+    {
+      if ( this.spillWriter != null )
+      {
+        if ( !spill() )
+        {
+          return;
+        }
+      }
+      else if ( ( this.mappedThreshold <= 0L ) || ( idx < this.mappedThreshold ) || !startSpilling() )
+      {
+        grow( idx + 1 );
+      }
+    }
+
+    this.values[this.size] = aSampleValue;
+    this.timestamps[this.size] = aTimestamp;
+    this.size++;
+
+    this.lastValue = aSampleValue;
+    this.lastTransition = aTimestamp;
+  }
+
+  /**
+   * Checks whether spilling the transitions to disk has failed, and if so,
+   * resets this builder and rethrows the failure.
+   */
+  private void checkSpillFailure() throws IOException
+  {
+    final IOException failure = this.spillFailure;
+    if ( failure != null )
+    {
+      reset();
+      throw failure;
+    }
+  }
+
+  /**
+   * Grows the internal buffers to hold at least the given number of
+   * transitions.
+   *
+   * @param aMinCapacity
+   *          the minimal capacity required.
+   */
+  private void grow( final int aMinCapacity )
+  {
+    final int oldCapacity = this.values.length;
+
+    int newCapacity = oldCapacity + ( oldCapacity >> 1 );
+    if ( ( newCapacity < aMinCapacity ) || ( newCapacity < 0 ) )
+    {
+      newCapacity = aMinCapacity;
+    }
+    // Do not grow beyond the point at which we start spilling to disk...
+    if ( ( this.mappedThreshold > 0L ) && ( newCapacity > this.mappedThreshold )
+        && ( aMinCapacity <= this.mappedThreshold ) )
+    {
+      newCapacity = ( int )this.mappedThreshold;
+    }
+
+    this.values = Arrays.copyOf( this.values, newCapacity );
+    this.timestamps = Arrays.copyOf( this.timestamps, newCapacity );
+  }
+
+  /**
+   * Resets this builder to its initial state.
+   */
+  private void reset()
+  {
+    this.values = new int[DEFAULT_CAPACITY];
+    this.timestamps = new long[DEFAULT_CAPACITY];
+    this.size = 0;
+    this.spilled = 0L;
+    this.spillWriter = null;
+    this.spillFailure = null;
+    this.lastTimestamp = -1L;
+  }
+
+  /**
+   * Writes all buffered transitions to the scratch files. In case this fails,
+   * all transitions are discarded and the failure is remembered to be
+   * reported upon build.
+   *
+   * @return <code>true</code> if the transitions were written successfully,
+   *         <code>false</code> otherwise.
+   */
+  private boolean spill()
+  {
+    try
+    {
+      this.spillWriter.write( this.values, this.timestamps, this.size );
+
+      this.spilled += this.size;
+      this.size = 0;
+      return true;
+    }
+    catch ( IOException exception )
+    {
+      this.spillWriter.abort();
+      reset();
+
+      this.spillFailure = exception;
+      return false;
+    }
+  }
+
+  /**
+   * Starts spilling all transitions to memory-mapped scratch files.
+   *
+   * @return <code>true</code> if spilling is started, <code>false</code> if
+   *         the transitions should be kept in memory instead.
+   */
+  private boolean startSpilling()
+  {
+    final String tmpDir = System.getProperty( "java.io.tmpdir" );
+    final File scratchDir = new File( System.getProperty( SCRATCH_DIR_PROPERTY, tmpDir ) );
+
+    try
+    {
+      this.spillWriter = new MappedSampleStore.Writer( scratchDir );
+    }
+    catch ( IOException exception )
+    {
+      LOG.log( Level.WARNING, "Failed to create scratch files; keeping all samples in memory!", exception );
+      return false;
+    }
+
+    if ( spill() )
+    {
+      // From now on, only use small buffers...
+      this.values = new int[SPILL_BUFFER_SIZE];
+      this.timestamps = new long[SPILL_BUFFER_SIZE];
+    }
+    return true;
+  }
+}
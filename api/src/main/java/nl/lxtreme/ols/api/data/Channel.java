@@ -41,6 +41,15 @@ public interface Channel extends Comparable<Channel>
    */
   void addAnnotation( Annotation<?> aAnnotation );
 
+  /**
+   * Adds all given annotations to this channel, which is more efficient than
+   * adding them one by one.
+   * 
+   * @param aAnnotations
+   *          the annotations to add, cannot be <code>null</code>.
+   */
+  void addAnnotations( Collection<? extends Annotation<?>> aAnnotations );
+
   /**
    * Clears all annotations from this channel.
    */
@@ -54,6 +63,46 @@ public interface Channel extends Comparable<Channel>
    */
   Collection<Annotation<?>> getAnnotations();
 
+  /**
+   * Returns a counter that changes each time the annotations of this channel
+   * are added or cleared.
+   * 
+   * @return an annotation modification count.
+   */
+  int getAnnotationModificationCount();
+
+  /**
+   * Returns the first data annotation that starts at or after the given
+   * timestamp.
+   * 
+   * @param aTimestamp
+   *          the timestamp to search from.
+   * @return the found data annotation, or <code>null</code> if not found.
+   */
+  DataAnnotation<?> getDataAnnotationAfter( long aTimestamp );
+
+  /**
+   * Returns the last data annotation that starts and ends before the given
+   * timestamp.
+   * 
+   * @param aTimestamp
+   *          the timestamp to search from.
+   * @return the found data annotation, or <code>null</code> if not found.
+   */
+  DataAnnotation<?> getDataAnnotationBefore( long aTimestamp );
+
+  /**
+   * Returns all data annotations that overlap the given time interval.
+   * 
+   * @param aStartTime
+   *          the start timestamp of the interval (inclusive);
+   * @param aEndTime
+   *          the end timestamp of the interval (inclusive).
+   * @return a list with data annotations, sorted on their start timestamp,
+   *         never <code>null</code>.
+   */
+  List<DataAnnotation<?>> getDataAnnotations( long aStartTime, long aEndTime );
+
   /**
    * Returns the index of this channel.
    * 
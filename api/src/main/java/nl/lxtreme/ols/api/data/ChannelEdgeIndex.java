@@ -0,0 +1,586 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import nl.lxtreme.ols.api.*;
+import nl.lxtreme.ols.api.acquisition.*;
+
+
+/**
+ * Provides an index of the edges of each individual channel of an acquisition
+ * result.
+ * <p>
+ * For each channel, the index holds the (sorted) indices of all transitions on
+ * which the value of that channel changes. This allows questions like "where
+ * is the next edge of channel X" to be answered with a binary search, instead
+ * of a linear scan over all transitions, which is especially costly for
+ * channels that rarely change in large acquisitions.
+ * </p>
+ * <p>
+ * The index is built lazily, upon first use, for all enabled channels in
+ * parallel, directly from the sample store of the acquisition result. Use
+ * {@link #getInstance(AcquisitionResult)} to obtain the (cached) index of an
+ * acquisition result.
+ * </p>
+ * <p>
+ * In addition, the cumulative time a channel is high is recorded for every
+ * {@value #CHECKPOINT_INTERVAL}th edge, allowing the pulse statistics between
+ * any two transitions to be determined with two binary searches and a short
+ * scan, see {@link #getPulseStatistics(int, int, int)}.
+ * </p>
+ */
+public final class ChannelEdgeIndex
+{
+  // INNER TYPES
+
+  /**
+   * Collects the edges of a single channel.
+   */
+  static final class EdgeCollector extends RecursiveAction
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // VARIABLES
+
+    private final SampleStore store;
+    private final int channelIdx;
+
+    int[] result;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new EdgeCollector instance.
+     */
+    EdgeCollector( final SampleStore aStore, final int aChannelIdx )
+    {
+      this.store = aStore;
+      this.channelIdx = aChannelIdx;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void compute()
+    {
+      final SampleStore s = this.store;
+      final int size = s.size();
+      final int mask = ( 1 << this.channelIdx );
+
+      // 1: count the number of edges...
+      int count = 0;
+      int prevValue = ( size > 0 ) ? s.getValue( 0 ) : 0;
+      for ( int i = 1; i < size; i++ )
+      {
+        final int value = s.getValue( i );
+        if ( ( ( value ^ prevValue ) & mask ) != 0 )
+        {
+          count++;
+        }
+        prevValue = value;
+      }
+
+      // 2: collect them...
+      final int[] edges = new int[count];
+      prevValue = ( size > 0 ) ? s.getValue( 0 ) : 0;
+      for ( int i = 1, j = 0; j < count; i++ )
+      {
+        final int value = s.getValue( i );
+        if ( ( ( value ^ prevValue ) & mask ) != 0 )
+        {
+          edges[j++] = i;
+        }
+        prevValue = value;
+      }
+
+      this.result = edges;
+    }
+  }
+
+  /**
+   * Provides the edge counts and high/low times of a channel between two
+   * transitions.
+   */
+  public static final class PulseStatistics
+  {
+    // VARIABLES
+
+    private final int risingEdgeCount;
+    private final int fallingEdgeCount;
+    private final long lowTime;
+    private final long highTime;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new PulseStatistics instance.
+     */
+    PulseStatistics( final int aRisingEdgeCount, final int aFallingEdgeCount, final long aLowTime,
+        final long aHighTime )
+    {
+      this.risingEdgeCount = aRisingEdgeCount;
+      this.fallingEdgeCount = aFallingEdgeCount;
+      this.lowTime = aLowTime;
+      this.highTime = aHighTime;
+    }
+
+    // METHODS
+
+    /**
+     * @return the number of falling edges, >= 0.
+     */
+    public int getFallingEdgeCount()
+    {
+      return this.fallingEdgeCount;
+    }
+
+    /**
+     * Returns the total time the channel was high, measured from the start
+     * transition (or previous edge) up to each falling edge.
+     * 
+     * @return the total high time, in sample ticks, >= 0.
+     */
+    public long getHighTime()
+    {
+      return this.highTime;
+    }
+
+    /**
+     * Returns the total time the channel was low, measured from the start
+     * transition (or previous edge) up to each rising edge.
+     * 
+     * @return the total low time, in sample ticks, >= 0.
+     */
+    public long getLowTime()
+    {
+      return this.lowTime;
+    }
+
+    /**
+     * @return the number of rising edges, >= 0.
+     */
+    public int getRisingEdgeCount()
+    {
+      return this.risingEdgeCount;
+    }
+  }
+
+  // CONSTANTS
+
+  /** The number of edges between two recorded cumulative high times. */
+  static final int CHECKPOINT_INTERVAL = 64;
+
+  /** Caches the indices of acquisition results other than CapturedData. */
+  private static final Map<AcquisitionResult, ChannelEdgeIndex> CACHE = new WeakHashMap<AcquisitionResult, ChannelEdgeIndex>();
+
+  // VARIABLES
+
+  private final SampleStore store;
+  private final int enabledChannels;
+  private final int[][] edges;
+  private final long[][] highTimes;
+
+  private volatile boolean built;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new ChannelEdgeIndex instance.
+   * 
+   * @param aStore
+   *          the sample store to create the index for, cannot be
+   *          <code>null</code>;
+   * @param aEnabledChannels
+   *          the enabled channels mask, whose edges are indexed upfront.
+   */
+  ChannelEdgeIndex( final SampleStore aStore, final int aEnabledChannels )
+  {
+    this.store = aStore;
+    this.enabledChannels = aEnabledChannels;
+    this.edges = new int[Ols.MAX_CHANNELS][];
+    this.highTimes = new long[Ols.MAX_CHANNELS][];
+  }
+
+  // METHODS
+
+  /**
+   * Returns the edge index for the given acquisition result.
+   * <p>
+   * The edge index is cached with the acquisition result, so subsequent calls
+   * for the same acquisition result return the same index.
+   * </p>
+   * 
+   * @param aData
+   *          the acquisition result to return the edge index for, cannot be
+   *          <code>null</code>.
+   * @return the edge index, never <code>null</code>.
+   */
+  public static ChannelEdgeIndex getInstance( final AcquisitionResult aData )
+  {
+    if ( aData instanceof CapturedData )
+    {
+      return ( ( CapturedData )aData ).getEdgeIndex();
+    }
+
+    synchronized ( CACHE )
+    {
+      ChannelEdgeIndex result = CACHE.get( aData );
+      if ( result == null )
+      {
+        // Do not refer to the acquisition result itself, as that would keep
+        // it (weakly referenced as key) strongly reachable...
+        final SampleStore store = aData.getSampleStore();
+        result = new ChannelEdgeIndex( store, aData.getEnabledChannels() );
+        CACHE.put( aData, result );
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns the index of the first transition after the given transition
+   * index on which the given channel changes its value.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32;
+   * @param aSampleIdx
+   *          the transition index to search from (exclusive).
+   * @return the index of the found transition, or -1 if no such transition
+   *         exists.
+   */
+  public int findEdgeAfter( final int aChannelIdx, final int aSampleIdx )
+  {
+    final int[] channelEdges = getEdges( aChannelIdx );
+    final int pos = countEdges( channelEdges, aSampleIdx );
+    return ( pos < channelEdges.length ) ? channelEdges[pos] : -1;
+  }
+
+  /**
+   * Returns the index of the last transition at or before the given
+   * transition index on which the given channel changes its value.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32;
+   * @param aSampleIdx
+   *          the transition index to search from (inclusive).
+   * @return the index of the found transition, or -1 if no such transition
+   *         exists.
+   */
+  public int findEdgeBefore( final int aChannelIdx, final int aSampleIdx )
+  {
+    final int[] channelEdges = getEdges( aChannelIdx );
+    final int pos = countEdges( channelEdges, aSampleIdx );
+    return ( pos > 0 ) ? channelEdges[pos - 1] : -1;
+  }
+
+  /**
+   * Returns the (sorted) indices of all transitions on which the given channel
+   * changes its value.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32.
+   * @return an array with transition indices, never <code>null</code>. The
+   *         returned array should <b>not</b> be modified.
+   */
+  public int[] getEdges( final int aChannelIdx )
+  {
+    if ( ( aChannelIdx < 0 ) || ( aChannelIdx >= Ols.MAX_CHANNELS ) )
+    {
+      throw new IllegalArgumentException( "Invalid channel index: " + aChannelIdx );
+    }
+
+    if ( !this.built )
+    {
+      buildIndex();
+    }
+
+    synchronized ( this.edges )
+    {
+      int[] result = this.edges[aChannelIdx];
+      if ( result == null )
+      {
+        // Channel is not enabled, and therefore not indexed yet...
+        final EdgeCollector collector = new EdgeCollector( this.store, aChannelIdx );
+        collector.compute();
+        result = this.edges[aChannelIdx] = collector.result;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns the (sorted) indices of all transitions in the given range on
+   * which at least one of the given channels changes its value.
+   * <p>
+   * This allows decoders to skip all transitions on which only unrelated
+   * channels change, without having to test the value of each transition.
+   * </p>
+   * 
+   * @param aChannelMask
+   *          the mask of the channels to return the transitions for;
+   * @param aStartIdx
+   *          the first transition index to return (inclusive);
+   * @param aEndIdx
+   *          the last transition index to return (exclusive).
+   * @return an array with transition indices, never <code>null</code>.
+   */
+  public int[] getTransitions( final int aChannelMask, final int aStartIdx, final int aEndIdx )
+  {
+    final int channelCount = Integer.bitCount( aChannelMask );
+    final int[][] channelEdges = new int[channelCount][];
+    final int[] positions = new int[channelCount];
+    final int[] limits = new int[channelCount];
+
+    int size = 0;
+    for ( int ch = 0, i = 0; i < channelCount; ch++ )
+    {
+      if ( ( aChannelMask & ( 1 << ch ) ) != 0 )
+      {
+        channelEdges[i] = getEdges( ch );
+        positions[i] = countEdges( channelEdges[i], aStartIdx - 1 );
+        limits[i] = countEdges( channelEdges[i], aEndIdx - 1 );
+        size += Math.max( 0, limits[i] - positions[i] );
+        i++;
+      }
+    }
+
+    // Merge the edges of all channels, taking care of channels that change at
+    // the same transition...
+    final int[] result = new int[size];
+    int count = 0;
+    for ( ;; )
+    {
+      int next = Integer.MAX_VALUE;
+      for ( int i = 0; i < channelCount; i++ )
+      {
+        if ( ( positions[i] < limits[i] ) && ( channelEdges[i][positions[i]] < next ) )
+        {
+          next = channelEdges[i][positions[i]];
+        }
+      }
+      if ( next == Integer.MAX_VALUE )
+      {
+        break;
+      }
+
+      for ( int i = 0; i < channelCount; i++ )
+      {
+        if ( ( positions[i] < limits[i] ) && ( channelEdges[i][positions[i]] == next ) )
+        {
+          positions[i]++;
+        }
+      }
+      result[count++] = next;
+    }
+
+    return ( count == size ) ? result : Arrays.copyOf( result, count );
+  }
+
+  /**
+   * Returns the pulse statistics of the given channel between two transitions.
+   * <p>
+   * This yields the same results as walking all transitions from the start
+   * index up to and including the end index, and accumulating the time
+   * between each edge (or the start transition, for the first edge) as either
+   * low time (for rising edges) or high time (for falling edges).
+   * </p>
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32;
+   * @param aStartIdx
+   *          the transition index to start measuring at (exclusive);
+   * @param aEndIdx
+   *          the transition index to stop measuring at (inclusive).
+   * @return the pulse statistics, never <code>null</code>.
+   */
+  public PulseStatistics getPulseStatistics( final int aChannelIdx, final int aStartIdx, final int aEndIdx )
+  {
+    final int[] channelEdges = getEdges( aChannelIdx );
+
+    final int first = countEdges( channelEdges, aStartIdx );
+    final int last = countEdges( channelEdges, aEndIdx ) - 1;
+    if ( first > last )
+    {
+      return new PulseStatistics( 0, 0, 0L, 0L );
+    }
+
+    final long[] channelHighTimes = getHighTimes( aChannelIdx, channelEdges );
+
+    final int count = last - first + 1;
+    final boolean firstRising = isRisingEdge( aChannelIdx, channelEdges, first );
+    final int risingEdgeCount = firstRising ? ( ( count + 1 ) / 2 ) : ( count / 2 );
+
+    // The time between the edges that follow the first edge is taken from the
+    // cumulative times, the time before the first edge is taken from the start
+    // transition...
+    final long firstTime = this.store.getTimestamp( channelEdges[first] );
+    final long totalTime = this.store.getTimestamp( channelEdges[last] ) - firstTime;
+    long highTime = getCumulativeHighTime( aChannelIdx, channelEdges, channelHighTimes, last )
+        - getCumulativeHighTime( aChannelIdx, channelEdges, channelHighTimes, first );
+    long lowTime = totalTime - highTime;
+
+    final long firstPeriod = firstTime - this.store.getTimestamp( aStartIdx );
+    if ( firstRising )
+    {
+      lowTime += firstPeriod;
+    }
+    else
+    {
+      highTime += firstPeriod;
+    }
+
+    return new PulseStatistics( risingEdgeCount, count - risingEdgeCount, lowTime, highTime );
+  }
+
+  /**
+   * Returns the number of edges at or before the given transition index.
+   */
+  private static int countEdges( final int[] aEdges, final int aSampleIdx )
+  {
+    int low = 0;
+    int high = aEdges.length;
+    while ( low < high )
+    {
+      final int mid = ( low + high ) >>> 1;
+      if ( aEdges[mid] <= aSampleIdx )
+      {
+        low = mid + 1;
+      }
+      else
+      {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Builds the index for all enabled channels, in parallel.
+   */
+  private void buildIndex()
+  {
+    synchronized ( this.edges )
+    {
+      if ( this.built )
+      {
+        return;
+      }
+
+      final List<EdgeCollector> collectors = new ArrayList<EdgeCollector>();
+      for ( int i = 0; i < Ols.MAX_CHANNELS; i++ )
+      {
+        if ( ( this.enabledChannels & ( 1 << i ) ) != 0 )
+        {
+          collectors.add( new EdgeCollector( this.store, i ) );
+        }
+      }
+
+      ForkJoinPool.commonPool().invoke( new RecursiveAction()
+      {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute()
+        {
+          invokeAll( collectors );
+        }
+      } );
+
+      for ( EdgeCollector collector : collectors )
+      {
+        this.edges[collector.channelIdx] = collector.result;
+      }
+
+      this.built = true;
+    }
+  }
+
+  /**
+   * Returns the total time the channel was high between the first edge and
+   * the edge with the given number.
+   */
+  private long getCumulativeHighTime( final int aChannelIdx, final int[] aEdges, final long[] aHighTimes,
+      final int aEdgeNo )
+  {
+    final int checkpoint = aEdgeNo / CHECKPOINT_INTERVAL;
+
+    long result = aHighTimes[checkpoint];
+    for ( int i = checkpoint * CHECKPOINT_INTERVAL + 1; i <= aEdgeNo; i++ )
+    {
+      if ( !isRisingEdge( aChannelIdx, aEdges, i ) )
+      {
+        result += this.store.getTimestamp( aEdges[i] ) - this.store.getTimestamp( aEdges[i - 1] );
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the cumulative high times of the given channel, recorded at every
+   * {@link #CHECKPOINT_INTERVAL}th edge.
+   */
+  private long[] getHighTimes( final int aChannelIdx, final int[] aEdges )
+  {
+    synchronized ( this.highTimes )
+    {
+      long[] result = this.highTimes[aChannelIdx];
+      if ( result == null )
+      {
+        result = new long[( aEdges.length + CHECKPOINT_INTERVAL - 1 ) / CHECKPOINT_INTERVAL];
+
+        boolean rising = ( aEdges.length > 0 ) && isRisingEdge( aChannelIdx, aEdges, 0 );
+        long highTime = 0L;
+        for ( int i = 1; i < aEdges.length; i++ )
+        {
+          rising = !rising;
+          if ( !rising )
+          {
+            highTime += this.store.getTimestamp( aEdges[i] ) - this.store.getTimestamp( aEdges[i - 1] );
+          }
+          if ( ( i % CHECKPOINT_INTERVAL ) == 0 )
+          {
+            result[i / CHECKPOINT_INTERVAL] = highTime;
+          }
+        }
+
+        this.highTimes[aChannelIdx] = result;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns whether the edge with the given number is a rising edge.
+   */
+  private boolean isRisingEdge( final int aChannelIdx, final int[] aEdges, final int aEdgeNo )
+  {
+    return ( this.store.getValue( aEdges[aEdgeNo] ) & ( 1 << aChannelIdx ) ) != 0;
+  }
+}
@@ -0,0 +1,465 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import nl.lxtreme.ols.api.*;
+import nl.lxtreme.ols.api.acquisition.*;
+import nl.lxtreme.ols.api.util.*;
+
+
+/**
+ * Provides the statistics of all channels of an acquisition result,
+ * such as the number of edges, the distribution of pulse widths and the idle
+ * level of each channel.
+ * <p>
+ * The statistics of all channels are gathered in a single pass over the
+ * acquisition result, which is split up in chunks that are scanned in parallel
+ * on the common fork/join pool. The chunks are read directly from the sample
+ * store of the acquisition result, so the scan never materializes all samples
+ * as arrays. The scan is started as soon as the statistics are created, so tools can use its results (for example, to determine the
+ * baud rate of a serial line, or the clock line of a bus) without having to
+ * scan the acquisition result themselves. Use
+ * {@link #getInstance(AcquisitionResult)} to obtain the (cached) statistics of
+ * an acquisition result.
+ * </p>
+ */
+public final class ChannelStatistics
+{
+  // INNER TYPES
+
+  /**
+   * Scans a range of transitions for the edges of all channels.
+   */
+  static final class Scanner extends RecursiveTask<Scanner>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // VARIABLES
+
+    private SampleStore store;
+    private final int startIdx;
+    private final int endIdx;
+
+    final IntFrequency[] pulseWidths;
+    final int[] edgeCounts;
+    final long[] highTimes;
+    final long[] firstEdges;
+    final long[] lastEdges;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new Scanner instance.
+     * 
+     * @param aStore
+     *          the sample store to scan;
+     * @param aStartIdx
+     *          the first transition index (inclusive);
+     * @param aEndIdx
+     *          the last transition index (inclusive).
+     */
+    Scanner( final SampleStore aStore, final int aStartIdx, final int aEndIdx )
+    {
+      this.store = aStore;
+      this.startIdx = aStartIdx;
+      this.endIdx = aEndIdx;
+
+      this.pulseWidths = new IntFrequency[Ols.MAX_CHANNELS];
+      this.edgeCounts = new int[Ols.MAX_CHANNELS];
+      this.highTimes = new long[Ols.MAX_CHANNELS];
+      this.firstEdges = new long[Ols.MAX_CHANNELS];
+      this.lastEdges = new long[Ols.MAX_CHANNELS];
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Scanner compute()
+    {
+      try
+      {
+        if ( ( this.endIdx - this.startIdx ) > SCAN_CHUNK_SIZE )
+        {
+          final int midIdx = ( this.startIdx + this.endIdx ) >>> 1;
+
+          final Scanner left = new Scanner( this.store, this.startIdx, midIdx );
+          final Scanner right = new Scanner( this.store, midIdx, this.endIdx );
+          invokeAll( left, right );
+
+          return left.join().merge( right.join() );
+        }
+
+        scan();
+        return this;
+      }
+      finally
+      {
+        // The (cached) result of the scan should not keep the samples
+        // reachable...
+        this.store = null;
+      }
+    }
+
+    /**
+     * Merges the results of the given scanner, which scanned the range
+     * directly following the range of this scanner, into this scanner.
+     * 
+     * @return this scanner.
+     */
+    private Scanner merge( final Scanner aNext )
+    {
+      for ( int ch = 0; ch < Ols.MAX_CHANNELS; ch++ )
+      {
+        // The pulse between the last edge of our range and the first edge of
+        // the next range is not seen by either scanner...
+        if ( ( this.lastEdges[ch] != NO_EDGE ) && ( aNext.firstEdges[ch] != NO_EDGE ) )
+        {
+          getPulseWidths( ch ).addValue( toPulseWidth( aNext.firstEdges[ch] - this.lastEdges[ch] ) );
+        }
+        if ( aNext.pulseWidths[ch] != null )
+        {
+          getPulseWidths( ch ).merge( aNext.pulseWidths[ch] );
+        }
+
+        this.edgeCounts[ch] += aNext.edgeCounts[ch];
+        this.highTimes[ch] += aNext.highTimes[ch];
+
+        if ( this.firstEdges[ch] == NO_EDGE )
+        {
+          this.firstEdges[ch] = aNext.firstEdges[ch];
+        }
+        if ( aNext.lastEdges[ch] != NO_EDGE )
+        {
+          this.lastEdges[ch] = aNext.lastEdges[ch];
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Returns the pulse width distribution of the given channel, creating it
+     * if necessary.
+     */
+    private IntFrequency getPulseWidths( final int aChannelIdx )
+    {
+      IntFrequency result = this.pulseWidths[aChannelIdx];
+      if ( result == null )
+      {
+        result = this.pulseWidths[aChannelIdx] = new IntFrequency();
+      }
+      return result;
+    }
+
+    /**
+     * Scans the range of this scanner.
+     */
+    private void scan()
+    {
+      final SampleStore s = this.store;
+
+      Arrays.fill( this.firstEdges, NO_EDGE );
+      Arrays.fill( this.lastEdges, NO_EDGE );
+
+      if ( s.size() == 0 )
+      {
+        return;
+      }
+
+      // The time of the last edge of each channel, or the start of our range
+      // if no edge is seen yet...
+      final long[] lastTimes = new long[Ols.MAX_CHANNELS];
+      Arrays.fill( lastTimes, s.getTimestamp( this.startIdx ) );
+
+      int prevValue = s.getValue( this.startIdx );
+      for ( int i = this.startIdx + 1; i <= this.endIdx; i++ )
+      {
+        final int value = s.getValue( i );
+        // Determine which channels toggled at once...
+        int changed = value ^ prevValue;
+        prevValue = value;
+        if ( changed == 0 )
+        {
+          continue;
+        }
+
+        final long time = s.getTimestamp( i );
+        while ( changed != 0 )
+        {
+          final int ch = Integer.numberOfTrailingZeros( changed );
+          changed &= ( changed - 1 );
+
+          if ( this.lastEdges[ch] == NO_EDGE )
+          {
+            this.firstEdges[ch] = time;
+          }
+          else
+          {
+            getPulseWidths( ch ).addValue( toPulseWidth( time - this.lastEdges[ch] ) );
+          }
+          if ( ( value & ( 1 << ch ) ) == 0 )
+          {
+            // Falling edge: the channel was high until now...
+            this.highTimes[ch] += time - lastTimes[ch];
+          }
+
+          this.edgeCounts[ch]++;
+          this.lastEdges[ch] = time;
+          lastTimes[ch] = time;
+        }
+      }
+
+      final int high = prevValue;
+      final long endTime = s.getTimestamp( this.endIdx );
+      for ( int ch = 0; ch < Ols.MAX_CHANNELS; ch++ )
+      {
+        if ( ( high & ( 1 << ch ) ) != 0 )
+        {
+          this.highTimes[ch] += endTime - lastTimes[ch];
+        }
+      }
+    }
+  }
+
+  // CONSTANTS
+
+  /** The number of transitions scanned by a single task. */
+  static final int SCAN_CHUNK_SIZE = 1 << 16;
+
+  /** The minimal number of edges a clock line should have. */
+  static final int CLOCK_MIN_EDGES = 16;
+  /** The minimal fraction of pulses with the dominant width for a clock line. */
+  static final double CLOCK_MIN_RATIO = 0.75;
+
+  private static final long NO_EDGE = Long.MIN_VALUE;
+
+  /** Caches the statistics of acquisition results other than CapturedData. */
+  private static final Map<AcquisitionResult, ChannelStatistics> CACHE = new WeakHashMap<AcquisitionResult, ChannelStatistics>();
+
+  // VARIABLES
+
+  private final long totalTime;
+  private final ForkJoinTask<Scanner> scan;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new ChannelStatistics instance, and starts scanning the given
+   * sample store in the background. This constructor does not access the
+   * samples themselves, so it can be used on any thread.
+   * 
+   * @param aStore
+   *          the sample store to create the statistics for, cannot be
+   *          <code>null</code>;
+   */
+  ChannelStatistics( final SampleStore aStore )
+  {
+    final int size = aStore.size();
+    final int lastIdx = Math.max( 0, size - 1 );
+
+    this.totalTime = ( size > 0 ) ? ( aStore.getTimestamp( lastIdx ) - aStore.getTimestamp( 0 ) ) : 0L;
+    this.scan = ForkJoinPool.commonPool().submit( new Scanner( aStore, 0, lastIdx ) );
+  }
+
+  // METHODS
+
+  /**
+   * Returns the channel statistics for the given acquisition result.
+   * <p>
+   * The statistics are cached with the acquisition result, so subsequent calls
+   * for the same acquisition result return the same statistics. The first call
+   * starts gathering the statistics in the background, allowing it to be used
+   * to "warm up" the statistics as soon as an acquisition result becomes
+   * available.
+   * </p>
+   * 
+   * @param aData
+   *          the acquisition result to return the statistics for, cannot be
+   *          <code>null</code>.
+   * @return the channel statistics, never <code>null</code>.
+   */
+  public static ChannelStatistics getInstance( final AcquisitionResult aData )
+  {
+    if ( aData instanceof CapturedData )
+    {
+      return ( ( CapturedData )aData ).getChannelStatistics();
+    }
+
+    synchronized ( CACHE )
+    {
+      ChannelStatistics result = CACHE.get( aData );
+      if ( result == null )
+      {
+        // Do not refer to the acquisition result itself, as that would keep
+        // it (weakly referenced as key) strongly reachable...
+        final SampleStore store = aData.getSampleStore();
+        result = new ChannelStatistics( store );
+        CACHE.put( aData, result );
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Converts a given pulse width to an integer value.
+   */
+  static int toPulseWidth( final long aWidth )
+  {
+    return ( int )Math.min( aWidth, Integer.MAX_VALUE );
+  }
+
+  /**
+   * Returns the number of edges of the given channel.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32.
+   * @return the number of edges, >= 0.
+   */
+  public int getEdgeCount( final int aChannelIdx )
+  {
+    return getScanResult( aChannelIdx ).edgeCounts[aChannelIdx];
+  }
+
+  /**
+   * Returns the total time the given channel is high.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32.
+   * @return the high time, in sample ticks, >= 0.
+   */
+  public long getHighTime( final int aChannelIdx )
+  {
+    return getScanResult( aChannelIdx ).highTimes[aChannelIdx];
+  }
+
+  /**
+   * Returns the idle level of the given channel, which is the level the
+   * channel has for most of the time.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32.
+   * @return the idle level, either 0 (low) or 1 (high).
+   */
+  public int getIdleLevel( final int aChannelIdx )
+  {
+    final long highTime = getHighTime( aChannelIdx );
+    return ( highTime > ( this.totalTime - highTime ) ) ? 1 : 0;
+  }
+
+  /**
+   * Returns the channel that is most likely a clock line, which is the clock
+   * like channel with the most edges.
+   * 
+   * @return the index of the most likely clock channel, or -1 if no channel
+   *         looks like a clock line.
+   * @see #isClockLike(int)
+   */
+  public int getLikelyClockChannel()
+  {
+    int result = -1;
+    for ( int ch = 0; ch < Ols.MAX_CHANNELS; ch++ )
+    {
+      if ( isClockLike( ch ) && ( ( result < 0 ) || ( getEdgeCount( ch ) > getEdgeCount( result ) ) ) )
+      {
+        result = ch;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the distribution of the widths of the pulses of the given channel,
+   * that is, the time between two consecutive edges.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32.
+   * @return a copy of the pulse width distribution, in sample ticks, never
+   *         <code>null</code>.
+   */
+  public IntFrequency getPulseWidths( final int aChannelIdx )
+  {
+    return new IntFrequency( getPulseWidthsInternal( aChannelIdx ) );
+  }
+
+  /**
+   * Returns whether the given channel looks like a clock line, that is, it has
+   * a reasonable number of edges, and most of its pulses are (about) as wide
+   * as its most frequent pulse width.
+   * 
+   * @param aChannelIdx
+   *          the index of the channel, >= 0 && < 32.
+   * @return <code>true</code> if the given channel looks like a clock line,
+   *         <code>false</code> otherwise.
+   */
+  public boolean isClockLike( final int aChannelIdx )
+  {
+    if ( getEdgeCount( aChannelIdx ) < CLOCK_MIN_EDGES )
+    {
+      return false;
+    }
+
+    final IntFrequency widths = getPulseWidthsInternal( aChannelIdx );
+    final int dominantWidth = widths.getHighestRanked();
+    final double min = dominantWidth * 0.75;
+    final double max = dominantWidth * 1.25;
+
+    long count = 0L;
+    for ( final int width : widths.values() )
+    {
+      if ( ( min < width ) && ( width < max ) )
+      {
+        count += widths.getCount( width );
+      }
+    }
+
+    return count >= ( CLOCK_MIN_RATIO * widths.getTotalCount() );
+  }
+
+  /**
+   * Returns the pulse width distribution of the given channel, without copying
+   * it.
+   */
+  private IntFrequency getPulseWidthsInternal( final int aChannelIdx )
+  {
+    final IntFrequency result = getScanResult( aChannelIdx ).pulseWidths[aChannelIdx];
+    return ( result == null ) ? new IntFrequency( 0 ) : result;
+  }
+
+  /**
+   * Waits until the scan is finished and returns its results.
+   */
+  private Scanner getScanResult( final int aChannelIdx )
+  {
+    if ( ( aChannelIdx < 0 ) || ( aChannelIdx >= Ols.MAX_CHANNELS ) )
+    {
+      throw new IllegalArgumentException( "Invalid channel index: " + aChannelIdx );
+    }
+    return this.scan.join();
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import java.lang.ref.*;
+
+
+/**
+ * Provides a {@link SampleStore} that uses a compact storage layout for its
+ * transitions.
+ * <p>
+ * Sample values are stored in the smallest possible primitive type (byte,
+ * short or int) after stripping the trailing bits that are zero for all
+ * values, making 8- and 16-channel captures take up only one or two bytes per
+ * value. Timestamps are stored as 64-bit checkpoints for every
+ * {@value #CHECKPOINT_INTERVAL} transitions, together with an unsigned 16- or
+ * 32-bit offset to its checkpoint for each transition. Only if these offsets
+ * do not fit in 32-bits, the timestamps are stored as-is.
+ * </p>
+ * <p>
+ * Random access to the individual transitions is possible without
+ * materializing any arrays. The arrays returned by {@link #getValues()} and
+ * {@link #getTimestamps()} are created on demand and softly cached.
+ * </p>
+ */
+final class CompactSampleStore implements SampleStore
+{
+  // CONSTANTS
+
+  static final int CHECKPOINT_SHIFT = 6;
+  static final int CHECKPOINT_INTERVAL = 1 << CHECKPOINT_SHIFT;
+
+  // VARIABLES
+
+  private final int size;
+
+  private final int valueShift;
+  private final byte[] byteValues;
+  private final short[] shortValues;
+  private final int[] intValues;
+
+  private final long[] checkpoints;
+  private final char[] shortOffsets;
+  private final int[] intOffsets;
+  private final long[] longTimestamps;
+
+  private volatile SoftReference<int[]> valuesRef;
+  private volatile SoftReference<long[]> timestampsRef;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new CompactSampleStore instance.
+   * 
+   * @param aValues
+   *          the sample values of the transitions, cannot be <code>null</code>;
+   * @param aTimestamps
+   *          the timestamps of the transitions, in increasing order, cannot be
+   *          <code>null</code>.
+   */
+  public CompactSampleStore( final int[] aValues, final long[] aTimestamps )
+  {
+    if ( aValues.length != aTimestamps.length )
+    {
+      throw new IllegalArgumentException( "Values and timestamps size mismatch!" );
+    }
+
+    this.size = aValues.length;
+
+    // Determine the number of bits really used by the sample values...
+    int usedBits = 0;
+    for ( int value : aValues )
+    {
+      usedBits |= value;
+    }
+
+    this.valueShift = ( usedBits == 0 ) ? 0 : Integer.numberOfTrailingZeros( usedBits );
+    final int width = 32 - Integer.numberOfLeadingZeros( usedBits >>> this.valueShift );
+
+    byte[] bytes = null;
+    short[] shorts = null;
+    int[] ints = null;
+    if ( width <= 8 )
+    {
+      bytes = new byte[this.size];
+      for ( int i = 0; i < this.size; i++ )
+      {
+        bytes[i] = ( byte )( aValues[i] >>> this.valueShift );
+      }
+    }
+    else if ( width <= 16 )
+    {
+      shorts = new short[this.size];
+      for ( int i = 0; i < this.size; i++ )
+      {
+        shorts[i] = ( short )( aValues[i] >>> this.valueShift );
+      }
+    }
+    else
+    {
+      ints = aValues.clone();
+    }
+    this.byteValues = bytes;
+    this.shortValues = shorts;
+    this.intValues = ints;
+
+    // Determine the largest offset of a timestamp to its checkpoint...
+    final long[] checkpointValues = new long[( this.size + CHECKPOINT_INTERVAL - 1 ) >>> CHECKPOINT_SHIFT];
+    long maxOffset = 0L;
+    for ( int i = 0; i < this.size; i++ )
+    {
+      final int cp = i >>> CHECKPOINT_SHIFT;
+      if ( ( i & ( CHECKPOINT_INTERVAL - 1 ) ) == 0 )
+      {
+        checkpointValues[cp] = aTimestamps[i];
+      }
+
+      final long offset = aTimestamps[i] - checkpointValues[cp];
+      if ( ( offset < 0L ) || ( offset > maxOffset ) )
+      {
+        // Negative offsets (= unsorted timestamps) are treated as too large...
+        maxOffset = ( offset < 0L ) ? Long.MAX_VALUE : offset;
+      }
+    }
+
+    char[] charOffsets = null;
+    int[] intOffsets = null;
+    long[] timestamps = null;
+    if ( maxOffset <= 0xFFFFL )
+    {
+      charOffsets = new char[this.size];
+      for ( int i = 0; i < this.size; i++ )
+      {
+        charOffsets[i] = ( char )( aTimestamps[i] - checkpointValues[i >>> CHECKPOINT_SHIFT] );
+      }
+    }
+    else if ( maxOffset <= 0xFFFFFFFFL )
+    {
+      intOffsets = new int[this.size];
+      for ( int i = 0; i < this.size; i++ )
+      {
+        intOffsets[i] = ( int )( aTimestamps[i] - checkpointValues[i >>> CHECKPOINT_SHIFT] );
+      }
+    }
+    else
+    {
+      timestamps = aTimestamps.clone();
+    }
+    this.checkpoints = ( timestamps == null ) ? checkpointValues : null;
+    this.shortOffsets = charOffsets;
+    this.intOffsets = intOffsets;
+    this.longTimestamps = timestamps;
+  }
+
+  // METHODS
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int findIndex( final long aTimestamp )
+  {
+    if ( this.size == 0 )
+    {
+      return 0;
+    }
+
+    // Find the first transition whose timestamp is greater or equal to the
+    // given timestamp...
+    int low = 0;
+    int high = this.size - 1;
+    if ( this.checkpoints != null )
+    {
+      // Narrow down the search range using the checkpoints first...
+      int cpLow = 0;
+      int cpHigh = this.checkpoints.length - 1;
+      while ( cpLow <= cpHigh )
+      {
+        final int mid = ( cpLow + cpHigh ) >>> 1;
+        if ( this.checkpoints[mid] < aTimestamp )
+        {
+          cpLow = mid + 1;
+        }
+        else
+        {
+          cpHigh = mid - 1;
+        }
+      }
+      // cpLow is the first checkpoint >= timestamp, the transition we're
+      // looking for is either that checkpoint or in the block before it...
+      low = Math.max( 0, ( cpLow - 1 ) << CHECKPOINT_SHIFT );
+      high = Math.min( this.size - 1, cpLow << CHECKPOINT_SHIFT );
+    }
+
+    while ( low < high )
+    {
+      final int mid = ( low + high ) >>> 1;
+      if ( getTimestamp( mid ) < aTimestamp )
+      {
+        low = mid + 1;
+      }
+      else
+      {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMemorySize()
+  {
+    long result = 0L;
+    if ( this.byteValues != null )
+    {
+      result += this.byteValues.length;
+    }
+    else if ( this.shortValues != null )
+    {
+      result += 2L * this.shortValues.length;
+    }
+    else
+    {
+      result += 4L * this.intValues.length;
+    }
+
+    if ( this.longTimestamps != null )
+    {
+      result += 8L * this.longTimestamps.length;
+    }
+    else
+    {
+      result += 8L * this.checkpoints.length;
+      if ( this.shortOffsets != null )
+      {
+        result += 2L * this.shortOffsets.length;
+      }
+      else
+      {
+        result += 4L * this.intOffsets.length;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimestamp( final int aIndex )
+  {
+    if ( this.longTimestamps != null )
+    {
+      return this.longTimestamps[aIndex];
+    }
+
+    final long checkpoint = this.checkpoints[aIndex >>> CHECKPOINT_SHIFT];
+    if ( this.shortOffsets != null )
+    {
+      return checkpoint + this.shortOffsets[aIndex];
+    }
+    return checkpoint + ( this.intOffsets[aIndex] & 0xFFFFFFFFL );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long[] getTimestamps()
+  {
+    if ( this.longTimestamps != null )
+    {
+      return this.longTimestamps;
+    }
+
+    final SoftReference<long[]> ref = this.timestampsRef;
+
+    long[] result = ( ref == null ) ? null : ref.get();
+    if ( result == null )
+    {
+      result = new long[this.size];
+      for ( int i = 0; i < this.size; i++ )
+      {
+        result[i] = getTimestamp( i );
+      }
+      this.timestampsRef = new SoftReference<long[]>( result );
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getValue( final int aIndex )
+  {
+    if ( this.byteValues != null )
+    {
+      return ( this.byteValues[aIndex] & 0xFF ) << this.valueShift;
+    }
+    else if ( this.shortValues != null )
+    {
+      return ( this.shortValues[aIndex] & 0xFFFF ) << this.valueShift;
+    }
+    return this.intValues[aIndex];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int[] getValues()
+  {
+    if ( this.intValues != null )
+    {
+      return this.intValues;
+    }
+
+    final SoftReference<int[]> ref = this.valuesRef;
+
+    int[] result = ( ref == null ) ? null : ref.get();
+    if ( result == null )
+    {
+      result = new int[this.size];
+      for ( int i = 0; i < this.size; i++ )
+      {
+        result[i] = getValue( i );
+      }
+      this.valuesRef = new SoftReference<int[]>( result );
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+}
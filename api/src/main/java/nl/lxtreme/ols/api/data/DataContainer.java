@@ -359,6 +359,15 @@ public final class DataContainer implements AcquisitionResult
     return hasCapturedData() ? getAcquisitionData().getSampleRate() : Ols.NOT_AVAILABLE;
   }
 
+  /**
+   * @see nl.lxtreme.ols.api.data.CapturedData#getSampleStore()
+   */
+  @Override
+  public SampleStore getSampleStore()
+  {
+    return hasCapturedData() ? getAcquisitionData().getSampleStore() : SampleStores.array( new int[0], new long[0] );
+  }
+
   /**
    * @see nl.lxtreme.ols.api.data.CapturedData#getTimestamps()
    */
@@ -0,0 +1,363 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import java.io.*;
+import java.lang.ref.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.logging.*;
+
+
+/**
+ * Provides a {@link SampleStore} whose transitions are kept in memory-mapped
+ * files, outside the Java heap.
+ * <p>
+ * The transitions are written to two scratch files, one for the values and one
+ * for the timestamps, which are mapped in segments of
+ * {@value #SEGMENT_SIZE} transitions. This allows captures to be larger than
+ * the maximum heap size. The arrays returned by {@link #getValues()} and
+ * {@link #getTimestamps()} are created on demand and softly cached; use the
+ * random access methods where possible.
+ * </p>
+ */
+final class MappedSampleStore implements SampleStore
+{
+  // INNER TYPES
+
+  /**
+   * Writes transitions to the scratch files of a {@link MappedSampleStore}.
+   */
+  static final class Writer
+  {
+    // CONSTANTS
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // VARIABLES
+
+    private final File valuesFile;
+    private final File timestampsFile;
+    private final FileChannel valuesChannel;
+    private final FileChannel timestampsChannel;
+    private final ByteBuffer valuesBuffer;
+    private final ByteBuffer timestampsBuffer;
+
+    private int size;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new Writer instance.
+     * 
+     * @param aScratchDir
+     *          the directory to create the scratch files in, cannot be
+     *          <code>null</code>.
+     * @throws IOException
+     *           in case the scratch files could not be created.
+     */
+    Writer( final File aScratchDir ) throws IOException
+    {
+      this.valuesFile = File.createTempFile( "ols", ".values", aScratchDir );
+      this.valuesFile.deleteOnExit();
+      this.timestampsFile = File.createTempFile( "ols", ".timestamps", aScratchDir );
+      this.timestampsFile.deleteOnExit();
+
+      this.valuesChannel = new RandomAccessFile( this.valuesFile, "rw" ).getChannel();
+      this.timestampsChannel = new RandomAccessFile( this.timestampsFile, "rw" ).getChannel();
+
+      this.valuesBuffer = ByteBuffer.allocateDirect( 4 * BUFFER_SIZE );
+      this.timestampsBuffer = ByteBuffer.allocateDirect( 8 * BUFFER_SIZE );
+    }
+
+    // METHODS
+
+    /**
+     * Discards all written transitions and removes the scratch files.
+     */
+    void abort()
+    {
+      close( this.valuesChannel );
+      close( this.timestampsChannel );
+      delete( this.valuesFile );
+      delete( this.timestampsFile );
+    }
+
+    /**
+     * Finishes writing and maps all written transitions into memory.
+     * 
+     * @return a new {@link MappedSampleStore}, never <code>null</code>.
+     * @throws IOException
+     *           in case of I/O problems.
+     */
+    MappedSampleStore finish() throws IOException
+    {
+      try
+      {
+        flush();
+
+        final int segments = ( this.size + SEGMENT_SIZE - 1 ) / SEGMENT_SIZE;
+        final IntBuffer[] values = new IntBuffer[segments];
+        final LongBuffer[] timestamps = new LongBuffer[segments];
+
+        for ( int i = 0; i < segments; i++ )
+        {
+          final long start = ( long )i * SEGMENT_SIZE;
+          final int length = ( int )Math.min( SEGMENT_SIZE, this.size - start );
+
+          values[i] = this.valuesChannel.map( MapMode.READ_ONLY, 4L * start, 4L * length ).asIntBuffer();
+          timestamps[i] = this.timestampsChannel.map( MapMode.READ_ONLY, 8L * start, 8L * length ).asLongBuffer();
+        }
+
+        return new MappedSampleStore( values, timestamps, this.size );
+      }
+      finally
+      {
+        // The mappings remain valid after the channels are closed...
+        abort();
+      }
+    }
+
+    /**
+     * Writes the given transitions.
+     * 
+     * @param aValues
+     *          the sample values to write;
+     * @param aTimestamps
+     *          the timestamps to write;
+     * @param aLength
+     *          the number of transitions to write.
+     * @throws IOException
+     *           in case of I/O problems.
+     */
+    void write( final int[] aValues, final long[] aTimestamps, final int aLength ) throws IOException
+    {
+      if ( ( this.size + ( long )aLength ) > Integer.MAX_VALUE )
+      {
+        throw new IOException( "Too many transitions!" );
+      }
+
+      for ( int i = 0; i < aLength; i++ )
+      {
+        if ( !this.valuesBuffer.hasRemaining() )
+        {
+          flush();
+        }
+        this.valuesBuffer.putInt( aValues[i] );
+        this.timestampsBuffer.putLong( aTimestamps[i] );
+      }
+      this.size += aLength;
+    }
+
+    /**
+     * Writes all buffered transitions to the scratch files.
+     */
+    private void flush() throws IOException
+    {
+      this.valuesBuffer.flip();
+      while ( this.valuesBuffer.hasRemaining() )
+      {
+        this.valuesChannel.write( this.valuesBuffer );
+      }
+      this.valuesBuffer.clear();
+
+      this.timestampsBuffer.flip();
+      while ( this.timestampsBuffer.hasRemaining() )
+      {
+        this.timestampsChannel.write( this.timestampsBuffer );
+      }
+      this.timestampsBuffer.clear();
+    }
+  }
+
+  // CONSTANTS
+
+  private static final Logger LOG = Logger.getLogger( MappedSampleStore.class.getName() );
+
+  static final int SEGMENT_SHIFT = 26;
+  static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+  // VARIABLES
+
+  private final IntBuffer[] values;
+  private final LongBuffer[] timestamps;
+  private final int size;
+
+  private volatile SoftReference<int[]> valuesRef;
+  private volatile SoftReference<long[]> timestampsRef;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new MappedSampleStore instance.
+   */
+  private MappedSampleStore( final IntBuffer[] aValues, final LongBuffer[] aTimestamps, final int aSize )
+  {
+    this.values = aValues;
+    this.timestamps = aTimestamps;
+    this.size = aSize;
+  }
+
+  // METHODS
+
+  /**
+   * Closes the given channel, ignoring any exceptions.
+   */
+  static void close( final Closeable aCloseable )
+  {
+    try
+    {
+      aCloseable.close();
+    }
+    catch ( IOException exception )
+    {
+      LOG.log( Level.FINE, "Failed to close scratch file!", exception );
+    }
+  }
+
+  /**
+   * Tries to delete the given scratch file. On some platforms, mapped files
+   * cannot be deleted, in which case they are removed upon exit.
+   */
+  static void delete( final File aFile )
+  {
+    if ( !aFile.delete() )
+    {
+      LOG.log( Level.FINE, "Failed to delete scratch file {0}; will retry upon exit...", aFile );
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int findIndex( final long aTimestamp )
+  {
+    if ( this.size == 0 )
+    {
+      return 0;
+    }
+
+    // Find the first transition whose timestamp is greater or equal to the
+    // given timestamp...
+    int low = 0;
+    int high = this.size - 1;
+    while ( low < high )
+    {
+      final int mid = ( low + high ) >>> 1;
+      if ( getTimestamp( mid ) < aTimestamp )
+      {
+        low = mid + 1;
+      }
+      else
+      {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMemorySize()
+  {
+    return 12L * this.size;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimestamp( final int aIndex )
+  {
+    return this.timestamps[aIndex >>> SEGMENT_SHIFT].get( aIndex & ( SEGMENT_SIZE - 1 ) );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long[] getTimestamps()
+  {
+    final SoftReference<long[]> ref = this.timestampsRef;
+
+    long[] result = ( ref == null ) ? null : ref.get();
+    if ( result == null )
+    {
+      result = new long[this.size];
+      for ( int i = 0, offset = 0; i < this.timestamps.length; i++ )
+      {
+        final LongBuffer segment = this.timestamps[i].duplicate();
+        final int length = segment.remaining();
+        segment.get( result, offset, length );
+        offset += length;
+      }
+      this.timestampsRef = new SoftReference<long[]>( result );
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getValue( final int aIndex )
+  {
+    return this.values[aIndex >>> SEGMENT_SHIFT].get( aIndex & ( SEGMENT_SIZE - 1 ) );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int[] getValues()
+  {
+    final SoftReference<int[]> ref = this.valuesRef;
+
+    int[] result = ( ref == null ) ? null : ref.get();
+    if ( result == null )
+    {
+      result = new int[this.size];
+      for ( int i = 0, offset = 0; i < this.values.length; i++ )
+      {
+        final IntBuffer segment = this.values[i].duplicate();
+        final int length = segment.remaining();
+        segment.get( result, offset, length );
+        offset += length;
+      }
+      this.valuesRef = new SoftReference<int[]>( result );
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+}
@@ -0,0 +1,795 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+
+import nl.lxtreme.ols.api.*;
+
+
+/**
+ * Provides a parser for (textual) OLS data files.
+ * <p>
+ * The data is read in large blocks, which are cut at line boundaries and
+ * parsed concurrently into primitive arrays. Lines are parsed by hand instead
+ * of using regular expressions, and no intermediary strings are created for
+ * sample lines.
+ * </p>
+ * <p>
+ * The parsed samples are kept per block. They are either concatenated on
+ * demand by {@link #getValues()} and {@link #getTimestamps()}, or fed block by
+ * block into a {@link CapturedDataBuilder} by {@link #createCapturedData()},
+ * which avoids holding a second, full-length copy of all samples.
+ * </p>
+ * <p>
+ * Lines of the form <tt>;&lt;key&gt;: &lt;value&gt;</tt> are instructions,
+ * lines of the form <tt>&lt;value<sub>16</sub>&gt;@&lt;timestamp<sub>10</sub>&gt;</tt>
+ * are samples. All other lines are ignored.
+ * </p>
+ */
+public final class OlsDataParser
+{
+  // INNER TYPES
+
+  /**
+   * Parses a single block of lines.
+   */
+  static final class BlockParser implements Callable<BlockParser>
+  {
+    // VARIABLES
+
+    private char[] data;
+    private final int length;
+
+    private final List<String[]> instructions;
+    private int[] values;
+    private long[] timestamps;
+    private int count;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new BlockParser instance.
+     * 
+     * @param aData
+     *          the data to parse;
+     * @param aLength
+     *          the number of characters in the given data to parse.
+     */
+    BlockParser( final char[] aData, final int aLength )
+    {
+      this.data = aData;
+      this.length = aLength;
+
+      this.instructions = new ArrayList<String[]>();
+      // Most lines are samples of about 15 characters...
+      final int capacity = Math.max( 16, aLength / 12 );
+      this.values = new int[capacity];
+      this.timestamps = new long[capacity];
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BlockParser call() throws IOException
+    {
+      int lineStart = 0;
+      for ( int i = 0; i <= this.length; i++ )
+      {
+        if ( ( i == this.length ) || isLineTerminator( this.data[i] ) )
+        {
+          if ( i > lineStart )
+          {
+            parseLine( lineStart, i );
+          }
+          lineStart = i + 1;
+        }
+      }
+      // The raw characters are no longer needed; only the parsed samples are
+      // kept until all blocks are merged...
+      this.data = null;
+      return this;
+    }
+
+    /**
+     * Adds a single sample to this block.
+     */
+    private void addSample( final int aValue, final long aTimestamp )
+    {
+      if ( this.count == this.values.length )
+      {
+        final int newCapacity = this.count + ( this.count >> 1 ) + 1;
+        this.values = Arrays.copyOf( this.values, newCapacity );
+        this.timestamps = Arrays.copyOf( this.timestamps, newCapacity );
+      }
+      this.values[this.count] = aValue;
+      this.timestamps[this.count] = aTimestamp;
+      this.count++;
+    }
+
+    /**
+     * Parses a single instruction line, in the form of
+     * <tt>;&lt;key&gt;:&lt;whitespace&gt;&lt;value&gt;</tt>.
+     */
+    private void parseInstruction( final int aStart, final int aEnd )
+    {
+      int keyEnd = aStart + 1;
+      while ( ( keyEnd < aEnd ) && ( this.data[keyEnd] != ':' ) )
+      {
+        keyEnd++;
+      }
+      if ( ( keyEnd == ( aStart + 1 ) ) || ( keyEnd == aEnd ) )
+      {
+        // No key or no separator...
+        return;
+      }
+
+      int valueStart = keyEnd + 1;
+      while ( ( valueStart < aEnd ) && Character.isWhitespace( this.data[valueStart] ) )
+      {
+        valueStart++;
+      }
+      if ( ( valueStart == ( keyEnd + 1 ) ) || ( valueStart == aEnd ) )
+      {
+        // No whitespace or no value...
+        return;
+      }
+
+      final String key = new String( this.data, aStart + 1, keyEnd - aStart - 1 );
+      final String value = new String( this.data, valueStart, aEnd - valueStart );
+      this.instructions.add( new String[] { key, value } );
+    }
+
+    /**
+     * Parses a single (non-empty) line.
+     */
+    private void parseLine( final int aStart, final int aEnd ) throws IOException
+    {
+      if ( this.data[aStart] == ';' )
+      {
+        parseInstruction( aStart, aEnd );
+      }
+      else
+      {
+        parseSample( aStart, aEnd );
+      }
+    }
+
+    /**
+     * Parses a single sample line, in the form of
+     * <tt>&lt;value<sub>16</sub>&gt;@&lt;timestamp<sub>10</sub>&gt;</tt>.
+     */
+    private void parseSample( final int aStart, final int aEnd ) throws IOException
+    {
+      int i = aStart;
+
+      long value = 0L;
+      boolean overflow = false;
+      for ( ; i < aEnd; i++ )
+      {
+        final int digit = hexDigit( this.data[i] );
+        if ( digit < 0 )
+        {
+          break;
+        }
+        overflow |= ( value > ( Long.MAX_VALUE >> 4 ) );
+        value = ( value << 4 ) | digit;
+      }
+      if ( ( i == aStart ) || ( i == aEnd ) || ( this.data[i] != '@' ) )
+      {
+        // Not a sample line...
+        return;
+      }
+
+      final int timestampStart = ++i;
+
+      long timestamp = 0L;
+      for ( ; i < aEnd; i++ )
+      {
+        final int digit = this.data[i] - '0';
+        if ( ( digit < 0 ) || ( digit > 9 ) )
+        {
+          // Not a sample line...
+          return;
+        }
+        overflow |= ( timestamp > ( ( Long.MAX_VALUE - digit ) / 10 ) );
+        timestamp = ( timestamp * 10 ) + digit;
+      }
+      if ( i == timestampStart )
+      {
+        // Not a sample line...
+        return;
+      }
+
+      if ( overflow )
+      {
+        throw new IOException( "Invalid data encountered." );
+      }
+
+      addSample( ( int )value, timestamp & Long.MAX_VALUE );
+    }
+  }
+
+  // CONSTANTS
+
+  private static final Logger LOG = Logger.getLogger( OlsDataParser.class.getName() );
+
+  /** The number of characters that are parsed as a single block. */
+  static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+  /** The maximum number of threads to use for parsing. */
+  private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+  // VARIABLES
+
+  private final long[] cursors;
+
+  private int rate;
+  private int channels;
+  private int enabledChannels;
+  private long triggerPosition;
+  private long absoluteLength;
+  private boolean cursorsEnabled;
+  private int sampleCount;
+  private List<BlockParser> blocks;
+  private int[] values;
+  private long[] timestamps;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new OlsDataParser instance.
+   */
+  private OlsDataParser()
+  {
+    this.cursors = new long[Ols.MAX_CURSORS];
+    Arrays.fill( this.cursors, Long.MIN_VALUE );
+  }
+
+  // METHODS
+
+  /**
+   * Parses the OLS data from the given reader.
+   * 
+   * @param aReader
+   *          the reader to read the data from, cannot be <code>null</code>.
+   * @return the parsed data, never <code>null</code>.
+   * @throws IOException
+   *           in case of I/O problems, or in case the data is invalid.
+   */
+  public static OlsDataParser parse( final Reader aReader ) throws IOException
+  {
+    return parse( aReader, DEFAULT_BLOCK_SIZE );
+  }
+
+  /**
+   * Parses the OLS data from the given reader.
+   * 
+   * @param aReader
+   *          the reader to read the data from, cannot be <code>null</code>;
+   * @param aBlockSize
+   *          the number of characters to parse as a single block, > 0.
+   * @return the parsed data, never <code>null</code>.
+   * @throws IOException
+   *           in case of I/O problems, or in case the data is invalid.
+   */
+  static OlsDataParser parse( final Reader aReader, final int aBlockSize ) throws IOException
+  {
+    if ( LOG.isLoggable( Level.INFO ) )
+    {
+      LOG.info( "Parsing OLS captured data from stream..." );
+    }
+
+    final List<BlockParser> blocks = parseBlocks( aReader, aBlockSize );
+
+    final OlsDataParser result = new OlsDataParser();
+    result.merge( blocks );
+    return result;
+  }
+
+  /**
+   * Creates the captured data from the parsed samples, by feeding them directly
+   * into a {@link CapturedDataBuilder}.
+   * <p>
+   * The parsed samples of each block are released as soon as they are added
+   * to the builder, hence, unless {@link #getValues()} or
+   * {@link #getTimestamps()} is called before, the samples are no longer
+   * available from this parser afterwards.
+   * </p>
+   * 
+   * @return the captured data, never <code>null</code>.
+   * @throws IOException
+   *           in case the builder failed to spill the samples to disk.
+   */
+  public CapturedData createCapturedData() throws IOException
+  {
+    final CapturedDataBuilder builder = new CapturedDataBuilder( this.sampleCount );
+    if ( this.blocks != null )
+    {
+      for ( BlockParser block : this.blocks )
+      {
+        for ( int i = 0; i < block.count; i++ )
+        {
+          builder.add( block.values[i], block.timestamps[i] );
+        }
+        block.values = null;
+        block.timestamps = null;
+      }
+      this.blocks = null;
+    }
+    else
+    {
+      final int[] sampleValues = getValues();
+      final long[] sampleTimestamps = getTimestamps();
+      for ( int i = 0; i < sampleValues.length; i++ )
+      {
+        builder.add( sampleValues[i], sampleTimestamps[i] );
+      }
+    }
+
+    return builder.build( this.triggerPosition, this.rate, this.channels, this.enabledChannels,
+        this.absoluteLength );
+  }
+
+  /**
+   * Returns the absolute length of the captured data.
+   * 
+   * @return the absolute length, or -1 if not provided.
+   */
+  public long getAbsoluteLength()
+  {
+    return this.absoluteLength;
+  }
+
+  /**
+   * Returns the number of channels of the captured data.
+   * 
+   * @return the channel count, > 0 && <= 32.
+   */
+  public int getChannels()
+  {
+    return this.channels;
+  }
+
+  /**
+   * Returns the timestamp of the cursor with the given index.
+   * 
+   * @param aIndex
+   *          the index of the cursor, >= 0 && < {@link Ols#MAX_CURSORS}.
+   * @return the cursor timestamp, or {@link Long#MIN_VALUE} if the cursor is
+   *         not defined.
+   */
+  public long getCursorTimestamp( final int aIndex )
+  {
+    return this.cursors[aIndex];
+  }
+
+  /**
+   * Returns the enabled channels of the captured data.
+   * 
+   * @return the enabled channel mask.
+   */
+  public int getEnabledChannels()
+  {
+    return this.enabledChannels;
+  }
+
+  /**
+   * Returns the sample rate of the captured data.
+   * 
+   * @return the sample rate.
+   */
+  public int getSampleRate()
+  {
+    return this.rate;
+  }
+
+  /**
+   * Returns the timestamps of the parsed samples.
+   * 
+   * @return the timestamps, never <code>null</code>.
+   * @throws IllegalStateException
+   *           in case the samples are already handed over to the captured
+   *           data, see {@link #createCapturedData()}.
+   */
+  public long[] getTimestamps()
+  {
+    concatenateBlocks();
+    return this.timestamps;
+  }
+
+  /**
+   * Returns the trigger position of the captured data.
+   * 
+   * @return the trigger position, or -1 if not provided.
+   */
+  public long getTriggerPosition()
+  {
+    return this.triggerPosition;
+  }
+
+  /**
+   * Returns the values of the parsed samples.
+   * 
+   * @return the sample values, never <code>null</code>.
+   * @throws IllegalStateException
+   *           in case the samples are already handed over to the captured
+   *           data, see {@link #createCapturedData()}.
+   */
+  public int[] getValues()
+  {
+    concatenateBlocks();
+    return this.values;
+  }
+
+  /**
+   * Returns whether or not the cursors are enabled.
+   * 
+   * @return <code>true</code> if the cursors are enabled, <code>false</code>
+   *         otherwise.
+   */
+  public boolean isCursorsEnabled()
+  {
+    return this.cursorsEnabled;
+  }
+
+  /**
+   * Returns the numeric value of the given (ASCII) hexadecimal digit.
+   * 
+   * @return the numeric value, or -1 if the given character is not a
+   *         hexadecimal digit.
+   */
+  static int hexDigit( final char aChar )
+  {
+    if ( ( aChar >= '0' ) && ( aChar <= '9' ) )
+    {
+      return aChar - '0';
+    }
+    else if ( ( aChar >= 'a' ) && ( aChar <= 'f' ) )
+    {
+      return ( aChar - 'a' ) + 10;
+    }
+    else if ( ( aChar >= 'A' ) && ( aChar <= 'F' ) )
+    {
+      return ( aChar - 'A' ) + 10;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns whether the given character terminates a line.
+   */
+  static boolean isLineTerminator( final char aChar )
+  {
+    return ( aChar == '\n' ) || ( aChar == '\r' );
+  }
+
+  /**
+   * Reads the given reader in blocks, and parses these blocks concurrently.
+   * 
+   * @return the parsed blocks, in the order of the data.
+   */
+  private static List<BlockParser> parseBlocks( final Reader aReader, final int aBlockSize ) throws IOException
+  {
+    final List<BlockParser> result = new ArrayList<BlockParser>();
+
+    char[] block = new char[aBlockSize];
+    int length = readBlock( aReader, block, 0 );
+    if ( length < block.length )
+    {
+      // Everything fits in a single block; no need for any threads...
+      result.add( new BlockParser( block, length ).call() );
+      return result;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool( MAX_THREADS );
+    final List<Future<BlockParser>> futures = new ArrayList<Future<BlockParser>>();
+
+    try
+    {
+      while ( length > 0 )
+      {
+        // Cut the block at the last line boundary, the remainder is moved to
+        // the next block...
+        int end = length;
+        if ( length == block.length )
+        {
+          while ( ( end > 0 ) && !isLineTerminator( block[end - 1] ) )
+          {
+            end--;
+          }
+          if ( end == 0 )
+          {
+            // A single line that does not fit in a block; cannot be valid...
+            end = length;
+          }
+        }
+
+        final char[] next = new char[aBlockSize];
+        final int remainder = length - end;
+        System.arraycopy( block, end, next, 0, remainder );
+
+        futures.add( executor.submit( new BlockParser( block, end ) ) );
+
+        // Avoid reading far ahead of the parsers...
+        final int pending = futures.size() - result.size();
+        if ( pending > ( 2 * MAX_THREADS ) )
+        {
+          result.add( getResult( futures.get( result.size() ) ) );
+        }
+
+        block = next;
+        length = readBlock( aReader, block, remainder );
+      }
+
+      while ( result.size() < futures.size() )
+      {
+        result.add( getResult( futures.get( result.size() ) ) );
+      }
+
+      return result;
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for the result of a given future.
+   */
+  private static BlockParser getResult( final Future<BlockParser> aFuture ) throws IOException
+  {
+    try
+    {
+      return aFuture.get();
+    }
+    catch ( InterruptedException exception )
+    {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Parsing interrupted!" );
+    }
+    catch ( ExecutionException exception )
+    {
+      final Throwable cause = exception.getCause();
+      if ( cause instanceof IOException )
+      {
+        throw ( IOException )cause;
+      }
+      throw new IOException( "Parsing failed!", cause );
+    }
+  }
+
+  /**
+   * Fills the given block as far as possible with data from the given reader.
+   * 
+   * @return the number of characters in the block.
+   */
+  private static int readBlock( final Reader aReader, final char[] aBlock, final int aOffset ) throws IOException
+  {
+    int length = aOffset;
+    int read;
+    while ( ( length < aBlock.length ) && ( ( read = aReader.read( aBlock, length, aBlock.length - length ) ) >= 0 ) )
+    {
+      length += read;
+    }
+    return length;
+  }
+
+  /**
+   * Merges the given blocks into this parser, and validates the result.
+   */
+  private void merge( final List<BlockParser> aBlocks ) throws IOException
+  {
+    int size = -1;
+    Integer sampleRate = null, channelCount = null, enabledChannelMask = null;
+    long triggerPos = -1L;
+    long absLen = -1L;
+
+    // assume 'new' file format is in use, don't support uncompressed ones...
+    boolean compressed = true;
+
+    int sampleCount = 0;
+    for ( BlockParser block : aBlocks )
+    {
+      sampleCount += block.count;
+
+      for ( String[] instruction : block.instructions )
+      {
+        final String instrKey = instruction[0];
+        final String instrValue = instruction[1];
+
+        if ( "Size".equals( instrKey ) )
+        {
+          size = safeParseInt( instrValue );
+        }
+        else if ( "Rate".equals( instrKey ) )
+        {
+          sampleRate = Integer.valueOf( safeParseInt( instrValue ) );
+        }
+        else if ( "Channels".equals( instrKey ) )
+        {
+          channelCount = Integer.valueOf( safeParseInt( instrValue ) );
+        }
+        else if ( "TriggerPosition".equals( instrKey ) )
+        {
+          triggerPos = parseLong( instrValue );
+        }
+        else if ( "EnabledChannels".equals( instrKey ) )
+        {
+          enabledChannelMask = Integer.valueOf( safeParseInt( instrValue ) );
+        }
+        else if ( "CursorEnabled".equals( instrKey ) )
+        {
+          this.cursorsEnabled = Boolean.parseBoolean( instrValue );
+        }
+        else if ( "Compressed".equals( instrKey ) )
+        {
+          compressed = Boolean.parseBoolean( instrValue );
+        }
+        else if ( "AbsoluteLength".equals( instrKey ) )
+        {
+          absLen = parseLong( instrValue );
+        }
+        else if ( "CursorA".equals( instrKey ) )
+        {
+          setCursor( 0, safeParseLong( instrValue ) );
+        }
+        else if ( "CursorB".equals( instrKey ) )
+        {
+          setCursor( 1, safeParseLong( instrValue ) );
+        }
+        else if ( instrKey.startsWith( "Cursor" ) )
+        {
+          setCursor( safeParseInt( instrKey.substring( 6 ) ), parseLong( instrValue ) );
+        }
+      }
+    }
+
+    // Perform some sanity checks, make it not possible to import invalid
+    // data...
+    if ( sampleCount == 0 )
+    {
+      throw new IOException( "Data file does not contain any sample data!" );
+    }
+    if ( !compressed )
+    {
+      throw new IOException( "Uncompressed data file found! Please send this file to the OLS developers!" );
+    }
+    // In case the size is not provided (as of 0.9.4 no longer mandatory),
+    // take the length of the data values as size indicator...
+    if ( ( size >= 0 ) && ( size != sampleCount ) )
+    {
+      throw new IOException( "Data file is corrupt?! Data size does not match sample count!" );
+    }
+    if ( sampleRate == null )
+    {
+      throw new IOException( "Data file is corrupt?! Sample rate is not provided!" );
+    }
+    if ( ( channelCount == null ) || ( channelCount.intValue() <= 0 ) || ( channelCount.intValue() > 32 ) )
+    {
+      throw new IOException( "Data file is corrupt?! Channel count is not provided!" );
+    }
+
+    this.rate = sampleRate.intValue();
+    this.channels = channelCount.intValue();
+    // Make sure the enabled channels are defined; if not defined, all channels
+    // are enabled...
+    this.enabledChannels = ( enabledChannelMask == null ) ? -1 : enabledChannelMask.intValue();
+    this.triggerPosition = triggerPos;
+    this.absoluteLength = absLen;
+
+    this.sampleCount = sampleCount;
+    this.blocks = aBlocks;
+  }
+
+  /**
+   * Concatenates the samples of all parsed blocks into single arrays, if not
+   * already done.
+   */
+  private void concatenateBlocks()
+  {
+    if ( this.values != null )
+    {
+      return;
+    }
+    if ( this.blocks == null )
+    {
+      throw new IllegalStateException( "Samples are already handed over to the captured data!" );
+    }
+
+    this.values = new int[this.sampleCount];
+    this.timestamps = new long[this.sampleCount];
+
+    int offset = 0;
+    for ( BlockParser block : this.blocks )
+    {
+      System.arraycopy( block.values, 0, this.values, offset, block.count );
+      System.arraycopy( block.timestamps, 0, this.timestamps, offset, block.count );
+      offset += block.count;
+    }
+
+    this.blocks = null;
+  }
+
+  /**
+   * Parses the given text as long value.
+   */
+  private static long parseLong( final String aText ) throws IOException
+  {
+    try
+    {
+      return Long.parseLong( aText );
+    }
+    catch ( NumberFormatException exception )
+    {
+      throw new IOException( "Invalid data encountered.", exception );
+    }
+  }
+
+  /**
+   * Parses the given text as integer value, returning -1 if it is invalid.
+   */
+  private static int safeParseInt( final String aText )
+  {
+    try
+    {
+      return Integer.parseInt( aText );
+    }
+    catch ( NumberFormatException exception )
+    {
+      return -1;
+    }
+  }
+
+  /**
+   * Parses the given text as long value, returning -1 if it is invalid.
+   */
+  private static long safeParseLong( final String aText )
+  {
+    try
+    {
+      return Long.parseLong( aText );
+    }
+    catch ( NumberFormatException exception )
+    {
+      return -1L;
+    }
+  }
+
+  /**
+   * Sets the timestamp of a cursor, if the given index and timestamp are
+   * valid.
+   */
+  private void setCursor( final int aIndex, final long aTimestamp )
+  {
+    if ( ( aIndex >= 0 ) && ( aIndex < this.cursors.length ) && ( aTimestamp > Long.MIN_VALUE ) )
+    {
+      this.cursors[aIndex] = aTimestamp;
+    }
+  }
+}
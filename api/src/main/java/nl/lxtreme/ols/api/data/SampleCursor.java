@@ -0,0 +1,296 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import nl.lxtreme.ols.api.acquisition.*;
+
+
+/**
+ * Provides a cursor for sequential access to the transitions of an acquisition
+ * result.
+ * <p>
+ * A sample cursor remembers its current position, hence looking up values for
+ * (nearly) increasing timestamps takes amortised constant time, instead of a
+ * binary search for each and every lookup. Moving backwards is supported as
+ * well, but is more expensive for larger distances.
+ * </p>
+ * <p>
+ * This class is <b>not</b> thread-safe; use a separate cursor for each thread
+ * instead.
+ * </p>
+ */
+public final class SampleCursor
+{
+  // VARIABLES
+
+  private final SampleStore store;
+  private final int size;
+
+  private int index;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new SampleCursor instance.
+   * 
+   * @param aStore
+   *          the sample store to create a cursor for, cannot be
+   *          <code>null</code>.
+   */
+  public SampleCursor( final SampleStore aStore )
+  {
+    if ( aStore == null )
+    {
+      throw new IllegalArgumentException( "Sample store cannot be null!" );
+    }
+    if ( aStore.size() < 1 )
+    {
+      throw new IllegalArgumentException( "Sample store cannot be empty!" );
+    }
+
+    this.store = aStore;
+    this.size = aStore.size();
+    this.index = 0;
+  }
+
+  // METHODS
+
+  /**
+   * Creates a new sample cursor for the given acquisition result.
+   * 
+   * @param aData
+   *          the acquisition result to create a cursor for, cannot be
+   *          <code>null</code>.
+   * @return a new sample cursor, positioned at the first transition, never
+   *         <code>null</code>.
+   */
+  public static SampleCursor create( final AcquisitionResult aData )
+  {
+    return new SampleCursor( aData.getSampleStore() );
+  }
+
+  /**
+   * Searches for the first transition in the given time range on which the
+   * masked sample value changes.
+   * <p>
+   * Upon return, this cursor is positioned at the found transition, or at the
+   * last transition before the end of the given time range in case no such
+   * transition is found.
+   * </p>
+   * 
+   * @param aMask
+   *          the mask of the bits to consider, for example, the mask of a
+   *          single channel;
+   * @param aEdge
+   *          the edge to search for, {@link Edge#NONE} to search for any
+   *          change;
+   * @param aStartTime
+   *          the timestamp to start searching from (inclusive);
+   * @param aEndTime
+   *          the timestamp to search until (exclusive).
+   * @return the timestamp of the found transition, or -1L if no such
+   *         transition exists in the given time range.
+   */
+  public long findEdge( final int aMask, final Edge aEdge, final long aStartTime, final long aEndTime )
+  {
+    seek( aStartTime - 1L );
+
+    int i = this.index;
+    if ( this.store.getTimestamp( i ) < aStartTime )
+    {
+      i++;
+    }
+    // The first transition denotes the initial value, not an edge...
+    i = Math.max( 1, i );
+
+    int oldValue = this.store.getValue( i - 1 ) & aMask;
+    for ( ; ( i < this.size ) && ( this.store.getTimestamp( i ) < aEndTime ); i++ )
+    {
+      final int value = this.store.getValue( i ) & aMask;
+      if ( value != oldValue )
+      {
+        final Edge edge = Edge.toEdge( oldValue, value );
+        if ( aEdge.isNone() || ( aEdge == edge ) )
+        {
+          this.index = i;
+          return this.store.getTimestamp( i );
+        }
+      }
+      oldValue = value;
+    }
+
+    this.index = i - 1;
+    return -1L;
+  }
+
+  /**
+   * Returns the index of the transition this cursor is positioned at.
+   * 
+   * @return a transition index, >= 0.
+   */
+  public int getIndex()
+  {
+    return this.index;
+  }
+
+  /**
+   * Returns the timestamp of the transition this cursor is positioned at.
+   * 
+   * @return a timestamp, >= 0.
+   */
+  public long getTimestamp()
+  {
+    return this.store.getTimestamp( this.index );
+  }
+
+  /**
+   * Returns the sample value of the transition this cursor is positioned at.
+   * 
+   * @return a sample value.
+   */
+  public int getValue()
+  {
+    return this.store.getValue( this.index );
+  }
+
+  /**
+   * Returns the sample value in effect at the given time.
+   * <p>
+   * This method positions this cursor at the corresponding transition.
+   * </p>
+   * 
+   * @param aTime
+   *          the timestamp to return the sample value for.
+   * @return the sample value of the last transition at or before the given
+   *         time, or the first sample value in case the given time lies before
+   *         the first transition.
+   */
+  public int getValueAt( final long aTime )
+  {
+    seek( aTime );
+    return this.store.getValue( this.index );
+  }
+
+  /**
+   * Returns whether there is a transition after the current one.
+   * 
+   * @return <code>true</code> if there is a next transition,
+   *         <code>false</code> otherwise.
+   */
+  public boolean hasNext()
+  {
+    return ( this.index + 1 ) < this.size;
+  }
+
+  /**
+   * Moves this cursor to the next transition.
+   * 
+   * @return the timestamp of the next transition.
+   * @throws IllegalStateException
+   *           in case there is no next transition.
+   */
+  public long next()
+  {
+    if ( !hasNext() )
+    {
+      throw new IllegalStateException( "No next transition!" );
+    }
+    return this.store.getTimestamp( ++this.index );
+  }
+
+  /**
+   * Positions this cursor at the transition in effect at the given time, that
+   * is, the last transition at or before the given time, or the first
+   * transition in case the given time lies before it.
+   * 
+   * @param aTime
+   *          the timestamp to seek to.
+   * @return the index of the transition this cursor is positioned at, >= 0.
+   */
+  public int seek( final long aTime )
+  {
+    int low;
+    int high;
+
+    // Gallop from our current position towards the given time; this is
+    // amortised O(1) for small steps, and O(log n) for larger ones...
+    if ( this.store.getTimestamp( this.index ) <= aTime )
+    {
+      low = this.index;
+      int step = 1;
+      high = low + step;
+      while ( ( high < this.size ) && ( this.store.getTimestamp( high ) <= aTime ) )
+      {
+        low = high;
+        step <<= 1;
+        high = low + step;
+      }
+      high = Math.min( high, this.size );
+    }
+    else
+    {
+      high = this.index;
+      int step = 1;
+      low = high - step;
+      while ( ( low > 0 ) && ( this.store.getTimestamp( low ) > aTime ) )
+      {
+        high = low;
+        step <<= 1;
+        low = high - step;
+      }
+      low = Math.max( low, 0 );
+      if ( this.store.getTimestamp( low ) > aTime )
+      {
+        // The given time lies before the first transition...
+        this.index = 0;
+        return 0;
+      }
+    }
+
+    // Invariant: timestamp[low] <= aTime < timestamp[high] (or high = size)...
+    while ( ( high - low ) > 1 )
+    {
+      final int mid = ( low + high ) >>> 1;
+      if ( this.store.getTimestamp( mid ) <= aTime )
+      {
+        low = mid;
+      }
+      else
+      {
+        high = mid;
+      }
+    }
+
+    this.index = low;
+    return low;
+  }
+
+  /**
+   * Returns the number of transitions this cursor can be positioned at.
+   * 
+   * @return a number of transitions, >= 1.
+   */
+  public int size()
+  {
+    return this.size;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+/**
+ * Provides the storage of the sample transitions of a {@link CapturedData}.
+ * <p>
+ * A sample store holds a number of unique transitions, each consisting of a
+ * sample value and its timestamp, in order of increasing timestamp. Different
+ * implementations can use different storage layouts, for example, to reduce
+ * the memory footprint of large acquisitions.
+ * </p>
+ * <p>
+ * Implementations are expected to be immutable and thread-safe.
+ * </p>
+ */
+public interface SampleStore
+{
+  // METHODS
+
+  /**
+   * Returns the index of the transition for the given timestamp.
+   * 
+   * @param aTimestamp
+   *          the timestamp to search for.
+   * @return the index of the transition with exactly the given timestamp, or
+   *         the index of the first transition with a greater timestamp,
+   *         clamped to the last transition.
+   */
+  int findIndex( long aTimestamp );
+
+  /**
+   * Returns an estimate of the number of bytes used by this store to hold its
+   * transitions.
+   * 
+   * @return a memory size, in bytes, >= 0.
+   */
+  long getMemorySize();
+
+  /**
+   * Returns the timestamp of the transition at the given index.
+   * 
+   * @param aIndex
+   *          the index of the transition, >= 0 && < {@link #size()}.
+   * @return a timestamp, in number of samples since sample start.
+   */
+  long getTimestamp( int aIndex );
+
+  /**
+   * Returns all timestamps of this store as array.
+   * <p>
+   * Depending on the implementation, this array might be created on demand.
+   * The returned array should <b>not</b> be modified.
+   * </p>
+   * 
+   * @return an array with timestamps, never <code>null</code>.
+   */
+  long[] getTimestamps();
+
+  /**
+   * Returns the sample value of the transition at the given index.
+   * 
+   * @param aIndex
+   *          the index of the transition, >= 0 && < {@link #size()}.
+   * @return a sample value.
+   */
+  int getValue( int aIndex );
+
+  /**
+   * Returns all sample values of this store as array.
+   * <p>
+   * Depending on the implementation, this array might be created on demand.
+   * The returned array should <b>not</b> be modified.
+   * </p>
+   * 
+   * @return an array with sample values, never <code>null</code>.
+   */
+  int[] getValues();
+
+  /**
+   * Returns the number of transitions in this store.
+   * 
+   * @return a transition count, >= 0.
+   */
+  int size();
+}
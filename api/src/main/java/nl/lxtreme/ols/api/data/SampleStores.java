@@ -0,0 +1,94 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+/**
+ * Provides factory methods for creating {@link SampleStore}s.
+ */
+public final class SampleStores
+{
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new SampleStores instance, never used.
+   */
+  private SampleStores()
+  {
+    // NO-op
+  }
+
+  // METHODS
+
+  /**
+   * Creates a sample store that directly uses the given arrays.
+   * 
+   * @param aValues
+   *          the unique transition values, cannot be <code>null</code>;
+   * @param aTimestamps
+   *          the timestamps of the unique transitions, cannot be
+   *          <code>null</code>.
+   * @return a new sample store, never <code>null</code>.
+   */
+  public static SampleStore array( final int[] aValues, final long[] aTimestamps )
+  {
+    return new ArraySampleStore( aValues, aTimestamps );
+  }
+
+  /**
+   * Creates a sample store with a compact storage layout for the given
+   * transitions.
+   * <p>
+   * Depending on the number of channels actually used and the distance between
+   * the transitions, this store uses about 3 to 4 times less memory than a
+   * plain array-based store.
+   * </p>
+   * 
+   * @param aValues
+   *          the unique transition values, cannot be <code>null</code>;
+   * @param aTimestamps
+   *          the timestamps of the unique transitions, cannot be
+   *          <code>null</code>.
+   * @return a new sample store, never <code>null</code>.
+   */
+  public static SampleStore compact( final int[] aValues, final long[] aTimestamps )
+  {
+    return new CompactSampleStore( aValues, aTimestamps );
+  }
+
+  /**
+   * Creates a sample store with a compact storage layout for the transitions
+   * of the given sample store.
+   * 
+   * @param aStore
+   *          the sample store to compact, cannot be <code>null</code>.
+   * @return a compact sample store, never <code>null</code>.
+   * @see #compact(int[], long[])
+   */
+  public static SampleStore compact( final SampleStore aStore )
+  {
+    if ( aStore instanceof CompactSampleStore )
+    {
+      return aStore;
+    }
+    return new CompactSampleStore( aStore.getValues(), aStore.getTimestamps() );
+  }
+}
@@ -21,6 +21,8 @@
 package nl.lxtreme.ols.api.data.annotation;
 
 
+import java.util.*;
+
 /**
  * Can be used to create a service that listens for the addition/removal of
  * annotation on channel data.
@@ -56,4 +58,18 @@ public interface AnnotationListener
    */
   void onAnnotation( Annotation<?> aAnnotation );
 
+  /**
+   * Called for a batch of annotations, allowing listeners to process them in
+   * one go instead of one at a time.
+   * <p>
+   * The annotations are given in the order they were created, and should be
+   * treated as if {@link #onAnnotation(Annotation)} was called for each of
+   * them.
+   * </p>
+   * 
+   * @param aAnnotations
+   *          the (new) annotations, cannot be <code>null</code>.
+   */
+  void onAnnotations( Collection<? extends Annotation<?>> aAnnotations );
+
 }
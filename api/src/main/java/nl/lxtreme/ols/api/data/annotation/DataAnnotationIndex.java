@@ -0,0 +1,394 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data.annotation;
+
+
+import java.util.*;
+
+
+/**
+ * Provides a thread-safe index of data annotations, allowing them to be queried
+ * by their time interval.
+ * <p>
+ * The annotations are kept sorted on their start timestamp. For each
+ * annotation, the maximum end timestamp of all annotations up to and
+ * including it is kept, as well as the maximum end timestamp of each block of
+ * {@value #BLOCK_SIZE} annotations. This allows the annotations overlapping a
+ * given time interval to be found with a binary search, followed by a scan
+ * that skips all blocks that end before the interval. As annotations are
+ * typically added in chronological order, adding them is an (amortized)
+ * constant time operation; annotations that are added out of order are sorted
+ * upon the next query.
+ * </p>
+ */
+public final class DataAnnotationIndex
+{
+  // CONSTANTS
+
+  private static final int BLOCK_SHIFT = 6;
+  private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+  private static final Comparator<DataAnnotation<?>> START_TIME_COMPARATOR = new Comparator<DataAnnotation<?>>()
+  {
+    @Override
+    public int compare( final DataAnnotation<?> aAnn1, final DataAnnotation<?> aAnn2 )
+    {
+      int result = Long.compare( aAnn1.getStartTimestamp(), aAnn2.getStartTimestamp() );
+      if ( result == 0 )
+      {
+        result = Long.compare( aAnn1.getEndTimestamp(), aAnn2.getEndTimestamp() );
+      }
+      return result;
+    }
+  };
+
+  // VARIABLES
+
+  private DataAnnotation<?>[] annotations;
+  private long[] starts;
+  private long[] ends;
+  private long[] maxEnds;
+  private long[] blockMaxEnds;
+  private int size;
+  private int modificationCount;
+  private boolean sorted;
+
+  private List<Annotation<?>> snapshot;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new, empty, DataAnnotationIndex instance.
+   */
+  public DataAnnotationIndex()
+  {
+    clear();
+  }
+
+  // METHODS
+
+  /**
+   * Adds a given annotation to this index.
+   * 
+   * @param aAnnotation
+   *          the annotation to add, cannot be <code>null</code>.
+   */
+  public synchronized void add( final DataAnnotation<?> aAnnotation )
+  {
+    ensureCapacity( this.size + 1 );
+    append( aAnnotation );
+
+    this.snapshot = null;
+    this.modificationCount++;
+  }
+
+  /**
+   * Adds all given annotations to this index.
+   * 
+   * @param aAnnotations
+   *          the annotations to add, cannot be <code>null</code>.
+   */
+  public synchronized void addAll( final Collection<? extends DataAnnotation<?>> aAnnotations )
+  {
+    ensureCapacity( this.size + aAnnotations.size() );
+    for ( DataAnnotation<?> annotation : aAnnotations )
+    {
+      append( annotation );
+    }
+
+    this.snapshot = null;
+    this.modificationCount++;
+  }
+
+  /**
+   * Removes all annotations from this index.
+   */
+  public synchronized void clear()
+  {
+    this.annotations = new DataAnnotation<?>[BLOCK_SIZE];
+    this.starts = new long[BLOCK_SIZE];
+    this.ends = new long[BLOCK_SIZE];
+    this.maxEnds = new long[BLOCK_SIZE];
+    this.blockMaxEnds = new long[1];
+    this.size = 0;
+    this.sorted = true;
+
+    this.snapshot = null;
+    this.modificationCount++;
+  }
+
+  /**
+   * Returns all annotations that overlap the given time interval.
+   * 
+   * @param aStartTime
+   *          the start timestamp of the interval (inclusive);
+   * @param aEndTime
+   *          the end timestamp of the interval (inclusive).
+   * @return a list with the found annotations, sorted on their start
+   *         timestamp, never <code>null</code>.
+   */
+  public synchronized List<DataAnnotation<?>> find( final long aStartTime, final long aEndTime )
+  {
+    ensureSorted();
+
+    final List<DataAnnotation<?>> result = new ArrayList<DataAnnotation<?>>();
+
+    // All annotations before this index end before the interval starts...
+    int idx = firstMaxEndAtOrAfter( aStartTime );
+    // All annotations as of this index start after the interval ends...
+    final int endIdx = firstStartAfter( aEndTime );
+
+    while ( idx < endIdx )
+    {
+      if ( ( ( idx & ( BLOCK_SIZE - 1 ) ) == 0 ) && ( this.blockMaxEnds[idx >> BLOCK_SHIFT] < aStartTime ) )
+      {
+        // None of the annotations in this block overlap...
+        idx += BLOCK_SIZE;
+        continue;
+      }
+
+      if ( this.ends[idx] >= aStartTime )
+      {
+        result.add( this.annotations[idx] );
+      }
+      idx++;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the first annotation that starts at or after the given timestamp.
+   * 
+   * @param aTimestamp
+   *          the timestamp to search from.
+   * @return the found annotation, or <code>null</code> if no such annotation
+   *         exists.
+   */
+  public synchronized DataAnnotation<?> findAfter( final long aTimestamp )
+  {
+    ensureSorted();
+
+    final int idx = firstStartAfter( aTimestamp - 1L );
+    return ( idx < this.size ) ? this.annotations[idx] : null;
+  }
+
+  /**
+   * Returns the last annotation that both starts and ends before the given
+   * timestamp, and is not followed by any annotation that ends at or after the
+   * given timestamp.
+   * 
+   * @param aTimestamp
+   *          the timestamp to search from.
+   * @return the found annotation, or <code>null</code> if no such annotation
+   *         exists.
+   */
+  public synchronized DataAnnotation<?> findBefore( final long aTimestamp )
+  {
+    ensureSorted();
+
+    final int idx = Math.min( firstStartAfter( aTimestamp - 1L ), firstMaxEndAtOrAfter( aTimestamp ) );
+    return ( idx > 0 ) ? this.annotations[idx - 1] : null;
+  }
+
+  /**
+   * Returns all annotations in this index.
+   * 
+   * @return an immutable list with all annotations, sorted on their start
+   *         timestamp, never <code>null</code>.
+   */
+  public synchronized List<Annotation<?>> getAll()
+  {
+    if ( this.snapshot == null )
+    {
+      ensureSorted();
+
+      final Annotation<?>[] copy = Arrays.copyOf( this.annotations, this.size, Annotation[].class );
+      this.snapshot = Collections.unmodifiableList( Arrays.asList( copy ) );
+    }
+    return this.snapshot;
+  }
+
+  /**
+   * Returns the number of times this index is modified, allowing callers to
+   * cheaply detect whether annotations are added or removed.
+   * 
+   * @return a modification count.
+   */
+  public synchronized int getModificationCount()
+  {
+    return this.modificationCount;
+  }
+
+  /**
+   * Returns whether this index is empty.
+   * 
+   * @return <code>true</code> if this index contains no annotations,
+   *         <code>false</code> otherwise.
+   */
+  public synchronized boolean isEmpty()
+  {
+    return this.size == 0;
+  }
+
+  /**
+   * Returns the number of annotations in this index.
+   * 
+   * @return an annotation count, >= 0.
+   */
+  public synchronized int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Appends the given annotation; the capacity should already be sufficient.
+   */
+  private void append( final DataAnnotation<?> aAnnotation )
+  {
+    final int idx = this.size++;
+
+    this.annotations[idx] = aAnnotation;
+
+    if ( this.sorted )
+    {
+      if ( ( idx > 0 ) && ( START_TIME_COMPARATOR.compare( this.annotations[idx - 1], aAnnotation ) > 0 ) )
+      {
+        // Out of order; sort upon the next query...
+        this.sorted = false;
+      }
+      else
+      {
+        updateIndex( idx );
+      }
+    }
+  }
+
+  /**
+   * Ensures all arrays can hold at least the given number of annotations.
+   */
+  private void ensureCapacity( final int aCapacity )
+  {
+    if ( aCapacity <= this.annotations.length )
+    {
+      return;
+    }
+
+    final int capacity = Math.max( aCapacity, this.annotations.length + ( this.annotations.length >> 1 ) );
+
+    this.annotations = Arrays.copyOf( this.annotations, capacity );
+    this.starts = Arrays.copyOf( this.starts, capacity );
+    this.ends = Arrays.copyOf( this.ends, capacity );
+    this.maxEnds = Arrays.copyOf( this.maxEnds, capacity );
+    this.blockMaxEnds = Arrays.copyOf( this.blockMaxEnds, ( ( capacity - 1 ) >> BLOCK_SHIFT ) + 1 );
+  }
+
+  /**
+   * Sorts the annotations and rebuilds the index, if needed.
+   */
+  private void ensureSorted()
+  {
+    if ( this.sorted )
+    {
+      return;
+    }
+
+    // The annotations are mostly sorted, which is handled efficiently...
+    Arrays.sort( this.annotations, 0, this.size, START_TIME_COMPARATOR );
+
+    for ( int i = 0; i < this.size; i++ )
+    {
+      updateIndex( i );
+    }
+
+    this.sorted = true;
+  }
+
+  /**
+   * Returns the index of the first annotation whose maximum end timestamp is
+   * at or after the given timestamp.
+   */
+  private int firstMaxEndAtOrAfter( final long aTimestamp )
+  {
+    int low = 0;
+    int high = this.size;
+    while ( low < high )
+    {
+      final int mid = ( low + high ) >>> 1;
+      if ( this.maxEnds[mid] < aTimestamp )
+      {
+        low = mid + 1;
+      }
+      else
+      {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the index of the first annotation that starts after the given
+   * timestamp.
+   */
+  private int firstStartAfter( final long aTimestamp )
+  {
+    int low = 0;
+    int high = this.size;
+    while ( low < high )
+    {
+      final int mid = ( low + high ) >>> 1;
+      if ( this.starts[mid] <= aTimestamp )
+      {
+        low = mid + 1;
+      }
+      else
+      {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Updates the index for the annotation at the given position, assuming all
+   * previous positions are up to date.
+   */
+  private void updateIndex( final int aIdx )
+  {
+    final DataAnnotation<?> annotation = this.annotations[aIdx];
+    final long end = annotation.getEndTimestamp();
+
+    this.starts[aIdx] = annotation.getStartTimestamp();
+    this.ends[aIdx] = end;
+    this.maxEnds[aIdx] = ( aIdx > 0 ) ? Math.max( this.maxEnds[aIdx - 1], end ) : end;
+
+    final int block = aIdx >> BLOCK_SHIFT;
+    if ( ( aIdx & ( BLOCK_SIZE - 1 ) ) == 0 )
+    {
+      this.blockMaxEnds[block] = end;
+    }
+    else
+    {
+      this.blockMaxEnds[block] = Math.max( this.blockMaxEnds[block], end );
+    }
+  }
+}
@@ -72,6 +72,22 @@ public interface ProjectManager
    */
   public void loadProject( final InputStream aInput ) throws IOException;
 
+  /**
+   * Loads a project from the given file.
+   * <p>
+   * In contrast to {@link #loadProject(InputStream)}, this method only loads
+   * the project metadata, channel labels and settings before returning. The
+   * captured data is loaded in the background, and set on the project once it
+   * is available.
+   * </p>
+   * 
+   * @param aFile
+   *          the file to read the project from, cannot be <code>null</code>.
+   * @throws IOException
+   *           in case of I/O problems during the read of the project.
+   */
+  public void loadProject( final File aFile ) throws IOException;
+
   /**
    * Removes the given listener from the list of property change listeners.
    * 
@@ -0,0 +1,340 @@
+/*
+ * OpenBench LogicSniffer / SUMP project 
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * 
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.util;
+
+
+import java.util.*;
+
+
+/**
+ * Provides a frequency distribution of primitive integer values.
+ * <p>
+ * This distribution does not box its values and counts, but keeps them in an
+ * open addressing hash table, making it suitable for being fed once per sample
+ * or transition. It is <b>not</b> thread-safe:
+ * when used from multiple threads, let each thread use its own instance and
+ * {@link #merge(IntFrequency) merge} them afterwards.
+ * </p>
+ */
+public final class IntFrequency
+{
+  // CONSTANTS
+
+  private static final int DEFAULT_CAPACITY = 64;
+
+  // VARIABLES
+
+  private int[] keys;
+  private long[] counts;
+  private int size;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new IntFrequency instance.
+   */
+  public IntFrequency()
+  {
+    this( DEFAULT_CAPACITY );
+  }
+
+  /**
+   * Creates a new IntFrequency instance.
+   * 
+   * @param aExpectedValueCount
+   *          the expected number of unique values, >= 0.
+   * @throws IllegalArgumentException
+   *           in case the given value count was negative.
+   */
+  public IntFrequency( final int aExpectedValueCount )
+  {
+    if ( aExpectedValueCount < 0 )
+    {
+      throw new IllegalArgumentException( "Expected value count cannot be negative!" );
+    }
+    // Keep the load factor at, or below, 0.5...
+    final int capacity = Integer.highestOneBit( Math.max( 2, aExpectedValueCount ) * 4 - 1 );
+    this.keys = new int[capacity];
+    this.counts = new long[capacity];
+  }
+
+  /**
+   * Creates a new IntFrequency instance as copy of a given distribution.
+   * 
+   * @param aFrequency
+   *          the frequency distribution to copy, cannot be <code>null</code>.
+   */
+  public IntFrequency( final IntFrequency aFrequency )
+  {
+    this.keys = aFrequency.keys.clone();
+    this.counts = aFrequency.counts.clone();
+    this.size = aFrequency.size;
+  }
+
+  // METHODS
+
+  /**
+   * Adds a given value to this frequency distribution.
+   * 
+   * @param aValue
+   *          the value to add.
+   */
+  public void addValue( final int aValue )
+  {
+    addValue( aValue, 1L );
+  }
+
+  /**
+   * Adds a given value a number of times to this frequency distribution.
+   * 
+   * @param aValue
+   *          the value to add;
+   * @param aCount
+   *          the number of times to add the value, > 0.
+   * @throws IllegalArgumentException
+   *           in case the given count was zero or negative.
+   */
+  public void addValue( final int aValue, final long aCount )
+  {
+    if ( aCount <= 0L )
+    {
+      throw new IllegalArgumentException( "Count should be positive!" );
+    }
+
+    int slot = indexOf( this.keys, this.counts, aValue );
+    if ( this.counts[slot] == 0L )
+    {
+      if ( ( this.size + 1 ) * 2 > this.keys.length )
+      {
+        resize();
+        slot = indexOf( this.keys, this.counts, aValue );
+      }
+      this.keys[slot] = aValue;
+      this.size++;
+    }
+    this.counts[slot] += aCount;
+  }
+
+  /**
+   * Clears all values from this frequency distribution.
+   */
+  public void clear()
+  {
+    Arrays.fill( this.counts, 0L );
+    this.size = 0;
+  }
+
+  /**
+   * Counts the number of occurrences of the given value.
+   * 
+   * @param aValue
+   *          the value to count.
+   * @return the number of occurrences, >= 0.
+   */
+  public long getCount( final int aValue )
+  {
+    return this.counts[indexOf( this.keys, this.counts, aValue )];
+  }
+
+  /**
+   * Returns the value with the highest count or rank. In case multiple values
+   * share the highest rank, the lowest of these values is returned.
+   * 
+   * @return the value with the highest rank.
+   * @throws IllegalStateException
+   *           in case this frequency distribution is empty.
+   */
+  public int getHighestRanked()
+  {
+    return getRanked( true );
+  }
+
+  /**
+   * Returns the value with the lowest count or rank. In case multiple values
+   * share the lowest rank, the lowest of these values is returned.
+   * 
+   * @return the value with the lowest rank.
+   * @throws IllegalStateException
+   *           in case this frequency distribution is empty.
+   */
+  public int getLowestRanked()
+  {
+    return getRanked( false );
+  }
+
+  /**
+   * Returns the total number of values added to this frequency distribution.
+   * 
+   * @return a total count, >= 0.
+   */
+  public long getTotalCount()
+  {
+    long result = 0L;
+    for ( final long count : this.counts )
+    {
+      result += count;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of unique values in this frequency distribution.
+   * 
+   * @return a unique value count, >= 0.
+   */
+  public int getUniqueValueCount()
+  {
+    return this.size;
+  }
+
+  /**
+   * Returns whether this frequency distribution is empty.
+   * 
+   * @return <code>true</code> if no values are added, <code>false</code>
+   *         otherwise.
+   */
+  public boolean isEmpty()
+  {
+    return this.size == 0;
+  }
+
+  /**
+   * Adds all values of the given frequency distribution to this distribution.
+   * 
+   * @param aFrequency
+   *          the frequency distribution to merge, cannot be <code>null</code>.
+   * @throws IllegalArgumentException
+   *           in case the given frequency distribution was <code>null</code>.
+   */
+  public void merge( final IntFrequency aFrequency )
+  {
+    if ( aFrequency == null )
+    {
+      throw new IllegalArgumentException( "Frequency cannot be null!" );
+    }
+
+    final int[] otherKeys = aFrequency.keys;
+    final long[] otherCounts = aFrequency.counts;
+    for ( int i = 0; i < otherCounts.length; i++ )
+    {
+      if ( otherCounts[i] != 0L )
+      {
+        addValue( otherKeys[i], otherCounts[i] );
+      }
+    }
+  }
+
+  /**
+   * Returns the unique values in this frequency distribution.
+   * 
+   * @return an array with all values, sorted in natural order, never
+   *         <code>null</code>.
+   */
+  public int[] values()
+  {
+    final int[] result = new int[this.size];
+    for ( int i = 0, j = 0; i < this.counts.length; i++ )
+    {
+      if ( this.counts[i] != 0L )
+      {
+        result[j++] = this.keys[i];
+      }
+    }
+    Arrays.sort( result );
+    return result;
+  }
+
+  /**
+   * Returns the slot of the given value, or the (empty) slot it should be put
+   * in if it is not present.
+   */
+  private static int indexOf( final int[] aKeys, final long[] aCounts, final int aValue )
+  {
+    final int mask = aKeys.length - 1;
+
+    // Spread the bits of the value, as many values are small or multiples of
+    // each other...
+    int slot = aValue * 0x9E3779B9;
+    slot ^= ( slot >>> 16 );
+    for ( ;; )
+    {
+      slot &= mask;
+      if ( ( aCounts[slot] == 0L ) || ( aKeys[slot] == aValue ) )
+      {
+        return slot;
+      }
+      slot++;
+    }
+  }
+
+  /**
+   * Returns the value with either the highest or lowest rank.
+   */
+  private int getRanked( final boolean aHighest )
+  {
+    if ( this.size == 0 )
+    {
+      throw new IllegalStateException( "Frequency distribution is empty!" );
+    }
+
+    int result = 0;
+    long rank = 0L;
+    for ( int i = 0; i < this.counts.length; i++ )
+    {
+      final long count = this.counts[i];
+      if ( count == 0L )
+      {
+        continue;
+      }
+
+      final int key = this.keys[i];
+      if ( ( rank == 0L ) || ( aHighest ? ( count > rank ) : ( count < rank ) )
+          || ( ( count == rank ) && ( key < result ) ) )
+      {
+        rank = count;
+        result = key;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Doubles the capacity of the hash table.
+   */
+  private void resize()
+  {
+    final int[] oldKeys = this.keys;
+    final long[] oldCounts = this.counts;
+
+    this.keys = new int[oldKeys.length * 2];
+    this.counts = new long[oldCounts.length * 2];
+
+    for ( int i = 0; i < oldCounts.length; i++ )
+    {
+      if ( oldCounts[i] != 0L )
+      {
+        final int slot = indexOf( this.keys, this.counts, oldKeys[i] );
+        this.keys[slot] = oldKeys[i];
+        this.counts[slot] = oldCounts[i];
+      }
+    }
+  }
+}
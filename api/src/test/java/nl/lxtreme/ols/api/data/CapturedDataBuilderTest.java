@@ -0,0 +1,157 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link CapturedDataBuilder}.
+ */
+public class CapturedDataBuilderTest
+{
+  // METHODS
+
+  /**
+   * Tests that building captured data yields the same results as the
+   * list-based constructor of {@link CapturedData}.
+   */
+  @Test
+  public void testBuildEqualsListBasedCapturedData() throws IOException
+  {
+    final Random rnd = new Random( 1234L );
+
+    for ( int run = 0; run < 50; run++ )
+    {
+      final List<Integer> values = new ArrayList<Integer>();
+      final List<Long> timestamps = new ArrayList<Long>();
+      // use a small initial capacity to force the builder to grow...
+      final CapturedDataBuilder builder = new CapturedDataBuilder( 1 );
+
+      long time = 0;
+      final int count = 1 + rnd.nextInt( 5000 );
+      for ( int i = 0; i < count; i++ )
+      {
+        final int value = rnd.nextInt( 4 );
+        values.add( Integer.valueOf( value ) );
+        timestamps.add( Long.valueOf( time ) );
+        builder.add( value, time );
+
+        time += 1 + rnd.nextInt( 10 );
+      }
+
+      final long absLength = ( run % 2 ) == 0 ? -1L : time;
+
+      final CapturedData expected = new CapturedData( values, timestamps, 10L, 100, 8, 0xFF, absLength );
+      final CapturedData actual = builder.build( 10L, 100, 8, 0xFF, absLength );
+
+      assertArrayEquals( expected.getValues(), actual.getValues() );
+      assertArrayEquals( expected.getTimestamps(), actual.getTimestamps() );
+      assertEquals( expected.getTimestamps()[expected.getTimestamps().length - 1], actual.getAbsoluteLength() );
+      assertEquals( 10L, actual.getTriggerPosition() );
+      assertEquals( 100, actual.getSampleRate() );
+      assertEquals( 8, actual.getChannels() );
+      assertEquals( 0xFF, actual.getEnabledChannels() );
+    }
+  }
+
+  /**
+   * Tests that a single sample is always padded with the absolute length.
+   */
+  @Test
+  public void testBuildSingleSample() throws IOException
+  {
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
+    builder.add( 3, 0L );
+
+    final CapturedData data = builder.build( -1L, 100, 8, 0xFF, 0L );
+
+    assertArrayEquals( new int[] { 3, 3 }, data.getValues() );
+    assertArrayEquals( new long[] { 0L, 0L }, data.getTimestamps() );
+  }
+
+  /**
+   * Tests that building without any samples is not allowed.
+   */
+  @Test( expected = IllegalStateException.class )
+  public void testBuildWithoutSamplesFail() throws IOException
+  {
+    new CapturedDataBuilder().build( -1L, 100, 8, 0xFF, 0L );
+  }
+
+  /**
+   * Tests that spilling the transitions to memory-mapped files yields the same
+   * results as keeping them in memory.
+   */
+  @Test
+  public void testBuildWithSpillingEqualsInMemoryBuild() throws IOException
+  {
+    final Random rnd = new Random( 2345L );
+
+    final CapturedDataBuilder inMemoryBuilder = new CapturedDataBuilder( 1, 0L );
+    final CapturedDataBuilder spillingBuilder = new CapturedDataBuilder( 1, 1000L );
+
+    long time = 0;
+    for ( int i = 0; i < 200000; i++ )
+    {
+      final int value = rnd.nextInt( 4 );
+      inMemoryBuilder.add( value, time );
+      spillingBuilder.add( value, time );
+
+      time += 1 + rnd.nextInt( 10 );
+    }
+
+    final CapturedData expected = inMemoryBuilder.build( 10L, 100, 8, 0xFF, time );
+    final CapturedData actual = spillingBuilder.build( 10L, 100, 8, 0xFF, time );
+
+    assertTrue( actual.getSampleStore() instanceof MappedSampleStore );
+    assertEquals( expected.getAbsoluteLength(), actual.getAbsoluteLength() );
+    assertArrayEquals( expected.getValues(), actual.getValues() );
+    assertArrayEquals( expected.getTimestamps(), actual.getTimestamps() );
+
+    for ( long ts = -1L; ts <= time + 1; ts += 1 + rnd.nextInt( 100 ) )
+    {
+      assertEquals( expected.getSampleIndex( ts ), actual.getSampleIndex( ts ) );
+    }
+  }
+
+  /**
+   * Tests that duplicate sample values are not stored.
+   */
+  @Test
+  public void testDuplicateValuesAreFiltered()
+  {
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
+    builder.add( 1, 0L );
+    builder.add( 1, 1L );
+    builder.add( 2, 2L );
+    builder.add( 2, 3L );
+
+    assertEquals( 2, builder.size() );
+    assertEquals( 3L, builder.getLastTimestamp() );
+  }
+}
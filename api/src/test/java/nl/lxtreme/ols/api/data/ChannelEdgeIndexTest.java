@@ -0,0 +1,233 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link ChannelEdgeIndex}.
+ */
+public class ChannelEdgeIndexTest
+{
+  // VARIABLES
+
+  private int[] values;
+  private CapturedData data;
+
+  // METHODS
+
+  /**
+   * Sets up the test case.
+   */
+  @Before
+  public void setUp()
+  {
+    final Random rnd = new Random( 1234L );
+
+    final int count = 10000;
+    this.values = new int[count];
+    final long[] timestamps = new long[count];
+    for ( int i = 0; i < count; i++ )
+    {
+      // let the higher channels toggle less often...
+      int value = ( i > 0 ) ? this.values[i - 1] : 0;
+      value ^= rnd.nextInt() & rnd.nextInt() & rnd.nextInt();
+      this.values[i] = value & 0x00FFFFFF;
+      timestamps[i] = 2L * i;
+    }
+
+    this.data = new CapturedData( this.values, timestamps, -1L, 100, 24, 0x00FFFFFF, 2L * count );
+  }
+
+  /**
+   * Tests that the index of a captured data is cached.
+   */
+  @Test
+  public void testEdgeIndexIsCached()
+  {
+    assertSame( ChannelEdgeIndex.getInstance( this.data ), ChannelEdgeIndex.getInstance( this.data ) );
+  }
+
+  /**
+   * Tests that the edges of all channels, including the disabled ones, are
+   * found.
+   */
+  @Test
+  public void testGetEdgesEqualsLinearScan()
+  {
+    final ChannelEdgeIndex index = ChannelEdgeIndex.getInstance( this.data );
+    final int[] v = this.data.getValues();
+
+    for ( int ch = 0; ch < 32; ch++ )
+    {
+      final int mask = 1 << ch;
+
+      final List<Integer> expected = new ArrayList<Integer>();
+      for ( int i = 1; i < v.length; i++ )
+      {
+        if ( ( v[i] & mask ) != ( v[i - 1] & mask ) )
+        {
+          expected.add( Integer.valueOf( i ) );
+        }
+      }
+
+      final int[] actual = index.getEdges( ch );
+      assertEquals( "Channel " + ch, expected.size(), actual.length );
+      for ( int i = 0; i < actual.length; i++ )
+      {
+        assertEquals( expected.get( i ).intValue(), actual[i] );
+      }
+    }
+  }
+
+  /**
+   * Tests that searching for the edge before/after a sample index yields the
+   * same result as a linear scan.
+   */
+  @Test
+  public void testFindEdgeEqualsLinearScan()
+  {
+    final ChannelEdgeIndex index = ChannelEdgeIndex.getInstance( this.data );
+    final int[] v = this.data.getValues();
+
+    for ( int ch = 0; ch < 24; ch += 5 )
+    {
+      final int mask = 1 << ch;
+      for ( int idx = 0; idx < v.length; idx += 7 )
+      {
+        int after = idx + 1;
+        while ( ( after < v.length ) && ( ( v[after] & mask ) == ( v[after - 1] & mask ) ) )
+        {
+          after++;
+        }
+        assertEquals( ( after < v.length ) ? after : -1, index.findEdgeAfter( ch, idx ) );
+
+        int before = idx;
+        while ( ( before > 0 ) && ( ( v[before] & mask ) == ( v[before - 1] & mask ) ) )
+        {
+          before--;
+        }
+        assertEquals( ( before > 0 ) ? before : -1, index.findEdgeBefore( ch, idx ) );
+      }
+    }
+  }
+
+  /**
+   * Tests that the transitions on which any of the channels in a mask change
+   * equal those found by a linear scan.
+   */
+  @Test
+  public void testGetTransitionsEqualsLinearScan()
+  {
+    final Random rnd = new Random( 3456L );
+
+    final ChannelEdgeIndex index = ChannelEdgeIndex.getInstance( this.data );
+    final int[] v = this.data.getValues();
+
+    for ( int run = 0; run < 100; run++ )
+    {
+      final int mask = rnd.nextInt() & rnd.nextInt();
+      final int startIdx = rnd.nextInt( v.length );
+      final int endIdx = startIdx + rnd.nextInt( v.length - startIdx + 1 );
+
+      final List<Integer> expected = new ArrayList<Integer>();
+      for ( int i = Math.max( 1, startIdx ); i < endIdx; i++ )
+      {
+        if ( ( ( v[i] ^ v[i - 1] ) & mask ) != 0 )
+        {
+          expected.add( Integer.valueOf( i ) );
+        }
+      }
+
+      final int[] actual = index.getTransitions( mask, startIdx, endIdx );
+      assertEquals( expected.size(), actual.length );
+      for ( int i = 0; i < actual.length; i++ )
+      {
+        assertEquals( expected.get( i ).intValue(), actual[i] );
+      }
+    }
+  }
+
+  /**
+   * Tests that the pulse statistics between two transitions yield the same
+   * result as walking all transitions in between.
+   */
+  @Test
+  public void testGetPulseStatisticsEqualsLinearScan()
+  {
+    final Random rnd = new Random( 2345L );
+
+    // use irregular timestamps to ensure the times are properly accumulated...
+    final long[] time = new long[this.values.length];
+    for ( int i = 1; i < time.length; i++ )
+    {
+      time[i] = time[i - 1] + 1 + rnd.nextInt( 100 );
+    }
+    final CapturedData data = new CapturedData( this.values, time, -1L, 100, 24, 0x00FFFFFF, time[time.length - 1] );
+
+    final int[] v = data.getValues();
+    final long[] timestamps = data.getTimestamps();
+    final ChannelEdgeIndex index = ChannelEdgeIndex.getInstance( data );
+
+    for ( int run = 0; run < 500; run++ )
+    {
+      final int ch = rnd.nextInt( 24 );
+      final int mask = 1 << ch;
+      final int startIdx = rnd.nextInt( v.length );
+      final int endIdx = ( run % 10 ) == 0 ? startIdx : startIdx + rnd.nextInt( v.length - startIdx );
+
+      int rising = 0;
+      int falling = 0;
+      long lowTime = 0L;
+      long highTime = 0L;
+      long lastTransition = timestamps[startIdx];
+      for ( int i = startIdx + 1; i <= endIdx; i++ )
+      {
+        if ( ( v[i] & mask ) != ( v[i - 1] & mask ) )
+        {
+          if ( ( v[i] & mask ) != 0 )
+          {
+            rising++;
+            lowTime += timestamps[i] - lastTransition;
+          }
+          else
+          {
+            falling++;
+            highTime += timestamps[i] - lastTransition;
+          }
+          lastTransition = timestamps[i];
+        }
+      }
+
+      final ChannelEdgeIndex.PulseStatistics stats = index.getPulseStatistics( ch, startIdx, endIdx );
+      assertEquals( rising, stats.getRisingEdgeCount() );
+      assertEquals( falling, stats.getFallingEdgeCount() );
+      assertEquals( lowTime, stats.getLowTime() );
+      assertEquals( highTime, stats.getHighTime() );
+    }
+  }
+}
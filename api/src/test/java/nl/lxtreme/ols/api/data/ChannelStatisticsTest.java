@@ -0,0 +1,160 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import nl.lxtreme.ols.api.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link ChannelStatistics}.
+ */
+public class ChannelStatisticsTest
+{
+  // VARIABLES
+
+  private CapturedData data;
+
+  // METHODS
+
+  /**
+   * Sets up the test case.
+   */
+  @Before
+  public void setUp()
+  {
+    final Random rnd = new Random( 1234L );
+
+    // use enough samples to let the scan be split up in multiple chunks...
+    final int count = 4 * ChannelStatistics.SCAN_CHUNK_SIZE + 123;
+    final int[] values = new int[count];
+    final long[] timestamps = new long[count];
+    for ( int i = 0; i < count; i++ )
+    {
+      // channel 0 is a clock, channel 23 is mostly high; the other channels
+      // toggle randomly...
+      int value = ( i > 0 ) ? values[i - 1] : 0;
+      value ^= rnd.nextInt() & rnd.nextInt() & rnd.nextInt() & 0x007FFFFE;
+      value = ( ( i % 100 ) == 0 ) ? ( value & ~0x00800000 ) : ( value | 0x00800000 );
+      values[i] = value ^ 1;
+      timestamps[i] = 2L * i;
+    }
+
+    this.data = new CapturedData( values, timestamps, -1L, 100, 24, 0x00FFFFFF, timestamps[count - 1] );
+  }
+
+  /**
+   * Tests that the statistics of a captured data are cached.
+   */
+  @Test
+  public void testChannelStatisticsAreCached()
+  {
+    assertSame( ChannelStatistics.getInstance( this.data ), ChannelStatistics.getInstance( this.data ) );
+  }
+
+  /**
+   * Tests that modifying the returned pulse widths does not affect the
+   * statistics.
+   */
+  @Test
+  public void testGetPulseWidthsReturnsCopy()
+  {
+    final ChannelStatistics stats = ChannelStatistics.getInstance( this.data );
+
+    final IntFrequency widths = stats.getPulseWidths( 0 );
+    final long totalCount = widths.getTotalCount();
+    widths.clear();
+
+    assertEquals( totalCount, stats.getPulseWidths( 0 ).getTotalCount() );
+    assertTrue( stats.isClockLike( 0 ) );
+  }
+
+  /**
+   * Tests that the clock line is detected as such.
+   */
+  @Test
+  public void testGetLikelyClockChannel()
+  {
+    final ChannelStatistics stats = ChannelStatistics.getInstance( this.data );
+
+    assertTrue( stats.isClockLike( 0 ) );
+    assertFalse( stats.isClockLike( 1 ) );
+    assertFalse( stats.isClockLike( 31 ) );
+    assertEquals( 0, stats.getLikelyClockChannel() );
+  }
+
+  /**
+   * Tests that the statistics of all channels equal those determined by
+   * walking all transitions of each channel individually.
+   */
+  @Test
+  public void testStatisticsEqualLinearScan()
+  {
+    final ChannelStatistics stats = ChannelStatistics.getInstance( this.data );
+    final int[] v = this.data.getValues();
+    final long[] t = this.data.getTimestamps();
+
+    for ( int ch = 0; ch < 32; ch++ )
+    {
+      final int mask = 1 << ch;
+
+      final IntFrequency widths = new IntFrequency();
+      int edges = 0;
+      long highTime = 0L;
+      long lastEdge = -1L;
+      for ( int i = 1; i < v.length; i++ )
+      {
+        if ( ( v[i - 1] & mask ) != 0 )
+        {
+          highTime += t[i] - t[i - 1];
+        }
+        if ( ( v[i] & mask ) != ( v[i - 1] & mask ) )
+        {
+          if ( lastEdge >= 0L )
+          {
+            widths.addValue( ( int )( t[i] - lastEdge ) );
+          }
+          lastEdge = t[i];
+          edges++;
+        }
+      }
+
+      final IntFrequency actual = stats.getPulseWidths( ch );
+
+      assertEquals( "Channel " + ch, edges, stats.getEdgeCount( ch ) );
+      assertEquals( "Channel " + ch, highTime, stats.getHighTime( ch ) );
+      assertEquals( "Channel " + ch, widths.getTotalCount(), actual.getTotalCount() );
+      for ( final int width : widths.values() )
+      {
+        assertEquals( widths.getCount( width ), actual.getCount( width ) );
+      }
+    }
+
+    assertEquals( 1, stats.getIdleLevel( 23 ) );
+    assertEquals( 0, stats.getIdleLevel( 31 ) );
+  }
+}
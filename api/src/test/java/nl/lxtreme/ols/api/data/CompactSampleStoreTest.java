@@ -0,0 +1,186 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link CompactSampleStore}.
+ */
+public class CompactSampleStoreTest
+{
+  // METHODS
+
+  /**
+   * Tests that searching for a timestamp yields the same index as the
+   * array-based sample store does.
+   */
+  @Test
+  public void testFindIndexEqualsArraySampleStore()
+  {
+    final Random rnd = new Random( 2345L );
+
+    for ( int run = 0; run < 20; run++ )
+    {
+      final int count = 1 + rnd.nextInt( 5000 );
+      final int[] values = createValues( rnd, count, 0xFF );
+      final long[] timestamps = createTimestamps( rnd, count, 1 + rnd.nextInt( 1000 ) );
+
+      final ArraySampleStore expected = new ArraySampleStore( values, timestamps );
+      final CompactSampleStore actual = new CompactSampleStore( values, timestamps );
+
+      final long last = timestamps[count - 1];
+      for ( long ts = -1L; ts <= last + 1; ts += 1 + rnd.nextInt( 50 ) )
+      {
+        assertEquals( "Timestamp: " + ts, expected.findIndex( ts ), actual.findIndex( ts ) );
+      }
+      for ( long ts : timestamps )
+      {
+        assertEquals( "Timestamp: " + ts, expected.findIndex( ts ), actual.findIndex( ts ) );
+      }
+    }
+  }
+
+  /**
+   * Tests that an empty store can be created and searched.
+   */
+  @Test
+  public void testEmptyStore()
+  {
+    final CompactSampleStore store = new CompactSampleStore( new int[0], new long[0] );
+
+    assertEquals( 0, store.size() );
+    assertEquals( 0, store.findIndex( 10L ) );
+    assertEquals( 0, store.getValues().length );
+    assertEquals( 0, store.getTimestamps().length );
+  }
+
+  /**
+   * Tests that the memory footprint of a dense 8-channel capture is at least
+   * three times smaller than that of the array-based sample store.
+   */
+  @Test
+  public void testMemorySizeOfDense8ChannelCapture()
+  {
+    final Random rnd = new Random( 3456L );
+
+    final int count = 1000000;
+    final int[] values = createValues( rnd, count, 0xFF );
+    final long[] timestamps = createTimestamps( rnd, count, 16 );
+
+    final ArraySampleStore arrayStore = new ArraySampleStore( values, timestamps );
+    final CompactSampleStore compactStore = new CompactSampleStore( values, timestamps );
+
+    assertTrue( ( 3 * compactStore.getMemorySize() ) < arrayStore.getMemorySize() );
+  }
+
+  /**
+   * Tests that random access to the transitions yields the original values and
+   * timestamps for all supported storage layouts.
+   */
+  @Test
+  public void testRandomAccessYieldsOriginalTransitions()
+  {
+    final Random rnd = new Random( 1234L );
+
+    final int[] masks = { 0x000000FF, 0x0000FF00, 0x00FF0000, 0x0000FFFF, 0xFFFF0000, 0x00FFFFFF, 0xFFFFFFFF };
+    final int[] maxDeltas = { 1, 100, 10000, Integer.MAX_VALUE };
+
+    for ( int mask : masks )
+    {
+      for ( int maxDelta : maxDeltas )
+      {
+        final int count = 1 + rnd.nextInt( 1000 );
+        final int[] values = createValues( rnd, count, mask );
+        final long[] timestamps = createTimestamps( rnd, count, maxDelta );
+
+        final CompactSampleStore store = new CompactSampleStore( values, timestamps );
+
+        assertEquals( count, store.size() );
+        for ( int i = 0; i < count; i++ )
+        {
+          assertEquals( values[i], store.getValue( i ) );
+          assertEquals( timestamps[i], store.getTimestamp( i ) );
+        }
+        assertArrayEquals( values, store.getValues() );
+        assertArrayEquals( timestamps, store.getTimestamps() );
+      }
+    }
+  }
+
+  /**
+   * Tests that {@link CapturedData} based on a compact sample store behaves the
+   * same as one based on plain arrays.
+   */
+  @Test
+  public void testCapturedDataWithCompactStore()
+  {
+    final Random rnd = new Random( 4567L );
+
+    final int count = 10000;
+    final int[] values = createValues( rnd, count, 0xFFFF );
+    final long[] timestamps = createTimestamps( rnd, count, 300 );
+    final long absLength = timestamps[count - 1];
+
+    final CapturedData expected = new CapturedData( values, timestamps, 10L, 100, 16, 0xFFFF, absLength );
+    final CapturedData actual = new CapturedData( SampleStores.compact( expected.getSampleStore() ), 10L, 100, 16,
+        0xFFFF, absLength );
+
+    assertArrayEquals( expected.getValues(), actual.getValues() );
+    assertArrayEquals( expected.getTimestamps(), actual.getTimestamps() );
+    for ( long ts = 0L; ts <= absLength; ts += 7L )
+    {
+      assertEquals( expected.getSampleIndex( ts ), actual.getSampleIndex( ts ) );
+    }
+  }
+
+  /**
+   * Creates increasing timestamps starting at zero.
+   */
+  private static long[] createTimestamps( final Random aRnd, final int aCount, final int aMaxDelta )
+  {
+    final long[] result = new long[aCount];
+    for ( int i = 1; i < aCount; i++ )
+    {
+      result[i] = result[i - 1] + 1 + aRnd.nextInt( aMaxDelta );
+    }
+    return result;
+  }
+
+  /**
+   * Creates random sample values, only using the bits of the given mask.
+   */
+  private static int[] createValues( final Random aRnd, final int aCount, final int aMask )
+  {
+    final int[] result = new int[aCount];
+    for ( int i = 0; i < aCount; i++ )
+    {
+      result[i] = aRnd.nextInt() & aMask;
+    }
+    return result;
+  }
+}
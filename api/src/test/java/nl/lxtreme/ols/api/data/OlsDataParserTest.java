@@ -0,0 +1,186 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link OlsDataParser}.
+ */
+public class OlsDataParserTest
+{
+  // METHODS
+
+  /**
+   * Tests that parsing in (small) blocks yields the same results as parsing
+   * everything in one go.
+   */
+  @Test
+  public void testParseInBlocksEqualsParseAtOnce() throws IOException
+  {
+    final Random rnd = new Random( 3456L );
+
+    final StringBuilder sb = new StringBuilder();
+    sb.append( ";Rate: 100000000\r\n" );
+    sb.append( ";Channels: 32\r\n" );
+    sb.append( ";EnabledChannels: -1\r\n" );
+    sb.append( ";TriggerPosition: 10\n" );
+    sb.append( ";CursorEnabled: true\n" );
+    sb.append( ";Cursor2: 1234\n" );
+    sb.append( ";CursorB: 5678\n" );
+    sb.append( "this line should be ignored\n" );
+
+    final int count = 10000;
+    final int[] values = new int[count];
+    final long[] timestamps = new long[count];
+
+    long time = 0L;
+    for ( int i = 0; i < count; i++ )
+    {
+      values[i] = rnd.nextInt();
+      timestamps[i] = time;
+      time += 1 + rnd.nextInt( 100000 );
+
+      sb.append( String.format( "%08x@%d", Integer.valueOf( values[i] ), Long.valueOf( timestamps[i] ) ) );
+      sb.append( rnd.nextBoolean() ? "\n" : "\r\n" );
+    }
+    sb.append( ";AbsoluteLength: " ).append( time ).append( "\n" );
+
+    final String data = sb.toString();
+
+    final OlsDataParser expected = OlsDataParser.parse( new StringReader( data ) );
+
+    assertArrayEquals( values, expected.getValues() );
+    assertArrayEquals( timestamps, expected.getTimestamps() );
+    assertEquals( 100000000, expected.getSampleRate() );
+    assertEquals( 32, expected.getChannels() );
+    assertEquals( -1, expected.getEnabledChannels() );
+    assertEquals( 10L, expected.getTriggerPosition() );
+    assertEquals( time, expected.getAbsoluteLength() );
+    assertTrue( expected.isCursorsEnabled() );
+    assertEquals( Long.MIN_VALUE, expected.getCursorTimestamp( 0 ) );
+    assertEquals( 5678L, expected.getCursorTimestamp( 1 ) );
+    assertEquals( 1234L, expected.getCursorTimestamp( 2 ) );
+
+    for ( int blockSize : new int[] { 64, 100, 1000, 4096 } )
+    {
+      final OlsDataParser actual = OlsDataParser.parse( new StringReader( data ), blockSize );
+
+      assertArrayEquals( expected.getValues(), actual.getValues() );
+      assertArrayEquals( expected.getTimestamps(), actual.getTimestamps() );
+      assertEquals( expected.getAbsoluteLength(), actual.getAbsoluteLength() );
+      assertEquals( expected.getCursorTimestamp( 2 ), actual.getCursorTimestamp( 2 ) );
+    }
+  }
+
+  /**
+   * Tests that creating the captured data directly from the parsed blocks
+   * yields the same results as creating it from the concatenated samples.
+   */
+  @Test
+  public void testCreateCapturedDataFromBlocks() throws IOException
+  {
+    final StringBuilder sb = new StringBuilder();
+    sb.append( ";Rate: 1000000\n" );
+    sb.append( ";Channels: 8\n" );
+    sb.append( ";EnabledChannels: 255\n" );
+    sb.append( ";TriggerPosition: 20\n" );
+    for ( int i = 0; i < 1000; i++ )
+    {
+      sb.append( String.format( "%02x@%d\n", Integer.valueOf( ( i / 3 ) & 0xFF ), Long.valueOf( 2L * i ) ) );
+    }
+    sb.append( ";AbsoluteLength: 2000\n" );
+
+    final String data = sb.toString();
+
+    final OlsDataParser arrays = OlsDataParser.parse( new StringReader( data ) );
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
+    final int[] values = arrays.getValues();
+    final long[] timestamps = arrays.getTimestamps();
+    for ( int i = 0; i < values.length; i++ )
+    {
+      builder.add( values[i], timestamps[i] );
+    }
+    final CapturedData expected = builder.build( 20L, 1000000, 8, 255, 2000L );
+
+    final OlsDataParser blocks = OlsDataParser.parse( new StringReader( data ), 64 );
+    final CapturedData actual = blocks.createCapturedData();
+
+    assertArrayEquals( expected.getValues(), actual.getValues() );
+    assertArrayEquals( expected.getTimestamps(), actual.getTimestamps() );
+    assertEquals( expected.getTriggerPosition(), actual.getTriggerPosition() );
+    assertEquals( expected.getSampleRate(), actual.getSampleRate() );
+    assertEquals( expected.getChannels(), actual.getChannels() );
+    assertEquals( expected.getEnabledChannels(), actual.getEnabledChannels() );
+    assertEquals( expected.getAbsoluteLength(), actual.getAbsoluteLength() );
+
+    // Creating the captured data from already concatenated samples works too...
+    final CapturedData fromArrays = arrays.createCapturedData();
+    assertArrayEquals( expected.getValues(), fromArrays.getValues() );
+  }
+
+  /**
+   * Tests that the samples are no longer available once they are handed over
+   * to the captured data.
+   */
+  @Test( expected = IllegalStateException.class )
+  public void testGetValuesAfterCreateCapturedDataFail() throws IOException
+  {
+    final OlsDataParser parser = OlsDataParser.parse( new StringReader( ";Rate: 100\n;Channels: 8\n00@0\n01@1\n" ) );
+    parser.createCapturedData();
+
+    parser.getValues();
+  }
+
+  /**
+   * Tests that data without any samples is not accepted.
+   */
+  @Test( expected = IOException.class )
+  public void testParseWithoutSamplesFail() throws IOException
+  {
+    OlsDataParser.parse( new StringReader( ";Rate: 100\n;Channels: 8\n" ) );
+  }
+
+  /**
+   * Tests that data with a sample count not matching its size is not accepted.
+   */
+  @Test( expected = IOException.class )
+  public void testParseWithInvalidSizeFail() throws IOException
+  {
+    OlsDataParser.parse( new StringReader( ";Size: 3\n;Rate: 100\n;Channels: 8\n00@0\n01@1\n" ) );
+  }
+
+  /**
+   * Tests that samples with out-of-range values are not accepted.
+   */
+  @Test( expected = IOException.class )
+  public void testParseWithOverflowingSampleFail() throws IOException
+  {
+    OlsDataParser.parse( new StringReader( ";Rate: 100\n;Channels: 8\n00@0\n01@99999999999999999999\n" ) );
+  }
+}
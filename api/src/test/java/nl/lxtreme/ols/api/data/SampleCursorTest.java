@@ -0,0 +1,155 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link SampleCursor}.
+ */
+public class SampleCursorTest
+{
+  // VARIABLES
+
+  private int[] values;
+  private long[] timestamps;
+  private SampleCursor cursor;
+
+  // METHODS
+
+  /**
+   * Sets up the test case.
+   */
+  @Before
+  public void setUp()
+  {
+    // channel 0 toggles on every transition, channel 1 on every other...
+    this.values = new int[] { 0x0, 0x1, 0x2, 0x3, 0x0, 0x1 };
+    this.timestamps = new long[] { 10L, 20L, 30L, 40L, 50L, 60L };
+    this.cursor = new SampleCursor( SampleStores.array( this.values, this.timestamps ) );
+  }
+
+  /**
+   * Tests that searching for edges only considers the masked bits.
+   */
+  @Test
+  public void testFindEdgeOnMask()
+  {
+    assertEquals( 20L, this.cursor.findEdge( 0x1, Edge.NONE, 0L, 100L ) );
+    assertEquals( 30L, this.cursor.findEdge( 0x2, Edge.NONE, 0L, 100L ) );
+    assertEquals( 30L, this.cursor.findEdge( 0x2, Edge.RISING, 0L, 100L ) );
+    assertEquals( 50L, this.cursor.findEdge( 0x2, Edge.FALLING, 0L, 100L ) );
+    assertEquals( 40L, this.cursor.findEdge( 0x1, Edge.RISING, 21L, 100L ) );
+    assertEquals( -1L, this.cursor.findEdge( 0x4, Edge.NONE, 0L, 100L ) );
+  }
+
+  /**
+   * Tests that the time range for edges is inclusive/exclusive.
+   */
+  @Test
+  public void testFindEdgeRange()
+  {
+    assertEquals( 30L, this.cursor.findEdge( 0x1, Edge.NONE, 30L, 100L ) );
+    assertEquals( -1L, this.cursor.findEdge( 0x1, Edge.NONE, 31L, 40L ) );
+    assertEquals( 40L, this.cursor.findEdge( 0x1, Edge.NONE, 31L, 41L ) );
+    // the first transition is not an edge...
+    assertEquals( -1L, this.cursor.findEdge( 0x1, Edge.NONE, 0L, 20L ) );
+  }
+
+  /**
+   * Tests that the value at a given time is that of the last transition at or
+   * before that time, regardless of the direction in which we move.
+   */
+  @Test
+  public void testGetValueAtEqualsBinarySearch()
+  {
+    final Random rnd = new Random( 1234L );
+
+    final int count = 10000;
+    final int[] values = new int[count];
+    final long[] timestamps = new long[count];
+    long time = 0L;
+    for ( int i = 0; i < count; i++ )
+    {
+      values[i] = rnd.nextInt();
+      timestamps[i] = time;
+      time += 1 + rnd.nextInt( 100 );
+    }
+
+    final SampleCursor cursor = new SampleCursor( SampleStores.array( values, timestamps ) );
+
+    long t = 0L;
+    for ( int i = 0; i < 100000; i++ )
+    {
+      // mostly move forward, but make some (large) jumps backwards as well...
+      if ( rnd.nextInt( 100 ) == 0 )
+      {
+        t = rnd.nextInt( ( int )time );
+      }
+      else
+      {
+        t += rnd.nextInt( 50 );
+      }
+
+      int k = Arrays.binarySearch( timestamps, t );
+      if ( k < 0 )
+      {
+        k = Math.max( 0, -( k + 1 ) - 1 );
+      }
+
+      assertEquals( "Time: " + t, values[k], cursor.getValueAt( t ) );
+      assertEquals( k, cursor.getIndex() );
+    }
+  }
+
+  /**
+   * Tests that times before the first transition yield the first value.
+   */
+  @Test
+  public void testGetValueBeforeFirstTransition()
+  {
+    assertEquals( 0x1, this.cursor.getValueAt( 60L ) );
+    assertEquals( 0x0, this.cursor.getValueAt( 5L ) );
+    assertEquals( 0, this.cursor.getIndex() );
+  }
+
+  /**
+   * Tests that iterating over the transitions yields all transitions.
+   */
+  @Test
+  public void testIterateTransitions()
+  {
+    int i = 0;
+    assertEquals( this.values[i], this.cursor.getValue() );
+    while ( this.cursor.hasNext() )
+    {
+      assertEquals( this.timestamps[++i], this.cursor.next() );
+      assertEquals( this.values[i], this.cursor.getValue() );
+    }
+    assertEquals( this.values.length - 1, i );
+  }
+}
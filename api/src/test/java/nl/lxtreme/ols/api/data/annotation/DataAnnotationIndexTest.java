@@ -0,0 +1,297 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.data.annotation;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link DataAnnotationIndex}.
+ */
+public class DataAnnotationIndexTest
+{
+  // INNER TYPES
+
+  /**
+   * Provides a simple data annotation.
+   */
+  static final class TestAnnotation implements DataAnnotation<String>
+  {
+    // VARIABLES
+
+    private final long start;
+    private final long end;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new TestAnnotation instance.
+     */
+    TestAnnotation( final long aStart, final long aEnd )
+    {
+      this.start = aStart;
+      this.end = aEnd;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo( final Annotation<String> aOther )
+    {
+      final DataAnnotation<?> other = ( DataAnnotation<?> )aOther;
+
+      int result = Long.compare( this.start, other.getStartTimestamp() );
+      if ( result == 0 )
+      {
+        result = Long.compare( this.end, other.getEndTimestamp() );
+      }
+      return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals( final Object aObject )
+    {
+      if ( !( aObject instanceof TestAnnotation ) )
+      {
+        return false;
+      }
+      final TestAnnotation other = ( TestAnnotation )aObject;
+      return ( this.start == other.start ) && ( this.end == other.end );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getAnnotation()
+    {
+      return this.start + "-" + this.end;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getChannel()
+    {
+      return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEndTimestamp()
+    {
+      return this.end;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getStartTimestamp()
+    {
+      return this.start;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+      return ( int )( ( 31 * this.start ) + this.end );
+    }
+  }
+
+  // VARIABLES
+
+  private List<TestAnnotation> annotations;
+
+  // METHODS
+
+  /**
+   * Sets up the test case.
+   */
+  @Before
+  public void setUp()
+  {
+    final Random rnd = new Random( 1234L );
+
+    this.annotations = new ArrayList<TestAnnotation>();
+
+    long time = 0L;
+    for ( int i = 0; i < 5000; i++ )
+    {
+      final long start = time + rnd.nextInt( 10 );
+      // Every once in a while, add a long annotation overlapping others...
+      final long length = ( ( i % 500 ) == 0 ) ? rnd.nextInt( 2000 ) : rnd.nextInt( 20 );
+      this.annotations.add( new TestAnnotation( start, start + length ) );
+
+      time = start;
+    }
+  }
+
+  /**
+   * Tests that adding annotations out of order yields the same results as
+   * adding them in order.
+   */
+  @Test
+  public void testAddOutOfOrder()
+  {
+    final List<TestAnnotation> shuffled = new ArrayList<TestAnnotation>( this.annotations );
+    Collections.shuffle( shuffled, new Random( 4321L ) );
+
+    final DataAnnotationIndex index = new DataAnnotationIndex();
+    for ( TestAnnotation annotation : shuffled.subList( 0, 2500 ) )
+    {
+      index.add( annotation );
+    }
+    index.addAll( shuffled.subList( 2500, shuffled.size() ) );
+
+    assertEquals( this.annotations.size(), index.size() );
+    assertQueriesEqualBruteForce( index );
+  }
+
+  /**
+   * Tests that querying the index yields the same results as a brute force
+   * search.
+   */
+  @Test
+  public void testQueriesEqualBruteForce()
+  {
+    final DataAnnotationIndex index = new DataAnnotationIndex();
+    index.addAll( this.annotations );
+
+    assertEquals( this.annotations.size(), index.size() );
+    assertQueriesEqualBruteForce( index );
+  }
+
+  /**
+   * Tests that clearing the index removes all annotations.
+   */
+  @Test
+  public void testClear()
+  {
+    final DataAnnotationIndex index = new DataAnnotationIndex();
+    index.addAll( this.annotations );
+    assertFalse( index.getAll().isEmpty() );
+
+    index.clear();
+
+    assertTrue( index.isEmpty() );
+    assertTrue( index.getAll().isEmpty() );
+    assertTrue( index.find( Long.MIN_VALUE, Long.MAX_VALUE ).isEmpty() );
+    assertNull( index.findAfter( 0L ) );
+    assertNull( index.findBefore( Long.MAX_VALUE ) );
+  }
+
+  /**
+   * Tests that each modification of the index changes its modification count,
+   * while querying it does not.
+   */
+  @Test
+  public void testModificationCount()
+  {
+    final DataAnnotationIndex index = new DataAnnotationIndex();
+    int count = index.getModificationCount();
+
+    index.add( this.annotations.get( 0 ) );
+    assertTrue( count != index.getModificationCount() );
+    count = index.getModificationCount();
+
+    index.addAll( this.annotations.subList( 1, this.annotations.size() ) );
+    assertTrue( count != index.getModificationCount() );
+    count = index.getModificationCount();
+
+    index.getAll();
+    index.find( Long.MIN_VALUE, Long.MAX_VALUE );
+    assertEquals( count, index.getModificationCount() );
+
+    index.clear();
+    assertTrue( count != index.getModificationCount() );
+  }
+
+  /**
+   * Verifies all queries of the given index against a brute force search.
+   */
+  private void assertQueriesEqualBruteForce( final DataAnnotationIndex aIndex )
+  {
+    final List<TestAnnotation> sorted = new ArrayList<TestAnnotation>( this.annotations );
+    Collections.sort( sorted );
+
+    assertEquals( sorted, aIndex.getAll() );
+
+    final long lastStart = sorted.get( sorted.size() - 1 ).getStartTimestamp();
+    for ( long t = -5L; t < ( lastStart + 50L ); t += 7L )
+    {
+      // find...
+      final List<TestAnnotation> expected = new ArrayList<TestAnnotation>();
+      for ( TestAnnotation ann : sorted )
+      {
+        if ( ( ann.getStartTimestamp() <= ( t + 30L ) ) && ( ann.getEndTimestamp() >= t ) )
+        {
+          expected.add( ann );
+        }
+      }
+      assertEquals( expected, aIndex.find( t, t + 30L ) );
+
+      // findAfter...
+      TestAnnotation after = null;
+      for ( TestAnnotation ann : sorted )
+      {
+        if ( ann.getStartTimestamp() >= t )
+        {
+          after = ann;
+          break;
+        }
+      }
+      assertEquals( after, aIndex.findAfter( t ) );
+
+      // findBefore...
+      TestAnnotation before = null;
+      for ( TestAnnotation ann : sorted )
+      {
+        if ( ( ann.getStartTimestamp() < t ) && ( ann.getEndTimestamp() < t ) )
+        {
+          before = ann;
+        }
+        else
+        {
+          break;
+        }
+      }
+      assertEquals( before, aIndex.findBefore( t ) );
+    }
+  }
+}
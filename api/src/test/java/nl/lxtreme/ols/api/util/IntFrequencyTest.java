@@ -0,0 +1,159 @@
+/*
+ * OpenBench LogicSniffer / SUMP project 
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * 
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.api.util;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link IntFrequency}.
+ */
+public class IntFrequencyTest
+{
+  // METHODS
+
+  /**
+   * Tests that {@link IntFrequency} yields the same counts as a plain map of
+   * boxed values, including the tie-breaking of ranks.
+   */
+  @Test
+  public void testEqualsReferenceCounts()
+  {
+    final Random rnd = new Random( 1234L );
+
+    for ( int run = 0; run < 20; run++ )
+    {
+      final SortedMap<Integer, Long> expected = new TreeMap<Integer, Long>();
+      final IntFrequency actual = new IntFrequency( 1 );
+
+      final int range = 1 + rnd.nextInt( 5000 );
+      for ( int i = 0; i < 10000; i++ )
+      {
+        final int value = rnd.nextInt( range ) - ( range / 2 );
+        final Long count = expected.get( Integer.valueOf( value ) );
+        expected.put( Integer.valueOf( value ), Long.valueOf( ( count == null ) ? 1L : count.longValue() + 1L ) );
+        actual.addValue( value );
+      }
+
+      // The lowest value wins in case of equal ranks...
+      int highest = 0, lowest = 0;
+      long highestRank = 0L, lowestRank = Long.MAX_VALUE;
+      for ( final Map.Entry<Integer, Long> entry : expected.entrySet() )
+      {
+        final long count = entry.getValue().longValue();
+        if ( count > highestRank )
+        {
+          highestRank = count;
+          highest = entry.getKey().intValue();
+        }
+        if ( count < lowestRank )
+        {
+          lowestRank = count;
+          lowest = entry.getKey().intValue();
+        }
+      }
+
+      assertEquals( highest, actual.getHighestRanked() );
+      assertEquals( lowest, actual.getLowestRanked() );
+      assertEquals( 10000L, actual.getTotalCount() );
+      assertEquals( expected.size(), actual.getUniqueValueCount() );
+
+      final int[] values = actual.values();
+      int i = 0;
+      for ( final Map.Entry<Integer, Long> entry : expected.entrySet() )
+      {
+        assertEquals( entry.getKey().intValue(), values[i++] );
+        assertEquals( entry.getValue().longValue(), actual.getCount( entry.getKey().intValue() ) );
+      }
+      assertEquals( values.length, i );
+    }
+  }
+
+  /**
+   * Tests that a copy of a distribution is not affected by changes to the
+   * original distribution.
+   */
+  @Test
+  public void testCopyIsIndependent()
+  {
+    final IntFrequency original = new IntFrequency();
+    original.addValue( 3 );
+    original.addValue( 5, 2L );
+
+    final IntFrequency copy = new IntFrequency( original );
+    original.addValue( 7 );
+    original.addValue( 3 );
+
+    assertArrayEquals( new int[] { 3, 5 }, copy.values() );
+    assertEquals( 1L, copy.getCount( 3 ) );
+    assertEquals( 3L, copy.getTotalCount() );
+    assertEquals( 2L, original.getCount( 3 ) );
+  }
+
+  /**
+   * Tests that retrieving the highest ranked value of an empty distribution is
+   * not allowed.
+   */
+  @Test( expected = IllegalStateException.class )
+  public void testGetHighestRankedOfEmptyFrequencyFail()
+  {
+    final IntFrequency f = new IntFrequency();
+    f.addValue( 1 );
+    f.clear();
+
+    assertTrue( f.isEmpty() );
+    assertEquals( 0L, f.getCount( 1 ) );
+
+    f.getHighestRanked();
+  }
+
+  /**
+   * Tests that merging distributions yields the same result as adding all
+   * values to a single distribution.
+   */
+  @Test
+  public void testMerge()
+  {
+    final IntFrequency expected = new IntFrequency();
+    final IntFrequency first = new IntFrequency();
+    final IntFrequency second = new IntFrequency();
+
+    for ( int i = 0; i < 1000; i++ )
+    {
+      expected.addValue( i % 37 );
+      ( ( i % 2 ) == 0 ? first : second ).addValue( i % 37 );
+    }
+
+    first.merge( second );
+
+    assertArrayEquals( expected.values(), first.values() );
+    for ( final int value : expected.values() )
+    {
+      assertEquals( expected.getCount( value ), first.getCount( value ) );
+    }
+    assertEquals( 1000L, first.getTotalCount() );
+  }
+}
@@ -23,8 +23,6 @@ package nl.lxtreme.ols.client.project.impl;
 
 import java.beans.*;
 import java.util.*;
-import java.util.List;
-import java.util.concurrent.*;
 
 import nl.lxtreme.ols.api.*;
 import nl.lxtreme.ols.api.data.*;
@@ -48,7 +46,7 @@ public final class ChannelImpl implements Channel
   private String label;
   private boolean enabled;
 
-  private final List<Annotation<?>> annotations;
+  private final DataAnnotationIndex annotations;
   private final PropertyChangeSupport propertyChangeSupport;
 
   // CONSTRUCTORS
@@ -76,10 +74,10 @@ public final class ChannelImpl implements Channel
     this.label = aChannel.hasName() ? aChannel.getLabel() : null;
     this.enabled = aChannel.isEnabled();
 
-    this.annotations = new CopyOnWriteArrayList<Annotation<?>>();
+    this.annotations = new DataAnnotationIndex();
     if ( aRetainAnnotation )
     {
-      this.annotations.addAll( aChannel.getAnnotations() );
+      addAnnotations( aChannel.getAnnotations() );
     }
   }
 
@@ -103,7 +101,7 @@ public final class ChannelImpl implements Channel
     this.label = null;
     this.enabled = true;
 
-    this.annotations = new CopyOnWriteArrayList<Annotation<?>>();
+    this.annotations = new DataAnnotationIndex();
   }
 
   // METHODS
@@ -116,7 +114,7 @@ public final class ChannelImpl implements Channel
   {
     if ( aAnnotation instanceof DataAnnotation )
     {
-      this.annotations.add( aAnnotation );
+      this.annotations.add( ( DataAnnotation<?> )aAnnotation );
     }
     else
     {
@@ -127,6 +125,28 @@ public final class ChannelImpl implements Channel
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addAnnotations( final Collection<? extends Annotation<?>> aAnnotations )
+  {
+    final List<DataAnnotation<?>> dataAnnotations = new ArrayList<DataAnnotation<?>>( aAnnotations.size() );
+    for ( Annotation<?> annotation : aAnnotations )
+    {
+      if ( annotation instanceof DataAnnotation )
+      {
+        dataAnnotations.add( ( DataAnnotation<?> )annotation );
+      }
+      else
+      {
+        addAnnotation( annotation );
+      }
+    }
+
+    this.annotations.addAll( dataAnnotations );
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -183,7 +203,43 @@ public final class ChannelImpl implements Channel
   @Override
   public Collection<Annotation<?>> getAnnotations()
   {
-    return Collections.unmodifiableCollection( this.annotations );
+    return this.annotations.getAll();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getAnnotationModificationCount()
+  {
+    return this.annotations.getModificationCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DataAnnotation<?> getDataAnnotationAfter( final long aTimestamp )
+  {
+    return this.annotations.findAfter( aTimestamp );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DataAnnotation<?> getDataAnnotationBefore( final long aTimestamp )
+  {
+    return this.annotations.findBefore( aTimestamp );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<DataAnnotation<?>> getDataAnnotations( final long aStartTime, final long aEndTime )
+  {
+    return this.annotations.find( aStartTime, aEndTime );
   }
 
   /**
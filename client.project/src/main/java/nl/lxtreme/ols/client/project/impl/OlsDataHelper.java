@@ -21,19 +21,27 @@
 package nl.lxtreme.ols.client.project.impl;
 
 
-import static nl.lxtreme.ols.util.NumberUtils.*;
-
 import java.io.*;
-import java.util.*;
+import java.nio.*;
+import java.nio.channels.*;
 import java.util.logging.*;
-import java.util.regex.*;
 
+import nl.lxtreme.ols.api.*;
 import nl.lxtreme.ols.api.acquisition.*;
 import nl.lxtreme.ols.api.data.*;
 
 
 /**
  * Helper class that is capable of reading & writing OLS data files.
+ * <p>
+ * Besides the (textual) OLS data file format, a binary format is supported as
+ * well. This binary format starts with a header containing the magic, version,
+ * sample rate, channel information, trigger position, absolute length and
+ * cursors, followed by the samples in chunks. Each chunk consists of its sample
+ * count and length in bytes, followed by the packed sample values and the
+ * delta-encoded timestamps (as variable-length integers). All values are
+ * written in little-endian byte order.
+ * </p>
  */
 public final class OlsDataHelper
 {
@@ -41,10 +49,14 @@ public final class OlsDataHelper
 
   private static final Logger LOG = Logger.getLogger( OlsDataHelper.class.getName() );
 
-  /** The regular expression used to parse an (OLS-datafile) instruction. */
-  private static final Pattern OLS_INSTRUCTION_PATTERN = Pattern.compile( "^;([^:]+):\\s+([^\r\n]+)$" );
-  /** The regular expression used to parse an (OLS-datafile) data value. */
-  private static final Pattern OLS_DATA_PATTERN = Pattern.compile( "^([0-9a-fA-F]+)@(\\d+)$" );
+  /** The magic denoting the binary format ("OLSB"). */
+  private static final int BINARY_MAGIC = 0x42534c4f;
+  /** The current version of the binary format. */
+  private static final int BINARY_VERSION = 1;
+  /** The maximum number of samples in a single chunk. */
+  private static final int BINARY_CHUNK_SIZE = 4096;
+  /** The size of the I/O buffer, should be able to hold an entire chunk. */
+  private static final int BINARY_BUFFER_SIZE = 64 * 1024;
 
   // METHODS
 
@@ -58,161 +70,155 @@ public final class OlsDataHelper
    * @throws IOException
    *           in case of I/O problems.
    */
-  @SuppressWarnings( "boxing" )
   public static DataSetImpl read( final Reader aReader ) throws IOException
   {
-    int size = -1;
-    Integer rate = null, channels = null, enabledChannels = null;
-    long triggerPos = -1L;
-    long absLen = -1L;
+    final OlsDataParser parser = OlsDataParser.parse( aReader );
 
-    // assume 'new' file format is in use, don't support uncompressed ones...
-    boolean compressed = true;
+    final DataSetImpl tempDataSet = new DataSetImpl();
+    tempDataSet.setCursorsEnabled( parser.isCursorsEnabled() );
+    for ( int i = 0; i < Ols.MAX_CURSORS; i++ )
+    {
+      final long timestamp = parser.getCursorTimestamp( i );
+      if ( timestamp > Long.MIN_VALUE )
+      {
+        tempDataSet.getCursor( i ).setTimestamp( timestamp );
+      }
+    }
 
-    AcquisitionResult capturedData = null;
-    DataSetImpl tempDataSet = new DataSetImpl();
+    // Finally set the captured data, and notify all event listeners...
+    final AcquisitionResult capturedData = new CapturedData( parser.getValues(), parser.getTimestamps(),
+        parser.getTriggerPosition(), parser.getSampleRate(), parser.getChannels(), parser.getEnabledChannels(),
+        parser.getAbsoluteLength() );
 
-    final BufferedReader br = new BufferedReader( aReader );
+    return new DataSetImpl( capturedData, tempDataSet, false /* aRetainAnnotations */);
+  }
+
+  /**
+   * Reads the data in the binary format from a given input stream.
+   * 
+   * @param aInput
+   *          the input stream to read the data from, cannot be
+   *          <code>null</code>.
+   * @return the read data set, never <code>null</code>.
+   * @throws IOException
+   *           in case of I/O problems, or in case the data is invalid.
+   */
+  public static DataSetImpl readBinary( final InputStream aInput ) throws IOException
+  {
     if ( LOG.isLoggable( Level.INFO ) )
     {
-      LOG.info( "Parsing OLS captured data from stream..." );
+      LOG.info( "Parsing binary OLS captured data from stream..." );
     }
 
-    final List<String[]> dataValues = new ArrayList<String[]>();
+    // Do not close this channel, as it would close the given input stream as
+    // well...
+    final ReadableByteChannel channel = Channels.newChannel( aInput );
 
-    String line;
-    while ( ( line = br.readLine() ) != null )
-    {
-      // Determine whether the line is an instruction, or data...
-      final Matcher instructionMatcher = OLS_INSTRUCTION_PATTERN.matcher( line );
-      final Matcher dataMatcher = OLS_DATA_PATTERN.matcher( line );
+    final ByteBuffer buffer = ByteBuffer.allocate( BINARY_BUFFER_SIZE ).order( ByteOrder.LITTLE_ENDIAN );
+    buffer.flip();
 
-      if ( dataMatcher.matches() )
-      {
-        final String[] dataPair = new String[] { dataMatcher.group( 1 ), dataMatcher.group( 2 ) };
-        dataValues.add( dataPair );
-      }
-      else if ( instructionMatcher.matches() )
-      {
-        // Ok; found an instruction...
-        final String instrKey = instructionMatcher.group( 1 );
-        final String instrValue = instructionMatcher.group( 2 );
-
-        if ( "Size".equals( instrKey ) )
-        {
-          size = safeParseInt( instrValue );
-        }
-        else if ( "Rate".equals( instrKey ) )
-        {
-          rate = safeParseInt( instrValue );
-        }
-        else if ( "Channels".equals( instrKey ) )
-        {
-          channels = safeParseInt( instrValue );
-        }
-        else if ( "TriggerPosition".equals( instrKey ) )
-        {
-          triggerPos = Long.parseLong( instrValue );
-        }
-        else if ( "EnabledChannels".equals( instrKey ) )
-        {
-          enabledChannels = safeParseInt( instrValue );
-        }
-        else if ( "CursorEnabled".equals( instrKey ) )
-        {
-          tempDataSet.setCursorsEnabled( Boolean.parseBoolean( instrValue ) );
-        }
-        else if ( "Compressed".equals( instrKey ) )
-        {
-          compressed = Boolean.parseBoolean( instrValue );
-        }
-        else if ( "AbsoluteLength".equals( instrKey ) )
-        {
-          absLen = Long.parseLong( instrValue );
-        }
-        else if ( "CursorA".equals( instrKey ) )
-        {
-          final long value = safeParseLong( instrValue );
-          if ( value > Long.MIN_VALUE )
-          {
-            tempDataSet.getCursor( 0 ).setTimestamp( value );
-          }
-        }
-        else if ( "CursorB".equals( instrKey ) )
-        {
-          final long value = safeParseLong( instrValue );
-          if ( value > Long.MIN_VALUE )
-          {
-            tempDataSet.getCursor( 1 ).setTimestamp( value );
-          }
-        }
-        else if ( instrKey.startsWith( "Cursor" ) )
-        {
-          final int idx = safeParseInt( instrKey.substring( 6 ) );
-          final long pos = Long.parseLong( instrValue );
-          if ( pos > Long.MIN_VALUE )
-          {
-            tempDataSet.getCursor( idx ).setTimestamp( pos );
-          }
-        }
-      }
-    }
-
-    // Perform some sanity checks, make it not possible to import invalid
-    // data...
-    if ( dataValues.isEmpty() )
+    fillBuffer( channel, buffer, 8 );
+    if ( buffer.getInt() != BINARY_MAGIC )
     {
-      throw new IOException( "Data file does not contain any sample data!" );
+      throw new IOException( "Data file is corrupt?! Invalid binary header!" );
     }
-    if ( !compressed )
+    final int version = buffer.getInt();
+    if ( version != BINARY_VERSION )
     {
-      throw new IOException( "Uncompressed data file found! Please send this file to the OLS developers!" );
+      throw new IOException( "Unsupported data file version: " + version + "!" );
     }
-    // In case the size is not provided (as of 0.9.4 no longer mandatory),
-    // take the length of the data values as size indicator...
-    if ( size < 0 )
+
+    fillBuffer( channel, buffer, 33 );
+    final int rate = buffer.getInt();
+    final int channels = buffer.getInt();
+    final int enabledChannels = buffer.getInt();
+    final long triggerPos = buffer.getLong();
+    final long absLen = buffer.getLong();
+    final boolean cursorsEnabled = buffer.get() != 0;
+    final int cursorCount = buffer.getInt();
+
+    if ( ( channels <= 0 ) || ( channels > Ols.MAX_CHANNELS ) )
     {
-      size = dataValues.size();
+      throw new IOException( "Data file is corrupt?! Channel count is not provided!" );
     }
-    if ( size != dataValues.size() )
+    if ( ( cursorCount < 0 ) || ( cursorCount > Ols.MAX_CURSORS ) )
     {
-      throw new IOException( "Data file is corrupt?! Data size does not match sample count!" );
+      throw new IOException( "Data file is corrupt?! Invalid cursor count!" );
     }
-    if ( rate == null )
+
+    final DataSetImpl tempDataSet = new DataSetImpl();
+    tempDataSet.setCursorsEnabled( cursorsEnabled );
+
+    fillBuffer( channel, buffer, ( cursorCount * 12 ) + 5 );
+    for ( int i = 0; i < cursorCount; i++ )
     {
-      throw new IOException( "Data file is corrupt?! Sample rate is not provided!" );
+      final int idx = buffer.getInt();
+      final long timestamp = buffer.getLong();
+      if ( ( idx < 0 ) || ( idx >= Ols.MAX_CURSORS ) )
+      {
+        throw new IOException( "Data file is corrupt?! Invalid cursor index!" );
+      }
+      tempDataSet.getCursor( idx ).setTimestamp( timestamp );
     }
-    if ( ( channels == null ) || ( channels <= 0 ) || ( channels > 32 ) )
+
+    final int size = buffer.getInt();
+    final int valueWidth = buffer.get();
+
+    if ( size <= 0 )
     {
-      throw new IOException( "Data file is corrupt?! Channel count is not provided!" );
+      throw new IOException( "Data file does not contain any sample data!" );
     }
-    // Make sure the enabled channels are defined; if not defined, all channels
-    // are enabled...
-    if ( enabledChannels == null )
+    if ( ( valueWidth < 1 ) || ( valueWidth > 4 ) )
     {
-      enabledChannels = -1; // = 0xffffffff
+      throw new IOException( "Data file is corrupt?! Invalid value width!" );
     }
 
-    int[] values = new int[size];
-    long[] timestamps = new long[size];
+    final int[] values = new int[size];
+    final long[] timestamps = new long[size];
 
-    try
+    int idx = 0;
+    long timestamp = 0L;
+    while ( idx < size )
     {
-      for ( int i = 0; i < size; i++ )
+      fillBuffer( channel, buffer, 8 );
+      final int count = buffer.getInt();
+      final int length = buffer.getInt();
+      if ( ( count <= 0 ) || ( count > ( size - idx ) ) || ( length < 0 ) || ( length > ( BINARY_BUFFER_SIZE - 8 ) ) )
       {
-        final String[] dataPair = dataValues.get( i );
+        throw new IOException( "Data file is corrupt?! Invalid chunk header!" );
+      }
+
+      fillBuffer( channel, buffer, length );
+      final int chunkEnd = buffer.position() + length;
 
-        values[i] = ( int )Long.parseLong( dataPair[0], 16 );
-        timestamps[i] = Long.parseLong( dataPair[1], 10 ) & Long.MAX_VALUE;
+      try
+      {
+        for ( int i = 0; i < count; i++ )
+        {
+          values[idx + i] = getValue( buffer, valueWidth );
+        }
+        for ( int i = 0; i < count; i++ )
+        {
+          timestamp += getVarLong( buffer );
+          timestamps[idx + i] = timestamp;
+        }
       }
-    }
-    catch ( final NumberFormatException exception )
-    {
-      throw new IOException( "Invalid data encountered.", exception );
+      catch ( BufferUnderflowException exception )
+      {
+        throw new IOException( "Data file is corrupt?! Chunk length does not match its contents!", exception );
+      }
+
+      if ( buffer.position() != chunkEnd )
+      {
+        throw new IOException( "Data file is corrupt?! Chunk length does not match its contents!" );
+      }
+
+      idx += count;
     }
 
     // Finally set the captured data, and notify all event listeners...
-    capturedData = new CapturedData( values, timestamps, triggerPos, rate, channels, enabledChannels, absLen );
+    final AcquisitionResult capturedData = new CapturedData( values, timestamps, triggerPos, rate, channels,
+        enabledChannels, absLen );
 
     return new DataSetImpl( capturedData, tempDataSet, false /* aRetainAnnotations */);
   }
@@ -298,6 +304,102 @@ public final class OlsDataHelper
     }
   }
 
+  /**
+   * Writes the data in the binary format to the given output stream.
+   * 
+   * @param aDataSet
+   *          the data set to write, cannot be <code>null</code>;
+   * @param aOutput
+   *          the output stream to write the data to, cannot be
+   *          <code>null</code>.
+   * @throws IOException
+   *           in case of I/O problems.
+   */
+  public static void writeBinary( final DataSet aDataSet, final OutputStream aOutput ) throws IOException
+  {
+    final AcquisitionResult capturedData = aDataSet.getCapturedData();
+
+    final Cursor[] cursors = aDataSet.getCursors();
+    final boolean cursorsEnabled = aDataSet.isCursorsEnabled();
+
+    final int[] values = capturedData.getValues();
+    final long[] timestamps = capturedData.getTimestamps();
+
+    // Only store as many bytes per value as actually needed...
+    int valueMask = 0;
+    for ( int value : values )
+    {
+      valueMask |= value;
+    }
+    final int valueWidth = Math.max( 1, ( 32 - Integer.numberOfLeadingZeros( valueMask ) + 7 ) / 8 );
+
+    // Do not close this channel, as it would close the given output stream as
+    // well...
+    final WritableByteChannel channel = Channels.newChannel( aOutput );
+
+    final ByteBuffer buffer = ByteBuffer.allocate( BINARY_BUFFER_SIZE ).order( ByteOrder.LITTLE_ENDIAN );
+
+    buffer.putInt( BINARY_MAGIC );
+    buffer.putInt( BINARY_VERSION );
+    buffer.putInt( capturedData.getSampleRate() );
+    buffer.putInt( capturedData.getChannels() );
+    buffer.putInt( capturedData.getEnabledChannels() );
+    buffer.putLong( capturedData.hasTriggerData() ? capturedData.getTriggerPosition() : Ols.NOT_AVAILABLE );
+    buffer.putLong( capturedData.getAbsoluteLength() );
+    buffer.put( ( byte )( cursorsEnabled ? 1 : 0 ) );
+
+    int cursorCount = 0;
+    for ( int i = 0; cursorsEnabled && ( i < cursors.length ); i++ )
+    {
+      if ( cursors[i].isDefined() )
+      {
+        cursorCount++;
+      }
+    }
+    buffer.putInt( cursorCount );
+    for ( int i = 0; ( cursorCount > 0 ) && ( i < cursors.length ); i++ )
+    {
+      if ( cursors[i].isDefined() )
+      {
+        buffer.putInt( i );
+        buffer.putLong( cursors[i].getTimestamp() );
+      }
+    }
+
+    buffer.putInt( values.length );
+    buffer.put( ( byte )valueWidth );
+
+    long lastTimestamp = 0L;
+    for ( int idx = 0; idx < values.length; idx += BINARY_CHUNK_SIZE )
+    {
+      final int count = Math.min( BINARY_CHUNK_SIZE, values.length - idx );
+
+      // Make sure the entire chunk fits in the buffer...
+      flushBuffer( channel, buffer );
+
+      buffer.putInt( count );
+      // placeholder for the chunk length...
+      buffer.putInt( 0 );
+
+      final int chunkStart = buffer.position();
+      for ( int i = 0; i < count; i++ )
+      {
+        putValue( buffer, values[idx + i], valueWidth );
+      }
+      for ( int i = 0; i < count; i++ )
+      {
+        // timestamps never can be negative (it is a relative timestamp!)...
+        final long timestamp = timestamps[idx + i] & Long.MAX_VALUE;
+        putVarLong( buffer, timestamp - lastTimestamp );
+        lastTimestamp = timestamp;
+      }
+
+      buffer.putInt( chunkStart - 4, buffer.position() - chunkStart );
+    }
+
+    flushBuffer( channel, buffer );
+  }
+
   /**
    * Formats the given value and timestamp into a single sample string.
    * 
@@ -315,4 +417,137 @@ public final class OlsDataHelper
     // can be negative (it is a relative timestamp!)...
     return String.format( "%08x@%d", aValue, ( aTimestamp & Long.MAX_VALUE ) );
   }
+
+  /**
+   * Makes sure the given buffer has at least the given number of bytes
+   * remaining, reading more data from the given channel if necessary.
+   * 
+   * @param aChannel
+   *          the channel to read from;
+   * @param aBuffer
+   *          the buffer to fill, should be in "read" mode;
+   * @param aCount
+   *          the number of bytes that should be available.
+   * @throws IOException
+   *           in case of I/O problems, or in case the channel does not provide
+   *           enough data.
+   */
+  private static void fillBuffer( final ReadableByteChannel aChannel, final ByteBuffer aBuffer, final int aCount )
+      throws IOException
+  {
+    if ( aBuffer.remaining() >= aCount )
+    {
+      return;
+    }
+
+    aBuffer.compact();
+    try
+    {
+      while ( aBuffer.position() < aCount )
+      {
+        if ( aChannel.read( aBuffer ) < 0 )
+        {
+          throw new EOFException( "Data file is corrupt?! Unexpected end of data!" );
+        }
+      }
+    }
+    finally
+    {
+      aBuffer.flip();
+    }
+  }
+
+  /**
+   * Writes the contents of the given buffer to the given channel, and clears
+   * the buffer afterwards.
+   * 
+   * @param aChannel
+   *          the channel to write to;
+   * @param aBuffer
+   *          the buffer to write, should be in "write" mode.
+   * @throws IOException
+   *           in case of I/O problems.
+   */
+  private static void flushBuffer( final WritableByteChannel aChannel, final ByteBuffer aBuffer ) throws IOException
+  {
+    aBuffer.flip();
+    while ( aBuffer.hasRemaining() )
+    {
+      aChannel.write( aBuffer );
+    }
+    aBuffer.clear();
+  }
+
+  /**
+   * Reads a packed sample value from the given buffer.
+   */
+  private static int getValue( final ByteBuffer aBuffer, final int aWidth )
+  {
+    switch ( aWidth )
+    {
+      case 1:
+        return aBuffer.get() & 0xFF;
+      case 2:
+        return aBuffer.getShort() & 0xFFFF;
+      case 3:
+        return ( aBuffer.get() & 0xFF ) | ( ( aBuffer.getShort() & 0xFFFF ) << 8 );
+      default:
+        return aBuffer.getInt();
+    }
+  }
+
+  /**
+   * Reads a variable-length (unsigned) long value from the given buffer.
+   */
+  private static long getVarLong( final ByteBuffer aBuffer ) throws IOException
+  {
+    long result = 0L;
+    for ( int shift = 0; shift < 64; shift += 7 )
+    {
+      final int b = aBuffer.get();
+      result |= ( long )( b & 0x7F ) << shift;
+      if ( ( b & 0x80 ) == 0 )
+      {
+        return result;
+      }
+    }
+    throw new IOException( "Data file is corrupt?! Invalid timestamp!" );
+  }
+
+  /**
+   * Writes a packed sample value to the given buffer.
+   */
+  private static void putValue( final ByteBuffer aBuffer, final int aValue, final int aWidth )
+  {
+    switch ( aWidth )
+    {
+      case 1:
+        aBuffer.put( ( byte )aValue );
+        break;
+      case 2:
+        aBuffer.putShort( ( short )aValue );
+        break;
+      case 3:
+        aBuffer.put( ( byte )aValue );
+        aBuffer.putShort( ( short )( aValue >>> 8 ) );
+        break;
+      default:
+        aBuffer.putInt( aValue );
+        break;
+    }
+  }
+
+  /**
+   * Writes a variable-length (unsigned) long value to the given buffer.
+   */
+  private static void putVarLong( final ByteBuffer aBuffer, final long aValue )
+  {
+    long value = aValue;
+    while ( ( value & ~0x7FL ) != 0L )
+    {
+      aBuffer.put( ( byte )( ( value & 0x7F ) | 0x80 ) );
+      value >>>= 7;
+    }
+    aBuffer.put( ( byte )value );
+  }
 }
@@ -24,6 +24,8 @@ package nl.lxtreme.ols.client.project.impl;
 import java.beans.*;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
 import java.util.zip.*;
 
 import nl.lxtreme.ols.api.*;
@@ -44,6 +46,28 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
   private static final String FILENAME_CHANNEL_LABELS = "channel.labels";
   private static final String FILENAME_PROJECT_SETTINGS = "settings/";
   private static final String FILENAME_CAPTURE_RESULTS = "data.ols";
+  private static final String FILENAME_BINARY_CAPTURE_RESULTS = "data.bin";
+
+  /**
+   * Whether or not to store the textual capture results next to the binary
+   * ones, allowing older clients to read the project as well.
+   */
+  private static final boolean STORE_TEXT_CAPTURE_RESULTS = Boolean.parseBoolean( System.getProperty(
+      "nl.lxtreme.ols.project.textCaptureResults", "true" ) );
+
+  private static final Logger LOG = Logger.getLogger( ProjectManagerImpl.class.getName() );
+
+  /** Loads the captured data of projects in the background. */
+  private static final ExecutorService LOADER = Executors.newSingleThreadExecutor( new ThreadFactory()
+  {
+    @Override
+    public Thread newThread( final Runnable aRunnable )
+    {
+      final Thread thread = new Thread( aRunnable, "Project loader" );
+      thread.setDaemon( true );
+      return thread;
+    }
+  } );
 
   // VARIABLES
 
@@ -51,7 +75,8 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
 
   private final PropertyChangeSupport propertyChangeSupport;
 
-  private ProjectImpl project;
+  private volatile ProjectImpl project;
+  private volatile Future<?> pendingLoad;
 
   // CONSTRUCTORS
 
@@ -80,6 +105,9 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
    */
   public Project createNewProject()
   {
+    // The captured data of the previous project is no longer needed...
+    cancelPendingLoad();
+
     setProject( new ProjectImpl() );
     return this.project;
   }
@@ -112,6 +140,9 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
       throw new IllegalArgumentException( "Input stream cannot be null!" );
     }
 
+    // The captured data of the previous project is no longer needed...
+    cancelPendingLoad();
+
     final BufferedInputStream in = new BufferedInputStream( aInput );
     final ZipInputStream zipIS = new ZipInputStream( in );
 
@@ -125,6 +156,7 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
     {
       ZipEntry ze = null;
       boolean entriesSeen = false;
+      boolean binaryCaptureResultsSeen = false;
       while ( ( ze = zipIS.getNextEntry() ) != null )
       {
         final String name = ze.getName();
@@ -138,9 +170,19 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
           labels = loadChannelLabels( zipIS );
           entriesSeen = true;
         }
+        else if ( FILENAME_BINARY_CAPTURE_RESULTS.equals( name ) )
+        {
+          loadBinaryCapturedResults( newProject, zipIS );
+          binaryCaptureResultsSeen = true;
+          entriesSeen = true;
+        }
         else if ( FILENAME_CAPTURE_RESULTS.equals( name ) )
         {
-          loadCapturedResults( newProject, zipIS );
+          // Older projects only contain the textual capture results...
+          if ( !binaryCaptureResultsSeen )
+          {
+            loadCapturedResults( newProject, zipIS );
+          }
           entriesSeen = true;
         }
         else if ( name.startsWith( FILENAME_PROJECT_SETTINGS ) )
@@ -175,6 +217,126 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void loadProject( final File aFile ) throws IOException
+  {
+    if ( aFile == null )
+    {
+      throw new IllegalArgumentException( "File cannot be null!" );
+    }
+
+    // The captured data of the previous project is no longer needed...
+    cancelPendingLoad();
+
+    final ZipFile zipFile = new ZipFile( aFile );
+
+    final ProjectImpl newProject = new ProjectImpl();
+    // Make sure listeners retrieve the proper events...
+    copyPropertyChangeListeners( this.project, newProject );
+
+    List<String> labels = null;
+    ZipEntry captureResults = null;
+    boolean loadInBackground = false;
+
+    try
+    {
+      boolean entriesSeen = false;
+
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while ( entries.hasMoreElements() )
+      {
+        final ZipEntry ze = entries.nextElement();
+
+        final String name = ze.getName();
+        if ( FILENAME_PROJECT_METADATA.equals( name ) )
+        {
+          final InputStream is = zipFile.getInputStream( ze );
+          try
+          {
+            loadProjectMetadata( newProject, is );
+          }
+          finally
+          {
+            HostUtils.closeResource( is );
+          }
+          entriesSeen = true;
+        }
+        else if ( FILENAME_CHANNEL_LABELS.equals( name ) )
+        {
+          final InputStream is = zipFile.getInputStream( ze );
+          try
+          {
+            labels = loadChannelLabels( is );
+          }
+          finally
+          {
+            HostUtils.closeResource( is );
+          }
+          entriesSeen = true;
+        }
+        else if ( FILENAME_BINARY_CAPTURE_RESULTS.equals( name ) )
+        {
+          // Loaded after all other entries are loaded...
+          captureResults = ze;
+          entriesSeen = true;
+        }
+        else if ( FILENAME_CAPTURE_RESULTS.equals( name ) )
+        {
+          // Older projects only contain the textual capture results...
+          if ( captureResults == null )
+          {
+            captureResults = ze;
+          }
+          entriesSeen = true;
+        }
+        else if ( name.startsWith( FILENAME_PROJECT_SETTINGS ) )
+        {
+          final String userSettingsName = name.substring( FILENAME_PROJECT_SETTINGS.length() );
+
+          final InputStream is = zipFile.getInputStream( ze );
+          try
+          {
+            loadProjectSettings( newProject, userSettingsName, is );
+          }
+          finally
+          {
+            HostUtils.closeResource( is );
+          }
+          entriesSeen = true;
+        }
+      }
+
+      if ( !entriesSeen )
+      {
+        throw new IOException( "Invalid project file!" );
+      }
+
+      newProject.getDataSet().mergeChannelLabels( labels );
+
+      // Mark the project as no longer changed...
+      newProject.setChanged( false );
+
+      // Overwrite the main project; the captured data follows later...
+      setProject( newProject );
+
+      if ( captureResults != null )
+      {
+        this.pendingLoad = LOADER.submit( createCapturedResultsLoader( newProject, zipFile, captureResults, labels ) );
+        loadInBackground = true;
+      }
+    }
+    finally
+    {
+      if ( !loadInBackground )
+      {
+        HostUtils.closeResource( zipFile );
+      }
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -204,6 +366,9 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
       throw new IllegalArgumentException( "Output stream cannot be null!" );
     }
 
+    // Make sure the project is completely loaded before saving it...
+    awaitPendingLoad();
+
     final BufferedOutputStream os = new BufferedOutputStream( aOutput );
     final ZipOutputStream zipOS = new ZipOutputStream( os );
 
@@ -240,6 +405,52 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
     this.hostProperties = aHostProperties;
   }
 
+  /**
+   * Waits until the captured data of a project that is loaded in the
+   * background is completely loaded.
+   */
+  final void awaitPendingLoad()
+  {
+    final Future<?> pending = this.pendingLoad;
+    if ( pending == null )
+    {
+      return;
+    }
+
+    try
+    {
+      pending.get();
+    }
+    catch ( InterruptedException exception )
+    {
+      Thread.currentThread().interrupt();
+    }
+    catch ( ExecutionException exception )
+    {
+      // Ignore; already reported by the loader itself...
+    }
+    catch ( CancellationException exception )
+    {
+      // Ignore; nothing to wait for...
+    }
+  }
+
+  /**
+   * Reads the capture results in the binary format from the given ZIP-input
+   * stream.
+   * 
+   * @param aProject
+   *          the project to read the capture results for;
+   * @param aZipIS
+   *          the ZIP input stream to read the capture results from.
+   * @throws IOException
+   *           in case of I/O problems.
+   */
+  protected void loadBinaryCapturedResults( final ProjectImpl aProject, final InputStream aZipIS ) throws IOException
+  {
+    aProject.setDataSet( OlsDataHelper.readBinary( aZipIS ) );
+  }
+
   /**
    * Reads the capture results from the given ZIP-input stream.
    * 
@@ -250,7 +461,7 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
    * @throws IOException
    *           in case of I/O problems.
    */
-  protected void loadCapturedResults( final Project aProject, final ZipInputStream aZipIS ) throws IOException
+  protected void loadCapturedResults( final Project aProject, final InputStream aZipIS ) throws IOException
   {
     aProject.readData( new InputStreamReader( aZipIS ) );
   }
@@ -265,7 +476,7 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
    * @throws IOException
    *           in case of I/O problems.
    */
-  protected List<String> loadChannelLabels( final ZipInputStream aZipIS ) throws IOException
+  protected List<String> loadChannelLabels( final InputStream aZipIS ) throws IOException
   {
     final InputStreamReader isReader = new InputStreamReader( aZipIS );
     final BufferedReader reader = new BufferedReader( isReader );
@@ -292,7 +503,7 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
    * @throws IOException
    *           in case of I/O problems.
    */
-  protected void loadProjectMetadata( final Project aProject, final ZipInputStream aZipIS ) throws IOException
+  protected void loadProjectMetadata( final Project aProject, final InputStream aZipIS ) throws IOException
   {
     final InputStreamReader isReader = new InputStreamReader( aZipIS );
     final BufferedReader reader = new BufferedReader( isReader );
@@ -328,7 +539,7 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
    *           in case of I/O problems.
    */
   protected void loadProjectSettings( final ProjectImpl aProject, final String aUserSettingsName,
-      final ZipInputStream aZipIS ) throws IOException
+      final InputStream aZipIS ) throws IOException
   {
     final Properties settings = new Properties();
     try
@@ -343,7 +554,10 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
   }
 
   /**
-   * Stores the captured results to the given ZIP-output stream.
+   * Stores the captured results in the binary format to the given ZIP-output
+   * stream, followed by the captured results in the textual format, unless
+   * disabled through the <tt>nl.lxtreme.ols.project.textCaptureResults</tt>
+   * system property.
    * <p>
    * If the given project does not have capture results, this method does
    * nothing.
@@ -364,10 +578,18 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
       return;
     }
 
-    final ZipEntry zipEntry = new ZipEntry( FILENAME_CAPTURE_RESULTS );
+    final ZipEntry zipEntry = new ZipEntry( FILENAME_BINARY_CAPTURE_RESULTS );
     aZipOS.putNextEntry( zipEntry );
 
-    aProject.writeData( new OutputStreamWriter( aZipOS ) );
+    OlsDataHelper.writeBinary( dataSet, aZipOS );
+
+    if ( STORE_TEXT_CAPTURE_RESULTS )
+    {
+      // Older clients only understand the textual capture results...
+      aZipOS.putNextEntry( new ZipEntry( FILENAME_CAPTURE_RESULTS ) );
+
+      aProject.writeData( new OutputStreamWriter( aZipOS ) );
+    }
   }
 
   /**
@@ -495,6 +717,19 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
     }
   }
 
+  /**
+   * Cancels the background loading of captured data, if any.
+   */
+  private void cancelPendingLoad()
+  {
+    final Future<?> pending = this.pendingLoad;
+    if ( pending != null )
+    {
+      pending.cancel( true /* mayInterruptIfRunning */);
+      this.pendingLoad = null;
+    }
+  }
+
   /**
    * Copies the current set of {@link PropertyChangeListener}s from a given
    * source project to a given target project.
@@ -514,6 +749,89 @@ public class ProjectManagerImpl implements PropertyChangeListener, ProjectManage
     }
   }
 
+  /**
+   * Creates a task that loads the captured data of a project from the given
+   * ZIP-file, and closes this ZIP-file afterwards.
+   * 
+   * @param aProject
+   *          the project to set the captured data for;
+   * @param aZipFile
+   *          the ZIP file to read the captured data from;
+   * @param aEntry
+   *          the ZIP entry containing the captured data;
+   * @param aLabels
+   *          the channel labels of the project, can be <code>null</code>.
+   * @return a new task, never <code>null</code>.
+   */
+  private Callable<Void> createCapturedResultsLoader( final ProjectImpl aProject, final ZipFile aZipFile,
+      final ZipEntry aEntry, final List<String> aLabels )
+  {
+    return new Callable<Void>()
+    {
+      @Override
+      public Void call() throws IOException
+      {
+        try
+        {
+          final InputStream is = new BufferedInputStream( aZipFile.getInputStream( aEntry ) );
+
+          final DataSetImpl dataSet;
+          if ( FILENAME_BINARY_CAPTURE_RESULTS.equals( aEntry.getName() ) )
+          {
+            dataSet = OlsDataHelper.readBinary( is );
+          }
+          else
+          {
+            dataSet = OlsDataHelper.read( new InputStreamReader( is ) );
+          }
+          dataSet.mergeChannelLabels( aLabels );
+
+          // Do not overwrite the data of a project that is replaced in the
+          // meantime...
+          if ( ( aProject == ProjectManagerImpl.this.project ) && !Thread.currentThread().isInterrupted() )
+          {
+            aProject.setDataSet( dataSet );
+          }
+
+          return null;
+        }
+        catch ( IOException exception )
+        {
+          // Make sure to handle IO-interrupted exceptions properly!
+          if ( !HostUtils.handleInterruptedException( exception ) )
+          {
+            reportLoadFailure( exception );
+          }
+          throw exception;
+        }
+        catch ( RuntimeException exception )
+        {
+          reportLoadFailure( exception );
+          throw exception;
+        }
+        finally
+        {
+          HostUtils.closeResource( aZipFile );
+        }
+      }
+    };
+  }
+
+  /**
+   * Logs the given failure to load captured data in the background, and
+   * reports it to all listeners as {@link #PROPERTY_LOAD_FAILURE} property
+   * change.
+   * 
+   * @param aFailure
+   *          the failure to report, cannot be <code>null</code>.
+   */
+  private void reportLoadFailure( final Exception aFailure )
+  {
+    LOG.log( Level.WARNING, "Loading captured data failed!", aFailure );
+
+    this.propertyChangeSupport.firePropertyChange( PROPERTY_LOAD_FAILURE, null, aFailure );
+  }
+
   /**
    * Sets the current project to the given project.
    * 
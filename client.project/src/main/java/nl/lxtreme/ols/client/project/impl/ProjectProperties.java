@@ -49,4 +49,6 @@ public interface ProjectProperties
   public static final String PROPERTY_SETTINGS = "settings";
   /** The captured data of the project. */
   public static final String PROPERTY_CAPTURED_DATA = "capturedData";
+  /** The failure that occurred while loading the captured data of a project. */
+  public static final String PROPERTY_LOAD_FAILURE = "loadFailure";
 }
@@ -24,7 +24,10 @@ package nl.lxtreme.ols.client.project.impl;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.beans.*;
 import java.io.*;
+import java.util.*;
+import java.util.zip.*;
 
 import nl.lxtreme.ols.api.*;
 import nl.lxtreme.ols.api.acquisition.*;
@@ -96,6 +99,65 @@ public class ProjectManagerImplTest
     this.projectManager.loadProject( bais );
   }
 
+  /**
+   * Tests that projects containing only the textual capture results (as
+   * written by older versions) can still be loaded.
+   */
+  @Test
+  public void testLoadProjectWithTextualCaptureResultsOk() throws IOException
+  {
+    final AcquisitionResult mockedCapturedData = DataTestUtils.getMockedCapturedData();
+
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream( 1024 );
+    final ZipOutputStream zipOS = new ZipOutputStream( baos );
+    zipOS.putNextEntry( new ZipEntry( "data.ols" ) );
+
+    final Writer writer = new OutputStreamWriter( zipOS );
+    OlsDataHelper.write( new DataSetImpl( mockedCapturedData, new DataSetImpl(), false ), writer );
+    writer.flush();
+    zipOS.close();
+
+    final ByteArrayInputStream bais = new ByteArrayInputStream( baos.toByteArray() );
+    this.projectManager.loadProject( bais );
+
+    DataTestUtils.assertEquals( mockedCapturedData, this.projectManager.getCurrentProject().getDataSet()
+        .getCapturedData() );
+  }
+
+  /**
+   * Tests that saved projects contain the textual capture results next to the
+   * binary ones, so older versions can still read them.
+   */
+  @Test
+  public void testSaveProjectStoresTextualCaptureResults() throws IOException
+  {
+    final AcquisitionResult mockedCapturedData = DataTestUtils.getMockedCapturedData();
+    this.projectManager.getCurrentProject().setCapturedData( mockedCapturedData );
+
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream( 1024 );
+    this.projectManager.saveProject( baos );
+
+    final List<String> names = new ArrayList<String>();
+    DataSetImpl textDataSet = null;
+
+    final ZipInputStream zipIS = new ZipInputStream( new ByteArrayInputStream( baos.toByteArray() ) );
+    ZipEntry ze;
+    while ( ( ze = zipIS.getNextEntry() ) != null )
+    {
+      names.add( ze.getName() );
+      if ( "data.ols".equals( ze.getName() ) )
+      {
+        textDataSet = OlsDataHelper.read( new InputStreamReader( zipIS ) );
+      }
+    }
+    zipIS.close();
+
+    assertTrue( names.contains( "data.bin" ) );
+    assertTrue( names.contains( "data.ols" ) );
+    assertNotNull( textDataSet );
+    DataTestUtils.assertEquals( mockedCapturedData, textDataSet.getCapturedData() );
+  }
+
   /**
    * Test method for
    * {@link SimpleProjectManager#loadProject(java.io.InputStream)}.
@@ -103,7 +165,107 @@ public class ProjectManagerImplTest
   @Test( expected = IllegalArgumentException.class )
   public void testLoadNullProjectFail() throws IOException
   {
-    this.projectManager.loadProject( null );
+    this.projectManager.loadProject( ( InputStream )null );
+  }
+
+  /**
+   * Tests that loading a project from file yields the same captured data and
+   * channel labels as the saved project.
+   */
+  @Test
+  public void testLoadProjectFromFileOk() throws IOException
+  {
+    final AcquisitionResult mockedCapturedData = DataTestUtils.getMockedCapturedData();
+
+    final Project project = this.projectManager.getCurrentProject();
+    project.setName( "testProject" );
+    project.setCapturedData( mockedCapturedData );
+    project.getDataSet().getChannel( 1 ).setLabel( "labelB" );
+
+    final File file = File.createTempFile( "project", ".olp" );
+    file.deleteOnExit();
+
+    final OutputStream os = new FileOutputStream( file );
+    try
+    {
+      this.projectManager.saveProject( os ); // should succeed...
+    }
+    finally
+    {
+      os.close();
+    }
+
+    // Make sure everything is gone...
+    this.projectManager.createNewProject();
+
+    this.projectManager.loadProject( file );
+
+    assertEquals( "testProject", this.projectManager.getCurrentProject().getName() );
+
+    // The captured data is loaded in the background...
+    this.projectManager.awaitPendingLoad();
+
+    final DataSet loadedDataSet = this.projectManager.getCurrentProject().getDataSet();
+    DataTestUtils.assertEquals( mockedCapturedData, loadedDataSet.getCapturedData() );
+    assertEquals( "labelB", loadedDataSet.getChannel( 1 ).getLabel() );
+    assertFalse( this.projectManager.getCurrentProject().isChanged() );
+
+    file.delete();
+  }
+
+  /**
+   * Tests that a failure to load the captured data of a project in the
+   * background is reported to the listeners of the project manager.
+   */
+  @Test
+  public void testLoadProjectFromFileReportsLoadFailure() throws Exception
+  {
+    final File file = File.createTempFile( "project", ".olp" );
+    file.deleteOnExit();
+
+    final ZipOutputStream zos = new ZipOutputStream( new FileOutputStream( file ) );
+    try
+    {
+      zos.putNextEntry( new ZipEntry( "data.ols" ) );
+      zos.write( ";Rate: 100\n;Channels: 8\nzz@xx\n".getBytes( "UTF-8" ) );
+      zos.closeEntry();
+    }
+    finally
+    {
+      zos.close();
+    }
+
+    final List<Object> failures = new ArrayList<Object>();
+    this.projectManager.addPropertyChangeListener( new PropertyChangeListener()
+    {
+      @Override
+      public void propertyChange( final PropertyChangeEvent aEvent )
+      {
+        if ( ProjectProperties.PROPERTY_LOAD_FAILURE.equals( aEvent.getPropertyName() ) )
+        {
+          failures.add( aEvent.getNewValue() );
+        }
+      }
+    } );
+
+    this.projectManager.loadProject( file );
+    this.projectManager.awaitPendingLoad();
+
+    assertEquals( 1, failures.size() );
+    assertTrue( failures.get( 0 ) instanceof IOException );
+    assertNull( this.projectManager.getCurrentProject().getDataSet().getCapturedData() );
+
+    file.delete();
+  }
+
+  /**
+   * Test method for
+   * {@link SimpleProjectManager#loadProject(java.io.File)}.
+   */
+  @Test( expected = IllegalArgumentException.class )
+  public void testLoadNullProjectFileFail() throws IOException
+  {
+    this.projectManager.loadProject( ( File )null );
   }
 
   /**
@@ -141,6 +303,58 @@ public class ProjectManagerImplTest
         .getCapturedData() );
   }
 
+  /**
+   * Tests that large capture results, spanning multiple chunks in the binary
+   * format, are stored and loaded correctly.
+   */
+  @Test
+  public void testSaveProjectStoresLargeCaptureResultsOk() throws IOException
+  {
+    final Random rnd = new Random( 5678L );
+
+    final int size = 100000;
+    final int[] values = new int[size];
+    final long[] timestamps = new long[size];
+
+    long time = 0L;
+    for ( int i = 0; i < size; i++ )
+    {
+      values[i] = rnd.nextInt();
+      timestamps[i] = time;
+      time += 1 + ( rnd.nextBoolean() ? rnd.nextInt( 10 ) : rnd.nextInt( Integer.MAX_VALUE ) );
+    }
+
+    final AcquisitionResult capturedData = new CapturedData( values, timestamps, 1234L, 100000000, 32, -1, time );
+
+    final Project project = this.projectManager.getCurrentProject();
+    project.setCapturedData( capturedData );
+    project.getDataSet().setCursorsEnabled( true );
+    project.getDataSet().getCursor( 3 ).setTimestamp( 4321L );
+
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream( 1024 );
+    this.projectManager.saveProject( baos ); // should succeed...
+
+    // Make sure everything is gone...
+    this.projectManager.createNewProject();
+
+    final ByteArrayInputStream bais = new ByteArrayInputStream( baos.toByteArray() );
+    this.projectManager.loadProject( bais );
+
+    final DataSet loadedDataSet = this.projectManager.getCurrentProject().getDataSet();
+    final AcquisitionResult loadedData = loadedDataSet.getCapturedData();
+
+    assertArrayEquals( capturedData.getValues(), loadedData.getValues() );
+    assertArrayEquals( capturedData.getTimestamps(), loadedData.getTimestamps() );
+    assertEquals( 1234L, loadedData.getTriggerPosition() );
+    assertEquals( 100000000, loadedData.getSampleRate() );
+    assertEquals( 32, loadedData.getChannels() );
+    assertEquals( -1, loadedData.getEnabledChannels() );
+    assertEquals( time, loadedData.getAbsoluteLength() );
+    assertTrue( loadedDataSet.isCursorsEnabled() );
+    assertEquals( 4321L, loadedDataSet.getCursor( 3 ).getTimestamp() );
+    assertFalse( loadedDataSet.getCursor( 2 ).isDefined() );
+  }
+
   /**
    * Test method for
    * {@link SimpleProjectManager#saveProject(java.io.OutputStream)}.
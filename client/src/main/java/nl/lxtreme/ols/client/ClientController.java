@@ -341,6 +341,10 @@ public final class ClientController implements ActionProvider, AcquisitionProgre
   {
     try
     {
+      // Start gathering the channel statistics in the background, allowing
+      // tools to use them right away...
+      ChannelStatistics.getInstance( aData );
+
       getCurrentProject().setCapturedData( aData );
     }
     catch ( Exception exception )
@@ -1001,6 +1005,42 @@ public final class ClientController implements ActionProvider, AcquisitionProgre
     this.repaintAccumulatingRunnable.add( ( Void )null );
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onAnnotations( final Collection<? extends Annotation<?>> aAnnotations )
+  {
+    if ( aAnnotations.isEmpty() )
+    {
+      return;
+    }
+
+    // Group the annotations per channel, retaining their original order...
+    final Map<Integer, List<Annotation<?>>> perChannel = new TreeMap<Integer, List<Annotation<?>>>();
+    for ( Annotation<?> annotation : aAnnotations )
+    {
+      final Integer channelIdx = Integer.valueOf( annotation.getChannel() );
+
+      List<Annotation<?>> annotations = perChannel.get( channelIdx );
+      if ( annotations == null )
+      {
+        annotations = new ArrayList<Annotation<?>>();
+        perChannel.put( channelIdx, annotations );
+      }
+      annotations.add( annotation );
+    }
+
+    for ( Map.Entry<Integer, List<Annotation<?>>> entry : perChannel.entrySet() )
+    {
+      final Channel channel = getChannel( entry.getKey().intValue() );
+      channel.addAnnotations( entry.getValue() );
+    }
+
+    // A single repaint suffices for the entire batch...
+    this.repaintAccumulatingRunnable.add( ( Void )null );
+  }
+
   /**
    * Opens a given file as OLS-data file.
    *
@@ -1036,13 +1076,10 @@ public final class ClientController implements ActionProvider, AcquisitionProgre
    */
   public void openProjectFile( final File aFile ) throws IOException
   {
-    FileInputStream fis = null;
-
     try
     {
-      fis = new FileInputStream( aFile );
-
-      this.projectManager.loadProject( fis );
+      // The captured data is loaded in the background...
+      this.projectManager.loadProject( aFile );
 
       final Project project = getCurrentProject();
       project.setFilename( aFile );
@@ -1051,7 +1088,6 @@ public final class ClientController implements ActionProvider, AcquisitionProgre
     }
     finally
     {
-      HostUtils.closeResource( fis );
       updateActionsOnEDT();
     }
   }
@@ -1802,7 +1838,7 @@ public final class ClientController implements ActionProvider, AcquisitionProgre
 
     if ( capturedData != null )
     {
-      final int dataLength = capturedData.getValues().length;
+      final int dataLength = capturedData.getSampleStore().size();
       if ( areCursorsEnabled() )
       {
         if ( isCursorSet( 0 ) )
@@ -883,6 +883,20 @@ public final class MainFrame extends JFrame implements Closeable, PropertyChange
         }
       } );
     }
+    else if ( "loadFailure".equals( propertyName ) )
+    {
+      final Exception failure = ( Exception )aEvent.getNewValue();
+
+      SwingComponentUtils.invokeOnEDT( new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          setStatus( "Loading the project data failed!" );
+          JErrorDialog.showDialog( MainFrame.this, "Loading the project data failed!", failure );
+        }
+      } );
+    }
 
     this.controller.updateActionsOnEDT();
   }
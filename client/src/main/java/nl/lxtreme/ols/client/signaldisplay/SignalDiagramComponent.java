@@ -346,6 +346,9 @@ public class SignalDiagramComponent extends JPanel implements Scrollable
     rect.y = aSignalElement.getYposition();
     rect.height = aSignalElement.getHeight();
 
+    // The rendering of the signal element is probably changed...
+    this.signalView.invalidateTiles();
+
     repaint( rect );
   }
 
@@ -404,6 +407,8 @@ public class SignalDiagramComponent extends JPanel implements Scrollable
    */
   final void revalidateAll()
   {
+    this.signalView.invalidateTiles();
+
     revalidate();
 
     final JScrollPane scrollPane = getAncestorOfClass( JScrollPane.class, this );
@@ -27,6 +27,7 @@ import javax.swing.event.*;
 import javax.swing.table.*;
 
 import nl.lxtreme.ols.api.acquisition.*;
+import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.client.*;
 import nl.lxtreme.ols.client.signaldisplay.model.*;
 import nl.lxtreme.ols.client.signaldisplay.signalelement.*;
@@ -44,8 +45,7 @@ class StateTableModel extends AbstractTableModel
 
   // VARIABLES
 
-  private final int[] values;
-  private final long[] timestamps;
+  private final SampleStore store;
   private final List<ElementGroup> groups;
   private final Radix[] viewModes;
 
@@ -57,8 +57,7 @@ class StateTableModel extends AbstractTableModel
   public StateTableModel( final SignalDiagramModel aModel )
   {
     AcquisitionResult capturedData = aModel.getCapturedData();
-    this.values = capturedData.getValues();
-    this.timestamps = capturedData.getTimestamps();
+    this.store = capturedData.getSampleStore();
 
     SignalElementManager sem = aModel.getSignalElementManager();
     Collection<ElementGroup> elementGroups = sem.getGroups();
@@ -151,7 +150,7 @@ class StateTableModel extends AbstractTableModel
   @Override
   public int getRowCount()
   {
-    return this.values.length;
+    return this.store.size();
   }
 
   /**
@@ -162,7 +161,7 @@ class StateTableModel extends AbstractTableModel
   {
     if ( aColumnIndex == 0 )
     {
-      return Long.valueOf( this.timestamps[aRowIndex] );
+      return Long.valueOf( this.store.getTimestamp( aRowIndex ) );
     }
 
     int groupIdx = aColumnIndex - 1;
@@ -171,7 +170,7 @@ class StateTableModel extends AbstractTableModel
       return null;
     }
 
-    return Integer.valueOf( this.groups.get( groupIdx ).getValue( this.values[aRowIndex] ) );
+    return Integer.valueOf( this.groups.get( groupIdx ).getValue( this.store.getValue( aRowIndex ) ) );
   }
 
   /**
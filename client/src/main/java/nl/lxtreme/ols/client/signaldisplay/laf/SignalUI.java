@@ -20,12 +20,17 @@
 package nl.lxtreme.ols.client.signaldisplay.laf;
 
 
+import static nl.lxtreme.ols.client.signaldisplay.laf.TileCache.*;
+
 import java.awt.*;
+import java.awt.image.*;
+import java.util.concurrent.*;
 
 import javax.swing.*;
 import javax.swing.plaf.*;
 
 import nl.lxtreme.ols.api.*;
+import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.api.data.annotation.*;
 import nl.lxtreme.ols.client.signaldisplay.*;
 import nl.lxtreme.ols.client.signaldisplay.model.*;
@@ -39,6 +44,69 @@ import nl.lxtreme.ols.client.signaldisplay.view.*;
  */
 public class SignalUI extends ComponentUI
 {
+  // INNER TYPES
+
+  /**
+   * Provides a snapshot of everything that is needed to render the signals in
+   * a given region, taken on the EDT, allowing the signals to be rendered on
+   * another thread. The signal elements itself are not copied; as their
+   * layout is part of the content stamp of a tile, a tile rendered from
+   * changed elements ends up under a stale key and is never painted.
+   */
+  static final class RenderState
+  {
+    // VARIABLES
+
+    final IUIElement[] elements;
+    final boolean hasData;
+    final SampleStore store;
+    final int startIdx;
+    final int endIdx;
+    final double zoomFactor;
+    final SignalSummary summary;
+    final Long triggerOffset;
+    final Color backgroundColor;
+    final Color triggerColor;
+    final int signalElementSpacing;
+    final boolean sloppyScopeRenderingAllowed;
+    final boolean renderGroupSummaryAntiAliased;
+    final int groupSummaryPadding;
+    final Font groupSummaryTextFont;
+    final Color groupSummaryBarColor;
+    final boolean renderScopeSignalAntiAliased;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new RenderState instance.
+     *
+     * @param aModel
+     *          the model to take the snapshot of, cannot be <code>null</code>;
+     * @param aRegion
+     *          the region that is to be rendered, cannot be <code>null</code>.
+     */
+    RenderState( final SignalViewModel aModel, final Rectangle aRegion )
+    {
+      this.elements = aModel.getSignalElements( aRegion.y, aRegion.height );
+      this.hasData = aModel.hasData();
+      this.store = aModel.getSampleStore();
+      this.startIdx = aModel.getStartIndex( aRegion );
+      this.endIdx = aModel.getEndIndex( aRegion, this.store.size() );
+      this.zoomFactor = aModel.getZoomFactor();
+      this.summary = aModel.getSignalSummary();
+      this.triggerOffset = aModel.hasTriggerData() ? Long.valueOf( aModel.getTriggerOffset() ) : null;
+      this.backgroundColor = aModel.getBackgroundColor();
+      this.triggerColor = aModel.getTriggerColor();
+      this.signalElementSpacing = aModel.getSignalElementSpacing();
+      this.sloppyScopeRenderingAllowed = aModel.isSloppyScopeRenderingAllowed();
+      this.renderGroupSummaryAntiAliased = aModel.isRenderGroupSummaryAntiAliased();
+      this.groupSummaryPadding = aModel.getGroupSummaryPadding();
+      this.groupSummaryTextFont = aModel.getGroupSummaryTextFont();
+      this.groupSummaryBarColor = aModel.getGroupSummaryBarColor();
+      this.renderScopeSignalAntiAliased = aModel.isRenderScopeSignalAntiAliased();
+    }
+  }
+
   // CONSTANTS
 
   /** The maximum number of points in a polyline. */
@@ -48,6 +116,11 @@ public class SignalUI extends ComponentUI
    * to draw the group summary and scope a bit sloppy.
    */
   private static final int SLOPPY_DRAW_THRESHOLD = 10000;
+  /**
+   * The buffers for the polyline points; as tiles can be rendered
+   * concurrently, each thread has its own buffers.
+   */
+  private static final ThreadLocal<int[][]> POINTS = new ThreadLocal<int[][]>();
 
   // VARIABLES
 
@@ -55,8 +128,8 @@ public class SignalUI extends ComponentUI
   private volatile MeasurementInfo measurementInfo;
   private volatile Rectangle measurementRect;
 
-  private static final int[] x = new int[2 * POINT_COUNT];
-  private static final int[] y = new int[2 * POINT_COUNT];
+  private final TileCache tileCache = TileCache.isEnabled() ? new TileCache() : null;
+  private final TileCache annotationTileCache = TileCache.isEnabled() ? new TileCache() : null;
 
   // METHODS
 
@@ -105,6 +178,123 @@ public class SignalUI extends ComponentUI
     return hints;
   }
 
+  /**
+   * Fills the polyline points for a digital signal using the signal summary.
+   *
+   * @param aXpoints
+   *          the X-coordinates of the polyline to fill;
+   * @param aYpoints
+   *          the Y-coordinates of the polyline to fill;
+   * @param aSummary
+   *          the signal summary to use, cannot be <code>null</code>;
+   * @param aLevel
+   *          the summary level to use, >= 0;
+   * @param aMask
+   *          the mask of the signal to draw;
+   * @param aStartTime
+   *          the first timestamp to draw;
+   * @param aEndTime
+   *          the last timestamp to draw;
+   * @param aZoomFactor
+   *          the current zoom factor;
+   * @param aSignalHeight
+   *          the height of the signal, in pixels.
+   * @return the number of points in the polyline.
+   */
+  private static int fillSummarizedSignal( final int[] aXpoints, final int[] aYpoints, final SignalSummary aSummary,
+      final int aLevel, final int aMask, final long aStartTime, final long aEndTime, final double aZoomFactor,
+      final int aSignalHeight )
+  {
+    final long bucketWidth = aSummary.getBucketWidth( aLevel );
+    final int firstBucket = ( int )( aStartTime / bucketWidth );
+    final int lastBucket = ( int )Math.min( aSummary.getBucketCount( aLevel ) - 1, aEndTime / bucketWidth );
+
+    int yValue = -1;
+    int p = 0;
+
+    for ( int bucket = firstBucket; ( p < ( aXpoints.length - 3 ) ) && ( bucket <= lastBucket ); bucket++ )
+    {
+      final boolean high = ( aSummary.getHighMask( aLevel, bucket ) & aMask ) != 0;
+      final boolean low = ( aSummary.getLowMask( aLevel, bucket ) & aMask ) != 0;
+      if ( !high && !low )
+      {
+        // No samples in this bucket...
+        continue;
+      }
+
+      final int xValue = ( int )( aZoomFactor * Math.max( aStartTime, bucket * bucketWidth ) );
+
+      if ( high && low )
+      {
+        // One or more edges in this bucket; draw it as a single edge...
+        if ( yValue < 0 )
+        {
+          yValue = aSignalHeight;
+        }
+        aXpoints[p] = xValue;
+        aYpoints[p] = yValue;
+        p++;
+
+        yValue = ( yValue == 0 ) ? aSignalHeight : 0;
+      }
+      else
+      {
+        final int newYvalue = high ? 0 : aSignalHeight;
+        if ( ( yValue >= 0 ) && ( yValue != newYvalue ) )
+        {
+          aXpoints[p] = xValue;
+          aYpoints[p] = yValue;
+          p++;
+        }
+        yValue = newYvalue;
+      }
+
+      aXpoints[p] = xValue;
+      aYpoints[p] = yValue;
+      p++;
+    }
+
+    // Make sure we end at the last visible timestamp...
+    aXpoints[p] = ( int )( aZoomFactor * aEndTime );
+    aYpoints[p] = Math.max( 0, yValue );
+    p++;
+
+    return p;
+  }
+
+  /**
+   * Returns the polyline point buffers of the current thread.
+   *
+   * @param aCapacity
+   *          the minimal number of points the buffers should hold.
+   * @return an array with the X- and Y-coordinate buffers, never
+   *         <code>null</code>.
+   */
+  private static int[][] getPointBuffers( final int aCapacity )
+  {
+    int[][] result = POINTS.get();
+    if ( ( result == null ) || ( result[0].length < aCapacity ) )
+    {
+      result = new int[][] { new int[aCapacity], new int[aCapacity] };
+      POINTS.set( result );
+    }
+    return result;
+  }
+
+  /**
+   * Returns the bounds of the tile at the given position, in view coordinates.
+   *
+   * @param aColumn
+   *          the column of the tile, >= 0;
+   * @param aRow
+   *          the row of the tile, >= 0.
+   * @return the tile bounds, never <code>null</code>.
+   */
+  private static Rectangle getTileBounds( final int aColumn, final int aRow )
+  {
+    return new Rectangle( aColumn * TILE_SIZE, aRow * TILE_SIZE, TILE_SIZE, TILE_SIZE );
+  }
+
   /**
    * Returns the current value of measurementRect.
    *
@@ -133,6 +323,19 @@ public class SignalUI extends ComponentUI
     }
   }
 
+  /**
+   * Invalidates all cached tiles, causing the signals to be completely
+   * re-rendered upon the next repaint.
+   */
+  public void invalidateTiles()
+  {
+    if ( this.tileCache != null )
+    {
+      this.tileCache.invalidate();
+      this.annotationTileCache.invalidate();
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -162,13 +365,20 @@ public class SignalUI extends ComponentUI
       final Rectangle clip = aGraphics.getClipBounds();
       final IUIElement[] elements = model.getSignalElements( clip.y, clip.height );
 
+      final int stamp = ( this.tileCache != null ) ? getContentStamp( model ) : 0;
+
       Graphics2D canvas = ( Graphics2D )aGraphics.create();
 
       try
       {
-        if ( elements.length > 0 )
+        if ( this.tileCache != null )
+        {
+          // Draw the signals from the (cached) tiles...
+          paintTiles( canvas, model, stamp, aComponent.getWidth() );
+        }
+        else if ( elements.length > 0 )
         {
-          paintSignals( canvas, model, elements );
+          paintSignals( canvas, new RenderState( model, clip ) );
         }
       }
       finally
@@ -193,8 +403,15 @@ public class SignalUI extends ComponentUI
         paintMeasurementArrow( canvas, model, this.measurementInfo );
       }
 
-      // Draw the annotations...
-      paintAnnotations( canvas, model, elements );
+      // Draw the annotations on top of everything else...
+      if ( this.annotationTileCache != null )
+      {
+        paintAnnotationTiles( canvas, model, getAnnotationStamp( model, stamp ) );
+      }
+      else
+      {
+        paintAnnotations( canvas, model, elements );
+      }
     }
     finally
     {
@@ -202,6 +419,22 @@ public class SignalUI extends ComponentUI
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void uninstallUI( final JComponent aComponent )
+  {
+    if ( this.tileCache != null )
+    {
+      // Stop rendering in the background and release the cached tiles...
+      this.tileCache.shutdown();
+      this.annotationTileCache.shutdown();
+    }
+
+    super.uninstallUI( aComponent );
+  }
+
   /**
    * Returns the stroke to use to render the annotation lines.
    *
@@ -226,6 +459,68 @@ public class SignalUI extends ComponentUI
     return stroke;
   }
 
+  /**
+   * Returns a stamp of everything that determines how the annotation tiles are
+   * rendered, which is the layout of the signal elements and their annotations.
+   *
+   * @param aModel
+   *          the model to use, cannot be <code>null</code>;
+   * @param aContentStamp
+   *          the content stamp of the signals, as returned by
+   *          {@link #getContentStamp(SignalViewModel)}.
+   * @return an annotation stamp.
+   */
+  private int getAnnotationStamp( final SignalViewModel aModel, final int aContentStamp )
+  {
+    int result = aContentStamp;
+
+    for ( IUIElement element : aModel.getSignalElements( 0, Integer.MAX_VALUE ) )
+    {
+      if ( ( element instanceof SignalElement ) && ( ( SignalElement )element ).isDigitalSignal() )
+      {
+        final Channel channel = ( ( SignalElement )element ).getChannel();
+        result = ( 31 * result ) + channel.getAnnotationModificationCount();
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns a stamp of everything that determines how the signal tiles are
+   * rendered, such as the data set and the layout of the signal elements.
+   *
+   * @param aModel
+   *          the model to use, cannot be <code>null</code>.
+   * @return a content stamp.
+   */
+  private int getContentStamp( final SignalViewModel aModel )
+  {
+    // The sample store is immutable and replaced together with the data...
+    int result = System.identityHashCode( aModel.getSampleStore() );
+    result = ( 31 * result ) + ( ( aModel.getSignalSummary() != null ) ? 1 : 0 );
+
+    for ( IUIElement element : aModel.getSignalElements( 0, Integer.MAX_VALUE ) )
+    {
+      result = ( 31 * result ) + element.getYposition();
+      result = ( 31 * result ) + element.getHeight();
+      result = ( 31 * result ) + element.getColor().getRGB();
+
+      if ( element instanceof SignalElement )
+      {
+        final SignalElement signalElement = ( SignalElement )element;
+
+        result = ( 31 * result ) + signalElement.getType().ordinal();
+        result = ( 31 * result ) + signalElement.getMask();
+        result = ( 31 * result ) + ( signalElement.isEnabled() ? 1 : 0 );
+        result = ( 31 * result ) + signalElement.getSignalHeight();
+        result = ( 31 * result ) + signalElement.getOffset();
+      }
+    }
+
+    return result;
+  }
+
   /**
    * @param aCanvas
    * @param aModel
@@ -234,8 +529,8 @@ public class SignalUI extends ComponentUI
   private void paintAnnotations( final Graphics2D aCanvas, final SignalViewModel aModel,
       final IUIElement[] aSignalElements )
   {
-    final long[] timestamps = aModel.getTimestamps();
-    if ( ( timestamps == null ) || ( timestamps.length == 0 ) || ( aSignalElements.length == 0 ) )
+    final SampleStore store = aModel.getSampleStore();
+    if ( ( store.size() == 0 ) || ( aSignalElements.length == 0 ) )
     {
       // Nothing to do...
       return;
@@ -243,10 +538,10 @@ public class SignalUI extends ComponentUI
 
     final Rectangle clip = aCanvas.getClipBounds();
     final int startIdx = aModel.getStartIndex( clip );
-    final int endIdx = aModel.getEndIndex( clip, timestamps.length );
+    final int endIdx = aModel.getEndIndex( clip, store.size() );
 
-    final long startTimestamp = timestamps[startIdx];
-    final long endTimestamp = timestamps[endIdx];
+    final long startTimestamp = store.getTimestamp( startIdx );
+    final long endTimestamp = store.getTimestamp( endIdx );
 
     final double zoomFactor = aModel.getZoomFactor();
 
@@ -418,53 +713,68 @@ public class SignalUI extends ComponentUI
    *
    * @param aCanvas
    *          the canvas to paint on, cannot be <code>null</code>;
-   * @param aModel
-   *          the model to use, cannot be <code>null</code>;
-   * @param aElements
-   *          the UI-elements to draw, cannot be <code>null</code> or empty!
+   * @param aState
+   *          the snapshot of the model to use, cannot be <code>null</code>; its
+   *          UI-elements cannot be empty!
    */
-  private void paintSignals( final Graphics2D aCanvas, final SignalViewModel aModel, final IUIElement[] aElements )
+  private void paintSignals( final Graphics2D aCanvas, final RenderState aState )
   {
-    final int[] values = aModel.getDataValues();
-    final long[] timestamps = aModel.getTimestamps();
+    final IUIElement[] elements = aState.elements;
+    final SampleStore store = aState.store;
 
     final Rectangle clip = aCanvas.getClipBounds();
 
-    aCanvas.setBackground( aModel.getBackgroundColor() );
+    aCanvas.setBackground( aState.backgroundColor );
     aCanvas.clearRect( clip.x, clip.y, clip.width, clip.height );
 
-    final int startIdx = aModel.getStartIndex( clip );
-    final int endIdx = aModel.getEndIndex( clip, values.length );
+    final int startIdx = aState.startIdx;
+    final int endIdx = aState.endIdx;
 
-    final double zoomFactor = aModel.getZoomFactor();
+    final double zoomFactor = aState.zoomFactor;
 
-    if ( aModel.hasTriggerData() )
+    // Each sample yields at most two points, while the summary yields at most
+    // two points for each (half) pixel...
+    final int capacity = Math.max( 2 * Math.min( POINT_COUNT, ( endIdx - startIdx ) + 1 ), 4 * ( clip.width + 2 ) ) + 2;
+    final int[][] points = getPointBuffers( capacity );
+    final int[] xPoints = points[0];
+    final int[] yPoints = points[1];
+
+    if ( aState.triggerOffset != null )
     {
-      final long triggerOffset = aModel.getTriggerOffset();
-      if ( ( timestamps[startIdx] <= triggerOffset ) && ( timestamps[endIdx] >= triggerOffset ) )
+      final long triggerOffset = aState.triggerOffset.longValue();
+      if ( ( store.getTimestamp( startIdx ) <= triggerOffset ) && ( store.getTimestamp( endIdx ) >= triggerOffset ) )
       {
         // Draw a line denoting the trigger position...
         final int x = ( int )Math.round( triggerOffset * zoomFactor ) - 1;
 
-        aCanvas.setColor( aModel.getTriggerColor() );
+        aCanvas.setColor( aState.triggerColor );
         aCanvas.drawLine( x, clip.y, x, clip.y + clip.height );
       }
     }
 
     // Start drawing at the correct position in the clipped region...
-    aCanvas.translate( 0, aElements[0].getYposition() );
+    aCanvas.translate( 0, elements[0].getYposition() );
 
-    final boolean enableSloppyScopePainting = aModel.isSloppyScopeRenderingAllowed();
+    final boolean enableSloppyScopePainting = aState.sloppyScopeRenderingAllowed;
     int lastP = 0;
 
-    for ( IUIElement element : aElements )
+    // When there are more samples than pixels to draw, use the summary level
+    // that matches a single pixel (if available)...
+    final SignalSummary summary = aState.summary;
+    int summaryLevel = -1;
+    if ( ( summary != null ) && ( ( endIdx - startIdx ) > clip.width ) )
+    {
+      summaryLevel = summary.getLevel( zoomFactor );
+    }
+
+    for ( IUIElement element : elements )
     {
       if ( element instanceof ElementGroup )
       {
         // Draw nothing...
 
         // advance to the next element...
-        aCanvas.translate( 0, element.getHeight() + aModel.getSignalElementSpacing() );
+        aCanvas.translate( 0, element.getHeight() + aState.signalElementSpacing );
 
         continue;
       }
@@ -488,44 +798,57 @@ public class SignalUI extends ComponentUI
           // Forced zero'd channel is *very* easy to draw...
           aCanvas.drawLine( clip.x, signalHeight, clip.x + clip.width, signalHeight );
         }
+        else if ( summaryLevel >= 0 )
+        {
+          // Zoomed out data set; draw only what is visible on screen...
+          final int p = fillSummarizedSignal( xPoints, yPoints, summary, summaryLevel, signalElement.getMask(),
+              store.getTimestamp( startIdx ), store.getTimestamp( endIdx ), zoomFactor, signalHeight );
+
+          aCanvas.drawPolyline( xPoints, yPoints, p );
+
+          // The summary yields far less points than a sample-by-sample
+          // rendering would, which is what the sloppy painting should be
+          // based upon...
+          lastP = ( int )( ( ( endIdx - startIdx ) * 0.1 ) + ( lastP * 0.9 ) );
+        }
         else
         {
           // "Normal" data set; draw as accurate as possible...
           final int mask = signalElement.getMask();
 
           // Make sure we always start with time 0...
-          long timestamp = timestamps[startIdx];
-          int prevSampleValue = ( values[startIdx] & mask );
+          long timestamp = store.getTimestamp( startIdx );
+          int prevSampleValue = ( store.getValue( startIdx ) & mask );
 
           int xValue = ( int )( zoomFactor * timestamp );
           int yValue = ( prevSampleValue == 0 ? signalHeight : 0 );
 
-          x[0] = xValue;
-          y[0] = yValue;
+          xPoints[0] = xValue;
+          yPoints[0] = yValue;
           int p = 1;
 
           for ( int sampleIdx = startIdx + 1; ( p < POINT_COUNT ) && ( sampleIdx <= endIdx ); sampleIdx++ )
           {
-            timestamp = timestamps[sampleIdx];
-            int sampleValue = ( values[sampleIdx] & mask );
+            timestamp = store.getTimestamp( sampleIdx );
+            int sampleValue = ( store.getValue( sampleIdx ) & mask );
 
             xValue = ( int )( zoomFactor * timestamp );
 
             if ( prevSampleValue != sampleValue )
             {
-              x[p] = xValue;
-              y[p] = ( prevSampleValue == 0 ? signalHeight : 0 );
+              xPoints[p] = xValue;
+              yPoints[p] = ( prevSampleValue == 0 ? signalHeight : 0 );
               p++;
             }
 
-            x[p] = xValue;
-            y[p] = ( sampleValue == 0 ? signalHeight : 0 );
+            xPoints[p] = xValue;
+            yPoints[p] = ( sampleValue == 0 ? signalHeight : 0 );
             p++;
 
             prevSampleValue = sampleValue;
           }
 
-          aCanvas.drawPolyline( x, y, p );
+          aCanvas.drawPolyline( xPoints, yPoints, p );
 
           lastP = ( int )( ( p * 0.1 ) + ( lastP * 0.9 ) );
         }
@@ -543,27 +866,27 @@ public class SignalUI extends ComponentUI
       if ( signalElement.isGroupSummary() )
       {
         // Tell Swing how we would like to render ourselves...
-        aCanvas.setRenderingHints( createSignalRenderingHints( aModel.isRenderGroupSummaryAntiAliased() ) );
+        aCanvas.setRenderingHints( createSignalRenderingHints( aState.renderGroupSummaryAntiAliased ) );
 
         int mask = signalElement.getMask();
 
-        int padding = aModel.getGroupSummaryPadding();
+        int padding = aState.groupSummaryPadding;
 
-        int prevSampleValue = values[startIdx] & mask;
-        int prevX = ( int )( zoomFactor * timestamps[startIdx] );
+        int prevSampleValue = store.getValue( startIdx ) & mask;
+        int prevX = ( int )( zoomFactor * store.getTimestamp( startIdx ) );
 
-        aCanvas.setFont( aModel.getGroupSummaryTextFont() );
+        aCanvas.setFont( aState.groupSummaryTextFont );
 
         FontMetrics fm = aCanvas.getFontMetrics();
         int textYpos = ( int )( ( signalElement.getHeight() + fm.getLeading() + fm.getMaxAscent() ) / 2.0 ) - padding;
 
         for ( int sampleIdx = startIdx + 1; sampleIdx < endIdx; sampleIdx += sampleIncr )
         {
-          int sampleValue = ( values[sampleIdx] & mask );
+          int sampleValue = ( store.getValue( sampleIdx ) & mask );
 
           if ( sampleValue != prevSampleValue )
           {
-            int x = ( int )( zoomFactor * timestamps[sampleIdx] );
+            int x = ( int )( zoomFactor * store.getTimestamp( sampleIdx ) );
 
             String text = String.format( "%02X", Integer.valueOf( signalElement.getValue( prevSampleValue ) ) );
 
@@ -578,7 +901,7 @@ public class SignalUI extends ComponentUI
               aCanvas.drawString( text, textXpos, textYpos );
             }
 
-            aCanvas.setColor( aModel.getGroupSummaryBarColor() );
+            aCanvas.setColor( aState.groupSummaryBarColor );
 
             // draw a small line...
             aCanvas.drawLine( x, padding, x, signalElement.getHeight() - padding );
@@ -593,7 +916,7 @@ public class SignalUI extends ComponentUI
       if ( signalElement.isAnalogSignal() )
       {
         // Tell Swing how we would like to render ourselves...
-        aCanvas.setRenderingHints( createSignalRenderingHints( aModel.isRenderScopeSignalAntiAliased() ) );
+        aCanvas.setRenderingHints( createSignalRenderingHints( aState.renderScopeSignalAntiAliased ) );
 
         aCanvas.setColor( signalElement.getColor() );
 
@@ -607,40 +930,239 @@ public class SignalUI extends ComponentUI
         int p = 0;
         if ( startIdx == endIdx )
         {
-          x[p] = clip.x;
-          y[p] = signalElement.getHeight();
+          xPoints[p] = clip.x;
+          yPoints[p] = signalElement.getHeight();
           p++;
         }
         else
         {
           for ( int sampleIdx = startIdx; ( p < POINT_COUNT ) && ( sampleIdx < endIdx ); sampleIdx += sampleIncr )
           {
-            long timestamp = timestamps[sampleIdx];
+            long timestamp = store.getTimestamp( sampleIdx );
 
-            int sampleValue = ( int )( ( values[sampleIdx] & mask ) >> trailingZeros );
+            int sampleValue = ( int )( ( store.getValue( sampleIdx ) & mask ) >> trailingZeros );
             final int i_max = Math.min( endIdx, ( sampleIdx + sampleIncr ) - 1 );
             for ( int i = sampleIdx + 1; i < i_max; i++ )
             {
-              sampleValue += ( ( values[i] & mask ) >> trailingZeros );
+              sampleValue += ( ( store.getValue( i ) & mask ) >> trailingZeros );
             }
             sampleValue = ( int )( maxValue - ( sampleValue / ( double )sampleIncr ) );
 
-            x[p] = ( int )( zoomFactor * timestamp );
-            y[p] = ( int )( scaleFactor * sampleValue );
+            xPoints[p] = ( int )( zoomFactor * timestamp );
+            yPoints[p] = ( int )( scaleFactor * sampleValue );
             p++;
           }
         }
 
         // Make sure we end at the last visible sample index...
-        x[p] = clip.x + clip.width;
-        y[p] = y[p - 1];
+        xPoints[p] = clip.x + clip.width;
+        yPoints[p] = yPoints[p - 1];
         p++;
 
-        aCanvas.drawPolyline( x, y, p );
+        aCanvas.drawPolyline( xPoints, yPoints, p );
       }
 
       // advance to the next element...
-      aCanvas.translate( 0, signalElement.getHeight() + aModel.getSignalElementSpacing() );
+      aCanvas.translate( 0, signalElement.getHeight() + aState.signalElementSpacing );
+    }
+  }
+
+  /**
+   * Paints the annotations from the cached (transparent) annotation tiles,
+   * rendering those tiles that are not yet cached.
+   *
+   * @param aCanvas
+   *          the canvas to paint on, cannot be <code>null</code>;
+   * @param aModel
+   *          the model to use, cannot be <code>null</code>;
+   * @param aStamp
+   *          the annotation stamp of the tiles to paint.
+   */
+  private void paintAnnotationTiles( final Graphics2D aCanvas, final SignalViewModel aModel, final int aStamp )
+  {
+    final Rectangle clip = aCanvas.getClipBounds();
+
+    final double zoomFactor = aModel.getZoomFactor();
+
+    final int firstColumn = Math.max( 0, clip.x ) / TILE_SIZE;
+    final int lastColumn = Math.max( 0, ( clip.x + clip.width ) - 1 ) / TILE_SIZE;
+    final int firstRow = Math.max( 0, clip.y ) / TILE_SIZE;
+    final int lastRow = Math.max( 0, ( clip.y + clip.height ) - 1 ) / TILE_SIZE;
+
+    for ( int row = firstRow; row <= lastRow; row++ )
+    {
+      for ( int column = firstColumn; column <= lastColumn; column++ )
+      {
+        final TileKey key = new TileKey( zoomFactor, aStamp, column, row );
+
+        BufferedImage tile = this.annotationTileCache.get( key );
+        if ( tile == null )
+        {
+          final int generation = this.annotationTileCache.getGeneration();
+
+          tile = renderAnnotationTile( aModel, column, row );
+
+          this.annotationTileCache.put( key, tile, generation );
+        }
+
+        aCanvas.drawImage( tile, column * TILE_SIZE, row * TILE_SIZE, null );
+      }
+    }
+  }
+
+  /**
+   * Paints the signals from the cached tiles, rendering those tiles that are
+   * not yet cached.
+   *
+   * @param aCanvas
+   *          the canvas to paint on, cannot be <code>null</code>;
+   * @param aModel
+   *          the model to use, cannot be <code>null</code>;
+   * @param aStamp
+   *          the content stamp of the tiles to paint;
+   * @param aWidth
+   *          the width of the view, in pixels.
+   */
+  private void paintTiles( final Graphics2D aCanvas, final SignalViewModel aModel, final int aStamp, final int aWidth )
+  {
+    final Rectangle clip = aCanvas.getClipBounds();
+
+    final double zoomFactor = aModel.getZoomFactor();
+
+    final int firstColumn = Math.max( 0, clip.x ) / TILE_SIZE;
+    final int lastColumn = Math.max( 0, ( clip.x + clip.width ) - 1 ) / TILE_SIZE;
+    final int firstRow = Math.max( 0, clip.y ) / TILE_SIZE;
+    final int lastRow = Math.max( 0, ( clip.y + clip.height ) - 1 ) / TILE_SIZE;
+
+    for ( int row = firstRow; row <= lastRow; row++ )
+    {
+      for ( int column = firstColumn; column <= lastColumn; column++ )
+      {
+        final TileKey key = new TileKey( zoomFactor, aStamp, column, row );
+
+        BufferedImage tile = this.tileCache.get( key );
+        if ( tile == null )
+        {
+          final int generation = this.tileCache.getGeneration();
+
+          tile = renderTile( new RenderState( aModel, getTileBounds( column, row ) ), column, row );
+
+          this.tileCache.put( key, tile, generation );
+        }
+
+        aCanvas.drawImage( tile, column * TILE_SIZE, row * TILE_SIZE, null );
+      }
+
+      // The tiles directly next to the visible ones are likely to become
+      // visible when scrolling, so render them in the background...
+      if ( firstColumn > 0 )
+      {
+        prefetchTile( aModel, new TileKey( zoomFactor, aStamp, firstColumn - 1, row ) );
+      }
+      if ( ( ( lastColumn + 1 ) * TILE_SIZE ) < aWidth )
+      {
+        prefetchTile( aModel, new TileKey( zoomFactor, aStamp, lastColumn + 1, row ) );
+      }
+    }
+  }
+
+  /**
+   * Renders the tile with the given key in the background.
+   *
+   * @param aModel
+   *          the model to use, cannot be <code>null</code>;
+   * @param aKey
+   *          the key of the tile to render, cannot be <code>null</code>.
+   */
+  private void prefetchTile( final SignalViewModel aModel, final TileKey aKey )
+  {
+    // Take the snapshot while still on the EDT, as the model is not
+    // thread-safe...
+    final RenderState state = new RenderState( aModel, getTileBounds( aKey.column, aKey.row ) );
+
+    this.tileCache.prefetch( aKey, new Callable<BufferedImage>()
+    {
+      @Override
+      public BufferedImage call() throws Exception
+      {
+        return renderTile( state, aKey.column, aKey.row );
+      }
+    } );
+  }
+
+  /**
+   * Renders the annotations of a single tile on a transparent background.
+   *
+   * @param aModel
+   *          the model to use, cannot be <code>null</code>;
+   * @param aColumn
+   *          the column of the tile to render, >= 0;
+   * @param aRow
+   *          the row of the tile to render, >= 0.
+   * @return the rendered tile, never <code>null</code>.
+   */
+  private BufferedImage renderAnnotationTile( final SignalViewModel aModel, final int aColumn, final int aRow )
+  {
+    final int x = aColumn * TILE_SIZE;
+    final int y = aRow * TILE_SIZE;
+
+    final BufferedImage tile = new BufferedImage( TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB );
+
+    final Graphics2D canvas = tile.createGraphics();
+    try
+    {
+      // Let the tile use the same coordinate system as the view itself...
+      canvas.translate( -x, -y );
+      canvas.setClip( x, y, TILE_SIZE, TILE_SIZE );
+
+      paintAnnotations( canvas, aModel, aModel.getSignalElements( y, TILE_SIZE ) );
+    }
+    finally
+    {
+      canvas.dispose();
+    }
+
+    return tile;
+  }
+
+  /**
+   * Renders the signals of a single tile.
+   *
+   * @param aState
+   *          the snapshot of the model to use, cannot be <code>null</code>;
+   * @param aColumn
+   *          the column of the tile to render, >= 0;
+   * @param aRow
+   *          the row of the tile to render, >= 0.
+   * @return the rendered tile, never <code>null</code>.
+   */
+  private BufferedImage renderTile( final RenderState aState, final int aColumn, final int aRow )
+  {
+    final int x = aColumn * TILE_SIZE;
+    final int y = aRow * TILE_SIZE;
+
+    final BufferedImage tile = new BufferedImage( TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB );
+
+    final Graphics2D canvas = tile.createGraphics();
+    try
+    {
+      // Let the tile use the same coordinate system as the view itself...
+      canvas.translate( -x, -y );
+      canvas.setClip( x, y, TILE_SIZE, TILE_SIZE );
+
+      canvas.setBackground( aState.backgroundColor );
+      canvas.clearRect( x, y, TILE_SIZE, TILE_SIZE );
+
+      if ( aState.hasData && ( aState.elements.length > 0 ) )
+      {
+        paintSignals( canvas, aState );
+      }
     }
+    finally
+    {
+      canvas.dispose();
+    }
+
+    return tile;
   }
 }
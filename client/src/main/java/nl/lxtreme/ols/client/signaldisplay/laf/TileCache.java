@@ -0,0 +1,341 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, <http://www.lxtreme.nl>
+ */
+package nl.lxtreme.ols.client.signaldisplay.laf;
+
+
+import java.awt.image.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+
+
+/**
+ * Provides a cache for rendered tiles of the signal view.
+ * <p>
+ * The signal view is divided in square tiles of {@link #TILE_SIZE} pixels.
+ * Each rendered tile is kept in this cache, keyed by the zoom factor, a stamp
+ * of the rendered content and the position of the tile, so repainting the
+ * signal view (e.g., when scrolling) only needs to render the tiles that
+ * became visible. Tiles that are likely to become visible next can be
+ * rendered in the background. The least recently used tiles are evicted when
+ * the cache exceeds its memory budget.
+ * </p>
+ */
+final class TileCache
+{
+  // INNER TYPES
+
+  /**
+   * Denotes the key of a single tile.
+   */
+  static final class TileKey
+  {
+    // VARIABLES
+
+    final double zoomFactor;
+    final int stamp;
+    final int column;
+    final int row;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new TileKey instance.
+     */
+    TileKey( final double aZoomFactor, final int aStamp, final int aColumn, final int aRow )
+    {
+      this.zoomFactor = aZoomFactor;
+      this.stamp = aStamp;
+      this.column = aColumn;
+      this.row = aRow;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals( final Object aObject )
+    {
+      if ( this == aObject )
+      {
+        return true;
+      }
+      if ( !( aObject instanceof TileKey ) )
+      {
+        return false;
+      }
+
+      final TileKey other = ( TileKey )aObject;
+      return ( Double.compare( this.zoomFactor, other.zoomFactor ) == 0 ) && ( this.stamp == other.stamp )
+          && ( this.column == other.column ) && ( this.row == other.row );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+      final long bits = Double.doubleToLongBits( this.zoomFactor );
+
+      int result = 31 + ( int )( bits ^ ( bits >>> 32 ) );
+      result = ( 31 * result ) + this.stamp;
+      result = ( 31 * result ) + this.column;
+      result = ( 31 * result ) + this.row;
+      return result;
+    }
+  }
+
+  // CONSTANTS
+
+  /** The width and height of a single tile, in pixels. */
+  static final int TILE_SIZE = 256;
+
+  /** The maximum number of bytes used for cached tiles; 0 disables caching. */
+  private static final long MAX_MEMORY = Long.getLong( "nl.lxtreme.ols.tileCacheSize", 32L << 20 ).longValue();
+
+  private static final Logger LOG = Logger.getLogger( TileCache.class.getName() );
+
+  // VARIABLES
+
+  private final LinkedHashMap<TileKey, BufferedImage> tiles;
+  private final Set<TileKey> pending;
+
+  /** Renders tiles in the background; created upon first use. */
+  private ExecutorService renderer;
+  private long memoryUsed;
+  private int generation;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new TileCache instance.
+   */
+  TileCache()
+  {
+    // Use access order to obtain a LRU ordering...
+    this.tiles = new LinkedHashMap<TileKey, BufferedImage>( 64, 0.75f, true /* accessOrder */);
+    this.pending = new HashSet<TileKey>();
+  }
+
+  // METHODS
+
+  /**
+   * Returns whether or not tiles should be cached at all.
+   *
+   * @return <code>true</code> if tiles should be cached, <code>false</code>
+   *         otherwise.
+   */
+  static boolean isEnabled()
+  {
+    return MAX_MEMORY > 0L;
+  }
+
+  /**
+   * Called when rendering a tile in the background is done.
+   *
+   * @param aKey
+   *          the key of the rendered tile, cannot be <code>null</code>;
+   * @param aTile
+   *          the rendered tile, can be <code>null</code> if rendering failed;
+   * @param aGeneration
+   *          the generation of this cache at the moment the tile was started
+   *          to render.
+   */
+  synchronized void done( final TileKey aKey, final BufferedImage aTile, final int aGeneration )
+  {
+    if ( aGeneration == this.generation )
+    {
+      this.pending.remove( aKey );
+    }
+    if ( aTile != null )
+    {
+      put( aKey, aTile, aGeneration );
+    }
+  }
+
+  /**
+   * Returns the cached tile for the given key.
+   *
+   * @param aKey
+   *          the key of the tile to return, cannot be <code>null</code>.
+   * @return the cached tile, or <code>null</code> if no such tile is cached.
+   */
+  synchronized BufferedImage get( final TileKey aKey )
+  {
+    return this.tiles.get( aKey );
+  }
+
+  /**
+   * Returns the current generation of this cache, which changes each time it
+   * is invalidated.
+   *
+   * @return a generation number.
+   */
+  synchronized int getGeneration()
+  {
+    return this.generation;
+  }
+
+  /**
+   * Invalidates this cache, causing all tiles to be thrown away, including
+   * those still being rendered.
+   */
+  synchronized void invalidate()
+  {
+    this.tiles.clear();
+    this.pending.clear();
+    this.memoryUsed = 0L;
+    this.generation++;
+  }
+
+  /**
+   * Renders the tile with the given key in the background, unless it is
+   * already cached or being rendered.
+   *
+   * @param aKey
+   *          the key of the tile to render, cannot be <code>null</code>;
+   * @param aRenderer
+   *          the renderer of the tile, cannot be <code>null</code>.
+   */
+  synchronized void prefetch( final TileKey aKey, final Callable<BufferedImage> aRenderer )
+  {
+    if ( this.tiles.containsKey( aKey ) || !this.pending.add( aKey ) )
+    {
+      // Nothing to do...
+      return;
+    }
+
+    if ( this.renderer == null )
+    {
+      this.renderer = createRenderer();
+    }
+
+    final int gen = this.generation;
+
+    this.renderer.execute( new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        BufferedImage tile = null;
+        try
+        {
+          if ( getGeneration() == gen )
+          {
+            tile = aRenderer.call();
+          }
+        }
+        catch ( Exception exception )
+        {
+          // The tile will be rendered (again) when it is painted...
+          LOG.log( Level.WARNING, "Rendering tile in background failed!", exception );
+        }
+        finally
+        {
+          done( aKey, tile, gen );
+        }
+      }
+    } );
+  }
+
+  /**
+   * Adds the given tile to this cache.
+   *
+   * @param aKey
+   *          the key of the tile, cannot be <code>null</code>;
+   * @param aTile
+   *          the tile to cache, cannot be <code>null</code>;
+   * @param aGeneration
+   *          the generation of this cache at the moment the tile was started
+   *          to render.
+   */
+  synchronized void put( final TileKey aKey, final BufferedImage aTile, final int aGeneration )
+  {
+    if ( aGeneration != this.generation )
+    {
+      // Cache is invalidated while rendering; this tile is probably stale...
+      return;
+    }
+
+    final BufferedImage old = this.tiles.put( aKey, aTile );
+    if ( old != null )
+    {
+      this.memoryUsed -= getMemorySize( old );
+    }
+    this.memoryUsed += getMemorySize( aTile );
+
+    // Evict the least recently used tiles...
+    final Iterator<BufferedImage> iter = this.tiles.values().iterator();
+    while ( ( this.memoryUsed > MAX_MEMORY ) && iter.hasNext() )
+    {
+      final BufferedImage tile = iter.next();
+      if ( tile != aTile )
+      {
+        this.memoryUsed -= getMemorySize( tile );
+        iter.remove();
+      }
+    }
+  }
+
+  /**
+   * Stops rendering tiles in the background and throws away all cached tiles.
+   * This cache can still be used afterwards, in which case a new background
+   * renderer is started when needed.
+   */
+  synchronized void shutdown()
+  {
+    if ( this.renderer != null )
+    {
+      this.renderer.shutdownNow();
+      this.renderer = null;
+    }
+    invalidate();
+  }
+
+  /**
+   * Creates the executor that renders tiles in the background.
+   */
+  private static ExecutorService createRenderer()
+  {
+    final int threads = Math.max( 1, Runtime.getRuntime().availableProcessors() - 1 );
+    return Executors.newFixedThreadPool( threads, new ThreadFactory()
+    {
+      @Override
+      public Thread newThread( final Runnable aRunnable )
+      {
+        final Thread thread = new Thread( aRunnable, "SignalView tile renderer" );
+        thread.setDaemon( true );
+        thread.setPriority( Thread.MIN_PRIORITY );
+        return thread;
+      }
+    } );
+  }
+
+  /**
+   * Returns the (approximate) number of bytes used by the given tile.
+   */
+  private static long getMemorySize( final BufferedImage aTile )
+  {
+    return 4L * aTile.getWidth() * aTile.getHeight();
+  }
+}
@@ -25,6 +25,7 @@ import java.awt.*;
 import java.beans.*;
 import java.util.*;
 import java.util.List;
+import java.util.logging.*;
 
 import javax.swing.*;
 import javax.swing.event.*;
@@ -54,11 +55,77 @@ public class SignalDiagramModel
     TOP, CENTER, BOTTOM;
   }
 
+  /**
+   * Provides a {@link SwingWorker} to create the signal summary of a data set
+   * in the background.
+   */
+  final class SignalSummaryWorker extends SwingWorker<SignalSummary, Void>
+  {
+    // VARIABLES
+
+    private final DataSet workerDataSet;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new {@link SignalSummaryWorker} instance.
+     *
+     * @param aDataSet
+     *          the data set to summarize, cannot be <code>null</code>.
+     */
+    public SignalSummaryWorker( final DataSet aDataSet )
+    {
+      this.workerDataSet = aDataSet;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected SignalSummary doInBackground() throws Exception
+    {
+      return SignalSummary.create( this.workerDataSet.getCapturedData() );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void done()
+    {
+      try
+      {
+        // Only use the summary if the data set did not change in the meantime...
+        if ( SignalDiagramModel.this.dataSet == this.workerDataSet )
+        {
+          SignalDiagramModel.this.signalSummary = get();
+
+          final JComponent view = SignalDiagramModel.this.controller.getViewComponent();
+          if ( view != null )
+          {
+            view.repaint( 50L );
+          }
+        }
+      }
+      catch ( Exception exception )
+      {
+        LOG.log( Level.WARNING, "Creating signal summary failed!", exception );
+      }
+    }
+  }
+
   // CONSTANTS
 
+  private static final Logger LOG = Logger.getLogger( SignalDiagramModel.class.getName() );
+
   private static final int SNAP_CURSOR_MODE = ( 1 << 0 );
   private static final int MEASUREMENT_MODE = ( 1 << 1 );
 
+  /** The sample store used in case no data is available. */
+  private static final SampleStore EMPTY_STORE = SampleStores.array( new int[0], new long[0] );
+
   private static final double TIMESTAMP_FACTOR = 100.0;
 
   // VARIABLES
@@ -66,6 +133,7 @@ public class SignalDiagramModel
   private volatile int mode;
   private volatile int selectedChannelIndex;
   private volatile DataSet dataSet;
+  private volatile SignalSummary signalSummary;
 
   private final ZoomController zoomController;
   private final SignalElementManager channelGroupManager;
@@ -243,32 +311,22 @@ public class SignalDiagramModel
    */
   public final long findEdgeAfter( final int aChannelIdx, final long aTimestamp )
   {
-    final long[] timestamps = getTimestamps();
-    final int[] values = getValues();
+    final SampleStore store = getSampleStore();
 
-    int refIdx = Arrays.binarySearch( timestamps, aTimestamp );
+    final int refIdx = findTransitionIndex( store, aTimestamp );
     if ( refIdx < 0 )
     {
-      refIdx = -( refIdx + 1 ) - 1;
+      return store.getTimestamp( 0 );
     }
 
-    if ( ( refIdx < 0 ) || ( refIdx >= values.length ) )
-    {
-      return timestamps[0];
-    }
-
-    // find the reference time value; which is the "timestamp" under the
-    // cursor...
-    final int mask = ( 1 << aChannelIdx );
-    final int refValue = ( values[refIdx] & mask );
-
-    do
+    final int edgeIdx = getEdgeIndex().findEdgeAfter( aChannelIdx, refIdx );
+    if ( edgeIdx < 0 )
     {
-      refIdx++;
+      // No more edges; return the end of the capture...
+      return store.getTimestamp( store.size() - 1 );
     }
-    while ( ( refIdx < ( values.length - 1 ) ) && ( ( values[refIdx] & mask ) == refValue ) );
 
-    return timestamps[refIdx];
+    return store.getTimestamp( edgeIdx );
   }
 
   /**
@@ -278,32 +336,19 @@ public class SignalDiagramModel
    */
   public final long findEdgeBefore( final int aChannelIdx, final long aTimestamp )
   {
-    final long[] timestamps = getTimestamps();
-    final int[] values = getValues();
+    final SampleStore store = getSampleStore();
 
-    int refIdx = Arrays.binarySearch( timestamps, aTimestamp );
+    final int refIdx = findTransitionIndex( store, aTimestamp );
     if ( refIdx < 0 )
     {
-      refIdx = -( refIdx + 1 ) - 1;
+      return store.getTimestamp( 0 );
     }
 
-    if ( ( refIdx < 0 ) || ( refIdx >= values.length ) )
-    {
-      return timestamps[0];
-    }
-
-    // find the reference time value; which is the "timestamp" under the
-    // cursor...
-    final int mask = ( 1 << aChannelIdx );
-    final int refValue = ( values[refIdx] & mask );
+    // The sample right before the last edge is the last one that still has
+    // the "old" value...
+    final int edgeIdx = getEdgeIndex().findEdgeBefore( aChannelIdx, refIdx );
 
-    do
-    {
-      refIdx--;
-    }
-    while ( ( refIdx > 0 ) && ( ( values[refIdx] & mask ) == refValue ) );
-
-    return timestamps[Math.max( 0, refIdx )];
+    return store.getTimestamp( Math.max( 0, edgeIdx - 1 ) );
   }
 
   /**
@@ -528,6 +573,18 @@ public class SignalDiagramModel
     return this.channelGroupManager;
   }
 
+  /**
+   * Returns the summary of the signals, used for rendering the signals when
+   * zoomed out.
+   *
+   * @return the signal summary, or <code>null</code> if it is not (yet)
+   *         available.
+   */
+  public final SignalSummary getSignalSummary()
+  {
+    return this.signalSummary;
+  }
+
   /**
    * Returns the hover area of the signal under the given coordinate (= mouse
    * position).
@@ -583,7 +640,7 @@ public class SignalDiagramModel
       return new MeasurementInfo( aSignalElement, refTime );
     }
 
-    final long[] timestamps = getTimestamps();
+    final SampleStore store = getSampleStore();
 
     long ts = -1L;
     long tm = -1L;
@@ -592,47 +649,28 @@ public class SignalDiagramModel
 
     // find the reference time value; which is the "timestamp" under the
     // cursor...
-    final int[] values = getValues();
-    if ( ( refIdx >= 0 ) && ( refIdx < values.length ) )
+    if ( ( refIdx >= 0 ) && ( refIdx < store.size() ) )
     {
+      final ChannelEdgeIndex edgeIndex = getEdgeIndex();
+      final int channelIdx = channel.getIndex();
       final int mask = channel.getMask();
-      final int refValue = ( values[refIdx] & mask );
 
-      int idx = refIdx;
-      do
-      {
-        idx--;
-      }
-      while ( ( idx >= 0 ) && ( ( values[idx] & mask ) == refValue ) );
+      // The edge on which the current pulse started...
+      final int tm_idx = Math.max( 0, edgeIndex.findEdgeBefore( channelIdx, refIdx ) );
+      tm = ( tm_idx == 0 ) ? 0 : store.getTimestamp( tm_idx );
 
-      // convert the found index back to "screen" values...
-      final int tm_idx = Math.max( 0, idx + 1 );
-      tm = ( tm_idx == 0 ) ? 0 : timestamps[tm_idx];
+      // The edge on which the previous pulse started, to complete the
+      // pulse...
+      final int ts_idx = ( tm_idx == 0 ) ? 0 : Math.max( 0, edgeIndex.findEdgeBefore( channelIdx, tm_idx - 1 ) );
+      ts = ( ts_idx == 0 ) ? 0 : store.getTimestamp( ts_idx );
 
-      // Search for the original value again, to complete the pulse...
-      do
-      {
-        idx--;
-      }
-      while ( ( idx >= 0 ) && ( ( values[idx] & mask ) != refValue ) );
-
-      // convert the found index back to "screen" values...
-      final int ts_idx = Math.max( 0, idx + 1 );
-      ts = ( ts_idx == 0 ) ? 0 : timestamps[ts_idx];
-
-      idx = refIdx;
-      do
-      {
-        idx++;
-      }
-      while ( ( idx < values.length ) && ( ( values[idx] & mask ) == refValue ) );
-
-      // convert the found index back to "screen" values...
-      final int te_idx = Math.min( idx, timestamps.length - 1 );
-      te = ( te_idx == 0 ) ? 0 : timestamps[te_idx];
+      // The edge on which the current pulse ends...
+      final int edgeAfter = edgeIndex.findEdgeAfter( channelIdx, refIdx );
+      final int te_idx = ( edgeAfter < 0 ) ? ( store.size() - 1 ) : edgeAfter;
+      te = ( te_idx == 0 ) ? 0 : store.getTimestamp( te_idx );
 
       // Determine the width of the "high" part...
-      if ( ( values[ts_idx] & mask ) != 0 )
+      if ( ( store.getValue( ts_idx ) & mask ) != 0 )
       {
         th = Math.abs( tm - ts );
       }
@@ -1221,6 +1259,14 @@ public class SignalDiagramModel
     }
 
     this.dataSet = aDataSet;
+    this.signalSummary = null;
+
+    if ( aDataSet.getCapturedData() != null )
+    {
+      // Summarize the signals in the background, as it is only needed for
+      // rendering the signals when zoomed out...
+      new SignalSummaryWorker( aDataSet ).execute();
+    }
 
     final IDataModelChangeListener[] listeners = this.eventListeners.getListeners( IDataModelChangeListener.class );
     for ( IDataModelChangeListener listener : listeners )
@@ -1304,11 +1350,54 @@ public class SignalDiagramModel
     }
   }
 
+  /**
+   * Returns the edge index of the current captured data.
+   *
+   * @return the edge index, never <code>null</code>.
+   */
+  private ChannelEdgeIndex getEdgeIndex()
+  {
+    return ChannelEdgeIndex.getInstance( getCapturedData() );
+  }
+
   /**
    * {@inheritDoc}
    */
   private int getSampleCount()
   {
-    return getValues().length;
+    return getSampleStore().size();
+  }
+
+  /**
+   * Returns the sample store of the current captured data, allowing individual
+   * transitions to be accessed without materializing all of them as arrays.
+   *
+   * @return the sample store, never <code>null</code>.
+   */
+  public SampleStore getSampleStore()
+  {
+    final AcquisitionResult capturedData = getCapturedData();
+    if ( capturedData == null )
+    {
+      return EMPTY_STORE;
+    }
+    return capturedData.getSampleStore();
+  }
+
+  /**
+   * Returns the index of the last transition at or before the given
+   * timestamp.
+   *
+   * @return a transition index, or -1 if the given timestamp lies before the
+   *         first transition.
+   */
+  private static int findTransitionIndex( final SampleStore aStore, final long aTimestamp )
+  {
+    if ( aStore.size() == 0 )
+    {
+      return -1;
+    }
+    final int idx = aStore.findIndex( aTimestamp );
+    return ( aStore.getTimestamp( idx ) > aTimestamp ) ? ( idx - 1 ) : idx;
   }
 }
@@ -0,0 +1,280 @@
+/*
+ * OpenBench LogicSniffer / SUMP project 
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, <http://www.lxtreme.nl>
+ */
+package nl.lxtreme.ols.client.signaldisplay.model;
+
+
+import nl.lxtreme.ols.api.acquisition.*;
+import nl.lxtreme.ols.api.data.*;
+
+
+/**
+ * Provides a multi-resolution summary of the signals of an acquisition result,
+ * used to quickly render signals when zoomed out.
+ * <p>
+ * The summary divides the time axis in buckets of a power-of-two width, and
+ * keeps for each bucket a mask with all channels that are high at some moment
+ * in that bucket, and a mask with all channels that are low at some moment in
+ * that bucket. A channel that is both high and low in a bucket has at least
+ * one edge in it; otherwise it is stable. Each next level halves the number of
+ * buckets by combining two adjacent buckets of the previous level, up to a
+ * single bucket spanning the entire acquisition.
+ * </p>
+ * <p>
+ * Rendering a signal at a given zoom factor now only needs to visit the
+ * buckets of the level whose width matches a single pixel, making its cost
+ * proportional to the number of pixels on screen, rather than the number of
+ * samples.
+ * </p>
+ */
+public final class SignalSummary
+{
+  // CONSTANTS
+
+  /** The maximum number of buckets on the first (finest) level. */
+  static final int MAX_BASE_BUCKETS = 1 << 18;
+
+  // VARIABLES
+
+  private final int baseShift;
+  private final int[][] highMasks;
+  private final int[][] lowMasks;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new SignalSummary instance.
+   */
+  private SignalSummary( final int aBaseShift, final int[][] aHighMasks, final int[][] aLowMasks )
+  {
+    this.baseShift = aBaseShift;
+    this.highMasks = aHighMasks;
+    this.lowMasks = aLowMasks;
+  }
+
+  // METHODS
+
+  /**
+   * Creates a new summary for the given acquisition result.
+   * 
+   * @param aData
+   *          the acquisition result to summarize, cannot be <code>null</code>.
+   * @return a new summary, never <code>null</code>.
+   */
+  public static SignalSummary create( final AcquisitionResult aData )
+  {
+    // Read the transitions directly from the store, instead of materializing
+    // them as arrays...
+    return create( aData.getSampleStore(), aData.getAbsoluteLength() );
+  }
+
+  /**
+   * Creates a new summary for the given sample values and timestamps.
+   * 
+   * @param aValues
+   *          the sample values, cannot be <code>null</code>;
+   * @param aTimestamps
+   *          the timestamps of the sample values, cannot be <code>null</code>;
+   * @param aAbsoluteLength
+   *          the absolute length of the samples, >= 0.
+   * @return a new summary, never <code>null</code>.
+   */
+  static SignalSummary create( final int[] aValues, final long[] aTimestamps, final long aAbsoluteLength )
+  {
+    return create( SampleStores.array( aValues, aTimestamps ), aAbsoluteLength );
+  }
+
+  /**
+   * Creates a new summary for the transitions in the given sample store.
+   * 
+   * @param aStore
+   *          the sample store to summarize, cannot be <code>null</code>;
+   * @param aAbsoluteLength
+   *          the absolute length of the samples, >= 0.
+   * @return a new summary, never <code>null</code>.
+   */
+  static SignalSummary create( final SampleStore aStore, final long aAbsoluteLength )
+  {
+    final int size = aStore.size();
+    final long length = Math.max( aAbsoluteLength, aStore.getTimestamp( size - 1 ) ) + 1L;
+
+    int shift = 0;
+    while ( ( length >> shift ) >= MAX_BASE_BUCKETS )
+    {
+      shift++;
+    }
+
+    int levels = 1;
+    for ( long count = bucketCount( length, shift ); count > 1; count = ( count + 1 ) >> 1 )
+    {
+      levels++;
+    }
+
+    final int[][] highMasks = new int[levels][];
+    final int[][] lowMasks = new int[levels][];
+
+    // 1: determine the finest level directly from the samples...
+    final int baseCount = bucketCount( length, shift );
+    final int[] high = new int[baseCount];
+    final int[] low = new int[baseCount];
+
+    long timestamp = aStore.getTimestamp( 0 );
+    for ( int i = 0; i < size; i++ )
+    {
+      final int value = aStore.getValue( i );
+      final int firstBucket = ( int )( timestamp >> shift );
+      // each sample value lasts until the next one...
+      int lastBucket = firstBucket;
+      if ( i < ( size - 1 ) )
+      {
+        timestamp = aStore.getTimestamp( i + 1 );
+        lastBucket = ( int )( ( timestamp - 1L ) >> shift );
+      }
+
+      for ( int b = firstBucket; b <= lastBucket; b++ )
+      {
+        high[b] |= value;
+        low[b] |= ~value;
+      }
+    }
+
+    highMasks[0] = high;
+    lowMasks[0] = low;
+
+    // 2: derive all coarser levels from their previous level...
+    for ( int level = 1; level < levels; level++ )
+    {
+      final int[] prevHigh = highMasks[level - 1];
+      final int[] prevLow = lowMasks[level - 1];
+
+      final int count = ( prevHigh.length + 1 ) >> 1;
+      final int[] levelHigh = new int[count];
+      final int[] levelLow = new int[count];
+
+      for ( int b = 0, pb = 0; b < count; b++, pb += 2 )
+      {
+        levelHigh[b] = prevHigh[pb];
+        levelLow[b] = prevLow[pb];
+        if ( ( pb + 1 ) < prevHigh.length )
+        {
+          levelHigh[b] |= prevHigh[pb + 1];
+          levelLow[b] |= prevLow[pb + 1];
+        }
+      }
+
+      highMasks[level] = levelHigh;
+      lowMasks[level] = levelLow;
+    }
+
+    return new SignalSummary( shift, highMasks, lowMasks );
+  }
+
+  /**
+   * Returns the number of buckets in the given level.
+   * 
+   * @param aLevel
+   *          the level, >= 0.
+   * @return a bucket count, >= 1.
+   */
+  public int getBucketCount( final int aLevel )
+  {
+    return this.highMasks[aLevel].length;
+  }
+
+  /**
+   * Returns the width of the buckets in the given level.
+   * 
+   * @param aLevel
+   *          the level, >= 0.
+   * @return a bucket width, in time units, always a power of two.
+   */
+  public long getBucketWidth( final int aLevel )
+  {
+    return 1L << ( this.baseShift + aLevel );
+  }
+
+  /**
+   * Returns the mask of all channels that are high at some moment in the given
+   * bucket.
+   * 
+   * @param aLevel
+   *          the level, >= 0;
+   * @param aBucket
+   *          the bucket index, >= 0 && < {@link #getBucketCount(int)}.
+   * @return a channel mask.
+   */
+  public int getHighMask( final int aLevel, final int aBucket )
+  {
+    return this.highMasks[aLevel][aBucket];
+  }
+
+  /**
+   * Returns the level whose buckets best match a single pixel at the given zoom
+   * factor.
+   * 
+   * @param aZoomFactor
+   *          the zoom factor, in pixels per time unit.
+   * @return the coarsest level whose buckets are no wider than a single pixel,
+   *         or -1 if even the finest level has wider buckets.
+   */
+  public int getLevel( final double aZoomFactor )
+  {
+    final double timePerPixel = 1.0 / aZoomFactor;
+
+    int level = -1;
+    while ( ( ( level + 1 ) < getLevelCount() ) && ( getBucketWidth( level + 1 ) <= timePerPixel ) )
+    {
+      level++;
+    }
+    return level;
+  }
+
+  /**
+   * Returns the number of levels in this summary.
+   * 
+   * @return a level count, >= 1.
+   */
+  public int getLevelCount()
+  {
+    return this.highMasks.length;
+  }
+
+  /**
+   * Returns the mask of all channels that are low at some moment in the given
+   * bucket.
+   * 
+   * @param aLevel
+   *          the level, >= 0;
+   * @param aBucket
+   *          the bucket index, >= 0 && < {@link #getBucketCount(int)}.
+   * @return a channel mask.
+   */
+  public int getLowMask( final int aLevel, final int aBucket )
+  {
+    return this.lowMasks[aLevel][aBucket];
+  }
+
+  /**
+   * Returns the number of buckets needed to cover the given length.
+   */
+  private static int bucketCount( final long aLength, final int aShift )
+  {
+    return ( int )( ( ( aLength - 1L ) >> aShift ) + 1L );
+  }
+}
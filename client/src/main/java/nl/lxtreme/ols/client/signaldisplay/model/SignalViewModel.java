@@ -26,6 +26,7 @@ import java.awt.*;
 
 import javax.swing.*;
 
+import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.client.signaldisplay.*;
 import nl.lxtreme.ols.client.signaldisplay.model.SignalDiagramModel.*;
 import nl.lxtreme.ols.client.signaldisplay.view.*;
@@ -133,14 +134,6 @@ public class SignalViewModel extends AbstractViewModel
     return font;
   }
 
-  /**
-   * @return
-   */
-  public int[] getDataValues()
-  {
-    return this.controller.getViewModel().getValues();
-  }
-
   /**
    * @param aClip
    * @return
@@ -219,11 +212,24 @@ public class SignalViewModel extends AbstractViewModel
   }
 
   /**
-   * @return
+   * Returns the sample store of the current captured data.
+   * 
+   * @return the sample store, never <code>null</code>.
+   */
+  public SampleStore getSampleStore()
+  {
+    return getSignalDiagramModel().getSampleStore();
+  }
+
+  /**
+   * Returns the summary of the signals.
+   * 
+   * @return the signal summary, or <code>null</code> if it is not (yet)
+   *         available.
    */
-  public long[] getTimestamps()
+  public SignalSummary getSignalSummary()
   {
-    return this.controller.getViewModel().getTimestamps();
+    return getSignalDiagramModel().getSignalSummary();
   }
 
   /**
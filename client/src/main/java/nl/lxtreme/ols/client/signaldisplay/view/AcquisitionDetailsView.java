@@ -133,7 +133,7 @@ public class AcquisitionDetailsView extends AbstractViewLayer implements IToolWi
         twText = "n/a";
       }
 
-      scText = new DecimalFormat().format( model.getValues().length );
+      scText = new DecimalFormat().format( model.getSampleStore().size() );
 
     }
     else
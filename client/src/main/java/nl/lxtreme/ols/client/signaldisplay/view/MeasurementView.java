@@ -33,6 +33,7 @@ import javax.swing.*;
 
 import nl.lxtreme.ols.api.acquisition.*;
 import nl.lxtreme.ols.api.data.*;
+import nl.lxtreme.ols.api.data.ChannelEdgeIndex.PulseStatistics;
 import nl.lxtreme.ols.api.data.Cursor;
 import nl.lxtreme.ols.client.action.*;
 import nl.lxtreme.ols.client.actionmanager.*;
@@ -216,7 +217,7 @@ ICursorChangeListener, IMeasurementListener
     // VARIABLES
 
     private final AcquisitionResult result;
-    private final int mask;
+    private final int index;
     private final long startTimestamp;
     private final long endTimestamp;
 
@@ -229,7 +230,7 @@ ICursorChangeListener, IMeasurementListener
         final long aEndTimestamp )
     {
       this.result = aResult;
-      this.mask = ( 1 << aIndex );
+      this.index = aIndex;
       this.startTimestamp = aStartTimestamp;
       this.endTimestamp = aEndTimestamp;
     }
@@ -250,51 +251,14 @@ ICursorChangeListener, IMeasurementListener
 
       final boolean hasTimingData = this.result.hasTimingData();
 
-      final int[] values = this.result.getValues();
-      final long[] timestamps = this.result.getTimestamps();
-
-      int fallingEdgeCount = 0;
-      long highTime = 0;
-      int risingEdgeCount = 0;
-      long lowTime = 0;
-
-      int i = startIdx;
-      long lastTransition = timestamps[i];
-      int lastBitValue = values[i++] & this.mask;
-
-      for ( ; !Thread.currentThread().isInterrupted() && ( i <= endIdx ); i++ )
-      {
-        final int bitValue = values[i] & this.mask;
-        final Edge edge = Edge.toEdge( lastBitValue, bitValue );
-
-        if ( !edge.isNone() )
-        {
-          final long periodTime = timestamps[i] - lastTransition;
-          lastTransition = timestamps[i];
-
-          if ( edge.isRising() )
-          {
-            // Low to high transition: previously seen a low-state...
-            risingEdgeCount++;
-            lowTime += periodTime;
-          }
-          else
-            /* if ( edge.isFalling() ) */
-          {
-            // High to low transition: previously seen a high-state...
-            fallingEdgeCount++;
-            highTime += periodTime;
-          }
-        }
-
-        lastBitValue = bitValue;
-      }
+      final PulseStatistics stats = ChannelEdgeIndex.getInstance( this.result ).getPulseStatistics( this.index,
+          startIdx, endIdx );
 
       final double measureTime = Math.abs( ( this.endTimestamp - this.startTimestamp )
           / ( double )this.result.getSampleRate() );
 
-      return new PulseCountInfo( measureTime, risingEdgeCount, fallingEdgeCount, lowTime, highTime,
-          this.result.getSampleRate(), hasTimingData );
+      return new PulseCountInfo( measureTime, stats.getRisingEdgeCount(), stats.getFallingEdgeCount(),
+          stats.getLowTime(), stats.getHighTime(), this.result.getSampleRate(), hasTimingData );
     }
   }
 
@@ -342,7 +306,7 @@ ICursorChangeListener, IMeasurementListener
       long start = this.startTimestamp;
       if ( start < 0L )
       {
-        start = model.getTimestamps()[0];
+        start = model.getSampleStore().getTimestamp( 0 );
       }
       long end = this.endTimestamp;
       if ( end < 0L )
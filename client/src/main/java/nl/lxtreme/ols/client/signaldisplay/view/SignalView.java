@@ -22,7 +22,9 @@ package nl.lxtreme.ols.client.signaldisplay.view;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.util.*;
 
+import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.api.data.Cursor;
 import nl.lxtreme.ols.api.data.annotation.*;
 import nl.lxtreme.ols.client.signaldisplay.*;
@@ -35,7 +37,8 @@ import nl.lxtreme.ols.client.signaldisplay.util.*;
 /**
  * Provides a view for the signal data as individual channels.
  */
-public class SignalView extends AbstractViewLayer implements IMeasurementListener, ICursorChangeListener
+public class SignalView extends AbstractViewLayer implements IMeasurementListener, ICursorChangeListener,
+    IDataModelChangeListener, ISignalElementChangeListener
 {
   // INNER TYPES
 
@@ -188,6 +191,8 @@ public class SignalView extends AbstractViewLayer implements IMeasurementListene
 
     aController.addCursorChangeListener( signalView );
     aController.addMeasurementListener( signalView );
+    aController.addDataModelChangeListener( signalView );
+    aController.addChannelChangeListener( signalView );
 
     return signalView;
   }
@@ -271,6 +276,15 @@ public class SignalView extends AbstractViewLayer implements IMeasurementListene
     repaint( 50L );
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dataModelChanged( final DataSet aDataSet )
+  {
+    invalidateTiles();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -305,6 +319,15 @@ public class SignalView extends AbstractViewLayer implements IMeasurementListene
     return this.model;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void groupStructureChanged( final Collection<SignalElement> aSignalList )
+  {
+    invalidateTiles();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -338,6 +361,17 @@ public class SignalView extends AbstractViewLayer implements IMeasurementListene
     }
   }
 
+  /**
+   * Invalidates the cached rendering of the signals, causing them to be
+   * completely re-rendered upon the next repaint.
+   */
+  public void invalidateTiles()
+  {
+    ( ( SignalUI )this.ui ).invalidateTiles();
+
+    repaint( 50L );
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -359,6 +393,15 @@ public class SignalView extends AbstractViewLayer implements IMeasurementListene
     super.removeNotify();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void signalElementMoved( final ElementMoveEvent aEvent )
+  {
+    invalidateTiles();
+  }
+
   /**
    * Overridden in order to set a custom UI, which not only paints this diagram,
    * but also can be used to manage the various settings, such as colors,
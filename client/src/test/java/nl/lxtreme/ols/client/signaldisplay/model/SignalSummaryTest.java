@@ -0,0 +1,154 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2006-2010 Michael Poppitz, www.sump.org
+ * Copyright (C) 2010-2012 J.W. Janssen, www.lxtreme.nl
+ */
+package nl.lxtreme.ols.client.signaldisplay.model;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import nl.lxtreme.ols.api.data.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link SignalSummary}.
+ */
+public class SignalSummaryTest
+{
+  // METHODS
+
+  /**
+   * Tests that the bucket masks of all levels match those determined by
+   * looking at each individual time unit.
+   */
+  @Test
+  public void testBucketMasksEqualBruteForce()
+  {
+    final Random rnd = new Random( 1234L );
+
+    final int count = 5000;
+    final int[] values = new int[count];
+    final long[] timestamps = new long[count];
+
+    long time = 0L;
+    for ( int i = 0; i < count; i++ )
+    {
+      values[i] = rnd.nextInt( 16 );
+      timestamps[i] = time;
+      time += 1 + rnd.nextInt( ( i % 100 ) == 0 ? 5000 : 10 );
+    }
+    final long absLength = timestamps[count - 1];
+
+    final SignalSummary summary = SignalSummary.create( values, timestamps, absLength );
+    assertEquals( 1, summary.getBucketCount( summary.getLevelCount() - 1 ) );
+
+    // Determine the value for each individual time unit...
+    final int[] valueAt = new int[( int )absLength + 1];
+    for ( int i = 0, t = 0; t <= absLength; t++ )
+    {
+      while ( ( ( i + 1 ) < count ) && ( timestamps[i + 1] <= t ) )
+      {
+        i++;
+      }
+      valueAt[t] = values[i];
+    }
+
+    for ( int level = 0; level < summary.getLevelCount(); level++ )
+    {
+      final int width = ( int )summary.getBucketWidth( level );
+      for ( int bucket = 0; bucket < summary.getBucketCount( level ); bucket++ )
+      {
+        int high = 0;
+        int low = 0;
+        for ( int t = bucket * width; ( t < ( ( bucket + 1 ) * width ) ) && ( t <= absLength ); t++ )
+        {
+          high |= valueAt[t];
+          low |= ~valueAt[t];
+        }
+
+        assertEquals( high, summary.getHighMask( level, bucket ) );
+        assertEquals( low, summary.getLowMask( level, bucket ) );
+      }
+    }
+  }
+
+  /**
+   * Tests that summarizing a compact sample store yields the same buckets as
+   * summarizing the plain arrays.
+   */
+  @Test
+  public void testCompactStoreYieldsSameSummary()
+  {
+    final Random rnd = new Random( 4321L );
+
+    final int count = 5000;
+    final int[] values = new int[count];
+    final long[] timestamps = new long[count];
+    for ( int i = 0; i < count; i++ )
+    {
+      values[i] = rnd.nextInt( 256 );
+      timestamps[i] = ( 3L * i ) + rnd.nextInt( 3 );
+    }
+    final long absLength = timestamps[count - 1];
+
+    final SampleStore store = SampleStores.compact( values, timestamps );
+    // make sure we're really testing a compact layout...
+    assertTrue( store.getMemorySize() < SampleStores.array( values, timestamps ).getMemorySize() );
+
+    final SignalSummary expected = SignalSummary.create( values, timestamps, absLength );
+    final SignalSummary actual = SignalSummary.create( store, absLength );
+
+    assertEquals( expected.getLevelCount(), actual.getLevelCount() );
+    for ( int level = 0; level < expected.getLevelCount(); level++ )
+    {
+      assertEquals( expected.getBucketCount( level ), actual.getBucketCount( level ) );
+      for ( int bucket = 0; bucket < expected.getBucketCount( level ); bucket++ )
+      {
+        assertEquals( expected.getHighMask( level, bucket ), actual.getHighMask( level, bucket ) );
+        assertEquals( expected.getLowMask( level, bucket ), actual.getLowMask( level, bucket ) );
+      }
+    }
+  }
+
+  /**
+   * Tests that the level is chosen such that a bucket is no wider than a single
+   * pixel.
+   */
+  @Test
+  public void testGetLevel()
+  {
+    final long absLength = 100L * SignalSummary.MAX_BASE_BUCKETS;
+    final SignalSummary summary = SignalSummary.create( new int[] { 0, 1 }, new long[] { 0L, absLength },
+        absLength );
+
+    // the finest level is wider than a single time unit...
+    assertEquals( 128L, summary.getBucketWidth( 0 ) );
+    assertEquals( -1, summary.getLevel( 1.0 ) );
+    assertEquals( -1, summary.getLevel( 1.0 / 100.0 ) );
+
+    assertEquals( 0, summary.getLevel( 1.0 / 128.0 ) );
+    assertEquals( 0, summary.getLevel( 1.0 / 255.0 ) );
+    assertEquals( 1, summary.getLevel( 1.0 / 256.0 ) );
+    assertEquals( summary.getLevelCount() - 1, summary.getLevel( 1.0 / ( 1000.0 * absLength ) ) );
+  }
+}
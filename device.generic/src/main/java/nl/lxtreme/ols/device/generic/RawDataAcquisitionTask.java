@@ -80,8 +80,8 @@ public final class RawDataAcquisitionTask implements AcquisitionTask
 
     final int count = depth * width;
 
-    final int[] values = new int[count];
-    final long[] timestamps = new long[count];
+    // Feed the samples directly into the builder, without intermediary copies...
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
 
     this.inputStream = new FileInputStream( this.deviceConfig.getDevicePath() );
 
@@ -97,17 +97,16 @@ public final class RawDataAcquisitionTask implements AcquisitionTask
           LOG.log( Level.FINE, "Read: 0x{0}", Integer.toHexString( sample ) );
         }
 
-        values[idx] = sample;
-        timestamps[idx] = idx;
+        builder.add( sample, idx );
 
         // Update the progress...
         this.progressListener.acquisitionInProgress( ( int )( ( idx++ * 100.0 ) / count ) );
       }
 
-      final long absLength = timestamps[idx - 1];
+      final long absLength = builder.getLastTimestamp();
       final int enabledChannels = ( 1 << channels ) - 1;
 
-      return new CapturedData( values, timestamps, Ols.NOT_AVAILABLE, rate, channels, enabledChannels, absLength );
+      return builder.build( Ols.NOT_AVAILABLE, rate, channels, enabledChannels, absLength );
     }
     catch ( IOException exception )
     {
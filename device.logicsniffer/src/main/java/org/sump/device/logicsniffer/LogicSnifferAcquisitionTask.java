@@ -22,7 +22,6 @@ package org.sump.device.logicsniffer;
 
 
 import java.io.*;
-import java.util.*;
 import java.util.logging.*;
 
 import javax.microedition.io.*;
@@ -48,6 +47,13 @@ public class LogicSnifferAcquisitionTask implements SumpProtocolConstants, Acqui
 
   private static final Logger LOG = Logger.getLogger( LogicSnifferAcquisitionTask.class.getName() );
 
+  /** The number of samples to read & process in one go. */
+  private static final int SAMPLE_CHUNK_SIZE = 16384;
+
+  /** The minimal number of samples for which RLE-decoding is done in parallel. */
+  private static final int PARALLEL_RLE_THRESHOLD = Integer.getInteger( "nl.lxtreme.ols.rle.parallelThreshold",
+      1024 * 1024 ).intValue();
+
   // VARIABLES
 
   private final DeviceProfileManager deviceProfileManager;
@@ -114,20 +120,9 @@ public class LogicSnifferAcquisitionTask implements SumpProtocolConstants, Acqui
     // Setup/configure the device with the UI-settings...
     configureAndArmDevice();
 
-    // read all samples
-    int[] samples = readSamples( this.config.getEnabledGroupCount(), sampleCount );
-
-    if ( samples.length < sampleCount )
-    {
-      LOG.log( Level.INFO, "Only {0} samples read!", Integer.valueOf( samples.length ) );
-    }
-    else
-    {
-      LOG.log( Level.FINE, "{0} samples read. Starting post processing...", Integer.valueOf( sampleCount ) );
-    }
-
-    final List<Integer> values = new ArrayList<Integer>();
-    final List<Long> timestamps = new ArrayList<Long>();
+    // Collect the transitions directly into primitive arrays, avoiding the
+    // need to box each and every sample...
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
 
     // collect additional information for CapturedData; we use arrays here,
     // as their values are to be filled from anonymous inner classes...
@@ -139,8 +134,7 @@ public class LogicSnifferAcquisitionTask implements SumpProtocolConstants, Acqui
     {
       public void addValue( final int aSampleValue, final long aTimestamp )
       {
-        values.add( Integer.valueOf( aSampleValue ) );
-        timestamps.add( Long.valueOf( aTimestamp ) );
+        builder.add( aSampleValue, aTimestamp );
       }
 
       public void ready( final long aAbsoluteLength, final long aTriggerPosition )
@@ -152,15 +146,26 @@ public class LogicSnifferAcquisitionTask implements SumpProtocolConstants, Acqui
         }
       }
     };
-    // Process the actual samples...
-    createSampleProcessor( sampleCount, samples, callback ).process();
+
+    // Read all samples & process them; when possible, this is done while the
+    // samples are still arriving...
+    final int samplesRead = readSamples( this.config.getEnabledGroupCount(), sampleCount, callback );
+
+    if ( samplesRead < sampleCount )
+    {
+      LOG.log( Level.INFO, "Only {0} samples read!", Integer.valueOf( samplesRead ) );
+    }
+    else
+    {
+      LOG.log( Level.FINE, "{0} samples read and processed.", Integer.valueOf( sampleCount ) );
+    }
 
     // Close the connection...
     close();
 
     // Issue #98: use the *enabled* channel count, not the total channel
     // count...
-    return new CapturedData( values, timestamps, triggerPos[0], rate, this.config.getEnabledChannelsCount(),
+    return builder.build( triggerPos[0], rate, this.config.getEnabledChannelsCount(),
         this.config.getEnabledChannelsMask(), absoluteLength[0] );
   }
 
@@ -314,27 +319,65 @@ public class LogicSnifferAcquisitionTask implements SumpProtocolConstants, Acqui
   }
 
   /**
-   * @param aSampleCount
-   *          the actual number of samples to process;
+   * Factory method to create a sample processor for the given sample values.
+   * <p>
+   * For large RLE-encoded captures, a {@link ParallelRleDecoder} is used. The
+   * threshold for this can be set by the system property
+   * "nl.lxtreme.ols.rle.parallelThreshold" (in number of samples).
+   * </p>
+   * 
    * @param aSampleValues
    *          the sample values to process;
    * @param aCallback
    *          the processor callback to use.
    * @return a sample processor instance, never <code>null</code>.
    */
-  private SampleProcessor createSampleProcessor( final int aSampleCount, final int[] aSampleValues,
-      final SampleProcessorCallback aCallback )
+  private SampleProcessor createSampleProcessor( final int[] aSampleValues, final SampleProcessorCallback aCallback )
   {
+    final Integer sampleCount = Integer.valueOf( aSampleValues.length );
+
     final SampleProcessor processor;
+    if ( this.config.isRleEnabled() && ( aSampleValues.length >= PARALLEL_RLE_THRESHOLD ) )
+    {
+      LOG.log( Level.INFO, "Decoding Run Length Encoded data in parallel, sample count: {0}", sampleCount );
+      processor = new ParallelRleDecoder( this.config, aSampleValues, this.trigcount, aCallback );
+    }
+    else if ( this.config.isRleEnabled() )
+    {
+      LOG.log( Level.INFO, "Decoding Run Length Encoded data, sample count: {0}", sampleCount );
+      processor = new RleDecoder( this.config, aSampleValues, this.trigcount, aCallback );
+    }
+    else
+    {
+      LOG.log( Level.INFO, "Decoding unencoded data, sample count: {0}", sampleCount );
+      processor = new EqualityFilter( this.config, aSampleValues, this.trigcount, aCallback );
+    }
+    return processor;
+  }
+
+  /**
+   * Factory method to create a sample processor that processes the samples
+   * while they arrive.
+   * 
+   * @param aSampleCount
+   *          the actual number of samples to process;
+   * @param aCallback
+   *          the processor callback to use.
+   * @return a sample processor instance, never <code>null</code>.
+   */
+  private StreamingSampleProcessor createStreamingSampleProcessor( final int aSampleCount,
+      final SampleProcessorCallback aCallback )
+  {
+    final StreamingSampleProcessor processor;
     if ( this.config.isRleEnabled() )
     {
       LOG.log( Level.INFO, "Decoding Run Length Encoded data, sample count: {0}", Integer.valueOf( aSampleCount ) );
-      processor = new RleDecoder( this.config, aSampleValues, this.trigcount, aCallback );
+      processor = new RleDecoder( this.config, this.trigcount, aCallback );
     }
     else
     {
       LOG.log( Level.INFO, "Decoding unencoded data, sample count: {0}", Integer.valueOf( aSampleCount ) );
-      processor = new EqualityFilter( this.config, aSampleValues, this.trigcount, aCallback );
+      processor = new EqualityFilter( this.config, this.trigcount, aCallback );
     }
     return processor;
   }
@@ -398,41 +441,117 @@ public class LogicSnifferAcquisitionTask implements SumpProtocolConstants, Acqui
   }
 
   /**
-   * Reads all (or as many as possible) samples from the OLS device.
+   * Reads all (or as many as possible) samples from the OLS device, and feeds
+   * them to the given sample processor.
+   * <p>
+   * The raw data is read and normalized in chunks. In case the device sends its
+   * samples in chronological order, each chunk is directly passed to the given
+   * sample processor, overlapping the decoding with the (slow) I/O. Otherwise,
+   * the samples need to be fully read before they can be processed.
+   * </p>
    * 
    * @param aEnabledGroupCount
-   *          the number of enabled groups (denotes the number of bytes for one sample);
+   *          the number of enabled groups (denotes the number of bytes for one
+   *          sample);
    * @param aSampleCount
-   *          the number of samples to read.
-   * @return the read samples, normalized to match the layout of the enabled groups.
+   *          the number of samples to read;
+   * @param aCallback
+   *          the callback to pass the processed samples to.
+   * @return the number of read samples.
    * @throws IOException
    *           in case of I/O problems;
    * @throws InterruptedException
    *           in case the current thread was interrupted.
    */
-  private int[] readSamples( final int aEnabledGroupCount, int aSampleCount ) throws IOException, InterruptedException
+  private int readSamples( final int aEnabledGroupCount, final int aSampleCount,
+      final SampleProcessorCallback aCallback ) throws IOException, InterruptedException
   {
+    final int groupCount = this.config.getGroupCount();
+
+    // Determine where the bytes of each enabled group should go...
+    final int[] groupShifts = new int[aEnabledGroupCount];
+    for ( int g = 0, i = 0; ( g < groupCount ) && ( i < aEnabledGroupCount ); g++ )
+    {
+      if ( this.config.isGroupEnabled( g ) )
+      {
+        groupShifts[i++] = 8 * g;
+      }
+    }
+
+    // Normally, the device sends its samples in "reverse" order, meaning that
+    // the last sample is sent first. In that case, we need all samples before
+    // we can process them...
+    final boolean chronological = this.config.isSamplesInReverseOrder();
+
     final int length = aEnabledGroupCount * aSampleCount;
-    final byte[] rawData = new byte[length];
+    final int chunkSamples = Math.min( aSampleCount, SAMPLE_CHUNK_SIZE );
+    final byte[] rawData = new byte[aEnabledGroupCount * chunkSamples];
+    final int[] samples = new int[chronological ? chunkSamples : aSampleCount];
+
+    final StreamingSampleProcessor streamingProcessor;
+    if ( chronological )
+    {
+      streamingProcessor = createStreamingSampleProcessor( aSampleCount, aCallback );
+    }
+    else
+    {
+      streamingProcessor = null;
+    }
+
+    int sampleIdx = 0;
 
     try
     {
       int offset = 0;
-      int count = length;
+      int pending = 0;
       while ( !Thread.currentThread().isInterrupted() && ( offset >= 0 ) && ( offset < length ) )
       {
-        int read = this.inputStream.readRawData( rawData, offset, count );
+        int count = Math.min( rawData.length - pending, length - offset );
+
+        int read = this.inputStream.readRawData( rawData, pending, count );
         if ( read < 0 )
         {
           throw new EOFException();
         }
-        else
+
+        offset += read;
+        pending += read;
+
+        // Normalize all completely read samples into the sample data, as
+        // expected...
+        final int completeSamples = pending / aEnabledGroupCount;
+        for ( int s = 0, j = 0; s < completeSamples; s++, sampleIdx++ )
+        {
+          int sample = 0;
+          for ( int g = 0; g < aEnabledGroupCount; g++ )
+          {
+            sample |= ( ( rawData[j++] & 0xff ) << groupShifts[g] );
+          }
+
+          if ( chronological )
+          {
+            samples[s] = sample;
+          }
+          else
+          {
+            samples[aSampleCount - sampleIdx - 1] = sample;
+          }
+        }
+
+        if ( chronological && ( completeSamples > 0 ) )
+        {
+          streamingProcessor.processSamples( samples, 0, completeSamples );
+        }
+
+        // Retain the bytes of an incomplete sample for the next round...
+        final int used = completeSamples * aEnabledGroupCount;
+        pending -= used;
+        if ( pending > 0 )
         {
-          count -= read;
-          offset += read;
+          System.arraycopy( rawData, used, rawData, 0, pending );
         }
 
-        this.acquisitionProgressListener.acquisitionInProgress( ( 100 * offset ) / length );
+        this.acquisitionProgressListener.acquisitionInProgress( ( int )( ( 100L * offset ) / length ) );
       }
     }
     catch ( IOException exception )
@@ -450,35 +569,22 @@ public class LogicSnifferAcquisitionTask implements SumpProtocolConstants, Acqui
 
       this.acquisitionProgressListener.acquisitionInProgress( 100 );
     }
-    
+
     if ( Thread.currentThread().isInterrupted() )
     {
       // We're interrupted while read samples, do not proceed...
       throw new InterruptedException();
     }
-    
-    final int groupCount = this.config.getGroupCount();
-    
-    // Normalize the raw data into the sample data, as expected...
-    int[] samples = new int[aSampleCount];
-    for ( int i = samples.length - 1, j = 0; i >= 0; i-- )
+
+    if ( chronological )
     {
-      for ( int g = 0; g < groupCount; g++ )
-      {
-        if ( this.config.isGroupEnabled( g ) )
-        {
-          samples[i] |= ( ( rawData[j++] & 0xff ) << ( 8 * g ) );
-        }
-      }
+      streamingProcessor.finish();
     }
-
-    // In case the device sends its samples in "reverse" order, we need to
-    // revert it now, before processing them further...
-    if ( this.config.isSamplesInReverseOrder() )
+    else
     {
-      HostUtils.reverse( samples );
+      createSampleProcessor( samples, aCallback ).process();
     }
 
-    return samples;
+    return sampleIdx;
   }
 }
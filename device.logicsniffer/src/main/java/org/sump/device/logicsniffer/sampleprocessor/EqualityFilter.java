@@ -27,7 +27,7 @@ import org.sump.device.logicsniffer.*;
 /**
  * Processes all samples and only returns the actual changed sample values.
  */
-public final class EqualityFilter implements SampleProcessor
+public final class EqualityFilter implements StreamingSampleProcessor
 {
   // VARIABLES
 
@@ -36,8 +36,28 @@ public final class EqualityFilter implements SampleProcessor
   private final int trigCount;
   private final SampleProcessorCallback callback;
 
+  // filter state, retained between calls to #processSamples...
+  private long time;
+  private int lastSample;
+
   // CONSTRUCTORS
 
+  /**
+   * Creates a new EqualityFilter instance for incremental processing.
+   * 
+   * @param aConfig
+   *          the configuration to use;
+   * @param aTrigCount
+   *          the trigcount value;
+   * @param aCallback
+   *          the callback to use.
+   */
+  public EqualityFilter( final LogicSnifferConfig aConfig, final int aTrigCount,
+      final SampleProcessorCallback aCallback )
+  {
+    this( aConfig, null, aTrigCount, aCallback, false /* aNeedBuffer */ );
+  }
+
   /**
    * @param aConfig
    *          the configuration to use;
@@ -51,7 +71,16 @@ public final class EqualityFilter implements SampleProcessor
   public EqualityFilter( final LogicSnifferConfig aConfig, final int[] aBuffer, final int aTrigCount,
       final SampleProcessorCallback aCallback )
   {
-    if ( aBuffer == null )
+    this( aConfig, aBuffer, aTrigCount, aCallback, true /* aNeedBuffer */ );
+  }
+
+  /**
+   * Creates a new EqualityFilter instance.
+   */
+  private EqualityFilter( final LogicSnifferConfig aConfig, final int[] aBuffer, final int aTrigCount,
+      final SampleProcessorCallback aCallback, final boolean aNeedBuffer )
+  {
+    if ( aNeedBuffer && ( aBuffer == null ) )
     {
       throw new IllegalArgumentException( "Buffer cannot be null!" );
     }
@@ -60,39 +89,23 @@ public final class EqualityFilter implements SampleProcessor
     this.buffer = aBuffer;
     this.trigCount = aTrigCount;
     this.callback = aCallback;
+
+    this.time = 0L;
+    this.lastSample = 0; // first value doesn't really matter
   }
 
   // METHODS
 
   /**
-   * @see org.sump.device.logicsniffer.sampleprocessor.SampleProcessor#process()
+   * @see org.sump.device.logicsniffer.sampleprocessor.StreamingSampleProcessor#finish()
    */
   @Override
-  public final void process()
+  public void finish()
   {
-    long time = 0;
-
-    final int samples = this.buffer.length;
-
-    int lastSample = 0; // first value doesn't really matter
-    for ( int i = 0; i < samples; i++ )
-    {
-      final int newSample = this.buffer[i];
-
-      if ( ( i == 0 ) || ( lastSample != newSample ) )
-      {
-        // add the read sample & add a timestamp value as well...
-        this.callback.addValue( newSample, time );
-      }
-
-      lastSample = newSample;
-      time++;
-    }
-
     // Ensure the last sample is shown as well (even if there was a lot of time
     // between the last real sample and the end of the capture; i.e., constant
     // data)...
-    this.callback.addValue( lastSample, time );
+    this.callback.addValue( this.lastSample, this.time );
 
     // XXX JaWi: why is this correction needed?
     int correction = 2;
@@ -102,6 +115,50 @@ public final class EqualityFilter implements SampleProcessor
     }
 
     // Take the last seen time value as "absolete" length of this trace...
-    this.callback.ready( time, ( this.trigCount - correction ) );
+    this.callback.ready( this.time, ( this.trigCount - correction ) );
+  }
+
+  /**
+   * @see org.sump.device.logicsniffer.sampleprocessor.SampleProcessor#process()
+   */
+  @Override
+  public final void process()
+  {
+    if ( this.buffer == null )
+    {
+      throw new IllegalStateException( "No sample buffer given!" );
+    }
+
+    processSamples( this.buffer, 0, this.buffer.length );
+    finish();
+  }
+
+  /**
+   * @see org.sump.device.logicsniffer.sampleprocessor.StreamingSampleProcessor#processSamples(int[],
+   *      int, int)
+   */
+  @Override
+  public void processSamples( final int[] aSamples, final int aOffset, final int aLength )
+  {
+    long t = this.time;
+    int lastValue = this.lastSample;
+
+    final int end = aOffset + aLength;
+    for ( int i = aOffset; i < end; i++ )
+    {
+      final int newSample = aSamples[i];
+
+      if ( ( t == 0L ) || ( lastValue != newSample ) )
+      {
+        // add the read sample & add a timestamp value as well...
+        this.callback.addValue( newSample, t );
+      }
+
+      lastValue = newSample;
+      t++;
+    }
+
+    this.time = t;
+    this.lastSample = lastValue;
   }
 }
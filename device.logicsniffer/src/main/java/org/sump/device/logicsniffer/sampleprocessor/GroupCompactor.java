@@ -0,0 +1,104 @@
+/*
+ * OpenBench LogicSniffer / SUMP project 
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2006-2010 Michael Poppitz, www.sump.org
+ * Copyright (C) 2010 J.W. Janssen, www.lxtreme.nl
+ */
+package org.sump.device.logicsniffer.sampleprocessor;
+
+
+import org.sump.device.logicsniffer.*;
+
+
+/**
+ * Compacts sample values by removing the unused channel groups from them.
+ * <p>
+ * Instead of testing each channel group for every sample, the enabled groups
+ * are determined once and turned into (at most) two mask/shift pairs: each
+ * pair moves a contiguous run of enabled groups to its final position. As
+ * there are only four channel groups, two runs are always sufficient.
+ * </p>
+ */
+final class GroupCompactor
+{
+  // CONSTANTS
+
+  private static final int MAX_RUNS = 2;
+
+  // VARIABLES
+
+  private final int shift0;
+  private final int mask0;
+  private final int shift1;
+  private final int mask1;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new GroupCompactor instance.
+   * 
+   * @param aConfig
+   *          the configuration to determine the enabled groups from.
+   */
+  GroupCompactor( final LogicSnifferConfig aConfig )
+  {
+    final int[] shifts = new int[MAX_RUNS];
+    final int[] masks = new int[MAX_RUNS];
+
+    final int groupCount = aConfig.getGroupCount();
+
+    int run = -1;
+    for ( int j = 0, outcount = 0; j < groupCount; j++ )
+    {
+      if ( aConfig.isGroupEnabled( j ) )
+      {
+        // all groups of a contiguous run are moved by the same amount...
+        final int shift = 8 * ( j - outcount );
+        if ( ( run < 0 ) || ( shifts[run] != shift ) )
+        {
+          run++;
+          if ( run >= MAX_RUNS )
+          {
+            throw new IllegalStateException( "Too many channel group runs!" );
+          }
+          shifts[run] = shift;
+        }
+        masks[run] |= ( 0xff << ( 8 * outcount++ ) );
+      }
+    }
+
+    this.shift0 = shifts[0];
+    this.mask0 = masks[0];
+    this.shift1 = shifts[1];
+    this.mask1 = masks[1];
+  }
+
+  // METHODS
+
+  /**
+   * Normalizes the given sample value to mask out the unused channel groups and
+   * get a sample value in the correct width.
+   * 
+   * @param aSampleValue
+   *          the original sample to normalize.
+   * @return the normalized sample value.
+   */
+  int compact( final int aSampleValue )
+  {
+    return ( ( aSampleValue >>> this.shift0 ) & this.mask0 ) | ( ( aSampleValue >>> this.shift1 ) & this.mask1 );
+  }
+}
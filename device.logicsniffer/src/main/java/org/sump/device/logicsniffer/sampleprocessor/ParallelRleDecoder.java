@@ -0,0 +1,406 @@
+/*
+ * OpenBench LogicSniffer / SUMP project 
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2006-2010 Michael Poppitz, www.sump.org
+ * Copyright (C) 2010 J.W. Janssen, www.lxtreme.nl
+ */
+package org.sump.device.logicsniffer.sampleprocessor;
+
+
+import java.util.concurrent.*;
+
+import org.sump.device.logicsniffer.*;
+
+
+/**
+ * Provides a RLE decoder that decodes large sample buffers in parallel.
+ * <p>
+ * The sample buffer is split into chunks at "safe" boundaries, that is, at a
+ * sample value that directly follows a non-RLE-count sample. This ensures that
+ * a sample value is never separated from its RLE-count, nor that both halves
+ * of a DDR-count end up in different chunks. The decoding itself is done in
+ * three steps:
+ * </p>
+ * <ol>
+ * <li>each chunk is decoded independently (in parallel) to determine its
+ * duration and number of transitions;</li>
+ * <li>the time offsets and output positions of all chunks are determined by
+ * summing up the results of the first step;</li>
+ * <li>each chunk is decoded (in parallel) once more, now with its correct
+ * initial state, writing its transitions directly in a preallocated result.</li>
+ * </ol>
+ * <p>
+ * The decoding of each chunk is done by a {@link RleDecoder}, so the results
+ * are identical to decoding the entire sample buffer sequentially.
+ * </p>
+ */
+public final class ParallelRleDecoder implements SampleProcessor
+{
+  // INNER TYPES
+
+  /**
+   * Denotes a single chunk of the sample buffer.
+   */
+  static final class Chunk
+  {
+    // VARIABLES
+
+    final int start;
+    final int end;
+
+    // results of the first pass...
+    int transitions;
+    boolean hasFirstValue;
+    int firstValue;
+    int lastValue;
+    long duration;
+
+    // results of the second pass...
+    long startTime;
+    int prevValue;
+    int offset;
+
+    // results of the third pass...
+    long triggerTime;
+    RleDecoder decoder;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new Chunk instance.
+     */
+    Chunk( final int aStart, final int aEnd )
+    {
+      this.start = aStart;
+      this.end = aEnd;
+    }
+  }
+
+  /**
+   * Decodes a range of chunks, by recursively splitting this range.
+   */
+  final class DecodeTask extends RecursiveAction
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // VARIABLES
+
+    private final Chunk[] chunks;
+    private final int from;
+    private final int to;
+    private final boolean firstPass;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new DecodeTask instance.
+     */
+    DecodeTask( final Chunk[] aChunks, final int aFrom, final int aTo, final boolean aFirstPass )
+    {
+      this.chunks = aChunks;
+      this.from = aFrom;
+      this.to = aTo;
+      this.firstPass = aFirstPass;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void compute()
+    {
+      if ( ( this.to - this.from ) > 1 )
+      {
+        final int mid = ( this.from + this.to ) >>> 1;
+        invokeAll( new DecodeTask( this.chunks, this.from, mid, this.firstPass ), //
+            new DecodeTask( this.chunks, mid, this.to, this.firstPass ) );
+      }
+      else if ( this.firstPass )
+      {
+        analyzeChunk( this.chunks[this.from] );
+      }
+      else
+      {
+        decodeChunk( this.chunks[this.from] );
+      }
+    }
+  }
+
+  // CONSTANTS
+
+  /** The default minimal number of samples in a single chunk. */
+  private static final int DEFAULT_MIN_CHUNK_SIZE = 65536;
+
+  // VARIABLES
+
+  private final LogicSnifferConfig config;
+  private final int[] buffer;
+  private final int trigCount;
+  private final SampleProcessorCallback callback;
+  private final int minChunkSize;
+
+  private int[] values;
+  private long[] timestamps;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new ParallelRleDecoder instance.
+   * 
+   * @param aConfig
+   *          the configuration to use;
+   * @param aBuffer
+   *          the buffer with sample data to decode;
+   * @param aTrigCount
+   *          the trigcount value;
+   * @param aCallback
+   *          the callback to use.
+   */
+  public ParallelRleDecoder( final LogicSnifferConfig aConfig, final int[] aBuffer, final int aTrigCount,
+      final SampleProcessorCallback aCallback )
+  {
+    this( aConfig, aBuffer, aTrigCount, aCallback, DEFAULT_MIN_CHUNK_SIZE );
+  }
+
+  /**
+   * Creates a new ParallelRleDecoder instance.
+   * 
+   * @param aConfig
+   *          the configuration to use;
+   * @param aBuffer
+   *          the buffer with sample data to decode;
+   * @param aTrigCount
+   *          the trigcount value;
+   * @param aCallback
+   *          the callback to use;
+   * @param aMinChunkSize
+   *          the minimal number of samples in a single chunk, > 0.
+   */
+  ParallelRleDecoder( final LogicSnifferConfig aConfig, final int[] aBuffer, final int aTrigCount,
+      final SampleProcessorCallback aCallback, final int aMinChunkSize )
+  {
+    if ( aBuffer == null )
+    {
+      throw new IllegalArgumentException( "Buffer cannot be null!" );
+    }
+    if ( aMinChunkSize <= 0 )
+    {
+      throw new IllegalArgumentException( "Chunk size should be positive!" );
+    }
+
+    this.config = aConfig;
+    this.buffer = aBuffer;
+    this.trigCount = aTrigCount;
+    this.callback = aCallback;
+    this.minChunkSize = aMinChunkSize;
+  }
+
+  // METHODS
+
+  /**
+   * @see org.sump.device.logicsniffer.sampleprocessor.SampleProcessor#process()
+   */
+  @Override
+  public void process()
+  {
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    final Chunk[] chunks = createChunks( pool.getParallelism() );
+
+    // 1: determine the duration and transition count of each chunk...
+    pool.invoke( new DecodeTask( chunks, 0, chunks.length, true /* aFirstPass */) );
+
+    // 2: determine the initial state of each chunk...
+    long time = 0L;
+    int lastValue = -1;
+    int offset = 0;
+    for ( Chunk chunk : chunks )
+    {
+      chunk.startTime = time;
+      chunk.prevValue = lastValue;
+      chunk.offset = offset;
+
+      int count = chunk.transitions;
+      if ( chunk.hasFirstValue )
+      {
+        if ( chunk.firstValue == lastValue )
+        {
+          // Not a transition, as the previous chunk ended with the same value...
+          count--;
+        }
+        lastValue = chunk.lastValue;
+      }
+
+      offset += count;
+      time += chunk.duration;
+    }
+
+    this.values = new int[offset];
+    this.timestamps = new long[offset];
+
+    // 3: decode each chunk, now with its correct initial state...
+    pool.invoke( new DecodeTask( chunks, 0, chunks.length, false /* aFirstPass */) );
+
+    final RleDecoder lastDecoder = chunks[chunks.length - 1].decoder;
+    lastDecoder.finishPendingCount();
+
+    long rleTrigPos = 0L;
+    for ( int i = 0; ( rleTrigPos == 0L ) && ( i < chunks.length ); i++ )
+    {
+      rleTrigPos = chunks[i].triggerTime;
+    }
+
+    for ( int i = 0; i < this.values.length; i++ )
+    {
+      this.callback.addValue( this.values[i], this.timestamps[i] );
+    }
+
+    // Ensure the last sample is shown as well (even if there was a lot of time
+    // between the last real sample and the end of the capture; i.e., constant
+    // data)...
+    this.callback.addValue( lastDecoder.getLastSample(), lastDecoder.getTime() );
+
+    // Take the last seen time value as "absolete" length of this trace...
+    this.callback.ready( lastDecoder.getTime(), rleTrigPos - 1 );
+
+    this.values = null;
+    this.timestamps = null;
+  }
+
+  /**
+   * Determines the duration, number of transitions and first and last sample
+   * value of the given chunk.
+   * 
+   * @param aChunk
+   *          the chunk to analyze, cannot be <code>null</code>.
+   */
+  final void analyzeChunk( final Chunk aChunk )
+  {
+    final RleDecoder decoder = new RleDecoder( this.config, this.trigCount, new SampleProcessorCallback()
+    {
+      @Override
+      public void addValue( final int aSampleValue, final long aTimestamp )
+      {
+        if ( !aChunk.hasFirstValue )
+        {
+          aChunk.firstValue = aSampleValue;
+          aChunk.hasFirstValue = true;
+        }
+        aChunk.transitions++;
+      }
+
+      @Override
+      public void ready( final long aAbsoluteLength, final long aTriggerPosition )
+      {
+        // Not used...
+      }
+    } );
+
+    decoder.resume( 0L, -1, aChunk.start );
+    decoder.processSamples( this.buffer, aChunk.start, aChunk.end - aChunk.start );
+
+    aChunk.lastValue = decoder.getLastSample();
+    aChunk.duration = decoder.getTime();
+  }
+
+  /**
+   * Decodes the given chunk, and places its transitions in the result.
+   * 
+   * @param aChunk
+   *          the chunk to decode, cannot be <code>null</code>.
+   */
+  final void decodeChunk( final Chunk aChunk )
+  {
+    final int[] resultValues = this.values;
+    final long[] resultTimestamps = this.timestamps;
+
+    final RleDecoder decoder = new RleDecoder( this.config, this.trigCount, new SampleProcessorCallback()
+    {
+      private int idx = aChunk.offset;
+
+      @Override
+      public void addValue( final int aSampleValue, final long aTimestamp )
+      {
+        resultValues[this.idx] = aSampleValue;
+        resultTimestamps[this.idx] = aTimestamp;
+        this.idx++;
+      }
+
+      @Override
+      public void ready( final long aAbsoluteLength, final long aTriggerPosition )
+      {
+        // Not used...
+      }
+    } );
+
+    decoder.resume( aChunk.startTime, aChunk.prevValue, aChunk.start );
+    decoder.processSamples( this.buffer, aChunk.start, aChunk.end - aChunk.start );
+
+    aChunk.triggerTime = decoder.getTriggerTime();
+    aChunk.decoder = decoder;
+  }
+
+  /**
+   * Splits the sample buffer into chunks at safe boundaries.
+   * 
+   * @param aParallelism
+   *          the desired level of parallelism.
+   * @return the chunks, never <code>null</code>.
+   */
+  private Chunk[] createChunks( final int aParallelism )
+  {
+    final int length = this.buffer.length;
+
+    // Use a couple of chunks per thread to balance the load a bit...
+    final int chunkCount = Math.max( 1, Math.min( length / this.minChunkSize, 4 * aParallelism ) );
+
+    // Only used to determine whether samples are RLE-counts...
+    final RleDecoder decoder = new RleDecoder( this.config, this.trigCount, this.callback );
+
+    final int[] bounds = new int[chunkCount + 1];
+    int count = 0;
+    bounds[count++] = 0;
+    for ( int i = 1; i < chunkCount; i++ )
+    {
+      int bound = Math.max( bounds[count - 1] + 1, ( int )( ( ( long )length * i ) / chunkCount ) );
+      // A chunk can only start with a sample value that directly follows a
+      // non-RLE-count; the latter can be either a sample value or the second
+      // half of a DDR-count...
+      while ( ( bound < length )
+          && ( decoder.isCount( this.buffer[bound - 1] ) || decoder.isCount( this.buffer[bound] ) ) )
+      {
+        bound++;
+      }
+      if ( bound < length )
+      {
+        bounds[count++] = bound;
+      }
+    }
+    bounds[count] = length;
+
+    final Chunk[] result = new Chunk[count];
+    for ( int i = 0; i < count; i++ )
+    {
+      result[i] = new Chunk( bounds[i], bounds[i + 1] );
+    }
+    return result;
+  }
+}
@@ -28,8 +28,14 @@ import org.sump.device.logicsniffer.*;
 
 /**
  * Provides a RLE decoder.
+ * <p>
+ * This decoder can either be used to process a complete sample buffer at once
+ * (see {@link #process()}), or to decode the samples incrementally while they
+ * arrive from the device (see {@link #processSamples(int[], int, int)} and
+ * {@link #finish()}).
+ * </p>
  */
-public final class RleDecoder implements SampleProcessor
+public final class RleDecoder implements StreamingSampleProcessor
 {
   // CONSTANTS
 
@@ -44,9 +50,35 @@ public final class RleDecoder implements SampleProcessor
 
   private final int rleCountValue;
   private final int rleCountMask;
+  private final int rleShiftBits;
+  private final boolean ddrMode;
+  private final GroupCompactor compactor;
+
+  // decoder state, retained between calls to #processSamples...
+  private long time;
+  private long rleTrigPos;
+  private int lastSample;
+  private int sampleIdx;
+  private boolean ddrCountPending;
+  private long pendingCount;
 
   // CONSTRUCTORS
 
+  /**
+   * Creates a new RleDecoder instance for incremental decoding.
+   * 
+   * @param aConfig
+   *          the configuration to use;
+   * @param aTrigCount
+   *          the trigcount value;
+   * @param aCallback
+   *          the callback to use.
+   */
+  public RleDecoder( final LogicSnifferConfig aConfig, final int aTrigCount, final SampleProcessorCallback aCallback )
+  {
+    this( aConfig, null, aTrigCount, aCallback, false /* aNeedBuffer */ );
+  }
+
   /**
    * Creates a new RleDecoder instance.
    * 
@@ -58,7 +90,16 @@ public final class RleDecoder implements SampleProcessor
   public RleDecoder( final LogicSnifferConfig aConfig, final int[] aBuffer, final int aTrigCount,
       final SampleProcessorCallback aCallback )
   {
-    if ( aBuffer == null )
+    this( aConfig, aBuffer, aTrigCount, aCallback, true /* aNeedBuffer */ );
+  }
+
+  /**
+   * Creates a new RleDecoder instance.
+   */
+  private RleDecoder( final LogicSnifferConfig aConfig, final int[] aBuffer, final int aTrigCount,
+      final SampleProcessorCallback aCallback, final boolean aNeedBuffer )
+  {
+    if ( aNeedBuffer && ( aBuffer == null ) )
     {
       throw new IllegalArgumentException( "Buffer cannot be null!" );
     }
@@ -91,86 +132,221 @@ public final class RleDecoder implements SampleProcessor
       default:
         throw new IllegalArgumentException( "Illegal RLE width! Should be 8, 16, 24 or 32!" );
     }
+
+    // shiftBits needs to be 8 if 8 bit selected and 16 if 16 bit selected
+    this.rleShiftBits = width;
+    this.ddrMode = this.config.isDoubleDataRateEnabled();
+    // to enable non contiguous channel groups we need to remove zero data from
+    // unused groups; determine how to do this once, instead for each sample...
+    this.compactor = new GroupCompactor( this.config );
+
+    this.time = 0L;
+    this.rleTrigPos = 0L;
+    this.lastSample = -1;
+    this.sampleIdx = 0;
+    this.ddrCountPending = false;
+    this.pendingCount = 0L;
   }
 
   // METHODS
 
+  /**
+   * @see org.sump.device.logicsniffer.sampleprocessor.StreamingSampleProcessor#finish()
+   */
+  @Override
+  public void finish()
+  {
+    finishPendingCount();
+
+    // Ensure the last sample is shown as well (even if there was a lot of time
+    // between the last real sample and the end of the capture; i.e., constant
+    // data)...
+    this.callback.addValue( this.lastSample, this.time );
+
+    // Take the last seen time value as "absolete" length of this trace...
+    this.callback.ready( this.time, this.rleTrigPos - 1 );
+  }
+
   /**
    * @see org.sump.device.logicsniffer.sampleprocessor.SampleProcessor#process()
    */
   public void process()
   {
-    long time = 0;
-    long rleTrigPos = 0;
-    int lastSample = -1;
+    if ( this.buffer == null )
+    {
+      throw new IllegalStateException( "No sample buffer given!" );
+    }
 
+    processSamples( this.buffer, 0, this.buffer.length );
+    finish();
+  }
+
+  /**
+   * @see org.sump.device.logicsniffer.sampleprocessor.StreamingSampleProcessor#processSamples(int[],
+   *      int, int)
+   */
+  @Override
+  public void processSamples( final int[] aSamples, final int aOffset, final int aLength )
+  {
     // if msb set increment time by the count value
     // else save sample check trigger pos and increment time by 1
     // this should work for either dogsbody or rasmus bitstreams
 
-    final int samples = this.buffer.length;
+    final int end = aOffset + aLength;
+    for ( int i = aOffset; i < end; i++, this.sampleIdx++ )
+    {
+      final int sampleValue = aSamples[i];
 
-    // shiftBits needs to be 8 if 8 bit selected and 16 if 16 bit selected
-    final int rleShiftBits = this.config.getRLEDataWidth();
-    final boolean ddrMode = this.config.isDoubleDataRateEnabled();
+      if ( this.ddrCountPending )
+      {
+        // In case of "double data rate", the RLE-counts are encoded as 16-
+        // resp. 32-bit values, so we need to take two samples for each
+        // count (as they are 8- or 16-bits in DDR mode).
+        // This should also solve issue #31...
+
+        // Issue #55: double the RLE-count as we're using DDR mode which
+        // takes two samples in one time period...
+        long ddrCount = ( ( this.pendingCount << this.rleShiftBits ) | normalizeSampleValue( sampleValue ) );
+        this.ddrCountPending = false;
+
+        addCount( 2L * ddrCount );
+        continue;
+      }
 
-    for ( int i = 0; i < samples; i++ )
-    {
-      final int sampleValue = this.buffer[i];
       final int normalizedSampleValue = normalizeSampleValue( sampleValue );
 
       // if a count just add it to the time
       if ( ( normalizedSampleValue & this.rleCountValue ) != 0 )
       {
         long count = ( normalizedSampleValue & this.rleCountMask );
-        if ( ddrMode && ( i < ( samples - 1 ) ) )
-        {
-          // In case of "double data rate", the RLE-counts are encoded as 16-
-          // resp. 32-bit values, so we need to take two samples for each
-          // count (as they are 8- or 16-bits in DDR mode).
-          // This should also solve issue #31...
-
-          // Issue #55: double the RLE-count as we're using DDR mode which
-          // takes two samples in one time period...
-          long ddrCount = ( ( count << rleShiftBits ) | normalizeSampleValue( this.buffer[++i] ) );
-          count = 2L * ddrCount;
-        }
-
-        if ( lastSample >= 0 )
+        if ( this.ddrMode )
         {
-          time += count;
+          // The second half of this count is in the next sample, which might
+          // not have arrived yet...
+          this.pendingCount = count;
+          this.ddrCountPending = true;
         }
         else
         {
-          LOG.warning( "Ignoring RLE count without preceeding sample value: " + Long.toHexString( count ) );
+          addCount( count );
         }
       }
       else
       {
         // this is a data value only save data if different to last
-        if ( sampleValue != lastSample )
+        if ( sampleValue != this.lastSample )
         {
           // set the trigger position as a time value
-          if ( ( i >= this.trigCount ) && ( rleTrigPos == 0 ) )
+          if ( ( this.sampleIdx >= this.trigCount ) && ( this.rleTrigPos == 0 ) )
           {
-            rleTrigPos = time;
+            this.rleTrigPos = this.time;
           }
 
           // add the read sample & add a timestamp value as well...
-          this.callback.addValue( sampleValue, time );
-          lastSample = sampleValue;
+          this.callback.addValue( sampleValue, this.time );
+          this.lastSample = sampleValue;
         }
-        time++;
+        this.time++;
       }
     }
+  }
 
-    // Ensure the last sample is shown as well (even if there was a lot of time
-    // between the last real sample and the end of the capture; i.e., constant
-    // data)...
-    this.callback.addValue( lastSample, time );
+  /**
+   * Takes a dangling DDR-count, for which the second half never arrived, into
+   * account.
+   */
+  final void finishPendingCount()
+  {
+    if ( this.ddrCountPending )
+    {
+      // The last sample was a DDR count without its second half; take it
+      // as-is, like we would have done when processing a single buffer...
+      this.ddrCountPending = false;
+      addCount( this.pendingCount );
+    }
+  }
 
-    // Take the last seen time value as "absolete" length of this trace...
-    this.callback.ready( time, rleTrigPos - 1 );
+  /**
+   * Returns the last seen (unique) sample value.
+   * 
+   * @return a sample value, or -1 if no sample value is seen yet.
+   */
+  final int getLastSample()
+  {
+    return this.lastSample;
+  }
+
+  /**
+   * Returns the current time value.
+   * 
+   * @return a time value, >= 0.
+   */
+  final long getTime()
+  {
+    return this.time;
+  }
+
+  /**
+   * Returns the time value of the trigger, as seen so far.
+   * 
+   * @return a trigger time value, or 0 if not (yet) seen.
+   */
+  final long getTriggerTime()
+  {
+    return this.rleTrigPos;
+  }
+
+  /**
+   * Lets this decoder continue decoding from a given state, allowing a large
+   * sample buffer to be decoded in multiple, independent, chunks.
+   * 
+   * @param aTime
+   *          the time value of the first sample to decode;
+   * @param aLastSample
+   *          the last unique sample value before the first sample to decode,
+   *          or -1 if there is none;
+   * @param aSampleIdx
+   *          the absolute index of the first sample to decode.
+   */
+  final void resume( final long aTime, final int aLastSample, final int aSampleIdx )
+  {
+    this.time = aTime;
+    this.lastSample = aLastSample;
+    this.sampleIdx = aSampleIdx;
+    this.rleTrigPos = 0L;
+    this.ddrCountPending = false;
+    this.pendingCount = 0L;
+  }
+
+  /**
+   * Returns whether the given sample value denotes a RLE-count.
+   * 
+   * @param aSampleValue
+   *          the (non-normalized) sample value to test.
+   * @return <code>true</code> if the given sample value is a RLE-count,
+   *         <code>false</code> otherwise.
+   */
+  final boolean isCount( final int aSampleValue )
+  {
+    return ( normalizeSampleValue( aSampleValue ) & this.rleCountValue ) != 0;
+  }
+
+  /**
+   * Adds a RLE-count to the current time.
+   * 
+   * @param aCount
+   *          the RLE-count to add.
+   */
+  private void addCount( final long aCount )
+  {
+    if ( this.lastSample >= 0 )
+    {
+      this.time += aCount;
+    }
+    else
+    {
+      LOG.warning( "Ignoring RLE count without preceeding sample value: " + Long.toHexString( aCount ) );
+    }
   }
 
   /**
@@ -183,20 +359,6 @@ public final class RleDecoder implements SampleProcessor
    */
   private int normalizeSampleValue( final int aSampleValue )
   {
-    int groupCount = this.config.getGroupCount();
-    int compdata = 0;
-
-    // to enable non contiguous channel groups
-    // need to remove zero data from unused groups
-    int indata = aSampleValue;
-    for ( int j = 0, outcount = 0; j < groupCount; j++ )
-    {
-      if ( this.config.isGroupEnabled( j ) )
-      {
-        compdata |= ( ( indata & 0xff ) << ( 8 * outcount++ ) );
-      }
-      indata >>= 8;
-    }
-    return compdata;
+    return this.compactor.compact( aSampleValue );
   }
 }
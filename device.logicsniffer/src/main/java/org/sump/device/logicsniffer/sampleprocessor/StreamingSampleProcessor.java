@@ -0,0 +1,48 @@
+/*
+ * OpenBench LogicSniffer / SUMP project 
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2006-2010 Michael Poppitz, www.sump.org
+ * Copyright (C) 2010 J.W. Janssen, www.lxtreme.nl
+ */
+package org.sump.device.logicsniffer.sampleprocessor;
+
+
+/**
+ * Denotes a sample processor that is capable of processing its samples in
+ * chunks, for example, while they are still arriving from the device.
+ */
+public interface StreamingSampleProcessor extends SampleProcessor
+{
+  /**
+   * Signals that all samples are processed, and lets this processor report its
+   * final results to its callback.
+   */
+  void finish();
+
+  /**
+   * Processes the next chunk of samples. The samples <b>must</b> be given in
+   * chronological order.
+   * 
+   * @param aSamples
+   *          the array with samples to process;
+   * @param aOffset
+   *          the offset in the given array to start processing;
+   * @param aLength
+   *          the number of samples to process.
+   */
+  void processSamples( int[] aSamples, int aOffset, int aLength );
+}
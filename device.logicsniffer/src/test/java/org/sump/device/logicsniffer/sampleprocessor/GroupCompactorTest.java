@@ -0,0 +1,97 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 J.W. Janssen, www.lxtreme.nl
+ */
+package org.sump.device.logicsniffer.sampleprocessor;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import org.sump.device.logicsniffer.*;
+
+
+/**
+ * Test cases for {@link GroupCompactor}.
+ */
+public class GroupCompactorTest
+{
+  // METHODS
+
+  /**
+   * Tests that all combinations of enabled channel groups are compacted in the
+   * same way as the original per-group implementation did.
+   */
+  @Test
+  public void testCompactAllGroupCombinationsOk()
+  {
+    final Random rnd = new Random( 1234L );
+
+    for ( int ddr = 0; ddr < 2; ddr++ )
+    {
+      for ( int groups = 1; groups < 16; groups++ )
+      {
+        int mask = 0;
+        for ( int g = 0; g < 4; g++ )
+        {
+          if ( ( groups & ( 1 << g ) ) != 0 )
+          {
+            mask |= ( 0xff << ( 8 * g ) );
+          }
+        }
+
+        final LogicSnifferConfig config = new LogicSnifferConfig();
+        config.setSampleRate( ( ddr != 0 ) ? 200000000 : 100000000 );
+        config.setEnabledChannels( mask );
+
+        final GroupCompactor compactor = new GroupCompactor( config );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+          final int value = rnd.nextInt();
+          assertEquals( "Mask: " + Integer.toHexString( mask ), compactReference( config, value ),
+              compactor.compact( value ) );
+        }
+      }
+    }
+  }
+
+  /**
+   * The original implementation of the sample normalization as done by
+   * {@link RleDecoder}.
+   */
+  private static int compactReference( final LogicSnifferConfig aConfig, final int aSampleValue )
+  {
+    int groupCount = aConfig.getGroupCount();
+    int compdata = 0;
+
+    int indata = aSampleValue;
+    for ( int j = 0, outcount = 0; j < groupCount; j++ )
+    {
+      if ( aConfig.isGroupEnabled( j ) )
+      {
+        compdata |= ( ( indata & 0xff ) << ( 8 * outcount++ ) );
+      }
+      indata >>= 8;
+    }
+    return compdata;
+  }
+}
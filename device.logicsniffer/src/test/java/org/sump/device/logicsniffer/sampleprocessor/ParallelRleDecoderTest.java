@@ -0,0 +1,135 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 J.W. Janssen, www.lxtreme.nl
+ */
+package org.sump.device.logicsniffer.sampleprocessor;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runner.*;
+import org.junit.runners.*;
+import org.junit.runners.Parameterized.Parameters;
+import org.sump.device.logicsniffer.*;
+import org.sump.device.logicsniffer.sampleprocessor.StreamingSampleProcessorTest.RecordingCallback;
+
+
+/**
+ * Test cases for {@link ParallelRleDecoder}.
+ */
+@RunWith( Parameterized.class )
+public class ParallelRleDecoderTest
+{
+  // VARIABLES
+
+  private final int enabledChannelMask;
+  private final boolean ddrMode;
+
+  private LogicSnifferConfig config;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new ParallelRleDecoderTest instance.
+   */
+  public ParallelRleDecoderTest( final int aChannelMask, final boolean aDdrMode )
+  {
+    this.enabledChannelMask = aChannelMask;
+    this.ddrMode = aDdrMode;
+  }
+
+  // METHODS
+
+  /**
+   * @return a collection of test data.
+   */
+  @Parameters
+  @SuppressWarnings( "boxing" )
+  public static Collection<Object[]> getTestData()
+  {
+    return Arrays.asList( new Object[][] { //
+        // channel mask, ddr?
+            { 0x000000FF, false }, // 0
+            { 0x0000FF00, false }, // 1
+            { 0x00FF00FF, false }, // 2
+            { 0xFFFFFFFF, false }, // 3
+            { 0x000000FF, true }, // 4
+            { 0x0000FFFF, true }, // 5
+        } );
+  }
+
+  /**
+   * Sets up the test case.
+   */
+  @Before
+  public void setUp()
+  {
+    this.config = new LogicSnifferConfig();
+    this.config.setSampleRate( this.ddrMode ? 200000000 : 100000000 );
+    this.config.setEnabledChannels( this.enabledChannelMask );
+    this.config.setRleEnabled( true );
+  }
+
+  /**
+   * Tests that the parallel decoder yields exactly the same results as the
+   * sequential decoder.
+   */
+  @Test
+  public void testParallelDecodingEqualsSequentialDecoding()
+  {
+    final Random rnd = new Random( 5678L );
+
+    for ( int run = 0; run < 20; run++ )
+    {
+      final int[] samples = StreamingSampleProcessorTest.createSamples( rnd, rnd.nextInt( 20000 ),
+          this.enabledChannelMask, true /* aRleMode */);
+      final int trigCount = rnd.nextInt( samples.length + 1 );
+
+      final RecordingCallback expected = new RecordingCallback();
+      new RleDecoder( this.config, samples, trigCount, expected ).process();
+
+      final RecordingCallback actual = new RecordingCallback();
+      new ParallelRleDecoder( this.config, samples, trigCount, actual, 1 + rnd.nextInt( 500 ) ).process();
+
+      assertEquals( expected.events, actual.events );
+    }
+  }
+
+  /**
+   * Tests that a sample buffer consisting of only RLE-counts yields the same
+   * results as the sequential decoder.
+   */
+  @Test
+  public void testOnlyCountsOk()
+  {
+    final int[] samples = new int[1000];
+    Arrays.fill( samples, Integer.highestOneBit( this.enabledChannelMask ) );
+
+    final RecordingCallback expected = new RecordingCallback();
+    new RleDecoder( this.config, samples, 0, expected ).process();
+
+    final RecordingCallback actual = new RecordingCallback();
+    new ParallelRleDecoder( this.config, samples, 0, actual, 10 ).process();
+
+    assertEquals( expected.events, actual.events );
+  }
+}
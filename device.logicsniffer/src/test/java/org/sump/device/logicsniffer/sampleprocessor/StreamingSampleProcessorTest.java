@@ -0,0 +1,215 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 J.W. Janssen, www.lxtreme.nl
+ */
+package org.sump.device.logicsniffer.sampleprocessor;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runner.*;
+import org.junit.runners.*;
+import org.junit.runners.Parameterized.Parameters;
+import org.sump.device.logicsniffer.*;
+
+
+/**
+ * Test cases that verify that {@link StreamingSampleProcessor}s yield the same
+ * results regardless of how their samples are chunked.
+ */
+@RunWith( Parameterized.class )
+public class StreamingSampleProcessorTest
+{
+  // INNER TYPES
+
+  /**
+   * Records all values passed to a {@link SampleProcessorCallback}.
+   */
+  static final class RecordingCallback implements SampleProcessorCallback
+  {
+    // VARIABLES
+
+    final List<Long> events = new ArrayList<Long>();
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addValue( final int aSampleValue, final long aTimestamp )
+    {
+      this.events.add( Long.valueOf( aSampleValue ) );
+      this.events.add( Long.valueOf( aTimestamp ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ready( final long aAbsoluteLength, final long aTriggerPosition )
+    {
+      this.events.add( Long.valueOf( aAbsoluteLength ) );
+      this.events.add( Long.valueOf( aTriggerPosition ) );
+    }
+  }
+
+  // VARIABLES
+
+  private final int enabledChannelMask;
+  private final boolean ddrMode;
+  private final boolean rleMode;
+
+  private LogicSnifferConfig config;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new StreamingSampleProcessorTest instance.
+   */
+  public StreamingSampleProcessorTest( final int aChannelMask, final boolean aDdrMode, final boolean aRleMode )
+  {
+    this.enabledChannelMask = aChannelMask;
+    this.ddrMode = aDdrMode;
+    this.rleMode = aRleMode;
+  }
+
+  // METHODS
+
+  /**
+   * @return a collection of test data.
+   */
+  @Parameters
+  @SuppressWarnings( "boxing" )
+  public static Collection<Object[]> getTestData()
+  {
+    return Arrays.asList( new Object[][] { //
+        // channel mask, ddr?, rle?
+            { 0x000000FF, false, false }, // 0
+            { 0x000000FF, false, true }, // 1
+            { 0x00FF00FF, false, true }, // 2
+            { 0x00FFFFFF, false, true }, // 3
+            { 0xFFFFFFFF, false, true }, // 4
+            { 0x000000FF, true, true }, // 5
+            { 0x0000FFFF, true, true }, // 6
+        } );
+  }
+
+  /**
+   * Sets up the test case.
+   */
+  @Before
+  public void setUp()
+  {
+    this.config = new LogicSnifferConfig();
+    this.config.setSampleRate( this.ddrMode ? 200000000 : 100000000 );
+    this.config.setEnabledChannels( this.enabledChannelMask );
+    this.config.setRleEnabled( this.rleMode );
+
+    assertEquals( this.ddrMode, this.config.isDoubleDataRateEnabled() );
+  }
+
+  /**
+   * Tests that processing samples in arbitrary chunks yields the same results
+   * as processing them in one go.
+   */
+  @Test
+  public void testChunkedProcessingEqualsBulkProcessing()
+  {
+    final Random rnd = new Random( 4321L );
+
+    for ( int run = 0; run < 20; run++ )
+    {
+      final int[] samples = createSamples( rnd, 1 + rnd.nextInt( 10000 ), this.enabledChannelMask, this.rleMode );
+
+      final RecordingCallback expected = new RecordingCallback();
+      createProcessor( samples, expected ).process();
+
+      final RecordingCallback actual = new RecordingCallback();
+      final StreamingSampleProcessor processor = createProcessor( null, actual );
+
+      int offset = 0;
+      while ( offset < samples.length )
+      {
+        // Use small chunks to ensure DDR-counts are split frequently...
+        final int length = Math.min( samples.length - offset, rnd.nextInt( 5 ) );
+        processor.processSamples( samples, offset, length );
+        offset += length;
+      }
+      processor.finish();
+
+      assertEquals( expected.events, actual.events );
+    }
+  }
+
+  /**
+   * Creates a new sample processor.
+   */
+  private StreamingSampleProcessor createProcessor( final int[] aSamples, final SampleProcessorCallback aCallback )
+  {
+    final int trigCount = 100;
+    if ( this.rleMode )
+    {
+      if ( aSamples == null )
+      {
+        return new RleDecoder( this.config, trigCount, aCallback );
+      }
+      return new RleDecoder( this.config, aSamples, trigCount, aCallback );
+    }
+
+    if ( aSamples == null )
+    {
+      return new EqualityFilter( this.config, trigCount, aCallback );
+    }
+    return new EqualityFilter( this.config, aSamples, trigCount, aCallback );
+  }
+
+  /**
+   * Creates random sample data, in which every once in a while a RLE-count is
+   * present.
+   */
+  static int[] createSamples( final Random aRnd, final int aCount, final int aChannelMask, final boolean aRleMode )
+  {
+    // the RLE-flag is the MSB of the last enabled channel group...
+    final int countFlag = Integer.highestOneBit( aChannelMask );
+
+    final int[] result = new int[aCount];
+    for ( int i = 0; i < aCount; i++ )
+    {
+      int value = aRnd.nextInt() & aChannelMask;
+      if ( aRleMode && ( aRnd.nextInt( 3 ) == 0 ) )
+      {
+        value |= countFlag;
+      }
+      else if ( aRnd.nextBoolean() && ( i > 0 ) )
+      {
+        value = result[i - 1] & ~countFlag;
+      }
+      else
+      {
+        value &= ~countFlag;
+      }
+      result[i] = value;
+    }
+    return result;
+  }
+}
@@ -71,15 +71,14 @@ public class CsvExporter implements Exporter
 
       final AcquisitionResult capturedData = aDataSet.getCapturedData();
       final int sampleRate = capturedData.getSampleRate();
-      final int[] values = capturedData.getValues();
-      final long[] timestamps = capturedData.getTimestamps();
+      final SampleStore store = capturedData.getSampleStore();
       final long triggerPos = capturedData.getTriggerPosition();
 
       // Write data...
-      for ( int i = 0; i < values.length; i++ )
+      for ( int i = 0, size = store.size(); i < size; i++ )
       {
         // Write data row...
-        writeDataRow( stream, timestamps[i], triggerPos, sampleRate, values[i], channels );
+        writeDataRow( stream, store.getTimestamp( i ), triggerPos, sampleRate, store.getValue( i ), channels );
       }
     }
     finally
@@ -143,6 +143,26 @@ public final class DataTestUtils
     assertArrayEquals( aMessage, aExpected.getValues(), aTested.getValues() );
   }
 
+  /**
+   * Creates a copy of the given captured data that keeps its transitions in a
+   * compact sample store.
+   * 
+   * @param aData
+   *          the captured data to copy, cannot be <code>null</code>.
+   * @return a copy of the given captured data, backed by a compact sample
+   *         store, never <code>null</code>.
+   */
+  public static CapturedData createCompactCopy( final CapturedData aData )
+  {
+    final SampleStore store = SampleStores.compact( aData.getSampleStore() );
+    // Make sure we're really using a different storage layout...
+    assertNotSame( "Not a compact sample store!", aData.getSampleStore().getClass(), store.getClass() );
+    assertTrue( "Not a compact sample store!", store.getMemorySize() < aData.getSampleStore().getMemorySize() );
+
+    return new CapturedData( store, aData.getTriggerPosition(), aData.getSampleRate(), aData.getChannels(),
+        aData.getEnabledChannels(), aData.getAbsoluteLength() );
+  }
+
   /**
    * Creates a mocked data set with 16 sample/time values.
    * 
@@ -390,6 +410,12 @@ public final class DataTestUtils
         return 100;
       }
 
+      @Override
+      public SampleStore getSampleStore()
+      {
+        return SampleStores.array( getValues(), getTimestamps() );
+      }
+
       @Override
       public long[] getTimestamps()
       {
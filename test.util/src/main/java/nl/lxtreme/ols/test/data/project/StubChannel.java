@@ -66,6 +66,15 @@ public class StubChannel implements Channel
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addAnnotations( final Collection<? extends Annotation<?>> aAnnotations )
+  {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -93,6 +102,42 @@ public class StubChannel implements Channel
     return Collections.emptyList();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getAnnotationModificationCount()
+  {
+    return 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DataAnnotation<?> getDataAnnotationAfter( final long aTimestamp )
+  {
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DataAnnotation<?> getDataAnnotationBefore( final long aTimestamp )
+  {
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<DataAnnotation<?>> getDataAnnotations( final long aStartTime, final long aEndTime )
+  {
+    return Collections.emptyList();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -29,7 +29,6 @@ import java.awt.*;
 import java.io.*;
 import java.text.*;
 import java.util.*;
-import java.util.List;
 
 import javax.swing.*;
 
@@ -53,15 +52,98 @@ import org.osgi.framework.*;
  */
 public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implements ExportAware<OneWireDataSet>
 {
+  // INNER TYPES
+
+  /**
+   * Provides the table model for showing the decoded 1-Wire data.
+   */
+  final class OneWireDataTableModel extends DataSetTableModel<OneWireData>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new OneWireDataTableModel instance.
+     */
+    public OneWireDataTableModel()
+    {
+      super( "Index", "Time", "Hex", "Bin", "Dec", "ASCII" );
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object getColumnValue( final int aRow, final OneWireData aData, final int aColumn )
+    {
+      if ( aColumn == 0 )
+      {
+        return String.valueOf( aRow );
+      }
+      else if ( aColumn == 1 )
+      {
+        return Unit.Time.format( getDataSet().getTime( aData.getStartSampleIndex() ) );
+      }
+
+      if ( aData.isEvent() )
+      {
+        return ( aColumn == 2 ) ? aData.getEventName() : null;
+      }
+
+      final int value = aData.getValue();
+
+      switch ( aColumn )
+      {
+        case 2:
+          return "0x".concat( integerToHexString( value, 2 ) );
+        case 3:
+          return "0b".concat( integerToBinString( value, 8 ) );
+        case 4:
+          return String.valueOf( value );
+        default:
+          return toASCII( value );
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Color getRowBackground( final OneWireData aData )
+    {
+      if ( !aData.isEvent() )
+      {
+        return null;
+      }
+
+      final String event = aData.getEventName();
+      if ( OneWireDataSet.OW_RESET.equals( event ) )
+      {
+        return RESET_COLOR;
+      }
+      // unknown event
+      return EVENT_ERROR_COLOR;
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
 
+  private static final Color RESET_COLOR = new Color( 0xe0e0e0 );
+  private static final Color EVENT_ERROR_COLOR = new Color( 0xff8000 );
+
   // VARIABLES
 
   private JComboBox owLine;
   private JComboBox owMode;
   private JEditorPane outText;
+  private OneWireDataTableModel outTableModel;
 
   private RestorableAction runAnalysisAction;
   private Action exportAction;
@@ -131,6 +213,7 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
     final String emptyHtmlPage = getEmptyHtmlPage();
     this.outText.setText( emptyHtmlPage );
     this.outText.setEditable( false );
+    this.outTableModel.clear();
 
     this.runAnalysisAction.restore();
 
@@ -170,6 +253,8 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
       this.outText.setText( htmlPage );
       this.outText.setEditable( false );
 
+      this.outTableModel.setDataSet( aResult );
+
       this.runAnalysisAction.restore();
     }
     catch ( final IOException exception )
@@ -183,13 +268,27 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onToolProgress( final int aPercentage )
+  {
+    final OneWireAnalyserTask toolTask = ( OneWireAnalyserTask )getToolTask();
+    if ( toolTask != null )
+    {
+      // Show the data that is decoded so far...
+      this.outTableModel.update( toolTask.getDecodedData() );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onToolStarted()
   {
-    // NO-op
+    this.outTableModel.clear();
   }
 
   /**
@@ -221,10 +320,13 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
    * Creates the HTML template for exports to HTML.
    *
    * @param aExporter
-   *          the HTML exporter instance to use, cannot be <code>null</code>.
+   *          the HTML exporter instance to use, cannot be <code>null</code>;
+   * @param aIncludeDecodedData
+   *          <code>true</code> to include the decoded data, <code>false</code>
+   *          to only include the statistics.
    * @return a HTML exporter filled with the template, never <code>null</code>.
    */
-  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter )
+  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter, final boolean aIncludeDecodedData )
   {
     aExporter.addCssStyle( "body { font-family: sans-serif; } " );
     aExporter.addCssStyle( "table { border-width: 1px; border-spacing: 0px; border-color: gray;"
@@ -258,6 +360,12 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
     tr.addChild( TD ).addAttribute( "class", "w30" ).addContent( "Detected bus errors" );
     tr.addChild( TD ).addContent( "{detected-bus-errors}" );
 
+    if ( !aIncludeDecodedData )
+    {
+      // The decoded data is shown in a separate table...
+      return aExporter;
+    }
+
     table = body.addChild( TABLE ).addAttribute( "class", "w100" );
     thead = table.addChild( THEAD );
     tr = thead.addChild( TR );
@@ -278,14 +386,17 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
    */
   private JPanel createPreviewPane()
   {
-    final JPanel output = new JPanel( new GridLayout( 1, 1, 0, 0 ) );
+    final JPanel panTable = new JPanel( new BorderLayout() );
 
     this.outText = new JEditorPane( "text/html", getEmptyHtmlPage() );
     this.outText.setEditable( false );
 
-    output.add( new JScrollPane( this.outText ) );
+    this.outTableModel = new OneWireDataTableModel();
 
-    return output;
+    panTable.add( this.outText, BorderLayout.NORTH );
+    panTable.add( new JScrollPane( new DataSetTable( this.outTableModel ) ), BorderLayout.CENTER );
+
+    return panTable;
   }
 
   /**
@@ -324,7 +435,7 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
    */
   private String getEmptyHtmlPage()
   {
-    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
     return exporter.toString( new MacroResolver()
     {
       @Override
@@ -413,50 +524,52 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
         }
         else if ( "decoded-data".equals( aMacro ) )
         {
-          final List<OneWireData> dataSet = aAnalysisResult.getData();
-          Element tr;
-
-          for ( int i = 0; i < dataSet.size(); i++ )
+          // Create the rows lazily, allowing them to be streamed to file...
+          return new DataSetHtmlRows<OneWireData>( aAnalysisResult )
           {
-            final OneWireData data = dataSet.get( i );
-
-            if ( data.isEvent() )
+            @Override
+            protected Element createRow( final int aIndex, final OneWireData aData, final OneWireData aCoalescedData )
             {
-              // this is an event
-              final String event = data.getEventName();
-
-              String bgColor;
-              if ( OneWireDataSet.OW_RESET.equals( event ) )
+              final Element tr;
+              if ( aData.isEvent() )
               {
-                bgColor = "#e0e0e0";
+                // this is an event
+                final String event = aData.getEventName();
+
+                String bgColor;
+                if ( OneWireDataSet.OW_RESET.equals( event ) )
+                {
+                  bgColor = "#e0e0e0";
+                }
+                else
+                {
+                  // unknown event
+                  bgColor = "#ff8000";
+                }
+
+                tr = TR.clone().addAttribute( "style", "background-color: " + bgColor + ";" );
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( aData.getStartSampleIndex() ) ) );
+                tr.addChild( TD ).addContent( event );
+                tr.addChild( TD );
+                tr.addChild( TD );
+                tr.addChild( TD );
               }
               else
               {
-                // unknown event
-                bgColor = "#ff8000";
+                final int value = aData.getValue();
+
+                tr = TR.clone();
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( aData.getStartSampleIndex() ) ) );
+                tr.addChild( TD ).addContent( "0x", integerToHexString( value, 2 ) );
+                tr.addChild( TD ).addContent( "0b", integerToBinString( value, 8 ) );
+                tr.addChild( TD ).addContent( String.valueOf( value ) );
+                tr.addChild( TD ).addContent( toASCII( value ) );
               }
-
-              tr = aParent.addChild( TR ).addAttribute( "style", "background-color: " + bgColor + ";" );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( data.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( event );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD );
-            }
-            else
-            {
-              final int value = data.getValue();
-
-              tr = aParent.addChild( TR );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( data.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( "0x", integerToHexString( value, 2 ) );
-              tr.addChild( TD ).addContent( "0b", integerToBinString( value, 8 ) );
-              tr.addChild( TD ).addContent( String.valueOf( value ) );
-              tr.addChild( TD ).addContent( toASCII( value ) );
+              return tr;
             }
-          }
+          };
         }
 
         return null;
@@ -465,12 +578,14 @@ public class OneWireAnalyserDialog extends BaseToolDialog<OneWireDataSet> implem
 
     if ( aFile == null )
     {
-      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+      // Only the statistics; the decoded data is shown in a separate table...
+      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
       return exporter.toString( macroResolver );
     }
     else
     {
-      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ) );
+      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ),
+          true );
       exporter.write( macroResolver );
       exporter.close();
     }
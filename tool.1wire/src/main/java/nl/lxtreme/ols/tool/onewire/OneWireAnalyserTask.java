@@ -53,6 +53,7 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
   private int owLineIndex;
   private int owLineMask;
   private OneWireTiming owTiming;
+  private volatile OneWireDataSet decodedData;
 
   // CONSTRUCTORS
 
@@ -82,12 +83,10 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
   public OneWireDataSet call() throws Exception
   {
     final AcquisitionResult data = this.context.getData();
-    final int[] values = data.getValues();
-
-    int sampleIdx;
+    final SampleCursor cursor = SampleCursor.create( data );
 
     final int dataMask = this.owLineMask;
-    final int sampleCount = values.length;
+    final int sampleCount = cursor.size();
 
     if ( LOG.isLoggable( Level.FINE ) )
     {
@@ -95,35 +94,43 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
     }
 
     // Search the moment on which the 1-wire line is idle (= high)...
-    for ( sampleIdx = 0; sampleIdx < sampleCount; sampleIdx++ )
+    while ( ( cursor.getValue() & dataMask ) != dataMask )
     {
-      final int dataValue = values[sampleIdx];
-
-      if ( ( dataValue & dataMask ) == dataMask )
+      if ( !cursor.hasNext() )
       {
-        // IDLE found here
-        break;
+        // no idle state could be found
+        LOG.log( Level.WARNING, "No IDLE state found in data; aborting analysis..." );
+        throw new IllegalStateException( "No IDLE state found!" );
       }
+      cursor.next();
     }
 
-    if ( sampleIdx == sampleCount )
-    {
-      // no idle state could be found
-      LOG.log( Level.WARNING, "No IDLE state found in data; aborting analysis..." );
-      throw new IllegalStateException( "No IDLE state found!" );
-    }
+    final int sampleIdx = cursor.getIndex();
 
     final OneWireDataSet decodedData = new OneWireDataSet( sampleIdx, sampleCount, data );
+    this.decodedData = decodedData;
 
     // Update the channel label and clear any existing annotations on the
     // channel...
     prepareResult( OW_1_WIRE );
     // Decode the actual data...
-    decodeData( data, decodedData );
+    decodeData( data, cursor, decodedData );
 
     return decodedData;
   }
 
+  /**
+   * Returns the data that is decoded by this task, which is filled while the
+   * task is still running.
+   * 
+   * @return the decoded data, or <code>null</code> if the decoding is not yet
+   *         started.
+   */
+  public OneWireDataSet getDecodedData()
+  {
+    return this.decodedData;
+  }
+
   /**
    * Sets the 1-wire bus mode.
    * 
@@ -151,18 +158,21 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
   /**
    * Does the actual decoding of the 1-wire data.
    * 
+   * @param aData
+   *          the acquisition result to decode;
+   * @param aCursor
+   *          the sample cursor to use, positioned at the start of decoding;
    * @param aDataSet
    *          the decoded data set to add the decoding results to, cannot be
    *          <code>null</code>.
    */
-  private void decodeData( final AcquisitionResult aData, final OneWireDataSet aDataSet )
+  private void decodeData( final AcquisitionResult aData, final SampleCursor aCursor, final OneWireDataSet aDataSet )
   {
-    final long[] timestamps = aData.getTimestamps();
-
     this.progressListener.setProgress( 0 );
 
-    final long startOfDecode = timestamps[aDataSet.getStartOfDecode()];
-    final long endOfDecode = timestamps[aDataSet.getEndOfDecode() - 1];
+    final long startOfDecode = aCursor.getTimestamp();
+    aCursor.seek( Long.MAX_VALUE );
+    final long endOfDecode = aCursor.getTimestamp();
 
     // The timing of the 1-wire bus is done in uS, so determine what scale we've
     // to use in order to obtain those kind of time values...
@@ -176,14 +186,14 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
 
     while ( ( endOfDecode - time ) > 0 )
     {
-      long fallingEdge = findEdge( aData, time, endOfDecode, Edge.FALLING );
+      long fallingEdge = findEdge( aCursor, time, endOfDecode, Edge.FALLING );
       if ( fallingEdge < 0 )
       {
         LOG.log( Level.INFO, "Decoding ended at {0}; no falling edge found...",
             Unit.Time.format( time / ( double )aData.getSampleRate() ) );
         break;
       }
-      long risingEdge = findEdge( aData, fallingEdge, endOfDecode, Edge.RISING );
+      long risingEdge = findEdge( aCursor, fallingEdge, endOfDecode, Edge.RISING );
       if ( risingEdge < 0 )
       {
         risingEdge = endOfDecode;
@@ -196,7 +206,7 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
       {
         // Take the next falling edge, whose difference with the last leading
         // edge should indicate the presence of a slave or not...
-        final long nextFallingEdge = findEdge( aData, risingEdge, endOfDecode, Edge.FALLING );
+        final long nextFallingEdge = findEdge( aCursor, risingEdge, endOfDecode, Edge.FALLING );
 
         boolean slavePresent = false;
         if ( nextFallingEdge > 0 )
@@ -208,9 +218,9 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
 		if(slavePresent) {
 			//slavePresent means there was a falling edge soon enough after the reset rising edge
 			//so now lets look for the rising edge of the slavePresent pulse
-			 long slavePresentRisingEdge = findEdge(aData, nextFallingEdge, endOfDecode, Edge.RISING );
+			 long slavePresentRisingEdge = findEdge(aCursor, nextFallingEdge, endOfDecode, Edge.RISING );
 			 if(slavePresentRisingEdge>0) {
-				long nextSlotFallingEdge = findEdge(aData, slavePresentRisingEdge, endOfDecode, Edge.FALLING );
+				long nextSlotFallingEdge = findEdge(aCursor, slavePresentRisingEdge, endOfDecode, Edge.FALLING );
 				if(nextSlotFallingEdge>0) {
 					//set time one sample before the falling edge of the next slot, like accounting for the recovery time
 					time = nextSlotFallingEdge - 1;
@@ -262,12 +272,12 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
         }		
 		
 		//looking for the rising edge of the low pulse
-		long tRisingEdge = findEdge(aData, fallingEdge, endOfDecode, Edge.RISING );
+		long tRisingEdge = findEdge(aCursor, fallingEdge, endOfDecode, Edge.RISING );
 		long ttime = ( long )( fallingEdge + ( this.owTiming.getBitFrameLength() / timingCorrection ));
 		if(tRisingEdge>0) {
 		  //rising edge of the pulse is within the capture
 		  // now looking for the start of the next slot
-		  long tFallingEdge = findEdge(aData, tRisingEdge, endOfDecode, Edge.FALLING );
+		  long tFallingEdge = findEdge(aCursor, tRisingEdge, endOfDecode, Edge.FALLING );
 		  if(tFallingEdge > 0) {
 			//start of the next slot is within the capture
 			// ending current slot one sample before so that next slot can be identified
@@ -313,58 +323,20 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
    * Find first falling edge this is the start of the start bit. If the signal
    * is inverted, find the first rising edge.
    * 
+   * @param aCursor
+   *          the sample cursor to use for searching;
    * @param aStartOfDecode
-   *          the timestamp to start searching;
+   *          the timestamp to start searching (exclusive);
    * @param aEndOfDecode
-   *          the timestamp to end the search;
-   * @param aMask
-   *          the bit-value mask to apply for finding the start bit.
+   *          the timestamp to end the search (exclusive);
+   * @param aEdge
+   *          the edge to search for.
    * @return the time at which the start bit was found, -1 if it is not found.
    */
-  private long findEdge( final AcquisitionResult aData, final long aStartOfDecode, final long aEndOfDecode,
+  private long findEdge( final SampleCursor aCursor, final long aStartOfDecode, final long aEndOfDecode,
       final Edge aEdge )
   {
-    long result = -1;
-
-    int oldBitValue = getDataValue( aData, aStartOfDecode ) & this.owLineMask;
-    for ( long timeCursor = aStartOfDecode + 1; ( result < 0 ) && ( timeCursor < aEndOfDecode ); timeCursor++ )
-    {
-      final int bitValue = getDataValue( aData, timeCursor ) & this.owLineMask;
-
-      final Edge edge = Edge.toEdge( oldBitValue, bitValue );
-      if ( aEdge == edge )
-      {
-        result = timeCursor;
-      }
-
-      oldBitValue = bitValue;
-    }
-
-    return result;
-  }
-
-  /**
-   * Returns the data value for the given time stamp.
-   * 
-   * @param aTimeValue
-   *          the time stamp to return the data value for.
-   * @return the data value of the sample index right before the given time
-   *         value.
-   */
-  private int getDataValue( final AcquisitionResult aData, final long aTimeValue )
-  {
-    final int[] values = aData.getValues();
-    final long[] timestamps = aData.getTimestamps();
-
-    int i;
-    for ( i = 1; i < timestamps.length; i++ )
-    {
-      if ( aTimeValue < timestamps[i] )
-      {
-        break;
-      }
-    }
-    return values[i - 1];
+    return aCursor.findEdge( this.owLineMask, aEdge, aStartOfDecode + 1, aEndOfDecode );
   }
 
   /**
@@ -409,7 +381,7 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
   {
     final AcquisitionResult data = this.context.getData();
     final int startSampleIdx = Math.max( data.getSampleIndex( aStartTimestamp ), 0 );
-    final int endSampleIdx = Math.min( data.getSampleIndex( aEndTimestamp ) - 1, data.getTimestamps().length - 1 );
+    final int endSampleIdx = Math.min( data.getSampleIndex( aEndTimestamp ) - 1, aDataSet.getEndOfDecode() - 1 );
 
     aDataSet.reportData( this.owLineIndex, startSampleIdx, endSampleIdx, aByteValue );
 
@@ -430,7 +402,7 @@ public class OneWireAnalyserTask implements ToolTask<OneWireDataSet>
   {
     final AcquisitionResult data = this.context.getData();
     final int startSampleIdx = Math.max( data.getSampleIndex( aStartTimestamp ), 0 );
-    final int endSampleIdx = Math.min( data.getSampleIndex( aEndTimestamp ) - 1, data.getTimestamps().length - 1 );
+    final int endSampleIdx = Math.min( data.getSampleIndex( aEndTimestamp ) - 1, aDataSet.getEndOfDecode() - 1 );
 
     aDataSet.reportReset( this.owLineIndex, startSampleIdx, endSampleIdx, aSlaveIsPresent );
 
@@ -0,0 +1,215 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.onewire;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import nl.lxtreme.ols.api.acquisition.*;
+import nl.lxtreme.ols.api.data.*;
+import nl.lxtreme.ols.api.data.annotation.AnnotationListener;
+import nl.lxtreme.ols.api.tools.*;
+import nl.lxtreme.ols.test.data.*;
+
+import org.junit.*;
+import org.mockito.*;
+
+
+/**
+ * Test cases for {@link OneWireAnalyserTask} using synthetic 1-Wire captures,
+ * generated with the (standard) timing of application note 126 "1-Wire
+ * Communication Through Software" of Maxim.
+ */
+public class OneWireSyntheticDataTest
+{
+  // CONSTANTS
+
+  private static final int SAMPLE_RATE = 8000000; // 8 MHz
+  private static final int TICKS_PER_US = SAMPLE_RATE / 1000000;
+
+  // METHODS
+
+  /**
+   * Tests that a long capture (of 10M samples) is decoded correctly, and in
+   * reasonable time, as the decoding time should depend on the number of
+   * transitions, not on the number of samples.
+   */
+  @Test( timeout = 10000L )
+  public void testDecodeLongCapture() throws Exception
+  {
+    final Random rnd = new Random( 1234L );
+
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
+    final List<Integer> expectedBytes = new ArrayList<Integer>();
+
+    long time = 0L;
+    int frames = 0;
+    while ( time < 10000000L )
+    {
+      time = writeFrame( builder, time, rnd, expectedBytes );
+      frames++;
+    }
+
+    final OneWireDataSet dataSet = analyse( builder.build( -1L, SAMPLE_RATE, 8, 0xFF, time ) );
+
+    assertEquals( expectedBytes, getDecodedBytes( dataSet ) );
+    assertEquals( frames, getResetCount( dataSet ) );
+    assertEquals( 0, dataSet.getBusErrorCount() );
+  }
+
+  /**
+   * Tests that the decoding results do not depend on how the samples are
+   * stored.
+   */
+  @Test
+  public void testDecodeYieldsIdenticalResultsForAllSampleStores() throws Exception
+  {
+    final Random rnd = new Random( 2345L );
+
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
+    final List<Integer> expectedBytes = new ArrayList<Integer>();
+
+    long time = 0L;
+    for ( int i = 0; i < 10; i++ )
+    {
+      time = writeFrame( builder, time, rnd, expectedBytes );
+    }
+
+    final CapturedData arrayData = builder.build( -1L, SAMPLE_RATE, 8, 0xFF, time );
+    final CapturedData compactData = DataTestUtils.createCompactCopy( arrayData );
+
+    final OneWireDataSet expected = analyse( arrayData );
+    final OneWireDataSet actual = analyse( compactData );
+
+    assertEquals( expectedBytes, getDecodedBytes( expected ) );
+    assertEquals( expected.getStartOfDecode(), actual.getStartOfDecode() );
+    assertEquals( expected.getEndOfDecode(), actual.getEndOfDecode() );
+    assertEquals( expected.getData(), actual.getData() );
+  }
+
+  /**
+   * Returns all decoded byte values of the given data set.
+   */
+  private static List<Integer> getDecodedBytes( final OneWireDataSet aDataSet )
+  {
+    final List<Integer> result = new ArrayList<Integer>();
+    for ( OneWireData data : aDataSet.getData() )
+    {
+      if ( !data.isEvent() )
+      {
+        result.add( Integer.valueOf( data.getValue() ) );
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of master resets with a present slave of the given data
+   * set.
+   */
+  private static int getResetCount( final OneWireDataSet aDataSet )
+  {
+    int count = 0;
+    for ( OneWireData data : aDataSet.getData() )
+    {
+      if ( data.isEvent() && OneWireDataSet.OW_RESET.equals( data.getEventName() ) && ( data.getValue() == 1 ) )
+      {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Writes a single low pulse followed by a high level, both in microseconds.
+   */
+  private static long writePulse( final CapturedDataBuilder aBuilder, final long aTime, final int aLow,
+      final int aHigh )
+  {
+    long time = aTime;
+    aBuilder.add( 0x00, time );
+    time += aLow * TICKS_PER_US;
+    aBuilder.add( 0x01, time );
+    return time + ( aHigh * TICKS_PER_US );
+  }
+
+  /**
+   * Writes a single frame, consisting of a master reset with slave presence
+   * pulse, followed by a number of random bytes.
+   */
+  private static long writeFrame( final CapturedDataBuilder aBuilder, final long aTime, final Random aRnd,
+      final List<Integer> aBytes )
+  {
+    long time = aTime;
+
+    // Idle bus...
+    aBuilder.add( 0x01, time );
+    time += 100 * TICKS_PER_US;
+
+    // Master reset & slave presence...
+    time = writePulse( aBuilder, time, 480, 30 );
+    time = writePulse( aBuilder, time, 120, 300 );
+
+    final int count = 1 + aRnd.nextInt( 16 );
+    for ( int i = 0; i < count; i++ )
+    {
+      final int value = aRnd.nextInt( 256 );
+      aBytes.add( Integer.valueOf( value ) );
+
+      // LSB first...
+      for ( int bit = 0; bit < 8; bit++ )
+      {
+        if ( ( value & ( 1 << bit ) ) != 0 )
+        {
+          time = writePulse( aBuilder, time, 6, 64 );
+        }
+        else
+        {
+          time = writePulse( aBuilder, time, 60, 10 );
+        }
+      }
+    }
+
+    return time + ( 200 * TICKS_PER_US );
+  }
+
+  /**
+   * Analyses the given acquisition result on the first channel.
+   */
+  private OneWireDataSet analyse( final AcquisitionResult aData ) throws Exception
+  {
+    ToolContext toolContext = DataTestUtils.createToolContext( aData );
+
+    ToolProgressListener toolProgressListener = Mockito.mock( ToolProgressListener.class );
+    AnnotationListener annotationListener = Mockito.mock( AnnotationListener.class );
+
+    OneWireAnalyserTask worker = new OneWireAnalyserTask( toolContext, toolProgressListener, annotationListener );
+    worker.setOneWireLineIndex( 0 );
+    worker.setOneWireBusMode( OneWireBusMode.STANDARD );
+
+    OneWireDataSet result = worker.call();
+    assertNotNull( result );
+
+    return result;
+  }
+}
@@ -225,6 +225,7 @@ public class Asm45AnalyserTask implements ToolTask<Asm45DataSet>
   private boolean reportInst;
   private boolean reportData;
   private boolean reportBusGrants;
+  private volatile Asm45DataSet decodedData;
 
   // CONSTRUCTORS
 
@@ -265,6 +266,7 @@ public class Asm45AnalyserTask implements ToolTask<Asm45DataSet>
     int ida; // 16 IDA bus address/data lines
 
     final Asm45DataSet asm45DataSet = new Asm45DataSet( startOfDecode, endOfDecode, data );
+    this.decodedData = asm45DataSet;
 
     int idx = asm45DataSet.getStartOfDecode();
     int startIdx = 0;
@@ -408,6 +410,18 @@ public class Asm45AnalyserTask implements ToolTask<Asm45DataSet>
     return asm45DataSet;
   }
 
+  /**
+   * Returns the data that is decoded by this task, which is filled while the
+   * task is still running.
+   * 
+   * @return the decoded data, or <code>null</code> if the decoding is not yet
+   *         started.
+   */
+  public Asm45DataSet getDecodedData()
+  {
+    return this.decodedData;
+  }
+
   /**
    * @param aLineBLidx
    */
@@ -58,10 +58,87 @@ import org.osgi.framework.*;
 public final class Asm45ProtocolAnalysisDialog extends BaseToolDialog<Asm45DataSet> implements
 ExportAware<Asm45DataSet>
 {
+  // INNER TYPES
+
+  /**
+   * Provides the table model for showing the decoded Asm45 data.
+   */
+  final class Asm45DataTableModel extends DataSetTableModel<Asm45Data>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new Asm45DataTableModel instance.
+     */
+    public Asm45DataTableModel()
+    {
+      super( "Index", "Clocks", "Block", "Address", "Value", "Bus Grant", "Type", "Event" );
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object getColumnValue( final int aRow, final Asm45Data aData, final int aColumn )
+    {
+      switch ( aColumn )
+      {
+        case 0:
+          // Index is relative to the trigger event...
+          return String.valueOf( aRow - ( ( Asm45DataSet )getDataSet() ).getTriggerEvent() );
+        case 1:
+          return String.valueOf( aData.getClocks() );
+        case 2:
+          return integerToHexString( aData.getBlock(), 2 );
+        case 3:
+          return integerToHexString( aData.getAddress(), 4 );
+        case 4:
+          return integerToHexString( aData.getValue(), 4 );
+        case 5:
+          return aData.getBusGrant() ? "X" : "-";
+        case 6:
+          return aData.getType();
+        default:
+          return aData.getEvent();
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Color getRowBackground( final Asm45Data aData )
+    {
+      final List<Asm45Data> data = getDataSet().getData();
+      final int triggerEvent = ( ( Asm45DataSet )getDataSet() ).getTriggerEvent();
+      if ( ( triggerEvent >= 0 ) && ( triggerEvent < data.size() ) && ( data.get( triggerEvent ) == aData ) )
+      {
+        return TRIGGER_COLOR;
+      }
+      else if ( Asm45Data.TYPE_INSTRUCTION.equals( aData.getType() ) )
+      {
+        // machine instruction
+        return null;
+      }
+      // data transfer (w/ or w/o bus grant)
+      return aData.getBusGrant() ? BUS_GRANT_COLOR : DATA_TRANSFER_COLOR;
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
 
+  private static final Color TRIGGER_COLOR = new Color( 0xffa0ff );
+  private static final Color BUS_GRANT_COLOR = new Color( 0x64ff64 );
+  private static final Color DATA_TRANSFER_COLOR = new Color( 0xe0e0ff );
+
   private static final Logger LOG = Logger.getLogger( Asm45ProtocolAnalysisDialog.class.getName() );
 
   // VARIABLES
@@ -88,6 +165,7 @@ ExportAware<Asm45DataSet>
   private JCheckBox showData;
   private JCheckBox showBusGrants;
   private JEditorPane outText;
+  private Asm45DataTableModel outTableModel;
 
   private RestorableAction runAnalysisAction;
   private Action exportAction;
@@ -159,6 +237,7 @@ ExportAware<Asm45DataSet>
     final String emptyHtmlPage = getEmptyHtmlPage();
     this.outText.setText( emptyHtmlPage );
     this.outText.setEditable( false );
+    this.outTableModel.clear();
 
     this.runAnalysisAction.restore();
 
@@ -205,6 +284,8 @@ ExportAware<Asm45DataSet>
       this.outText.setText( htmlPage );
       this.outText.setEditable( false );
 
+      this.outTableModel.setDataSet( aAnalysisResult );
+
       this.runAnalysisAction.restore();
     }
     catch ( final IOException exception )
@@ -218,13 +299,27 @@ ExportAware<Asm45DataSet>
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onToolProgress( final int aPercentage )
+  {
+    final Asm45AnalyserTask toolTask = ( Asm45AnalyserTask )getToolTask();
+    if ( toolTask != null )
+    {
+      // Show the data that is decoded so far...
+      this.outTableModel.update( toolTask.getDecodedData() );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onToolStarted()
   {
-    // NO-op
+    this.outTableModel.clear();
   }
 
   /**
@@ -290,10 +385,13 @@ ExportAware<Asm45DataSet>
    * Creates the HTML template for exports to HTML.
    *
    * @param aExporter
-   *          the HTML exporter instance to use, cannot be <code>null</code>.
+   *          the HTML exporter instance to use, cannot be <code>null</code>;
+   * @param aIncludeDecodedData
+   *          <code>true</code> to include the decoded data, <code>false</code>
+   *          to only include the statistics.
    * @return a HTML exporter filled with the template, never <code>null</code>.
    */
-  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter )
+  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter, final boolean aIncludeDecodedData )
   {
     aExporter.addCssStyle( "body { font-family: sans-serif; } " );
     aExporter.addCssStyle( "table { border-width: 1px; border-spacing: 0px; border-color: gray;"
@@ -355,6 +453,12 @@ ExportAware<Asm45DataSet>
     tr.addChild( TD ).addAttribute( "class", "w30" ).addContent( "Decoded words" );
     tr.addChild( TD ).addContent( "{decoded-words}" );
 
+    if ( !aIncludeDecodedData )
+    {
+      // The decoded data is shown in a separate table...
+      return aExporter;
+    }
+
     table = body.addChild( TABLE ).addAttribute( "class", "w100" );
     thead = table.addChild( THEAD );
     tr = thead.addChild( TR );
@@ -377,14 +481,17 @@ ExportAware<Asm45DataSet>
    */
   private JPanel createPreviewPane()
   {
-    final JPanel output = new JPanel( new GridLayout( 1, 1, 0, 0 ) );
+    final JPanel panTable = new JPanel( new BorderLayout() );
 
     this.outText = new JEditorPane( "text/html", getEmptyHtmlPage() );
     this.outText.setEditable( false );
 
-    output.add( new JScrollPane( this.outText ) );
+    this.outTableModel = new Asm45DataTableModel();
+
+    panTable.add( this.outText, BorderLayout.NORTH );
+    panTable.add( new JScrollPane( new DataSetTable( this.outTableModel ) ), BorderLayout.CENTER );
 
-    return output;
+    return panTable;
   }
 
   /**
@@ -470,7 +577,7 @@ ExportAware<Asm45DataSet>
    */
   private String getEmptyHtmlPage()
   {
-    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
     return exporter.toString( new MacroResolver()
     {
       @Override
@@ -670,50 +777,54 @@ ExportAware<Asm45DataSet>
         }
         else if ( "decoded-data".equals( aMacro ) )
         {
-          final List<Asm45Data> dataSet = aAnalysisResult.getData();
-          Element tr;
+          final int triggerEvent = aAnalysisResult.getTriggerEvent();
 
-          for ( int i = 0; i < dataSet.size(); i++ )
+          // Create the rows lazily, allowing them to be streamed to file...
+          return new DataSetHtmlRows<Asm45Data>( aAnalysisResult )
           {
-            final Asm45Data data = dataSet.get( i );
-            int index = i - aAnalysisResult.getTriggerEvent();
+            @Override
+            protected Element createRow( final int aIndex, final Asm45Data aData, final Asm45Data aCoalescedData )
+            {
+              int index = aIndex - triggerEvent;
 
-            String bgColor;
+              String bgColor;
 
-            if ( index == 0 )
-            {
-              // trigger event
-              bgColor = "#ffa0ff";
-            }
-            else if ( data.getType().equals( Asm45Data.TYPE_INSTRUCTION ) )
-            {
-              // machine instruction
-              bgColor = "#ffffff";
-            }
-            else
-            {
-              // data transfer (w/ or w/o bus grant)
-              if ( data.getBusGrant() )
+              if ( index == 0 )
+              {
+                // trigger event
+                bgColor = "#ffa0ff";
+              }
+              else if ( aData.getType().equals( Asm45Data.TYPE_INSTRUCTION ) )
               {
-                bgColor = "#64ff64";
+                // machine instruction
+                bgColor = "#ffffff";
               }
               else
               {
-                bgColor = "#e0e0ff";
+                // data transfer (w/ or w/o bus grant)
+                if ( aData.getBusGrant() )
+                {
+                  bgColor = "#64ff64";
+                }
+                else
+                {
+                  bgColor = "#e0e0ff";
+                }
               }
-            }
 
-            tr = aParent.addChild( TR )
-                .addAttribute( "style", "background-color: " + bgColor + "; text-align: center;" );
-            tr.addChild( TD ).addContent( String.valueOf( index ) );
-            tr.addChild( TD ).addContent( String.valueOf( data.getClocks() ) );
-            tr.addChild( TD ).addContent( integerToHexString( data.getBlock(), 2 ) );
-            tr.addChild( TD ).addContent( integerToHexString( data.getAddress(), 4 ) );
-            tr.addChild( TD ).addContent( integerToHexString( data.getValue(), 4 ) );
-            tr.addChild( TD ).addContent( data.getBusGrant() ? "X" : "-" );
-            tr.addChild( TD ).addContent( data.getType() );
-            tr.addChild( TD ).addAttribute( "style", "text-align: left;" ).addContent( data.getEvent() );
-          }
+              final Element tr = TR.clone().addAttribute( "style",
+                  "background-color: " + bgColor + "; text-align: center;" );
+              tr.addChild( TD ).addContent( String.valueOf( index ) );
+              tr.addChild( TD ).addContent( String.valueOf( aData.getClocks() ) );
+              tr.addChild( TD ).addContent( integerToHexString( aData.getBlock(), 2 ) );
+              tr.addChild( TD ).addContent( integerToHexString( aData.getAddress(), 4 ) );
+              tr.addChild( TD ).addContent( integerToHexString( aData.getValue(), 4 ) );
+              tr.addChild( TD ).addContent( aData.getBusGrant() ? "X" : "-" );
+              tr.addChild( TD ).addContent( aData.getType() );
+              tr.addChild( TD ).addAttribute( "style", "text-align: left;" ).addContent( aData.getEvent() );
+              return tr;
+            }
+          };
         }
 
         return null;
@@ -722,12 +833,14 @@ ExportAware<Asm45DataSet>
 
     if ( aFile == null )
     {
-      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+      // Only the statistics; the decoded data is shown in a separate table...
+      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
       return exporter.toString( macroResolver );
     }
     else
     {
-      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ) );
+      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ),
+          true );
       exporter.write( macroResolver );
       exporter.close();
     }
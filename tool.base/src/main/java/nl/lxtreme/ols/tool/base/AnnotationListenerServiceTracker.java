@@ -21,6 +21,8 @@
 package nl.lxtreme.ols.tool.base;
 
 
+import java.util.*;
+
 import nl.lxtreme.ols.api.data.annotation.*;
 import nl.lxtreme.ols.util.osgi.*;
 
@@ -111,6 +113,22 @@ public class AnnotationListenerServiceTracker implements AnnotationListener
     } );
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onAnnotations( final Collection<? extends Annotation<?>> aAnnotations )
+  {
+    this.annotationListenerHelper.accept( new WhiteboardHelper.Visitor<AnnotationListener>()
+    {
+      @Override
+      public void visit( final AnnotationListener aService )
+      {
+        aService.onAnnotations( aAnnotations );
+      }
+    } );
+  }
+
   /**
    * Opens this annotation listener service tracker for business.
    */
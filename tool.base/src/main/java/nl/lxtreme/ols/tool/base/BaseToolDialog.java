@@ -24,6 +24,7 @@ package nl.lxtreme.ols.tool.base;
 import java.awt.*;
 import java.awt.Dialog.ModalExclusionType;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import javax.swing.*;
 
@@ -44,6 +45,50 @@ import org.osgi.framework.*;
 public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
     implements ToolDialog, TaskStatusListener, Configurable, Closeable
 {
+  // INNER TYPES
+
+  /**
+   * Passes the progress of a tool to the registered progress listeners, and
+   * reports it to this dialog on the EDT. Progress updates that arrive while
+   * the EDT did not yet handle a previous one are coalesced into a single
+   * call to {@link BaseToolDialog#onToolProgress(int)}.
+   */
+  final class DialogProgressListener implements ToolProgressListener, Runnable
+  {
+    // VARIABLES
+
+    private final AtomicBoolean updatePending = new AtomicBoolean( false );
+    private volatile int percentage;
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run()
+    {
+      this.updatePending.set( false );
+
+      onToolProgress( this.percentage );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setProgress( final int aPercentage )
+    {
+      BaseToolDialog.this.toolProgressListener.setProgress( aPercentage );
+
+      this.percentage = aPercentage;
+      if ( this.updatePending.compareAndSet( false, true ) )
+      {
+        SwingUtilities.invokeLater( this );
+      }
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
@@ -66,6 +111,7 @@ public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
   private ServiceRegistration<?> serviceReg;
   private volatile Future<RESULT_TYPE> toolFutureTask;
   private volatile ToolTask<RESULT_TYPE> toolTask;
+  private volatile BufferedAnnotationListener toolAnnotationListener;
   private volatile RESULT_TYPE lastResult;
 
   // CONSTRUCTORS
@@ -181,7 +227,10 @@ public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
     boolean settingsValid = validateToolSettings();
     if ( settingsValid )
     {
-      this.toolTask = this.tool.createToolTask( this.context, this.toolProgressListener, this.annotationListener );
+      // Deliver the annotations of the tool in batches to the listeners...
+      this.toolAnnotationListener = new BufferedAnnotationListener( this.annotationListener );
+      this.toolTask = this.tool.createToolTask( this.context, new DialogProgressListener(),
+          this.toolAnnotationListener );
       prepareToolTask( this.toolTask );
 
       this.toolFutureTask = this.taskExecutionService.execute( this.toolTask );
@@ -215,6 +264,8 @@ public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
   {
     if ( this.toolTask == aTask )
     {
+      flushAnnotations();
+
       this.lastResult = ( RESULT_TYPE )aResult;
 
       SwingComponentUtils.invokeOnEDT( new Runnable()
@@ -243,6 +294,8 @@ public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
   {
     if ( this.toolTask == aTask )
     {
+      flushAnnotations();
+
       SwingComponentUtils.invokeOnEDT( new Runnable()
       {
         @Override
@@ -304,6 +357,17 @@ public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
     return this.context.getData();
   }
 
+  /**
+   * Returns the tool task that is currently running.
+   *
+   * @return the running tool task, or <code>null</code> if no tool task is
+   *         running.
+   */
+  protected final ToolTask<RESULT_TYPE> getToolTask()
+  {
+    return this.toolTask;
+  }
+
   /**
    * Called right before this dialog is made invisible.
    */
@@ -348,6 +412,25 @@ public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
     ToolUtils.showErrorMessage( getOwner(), "Tool failed!\nDetails: " + aException.getMessage() );
   }
 
+  /**
+   * Called when the tool reports its progress, allowing intermediary results
+   * to be shown while the tool is still running.
+   * <p>
+   * Progress updates are coalesced, so not every reported percentage is passed
+   * to this method. By default, this method does nothing.
+   * </p>
+   * <p>
+   * <b>THIS METHOD WILL BE INVOKED ON THE EVENT-DISPATCH THREAD (EDT)!</b>
+   * </p>
+   *
+   * @param aPercentage
+   *          the last reported progress, in percent.
+   */
+  protected void onToolProgress( final int aPercentage )
+  {
+    // NO-op
+  }
+
   /**
    * Called when the tool is just started to do its task.
    * <p>
@@ -428,4 +511,18 @@ public abstract class BaseToolDialog<RESULT_TYPE> extends JFrame
   {
     return true;
   }
+
+  /**
+   * Delivers the annotations that are still pending for the current tool
+   * invocation.
+   */
+  private void flushAnnotations()
+  {
+    final BufferedAnnotationListener listener = this.toolAnnotationListener;
+    if ( listener != null )
+    {
+      listener.flush();
+    }
+    this.toolAnnotationListener = null;
+  }
 }
@@ -0,0 +1,233 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.base;
+
+
+import java.util.*;
+import java.util.logging.*;
+
+import nl.lxtreme.ols.api.data.annotation.*;
+
+
+/**
+ * Provides an annotation listener that collects the annotations of a tool and
+ * delivers them in batches to another annotation listener.
+ * <p>
+ * Decoders typically create an annotation for each decoded symbol, which,
+ * when delivered one at a time, causes a lot of locking and repaint requests
+ * in the listening parties. This listener buffers the annotations and flushes
+ * them as a single batch when either a number of annotations is collected, or
+ * when some time has passed since the first pending annotation was received.
+ * The latter is done by a (shared) timer, so annotations are also delivered
+ * when the tool stops reporting new ones for a while. Clearing annotations
+ * always flushes the pending annotations first, retaining the order of events.
+ * </p>
+ * <p>
+ * Callers should call {@link #flush()} when they are done, to deliver any
+ * remaining annotations.
+ * </p>
+ */
+public final class BufferedAnnotationListener implements AnnotationListener
+{
+  // CONSTANTS
+
+  /** The default number of annotations after which a flush occurs. */
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+  /** The default time (in milliseconds) after which a flush occurs. */
+  public static final long DEFAULT_MAX_DELAY = 100L;
+
+  private static final Logger LOG = Logger.getLogger( BufferedAnnotationListener.class.getName() );
+
+  /** Flushes the pending annotations after the maximum delay has passed. */
+  private static final Timer FLUSH_TIMER = new Timer( "Annotation flusher", true /* isDaemon */);
+
+  // VARIABLES
+
+  private final AnnotationListener delegate;
+  private final int batchSize;
+  private final long maxDelay;
+
+  private List<Annotation<?>> pending;
+  private TimerTask flushTask;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new BufferedAnnotationListener instance with default batch size
+   * and delay.
+   * 
+   * @param aDelegate
+   *          the annotation listener to deliver the annotations to, cannot be
+   *          <code>null</code>.
+   */
+  public BufferedAnnotationListener( final AnnotationListener aDelegate )
+  {
+    this( aDelegate, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY );
+  }
+
+  /**
+   * Creates a new BufferedAnnotationListener instance.
+   * 
+   * @param aDelegate
+   *          the annotation listener to deliver the annotations to, cannot be
+   *          <code>null</code>;
+   * @param aBatchSize
+   *          the maximum number of annotations to buffer, > 0;
+   * @param aMaxDelay
+   *          the maximum time, in milliseconds, to buffer annotations, >= 0.
+   */
+  public BufferedAnnotationListener( final AnnotationListener aDelegate, final int aBatchSize, final long aMaxDelay )
+  {
+    if ( aDelegate == null )
+    {
+      throw new IllegalArgumentException( "Delegate cannot be null!" );
+    }
+    if ( aBatchSize < 1 )
+    {
+      throw new IllegalArgumentException( "Batch size should be at least one!" );
+    }
+    if ( aMaxDelay < 0L )
+    {
+      throw new IllegalArgumentException( "Maximum delay cannot be negative!" );
+    }
+
+    this.delegate = aDelegate;
+    this.batchSize = aBatchSize;
+    this.maxDelay = aMaxDelay;
+
+    this.pending = new ArrayList<Annotation<?>>( aBatchSize );
+  }
+
+  // METHODS
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void clearAnnotations()
+  {
+    flush();
+
+    this.delegate.clearAnnotations();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void clearAnnotations( final int aChannelIdx )
+  {
+    flush();
+
+    this.delegate.clearAnnotations( aChannelIdx );
+  }
+
+  /**
+   * Delivers all pending annotations to the delegate listener.
+   */
+  public synchronized void flush()
+  {
+    if ( this.flushTask != null )
+    {
+      this.flushTask.cancel();
+      this.flushTask = null;
+    }
+
+    if ( this.pending.isEmpty() )
+    {
+      return;
+    }
+
+    final List<Annotation<?>> batch = this.pending;
+    this.pending = new ArrayList<Annotation<?>>( this.batchSize );
+
+    this.delegate.onAnnotations( Collections.unmodifiableList( batch ) );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void onAnnotation( final Annotation<?> aAnnotation )
+  {
+    this.pending.add( aAnnotation );
+
+    flushIfNeeded();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void onAnnotations( final Collection<? extends Annotation<?>> aAnnotations )
+  {
+    this.pending.addAll( aAnnotations );
+
+    flushIfNeeded();
+  }
+
+  /**
+   * Flushes the pending annotations if the batch is full, or schedules a flush
+   * after the maximum delay if none is scheduled yet.
+   */
+  private void flushIfNeeded()
+  {
+    if ( ( this.pending.size() >= this.batchSize ) || ( this.maxDelay == 0L ) )
+    {
+      flush();
+    }
+    else if ( ( this.flushTask == null ) && !this.pending.isEmpty() )
+    {
+      this.flushTask = new TimerTask()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            flushScheduled( this );
+          }
+          catch ( RuntimeException exception )
+          {
+            // Do not let the shared timer die on a failing listener...
+            LOG.log( Level.WARNING, "Delivering annotations failed!", exception );
+          }
+        }
+      };
+      FLUSH_TIMER.schedule( this.flushTask, this.maxDelay );
+    }
+  }
+
+  /**
+   * Called by the timer to flush the pending annotations.
+   *
+   * @param aTask
+   *          the task that is run, cannot be <code>null</code>.
+   */
+  private synchronized void flushScheduled( final TimerTask aTask )
+  {
+    // Only flush when the task is not cancelled in the meantime...
+    if ( this.flushTask == aTask )
+    {
+      flush();
+    }
+  }
+}
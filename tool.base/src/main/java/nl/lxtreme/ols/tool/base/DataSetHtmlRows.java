@@ -0,0 +1,149 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.base;
+
+
+import java.util.*;
+
+import nl.lxtreme.ols.api.data.*;
+import nl.lxtreme.ols.util.ExportUtils.HtmlExporter.Element;
+import nl.lxtreme.ols.util.ExportUtils.HtmlExporter.MacroResolver;
+
+
+/**
+ * Provides the HTML table rows for the decoded data of a {@link BaseDataSet}.
+ * <p>
+ * The rows are only created while they are iterated, so when this iterable is
+ * returned by a {@link MacroResolver}, the rows can be streamed to file one by
+ * one instead of being kept in memory all at once.
+ * </p>
+ * 
+ * @param <DATA>
+ *          the type of the decoded data.
+ */
+public abstract class DataSetHtmlRows<DATA extends BaseData<DATA>> implements Iterable<Element>
+{
+  // VARIABLES
+
+  private final List<DATA> data;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new DataSetHtmlRows instance.
+   * 
+   * @param aDataSet
+   *          the data set to create the table rows for, cannot be
+   *          <code>null</code>.
+   */
+  protected DataSetHtmlRows( final BaseDataSet<DATA> aDataSet )
+  {
+    this.data = aDataSet.getData();
+  }
+
+  // METHODS
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public final Iterator<Element> iterator()
+  {
+    return new Iterator<Element>()
+    {
+      private int idx = 0;
+      private Element nextRow = null;
+
+      @Override
+      public boolean hasNext()
+      {
+        final List<DATA> decodedData = DataSetHtmlRows.this.data;
+        while ( ( this.nextRow == null ) && ( this.idx < decodedData.size() ) )
+        {
+          final int i = this.idx++;
+          final DATA current = decodedData.get( i );
+
+          DATA coalesced = null;
+          if ( ( this.idx < decodedData.size() ) && isCoalesced( current, decodedData.get( this.idx ) ) )
+          {
+            // Make sure to skip the coalesced data in the next iteration...
+            coalesced = decodedData.get( this.idx++ );
+          }
+
+          this.nextRow = createRow( i, current, coalesced );
+        }
+        return this.nextRow != null;
+      }
+
+      @Override
+      public Element next()
+      {
+        if ( !hasNext() )
+        {
+          throw new NoSuchElementException();
+        }
+        final Element result = this.nextRow;
+        this.nextRow = null;
+        return result;
+      }
+
+      @Override
+      public void remove()
+      {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Creates the table row for the given decoded data.
+   * 
+   * @param aIndex
+   *          the index of the decoded data;
+   * @param aData
+   *          the decoded data to create a table row for, never
+   *          <code>null</code>;
+   * @param aCoalescedData
+   *          the decoded data following the given data that should be shown in
+   *          the same row, or <code>null</code> if there is no such data.
+   * @return the table row, or <code>null</code> if the given data does not
+   *         result in a table row.
+   * @see #isCoalesced(BaseData, BaseData)
+   */
+  protected abstract Element createRow( int aIndex, DATA aData, DATA aCoalescedData );
+
+  /**
+   * Returns whether the given decoded data and its successor should be shown
+   * in a single table row.
+   * 
+   * @param aData
+   *          the decoded data, never <code>null</code>;
+   * @param aNextData
+   *          the decoded data directly following the given data, never
+   *          <code>null</code>.
+   * @return <code>true</code> if both should be shown in a single table row,
+   *         <code>false</code> (the default) otherwise.
+   */
+  protected boolean isCoalesced( final DATA aData, final DATA aNextData )
+  {
+    return false;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.base;
+
+
+import java.awt.*;
+
+import javax.swing.table.*;
+
+import nl.lxtreme.ols.util.swing.component.*;
+
+
+/**
+ * Provides a table for showing the results of a protocol analysis tool.
+ * <p>
+ * Only the visible rows of this table are rendered, so this table can be used
+ * to show data sets of arbitrary size.
+ * </p>
+ */
+public class DataSetTable extends JLxTable
+{
+  // CONSTANTS
+
+  private static final long serialVersionUID = 1L;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new DataSetTable instance.
+   * 
+   * @param aModel
+   *          the table model to show, cannot be <code>null</code>.
+   */
+  public DataSetTable( final DataSetTableModel<?> aModel )
+  {
+    super( aModel );
+
+    setAutoResizeMode( AUTO_RESIZE_ALL_COLUMNS );
+    setFillsViewportHeight( true );
+    setFont( new Font( Font.MONOSPACED, Font.PLAIN, getFont().getSize() ) );
+    getTableHeader().setReorderingAllowed( false );
+  }
+
+  // METHODS
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Component prepareRenderer( final TableCellRenderer aRenderer, final int aRow, final int aColumn )
+  {
+    final Component comp = super.prepareRenderer( aRenderer, aRow, aColumn );
+
+    final TableModel model = getModel();
+    if ( !isCellSelected( aRow, aColumn ) && ( model instanceof DataSetTableModel<?> ) )
+    {
+      final Color color = ( ( DataSetTableModel<?> )model ).getRowBackground( convertRowIndexToModel( aRow ) );
+      if ( color != null )
+      {
+        comp.setBackground( color );
+      }
+    }
+
+    return comp;
+  }
+}
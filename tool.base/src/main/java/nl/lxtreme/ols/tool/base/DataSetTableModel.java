@@ -0,0 +1,245 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.base;
+
+
+import java.awt.*;
+import java.util.List;
+
+import javax.swing.table.*;
+
+import nl.lxtreme.ols.api.data.*;
+
+
+/**
+ * Provides a table model that is directly backed by the data of a
+ * {@link BaseDataSet}.
+ * <p>
+ * In contrast to rendering all decoded data up front (for example, as HTML),
+ * this model only formats the values of the rows that are actually shown,
+ * making it suitable for data sets with many decoded items. Data that is
+ * appended to the data set can be shown incrementally by calling
+ * {@link #update()} or {@link #update(BaseDataSet)}, for example, from
+ * {@link BaseToolDialog#onToolProgress(int)}.
+ * </p>
+ * 
+ * @param <DATA>
+ *          the type of the decoded data.
+ */
+public abstract class DataSetTableModel<DATA extends BaseData<DATA>> extends AbstractTableModel
+{
+  // CONSTANTS
+
+  private static final long serialVersionUID = 1L;
+
+  // VARIABLES
+
+  private final String[] columnNames;
+
+  private BaseDataSet<DATA> dataSet;
+  private int rowCount;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new DataSetTableModel instance.
+   * 
+   * @param aColumnNames
+   *          the names of the columns of this model, cannot be
+   *          <code>null</code>.
+   */
+  protected DataSetTableModel( final String... aColumnNames )
+  {
+    this.columnNames = aColumnNames.clone();
+  }
+
+  // METHODS
+
+  /**
+   * Clears this model, showing no data at all.
+   */
+  public void clear()
+  {
+    this.dataSet = null;
+    this.rowCount = 0;
+
+    fireTableDataChanged();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getColumnCount()
+  {
+    return this.columnNames.length;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getColumnName( final int aColumn )
+  {
+    return this.columnNames[aColumn];
+  }
+
+  /**
+   * Returns the data set backing this model.
+   * 
+   * @return the data set, can be <code>null</code> if no data set is set.
+   */
+  public BaseDataSet<DATA> getDataSet()
+  {
+    return this.dataSet;
+  }
+
+  /**
+   * Returns the background color to use for the given row.
+   * 
+   * @param aRow
+   *          the (model) index of the row to return the background color for.
+   * @return a background color, or <code>null</code> to use the default
+   *         background color.
+   */
+  public final Color getRowBackground( final int aRow )
+  {
+    if ( ( aRow < 0 ) || ( aRow >= this.rowCount ) )
+    {
+      return null;
+    }
+    return getRowBackground( this.dataSet.getData().get( aRow ) );
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getRowCount()
+  {
+    return this.rowCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public final Object getValueAt( final int aRow, final int aColumn )
+  {
+    final DATA data = this.dataSet.getData().get( aRow );
+    return getColumnValue( aRow, data, aColumn );
+  }
+
+  /**
+   * Sets the data set backing this model.
+   * 
+   * @param aDataSet
+   *          the data set to show, can be <code>null</code> to show no data.
+   */
+  public void setDataSet( final BaseDataSet<DATA> aDataSet )
+  {
+    this.dataSet = aDataSet;
+    this.rowCount = ( aDataSet == null ) ? 0 : aDataSet.getData().size();
+
+    fireTableDataChanged();
+  }
+
+  /**
+   * Shows all data that is appended to the data set since the last call to
+   * this method, or to {@link #setDataSet(BaseDataSet)}.
+   * <p>
+   * This method should be called on the EDT.
+   * </p>
+   */
+  public void update()
+  {
+    if ( this.dataSet == null )
+    {
+      return;
+    }
+
+    final List<DATA> data = this.dataSet.getData();
+
+    final int oldRowCount = this.rowCount;
+    final int newRowCount = data.size();
+    if ( newRowCount > oldRowCount )
+    {
+      this.rowCount = newRowCount;
+
+      fireTableRowsInserted( oldRowCount, newRowCount - 1 );
+    }
+  }
+
+  /**
+   * Shows the given data set, which might still be filled by a running tool.
+   * <p>
+   * If the given data set is the one already shown, only the data that is
+   * appended since the last update is shown, otherwise the given data set
+   * replaces the current one. This method should be called on the EDT.
+   * </p>
+   * 
+   * @param aDataSet
+   *          the data set to show, can be <code>null</code> in which case this
+   *          method does nothing.
+   */
+  public void update( final BaseDataSet<DATA> aDataSet )
+  {
+    if ( aDataSet == null )
+    {
+      return;
+    }
+
+    if ( aDataSet != this.dataSet )
+    {
+      setDataSet( aDataSet );
+    }
+    else
+    {
+      update();
+    }
+  }
+
+  /**
+   * Returns the value of a single cell.
+   * 
+   * @param aRow
+   *          the index of the row;
+   * @param aData
+   *          the decoded data shown in the row, never <code>null</code>;
+   * @param aColumn
+   *          the index of the column.
+   * @return the cell value, can be <code>null</code>.
+   */
+  protected abstract Object getColumnValue( int aRow, DATA aData, int aColumn );
+
+  /**
+   * Returns the background color to use for a row showing the given data.
+   * 
+   * @param aData
+   *          the decoded data shown in the row, never <code>null</code>.
+   * @return a background color, or <code>null</code> (the default) to use the
+   *         default background color.
+   */
+  protected Color getRowBackground( final DATA aData )
+  {
+    return null;
+  }
+}
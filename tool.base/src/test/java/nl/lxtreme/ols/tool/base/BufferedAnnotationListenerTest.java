@@ -0,0 +1,216 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.base;
+
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import nl.lxtreme.ols.api.data.annotation.*;
+import nl.lxtreme.ols.tool.base.annotation.*;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link BufferedAnnotationListener}.
+ */
+public class BufferedAnnotationListenerTest
+{
+  // INNER TYPES
+
+  /**
+   * Provides an annotation listener that records all events it receives.
+   */
+  static final class RecordingListener implements AnnotationListener
+  {
+    // VARIABLES
+
+    final List<String> events = new ArrayList<String>();
+    final List<Annotation<?>> annotations = new ArrayList<Annotation<?>>();
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clearAnnotations()
+    {
+      this.events.add( "clear" );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clearAnnotations( final int aChannelIdx )
+    {
+      this.events.add( "clear " + aChannelIdx );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onAnnotation( final Annotation<?> aAnnotation )
+    {
+      this.events.add( "annotation" );
+      this.annotations.add( aAnnotation );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onAnnotations( final Collection<? extends Annotation<?>> aAnnotations )
+    {
+      this.events.add( "batch " + aAnnotations.size() );
+      this.annotations.addAll( aAnnotations );
+    }
+
+    synchronized List<String> getEvents()
+    {
+      return new ArrayList<String>( this.events );
+    }
+  }
+
+  // CONSTANTS
+
+  /** Long enough to never cause a flush during a test. */
+  private static final long LONG_DELAY = 60000L;
+
+  // VARIABLES
+
+  private RecordingListener delegate;
+
+  // METHODS
+
+  /**
+   * Set up of this test case.
+   */
+  @Before
+  public void setUp()
+  {
+    this.delegate = new RecordingListener();
+  }
+
+  /**
+   * Tests that the annotations are delivered in batches of the given size.
+   */
+  @Test
+  public void testFlushWhenBatchIsFull()
+  {
+    final BufferedAnnotationListener listener = new BufferedAnnotationListener( this.delegate, 3, LONG_DELAY );
+
+    final List<Annotation<?>> annotations = createAnnotations( 7 );
+    for ( Annotation<?> annotation : annotations )
+    {
+      listener.onAnnotation( annotation );
+    }
+
+    assertEquals( Arrays.asList( "batch 3", "batch 3" ), this.delegate.getEvents() );
+    assertEquals( annotations.subList( 0, 6 ), this.delegate.annotations );
+  }
+
+  /**
+   * Tests that clearing annotations first delivers the pending annotations,
+   * retaining the order of events.
+   */
+  @Test
+  public void testFlushBeforeClear()
+  {
+    final BufferedAnnotationListener listener = new BufferedAnnotationListener( this.delegate, 10, LONG_DELAY );
+
+    final List<Annotation<?>> annotations = createAnnotations( 5 );
+
+    listener.onAnnotations( annotations.subList( 0, 2 ) );
+    listener.clearAnnotations( 1 );
+    listener.onAnnotations( annotations.subList( 2, 5 ) );
+    listener.clearAnnotations();
+    listener.clearAnnotations();
+
+    assertEquals( Arrays.asList( "batch 2", "clear 1", "batch 3", "clear", "clear" ), this.delegate.getEvents() );
+    assertEquals( annotations, this.delegate.annotations );
+  }
+
+  /**
+   * Tests that flushing at the end of a task delivers the remaining
+   * annotations, and that nothing is delivered afterwards.
+   */
+  @Test
+  public void testFlushAtEndOfTask() throws Exception
+  {
+    final BufferedAnnotationListener listener = new BufferedAnnotationListener( this.delegate, 10, 50L );
+
+    final List<Annotation<?>> annotations = createAnnotations( 4 );
+    listener.onAnnotations( annotations );
+
+    // The task ends...
+    listener.flush();
+
+    assertEquals( Arrays.asList( "batch 4" ), this.delegate.getEvents() );
+
+    // The scheduled flush should no longer deliver anything...
+    Thread.sleep( 200L );
+
+    assertEquals( Arrays.asList( "batch 4" ), this.delegate.getEvents() );
+    assertEquals( annotations, this.delegate.annotations );
+  }
+
+  /**
+   * Tests that pending annotations are delivered after the maximum delay, even
+   * when no further annotations are received.
+   */
+  @Test( timeout = 10000 )
+  public void testFlushAfterMaximumDelay() throws Exception
+  {
+    final BufferedAnnotationListener listener = new BufferedAnnotationListener( this.delegate, 10, 500L );
+
+    final List<Annotation<?>> annotations = createAnnotations( 2 );
+    listener.onAnnotation( annotations.get( 0 ) );
+    listener.onAnnotation( annotations.get( 1 ) );
+
+    assertTrue( this.delegate.getEvents().isEmpty() );
+
+    while ( this.delegate.getEvents().isEmpty() )
+    {
+      Thread.sleep( 10L );
+    }
+
+    assertEquals( Arrays.asList( "batch 2" ), this.delegate.getEvents() );
+    assertEquals( annotations, this.delegate.annotations );
+  }
+
+  /**
+   * Creates the given number of annotations.
+   */
+  private static List<Annotation<?>> createAnnotations( final int aCount )
+  {
+    final List<Annotation<?>> result = new ArrayList<Annotation<?>>();
+    for ( int i = 0; i < aCount; i++ )
+    {
+      result.add( new SampleDataAnnotation( 0, 10L * i, "ann" + i ) );
+    }
+    return result;
+  }
+}
@@ -55,16 +55,119 @@ import org.osgi.framework.*;
  */
 public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> implements ExportAware<DMX512DataSet>
 {
+  // INNER TYPES
+
+  /**
+   * Provides the table model for showing the decoded DMX512 data.
+   */
+  final class DMX512DataTableModel extends DataSetTableModel<DMX512Data>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new DMX512DataTableModel instance.
+     */
+    public DMX512DataTableModel()
+    {
+      super( "Index", "Time", "Hex", "Bin", "Dec", "ASCII" );
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object getColumnValue( final int aRow, final DMX512Data aData, final int aColumn )
+    {
+      if ( aColumn == 0 )
+      {
+        return String.valueOf( aRow );
+      }
+      else if ( aColumn == 1 )
+      {
+        return Unit.Time.format( getDataSet().getTime( aData.getStartSampleIndex() ) );
+      }
+
+      final String eventName = aData.getEventName();
+      if ( eventName != null )
+      {
+        if ( aColumn != 2 )
+        {
+          return null;
+        }
+        if ( "FRAME".equals( eventName ) )
+        {
+          return "Frame error";
+        }
+        else if ( "PARITY".equals( eventName ) )
+        {
+          return "Parity error";
+        }
+        else if ( "START".equals( eventName ) )
+        {
+          return "Start error";
+        }
+        return eventName;
+      }
+
+      final int value = aData.getData();
+
+      switch ( aColumn )
+      {
+        case 2:
+          return "0x".concat( integerToHexString( value, 2 ) );
+        case 3:
+          return "0b".concat( integerToBinString( value, 8 ) );
+        case 4:
+          return String.valueOf( value );
+        default:
+          return toASCII( value );
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Color getRowBackground( final DMX512Data aData )
+    {
+      final String eventName = aData.getEventName();
+      if ( "FRAME".equals( eventName ) )
+      {
+        return FRAME_ERROR_COLOR;
+      }
+      else if ( "PARITY".equals( eventName ) )
+      {
+        return PARITY_ERROR_COLOR;
+      }
+      else if ( "START".equals( eventName ) )
+      {
+        return START_ERROR_COLOR;
+      }
+      return null;
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
 
+  private static final Color FRAME_ERROR_COLOR = new Color( 0xff6600 );
+  private static final Color PARITY_ERROR_COLOR = new Color( 0xff9900 );
+  private static final Color START_ERROR_COLOR = new Color( 0xffcc00 );
+
   private static final Logger LOG = Logger.getLogger( DMX512AnalyzerDialog.class.getName() );
 
   // VARIABLES
 
   private JComboBox dataLine;
   private JEditorPane outText;
+  private DMX512DataTableModel outTableModel;
 
   private RestorableAction runAnalysisAction;
   private Action closeAction;
@@ -130,6 +233,7 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
   {
     this.outText.setText( getEmptyHtmlPage() );
     this.outText.setEditable( false );
+    this.outTableModel.clear();
 
     this.runAnalysisAction.restore();
 
@@ -168,6 +272,8 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
       this.outText.setText( htmlPage );
       this.outText.setEditable( false );
 
+      this.outTableModel.setDataSet( aAnalysisResult );
+
       this.runAnalysisAction.restore();
     }
     catch ( final IOException exception )
@@ -181,13 +287,27 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onToolProgress( final int aPercentage )
+  {
+    final DMX512AnalyzerTask toolTask = ( DMX512AnalyzerTask )getToolTask();
+    if ( toolTask != null )
+    {
+      // Show the data that is decoded so far...
+      this.outTableModel.update( toolTask.getDecodedData() );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onToolStarted()
   {
-    // NO-op
+    this.outTableModel.clear();
   }
 
   /**
@@ -223,10 +343,13 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
    * Creates the HTML template for exports to HTML.
    *
    * @param aExporter
-   *          the HTML exporter instance to use, cannot be <code>null</code>.
+   *          the HTML exporter instance to use, cannot be <code>null</code>;
+   * @param aIncludeDecodedData
+   *          <code>true</code> to include the decoded data, <code>false</code>
+   *          to only include the statistics.
    * @return a HTML exporter filled with the template, never <code>null</code>.
    */
-  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter )
+  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter, final boolean aIncludeDecodedData )
   {
     aExporter.addCssStyle( "body { font-family: sans-serif; } " );
     aExporter.addCssStyle( "table { border-width: 1px; border-spacing: 0px; border-color: gray;"
@@ -268,6 +391,12 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
     tr.addChild( TD ).addAttribute( "class", "w30" ).addContent( "Number of slots" );
     tr.addChild( TD ).addContent( "{slot-count}" );
 
+    if ( !aIncludeDecodedData )
+    {
+      // The decoded data is shown in a separate table...
+      return aExporter;
+    }
+
     table = body.addChild( TABLE ).addAttribute( "class", "w100" );
     thead = table.addChild( THEAD );
     tr = thead.addChild( TR );
@@ -291,12 +420,15 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
    */
   private JPanel createPreviewPane()
   {
-    final JPanel panTable = new JPanel( new GridLayout( 1, 1, 0, 0 ) );
+    final JPanel panTable = new JPanel( new BorderLayout() );
 
     this.outText = new JEditorPane( "text/html", getEmptyHtmlPage() );
     this.outText.setEditable( false );
 
-    panTable.add( new JScrollPane( this.outText ) );
+    this.outTableModel = new DMX512DataTableModel();
+
+    panTable.add( this.outText, BorderLayout.NORTH );
+    panTable.add( new JScrollPane( new DataSetTable( this.outTableModel ) ), BorderLayout.CENTER );
 
     return panTable;
   }
@@ -330,7 +462,7 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
    */
   private String getEmptyHtmlPage()
   {
-    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
     return exporter.toString( new MacroResolver()
     {
       @Override
@@ -485,55 +617,56 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
         }
         else if ( "decoded-data".equals( aMacro ) )
         {
-          final List<DMX512Data> decodedData = aDataSet.getData();
-          Element tr;
-
-          for ( int i = 0; i < decodedData.size(); i++ )
+          // Create the rows lazily, allowing them to be streamed to file...
+          return new DataSetHtmlRows<DMX512Data>( aDataSet )
           {
-            final DMX512Data ds = decodedData.get( i );
-
-            String eventName = ds.getEventName();
-            String bgColor;
-            if ( "FRAME".equals( eventName ) )
-            {
-              eventName = "Frame error";
-              bgColor = "#ff6600";
-            }
-            else if ( "PARITY".equals( eventName ) )
-            {
-              eventName = "Parity error";
-              bgColor = "#ff9900";
-            }
-            else if ( "START".equals( eventName ) )
-            {
-              eventName = "Start error";
-              bgColor = "#ffcc00";
-            }
-            else
-            {
-              // symbol
-              bgColor = ( i % 2 ) == 0 ? "#ffffff" : "#eeeeee";
-            }
-
-            tr = aParent.addChild( TR ).addAttribute( "style", "background-color: " + bgColor + ";" );
-            tr.addChild( TD ).addContent( String.valueOf( i ) );
-            tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( ds.getStartSampleIndex() ) ) );
-            if ( eventName == null )
-            {
-              // normal symbol...
-              int data = ds.getData();
-
-              tr.addChild( TD ).addContent( "0x", integerToHexString( data, ( bitCount / 4 ) + bitAdder ) );
-              tr.addChild( TD ).addContent( "0b", integerToBinString( data, bitCount ) );
-              tr.addChild( TD ).addContent( String.valueOf( data ) );
-              tr.addChild( TD ).addContent( toASCII( data ) );
-            }
-            else
+            @Override
+            protected Element createRow( final int aIndex, final DMX512Data aData, final DMX512Data aCoalescedData )
             {
-              // error event...
-              tr.addChild( TD ).addAttribute( "colspan", "4" ).addContent( eventName );
+              String eventName = aData.getEventName();
+              String bgColor;
+              if ( "FRAME".equals( eventName ) )
+              {
+                eventName = "Frame error";
+                bgColor = "#ff6600";
+              }
+              else if ( "PARITY".equals( eventName ) )
+              {
+                eventName = "Parity error";
+                bgColor = "#ff9900";
+              }
+              else if ( "START".equals( eventName ) )
+              {
+                eventName = "Start error";
+                bgColor = "#ffcc00";
+              }
+              else
+              {
+                // symbol
+                bgColor = ( aIndex % 2 ) == 0 ? "#ffffff" : "#eeeeee";
+              }
+
+              final Element tr = TR.clone().addAttribute( "style", "background-color: " + bgColor + ";" );
+              tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+              tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( aData.getStartSampleIndex() ) ) );
+              if ( eventName == null )
+              {
+                // normal symbol...
+                int data = aData.getData();
+
+                tr.addChild( TD ).addContent( "0x", integerToHexString( data, ( bitCount / 4 ) + bitAdder ) );
+                tr.addChild( TD ).addContent( "0b", integerToBinString( data, bitCount ) );
+                tr.addChild( TD ).addContent( String.valueOf( data ) );
+                tr.addChild( TD ).addContent( toASCII( data ) );
+              }
+              else
+              {
+                // error event...
+                tr.addChild( TD ).addAttribute( "colspan", "4" ).addContent( eventName );
+              }
+              return tr;
             }
-          }
+          };
         }
         return null;
       }
@@ -541,12 +674,14 @@ public final class DMX512AnalyzerDialog extends BaseToolDialog<DMX512DataSet> im
 
     if ( aFile == null )
     {
-      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+      // Only the statistics; the decoded data is shown in a separate table...
+      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
       return exporter.toString( macroResolver );
     }
     else
     {
-      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ) );
+      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ),
+          true );
       exporter.write( macroResolver );
       exporter.close();
     }
@@ -22,6 +22,7 @@ package nl.lxtreme.ols.tool.dmx512;
 
 
 import nl.lxtreme.ols.api.acquisition.*;
+import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.api.data.annotation.AnnotationListener;
 import nl.lxtreme.ols.api.tools.*;
 import nl.lxtreme.ols.tool.base.annotation.*;
@@ -57,6 +58,7 @@ public class DMX512AnalyzerTask implements ToolTask<DMX512DataSet>
   private final AnnotationListener annotationListener;
 
   private int dataLine;
+  private volatile DMX512DataSet decodedData;
 
   // CONSTRUCTORS
 
@@ -82,22 +84,15 @@ public class DMX512AnalyzerTask implements ToolTask<DMX512DataSet>
   public DMX512DataSet call() throws Exception
   {
     final AcquisitionResult data = this.context.getData();
-    final int[] values = data.getValues();
 
     int startOfDecode = this.context.getStartSampleIndex();
     final int endOfDecode = this.context.getEndSampleIndex();
 
     // find first state change on the selected lines
-    final int mask = ( 1 << this.dataLine );
-
-    final int value = values[startOfDecode] & mask;
-    for ( int i = startOfDecode + 1; i < endOfDecode; i++ )
+    final int firstEdge = ChannelEdgeIndex.getInstance( data ).findEdgeAfter( this.dataLine, startOfDecode );
+    if ( ( firstEdge >= 0 ) && ( firstEdge < endOfDecode ) )
     {
-      if ( value != ( values[i] & mask ) )
-      {
-        startOfDecode = i;
-        break;
-      }
+      startOfDecode = firstEdge;
     }
 
     startOfDecode = Math.max( 0, startOfDecode - 10 );
@@ -109,6 +104,7 @@ public class DMX512AnalyzerTask implements ToolTask<DMX512DataSet>
     }
 
     final DMX512DataSet dataSet = new DMX512DataSet( startOfDecode, endOfDecode, data );
+    this.decodedData = dataSet;
 
     this.annotationListener.clearAnnotations( this.dataLine );
     this.annotationListener.onAnnotation( new ChannelLabelAnnotation( this.dataLine, DMX512_DATA_LABEL ) );
@@ -188,6 +184,18 @@ public class DMX512AnalyzerTask implements ToolTask<DMX512DataSet>
     return dataSet;
   }
 
+  /**
+   * Returns the data that is decoded by this task, which is filled while the
+   * task is still running.
+   * 
+   * @return the decoded data, or <code>null</code> if the decoding is not yet
+   *         started.
+   */
+  public DMX512DataSet getDecodedData()
+  {
+    return this.decodedData;
+  }
+
   /**
    * Returns the channel index of the data line.
    * 
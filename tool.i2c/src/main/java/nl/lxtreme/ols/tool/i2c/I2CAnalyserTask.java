@@ -27,6 +27,7 @@ import java.beans.*;
 import java.util.logging.*;
 
 import nl.lxtreme.ols.api.acquisition.*;
+import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.api.data.annotation.AnnotationListener;
 import nl.lxtreme.ols.api.tools.*;
 import nl.lxtreme.ols.tool.base.annotation.*;
@@ -70,6 +71,7 @@ public class I2CAnalyserTask implements ToolTask<I2CDataSet>
   private int lineBidx;
   private int sdaIdx;
   private int sclIdx;
+  private volatile I2CDataSet decodedData;
 
   // CONSTRUCTORS
 
@@ -148,6 +150,7 @@ public class I2CAnalyserTask implements ToolTask<I2CDataSet>
     final int sclMask = ( 1 << this.sclIdx );
 
     final I2CDataSet i2cDataSet = new I2CDataSet( startOfDecode, endOfDecode, data );
+    this.decodedData = i2cDataSet;
 
     // Prepare everything for the decoding results...
     prepareResults();
@@ -159,11 +162,11 @@ public class I2CAnalyserTask implements ToolTask<I2CDataSet>
      * to scan for SCL rises and for SDA changes during SCL is high. Each byte
      * is followed by a 9th bit (ACK/NACK).
      */
-    int idx = i2cDataSet.getStartOfDecode();
+    final int startIdx = i2cDataSet.getStartOfDecode();
     int prevIdx = -1;
 
-    oldSCL = values[idx] & sclMask;
-    oldSDA = values[idx] & sdaMask;
+    oldSCL = values[startIdx] & sclMask;
+    oldSDA = values[startIdx] & sdaMask;
 
     bitCount = I2C_BITCOUNT;
     byteValue = 0;
@@ -184,7 +187,12 @@ public class I2CAnalyserTask implements ToolTask<I2CDataSet>
       startCondFound = true;
     }
 
-    for ( ; idx < i2cDataSet.getEndOfDecode(); idx++ )
+    // Only the transitions on which the clock or data lines change are of
+    // interest...
+    final int[] transitions = ChannelEdgeIndex.getInstance( data ).getTransitions( sclMask | sdaMask, startIdx + 1,
+        i2cDataSet.getEndOfDecode() );
+
+    for ( final int idx : transitions )
     {
       final int dataValue = values[idx];
 
@@ -347,6 +355,18 @@ public class I2CAnalyserTask implements ToolTask<I2CDataSet>
     return i2cDataSet;
   }
 
+  /**
+   * Returns the data that is decoded by this task, which is filled while the
+   * task is still running.
+   * 
+   * @return the decoded data, or <code>null</code> if the decoding is not yet
+   *         started.
+   */
+  public I2CDataSet getDecodedData()
+  {
+    return this.decodedData;
+  }
+
   /**
    * Removes the given property change listener.
    * 
@@ -61,10 +61,102 @@ import org.osgi.framework.*;
 public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet> implements ExportAware<I2CDataSet>,
     PropertyChangeListener
 {
+  // INNER TYPES
+
+  /**
+   * Provides the table model for showing the decoded I2C data.
+   */
+  final class I2CDataTableModel extends DataSetTableModel<I2CData>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new I2CDataTableModel instance.
+     */
+    public I2CDataTableModel()
+    {
+      super( "Index", "Time", "Hex", "Bin", "Dec", "ASCII" );
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object getColumnValue( final int aRow, final I2CData aData, final int aColumn )
+    {
+      if ( aColumn == 0 )
+      {
+        return String.valueOf( aRow );
+      }
+      else if ( aColumn == 1 )
+      {
+        return Unit.Time.format( getDataSet().getTime( aData.getStartSampleIndex() ) );
+      }
+
+      if ( aData.isEvent() )
+      {
+        return ( aColumn == 2 ) ? aData.getEventName() : null;
+      }
+
+      final int value = aData.getValue();
+
+      switch ( aColumn )
+      {
+        case 2:
+          return "0x".concat( integerToHexString( value, 2 ) );
+        case 3:
+          return "0b".concat( integerToBinString( value, 8 ) );
+        case 4:
+          return String.valueOf( value );
+        default:
+          return toASCII( value );
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Color getRowBackground( final I2CData aData )
+    {
+      if ( !aData.isEvent() )
+      {
+        return null;
+      }
+
+      final String event = aData.getEventName();
+      if ( I2CDataSet.I2C_START.equals( event ) || I2CDataSet.I2C_STOP.equals( event ) )
+      {
+        return CONDITION_COLOR;
+      }
+      else if ( I2CDataSet.I2C_ACK.equals( event ) )
+      {
+        return ACK_COLOR;
+      }
+      else if ( I2CDataSet.I2C_NACK.equals( event ) )
+      {
+        return NACK_COLOR;
+      }
+      // unknown event
+      return EVENT_ERROR_COLOR;
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
 
+  private static final Color CONDITION_COLOR = new Color( 0xe0e0e0 );
+  private static final Color ACK_COLOR = new Color( 0xc0ffc0 );
+  private static final Color NACK_COLOR = new Color( 0xffc0c0 );
+  private static final Color EVENT_ERROR_COLOR = new Color( 0xff8000 );
+
   private static final Logger LOG = Logger.getLogger( I2CProtocolAnalysisDialog.class.getName() );
 
   // VARIABLES
@@ -74,6 +166,7 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
   private JLabel lineBLabel;
   private JComboBox lineB;
   private JEditorPane outText;
+  private I2CDataTableModel outTableModel;
   private JLabel busSetSCL;
   private JLabel busSetSDA;
   private JCheckBox detectSDA_SCL;
@@ -188,6 +281,7 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
     final String emptyHtmlPage = getEmptyHtmlPage();
     this.outText.setText( emptyHtmlPage );
     this.outText.setEditable( false );
+    this.outTableModel.clear();
 
     this.runAnalysisAction.restore();
 
@@ -271,6 +365,8 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
       this.outText.setText( htmlPage );
       this.outText.setEditable( false );
 
+      this.outTableModel.setDataSet( aAnalysisResult );
+
       this.runAnalysisAction.restore();
     }
     catch ( final IOException exception )
@@ -284,13 +380,27 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onToolProgress( final int aPercentage )
+  {
+    final I2CAnalyserTask toolTask = ( I2CAnalyserTask )getToolTask();
+    if ( toolTask != null )
+    {
+      // Show the data that is decoded so far...
+      this.outTableModel.update( toolTask.getDecodedData() );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onToolStarted()
   {
-    // NO-op
+    this.outTableModel.clear();
   }
 
   /**
@@ -319,10 +429,13 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
    * Creates the HTML template for exports to HTML.
    *
    * @param aExporter
-   *          the HTML exporter instance to use, cannot be <code>null</code>.
+   *          the HTML exporter instance to use, cannot be <code>null</code>;
+   * @param aIncludeDecodedData
+   *          <code>true</code> to include the decoded data, <code>false</code>
+   *          to only include the statistics.
    * @return a HTML exporter filled with the template, never <code>null</code>.
    */
-  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter )
+  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter, final boolean aIncludeDecodedData )
   {
     aExporter.addCssStyle( "body { font-family: sans-serif; } " );
     aExporter.addCssStyle( "table { border-width: 1px; border-spacing: 0px; border-color: gray;"
@@ -366,6 +479,12 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
     tr.addChild( TD ).addAttribute( "class", "w30" ).addContent( "Detected bus errors" );
     tr.addChild( TD ).addContent( "{detected-bus-errors}" );
 
+    if ( !aIncludeDecodedData )
+    {
+      // The decoded data is shown in a separate table...
+      return aExporter;
+    }
+
     table = body.addChild( TABLE ).addAttribute( "class", "w100" );
     thead = table.addChild( THEAD );
     tr = thead.addChild( TR );
@@ -386,14 +505,17 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
    */
   private JPanel createPreviewPane()
   {
-    final JPanel output = new JPanel( new GridLayout( 1, 1, 0, 0 ) );
+    final JPanel panTable = new JPanel( new BorderLayout() );
 
     this.outText = new JEditorPane( "text/html", getEmptyHtmlPage() );
     this.outText.setEditable( false );
 
-    output.add( new JScrollPane( this.outText ) );
+    this.outTableModel = new I2CDataTableModel();
+
+    panTable.add( this.outText, BorderLayout.NORTH );
+    panTable.add( new JScrollPane( new DataSetTable( this.outTableModel ) ), BorderLayout.CENTER );
 
-    return output;
+    return panTable;
   }
 
   /**
@@ -475,7 +597,7 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
    */
   private String getEmptyHtmlPage()
   {
-    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
     return exporter.toString( new MacroResolver()
     {
       @Override
@@ -633,58 +755,60 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
         }
         else if ( "decoded-data".equals( aMacro ) )
         {
-          final List<I2CData> dataSet = aAnalysisResult.getData();
-          Element tr;
-
-          for ( int i = 0; i < dataSet.size(); i++ )
+          // Create the rows lazily, allowing them to be streamed to file...
+          return new DataSetHtmlRows<I2CData>( aAnalysisResult )
           {
-            final I2CData data = dataSet.get( i );
-
-            if ( data.isEvent() )
+            @Override
+            protected Element createRow( final int aIndex, final I2CData aData, final I2CData aCoalescedData )
             {
-              // this is an event
-              final String event = data.getEventName();
-
-              String bgColor;
-              if ( I2CDataSet.I2C_START.equals( event ) || I2CDataSet.I2C_STOP.equals( event ) )
-              {
-                bgColor = "#e0e0e0";
-              }
-              else if ( I2CDataSet.I2C_ACK.equals( event ) )
-              {
-                bgColor = "#c0ffc0";
-              }
-              else if ( I2CDataSet.I2C_NACK.equals( event ) )
+              final Element tr;
+              if ( aData.isEvent() )
               {
-                bgColor = "#ffc0c0";
+                // this is an event
+                final String event = aData.getEventName();
+
+                String bgColor;
+                if ( I2CDataSet.I2C_START.equals( event ) || I2CDataSet.I2C_STOP.equals( event ) )
+                {
+                  bgColor = "#e0e0e0";
+                }
+                else if ( I2CDataSet.I2C_ACK.equals( event ) )
+                {
+                  bgColor = "#c0ffc0";
+                }
+                else if ( I2CDataSet.I2C_NACK.equals( event ) )
+                {
+                  bgColor = "#ffc0c0";
+                }
+                else
+                {
+                  // unknown event
+                  bgColor = "#ff8000";
+                }
+
+                tr = TR.clone().addAttribute( "style", "background-color: " + bgColor + ";" );
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( aData.getStartSampleIndex() ) ) );
+                tr.addChild( TD ).addContent( event );
+                tr.addChild( TD );
+                tr.addChild( TD );
+                tr.addChild( TD );
               }
               else
               {
-                // unknown event
-                bgColor = "#ff8000";
+                final int value = aData.getValue();
+
+                tr = TR.clone();
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( aData.getStartSampleIndex() ) ) );
+                tr.addChild( TD ).addContent( "0x" + integerToHexString( value, 2 ) );
+                tr.addChild( TD ).addContent( "0b" + integerToBinString( value, 8 ) );
+                tr.addChild( TD ).addContent( String.valueOf( value ) );
+                tr.addChild( TD ).addContent( toASCII( value ) );
               }
-
-              tr = aParent.addChild( TR ).addAttribute( "style", "background-color: " + bgColor + ";" );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( data.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( event );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD );
-            }
-            else
-            {
-              final int value = data.getValue();
-
-              tr = aParent.addChild( TR );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( data.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( "0x" + integerToHexString( value, 2 ) );
-              tr.addChild( TD ).addContent( "0b" + integerToBinString( value, 8 ) );
-              tr.addChild( TD ).addContent( String.valueOf( value ) );
-              tr.addChild( TD ).addContent( toASCII( value ) );
+              return tr;
             }
-          }
+          };
         }
 
         return null;
@@ -693,12 +817,14 @@ public final class I2CProtocolAnalysisDialog extends BaseToolDialog<I2CDataSet>
 
     if ( aFile == null )
     {
-      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+      // Only the statistics; the decoded data is shown in a separate table...
+      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
       return exporter.toString( macroResolver );
     }
     else
     {
-      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ) );
+      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ),
+          true );
       exporter.write( macroResolver );
       exporter.close();
     }
@@ -43,6 +43,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import nl.lxtreme.ols.api.acquisition.AcquisitionResult;
+import nl.lxtreme.ols.api.data.ChannelEdgeIndex;
 import nl.lxtreme.ols.api.data.annotation.AnnotationListener;
 import nl.lxtreme.ols.api.tools.ToolContext;
 import nl.lxtreme.ols.api.tools.ToolProgressListener;
@@ -79,6 +80,7 @@ public class JTAGAnalyserTask implements ToolTask<JTAGDataSet>
   private JTAGState currentState;
   private JTAGState oldState;
   private int startIdx;
+  private volatile JTAGDataSet decodedData;
 
   // CONSTRUCTORS
 
@@ -122,6 +124,7 @@ public class JTAGAnalyserTask implements ToolTask<JTAGDataSet>
     prepareResults();
 
     final JTAGDataSet decodedData = new JTAGDataSet( startOfDecode, endOfDecode, this.context.getData() );
+    this.decodedData = decodedData;
 
     // Perform the actual decoding of the data line(s)...
     clockDataOnEdge( decodedData, startOfDecode );
@@ -132,6 +135,18 @@ public class JTAGAnalyserTask implements ToolTask<JTAGDataSet>
     return decodedData;
   }
 
+  /**
+   * Returns the data that is decoded by this task, which is filled while the
+   * task is still running.
+   * 
+   * @return the decoded data, or <code>null</code> if the decoding is not yet
+   *         started.
+   */
+  public JTAGDataSet getDecodedData()
+  {
+    return this.decodedData;
+  }
+
   /**
    * Sets the TCK channel index.
    * 
@@ -216,8 +231,13 @@ public class JTAGAnalyserTask implements ToolTask<JTAGDataSet>
 
     LOG.log( Level.INFO, "clockDataOnEdge: " + startOfDecode + " to " + endOfDecode );
 
+    // Only the transitions on which the clock line changes are of interest; all
+    // other lines are sampled on the clock edges...
+    final int[] transitions = ChannelEdgeIndex.getInstance( data ).getTransitions( tckMask, startOfDecode + 1,
+        endOfDecode );
+
     final double length = endOfDecode - startOfDecode;
-    for ( int idx = startOfDecode + 1; idx < endOfDecode; idx++ )
+    for ( final int idx : transitions )
     {
       final int dataSample = values[idx];
       final int tckValue = ( dataSample & tckMask );
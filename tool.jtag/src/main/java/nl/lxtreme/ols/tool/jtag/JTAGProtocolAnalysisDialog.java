@@ -57,10 +57,84 @@ import org.osgi.framework.*;
  */
 public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet> implements ExportAware<JTAGDataSet>
 {
+  // INNER TYPES
+
+  /**
+   * Provides the table model for showing the decoded JTAG data.
+   */
+  final class JTAGDataTableModel extends DataSetTableModel<JTAGData>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new JTAGDataTableModel instance.
+     */
+    public JTAGDataTableModel()
+    {
+      super( "Index", "Time", "State", "TDI Hex", "TDI Bin", "TDO Hex", "TDO Bin" );
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object getColumnValue( final int aRow, final JTAGData aData, final int aColumn )
+    {
+      if ( aColumn == 0 )
+      {
+        return String.valueOf( aRow );
+      }
+      else if ( aColumn == 1 )
+      {
+        return Unit.Time.format( getDataSet().getTime( aData.getStartSampleIndex() ) );
+      }
+      else if ( aColumn == 2 )
+      {
+        return aData.isEvent() ? String.valueOf( aData.getDataValue() ) : aData.getEventName();
+      }
+
+      if ( aData.isEvent() )
+      {
+        return null;
+      }
+
+      // Columns 3..4 are for TDI, 5..6 for TDO...
+      final boolean tdiColumn = ( aColumn < 5 );
+      if ( tdiColumn ? !aData.isTdiData() : !aData.isTdoData() )
+      {
+        return null;
+      }
+
+      final BigInteger value = ( BigInteger )aData.getDataValue();
+      if ( ( ( aColumn - 3 ) % 2 ) == 0 )
+      {
+        return "0x".concat( value.toString( 16 ) );
+      }
+      return "0b".concat( value.toString( 2 ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Color getRowBackground( final JTAGData aData )
+    {
+      return aData.isEvent() ? STATE_COLOR : null;
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
 
+  private static final Color STATE_COLOR = new Color( 0xfefeff );
+
   private static final Logger LOG = Logger.getLogger( JTAGProtocolAnalysisDialog.class.getName() );
 
   // VARIABLES
@@ -70,6 +144,7 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
   private JComboBox tdi;
   private JComboBox tms;
   private JEditorPane outText;
+  private JTAGDataTableModel outTableModel;
 
   private RestorableAction runAnalysisAction;
   private Action exportAction;
@@ -136,6 +211,7 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
   {
     this.outText.setText( getEmptyHtmlPage() );
     this.outText.setEditable( false );
+    this.outTableModel.clear();
 
     this.runAnalysisAction.restore();
 
@@ -178,6 +254,8 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
       this.outText.setText( htmlPage );
       this.outText.setEditable( false );
 
+      this.outTableModel.setDataSet( aAnalysisResult );
+
       this.runAnalysisAction.restore();
     }
     catch ( final IOException exception )
@@ -191,13 +269,27 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onToolProgress( final int aPercentage )
+  {
+    final JTAGAnalyserTask toolTask = ( JTAGAnalyserTask )getToolTask();
+    if ( toolTask != null )
+    {
+      // Show the data that is decoded so far...
+      this.outTableModel.update( toolTask.getDecodedData() );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onToolStarted()
   {
-    // NO-op
+    this.outTableModel.clear();
   }
 
   /**
@@ -236,10 +328,13 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
    * Creates the HTML template for exports to HTML.
    *
    * @param aExporter
-   *          the HTML exporter instance to use, cannot be <code>null</code>.
+   *          the HTML exporter instance to use, cannot be <code>null</code>;
+   * @param aIncludeDecodedData
+   *          <code>true</code> to include the decoded data, <code>false</code>
+   *          to only include the statistics.
    * @return a HTML exporter filled with the template, never <code>null</code>.
    */
-  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter )
+  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter, final boolean aIncludeDecodedData )
   {
     aExporter.addCssStyle( "body { font-family: sans-serif; } " );
     aExporter.addCssStyle( "table { border-width: 1px; border-spacing: 0px; border-color: gray;"
@@ -272,6 +367,12 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
 
     Element table, tr, thead, tbody;
 
+    if ( !aIncludeDecodedData )
+    {
+      // The decoded data is shown in a separate table...
+      return aExporter;
+    }
+
     table = body.addChild( TABLE ).addAttribute( "class", "w100" );
     thead = table.addChild( THEAD );
     tr = thead.addChild( TR );
@@ -297,12 +398,15 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
    */
   private JPanel createPreviewPane()
   {
-    final JPanel panTable = new JPanel( new GridLayout( 1, 1, 0, 0 ) );
+    final JPanel panTable = new JPanel( new BorderLayout() );
 
     this.outText = new JEditorPane( "text/html", getEmptyHtmlPage() );
     this.outText.setEditable( false );
 
-    panTable.add( new JScrollPane( this.outText ) );
+    this.outTableModel = new JTAGDataTableModel();
+
+    panTable.add( this.outText, BorderLayout.NORTH );
+    panTable.add( new JScrollPane( new DataSetTable( this.outTableModel ) ), BorderLayout.CENTER );
 
     return panTable;
   }
@@ -346,7 +450,7 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
    */
   private String getEmptyHtmlPage()
   {
-    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
     return exporter.toString( new MacroResolver()
     {
       @Override
@@ -510,75 +614,79 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
         {
           LOG.log( Level.INFO, "toHtmlPage decoded-data" );
 
-          final List<JTAGData> dataSet = aAnalysisResult.getData();
-          Element tr;
-
-          for ( int i = 0; i < dataSet.size(); i++ )
+          // Create the rows lazily, allowing them to be streamed to file...
+          return new DataSetHtmlRows<JTAGData>( aAnalysisResult )
           {
-            final JTAGData data = dataSet.get( i );
-
-            if ( data.isEvent() )
+            @Override
+            protected Element createRow( final int aIndex, final JTAGData aData, final JTAGData aCoalescedData )
             {
-              tr = aParent.addChild( TR ).addAttribute( "style", "background-color: #fefeff;" );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( data.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( String.valueOf( data.getDataValue() ) );
-              tr.addChild( TD ).addAttribute( "colspan", "4" );
-            }
-            else
-            {
-              tr = aParent.addChild( TR );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( data.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( data.getEventName() );
+              final Element tr;
+              if ( aData.isEvent() )
+              {
+                tr = TR.clone().addAttribute( "style", "background-color: #fefeff;" );
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( aData.getStartSampleIndex() ) ) );
+                tr.addChild( TD ).addContent( String.valueOf( aData.getDataValue() ) );
+                tr.addChild( TD ).addAttribute( "colspan", "4" );
+              }
+              else
+              {
+                tr = TR.clone();
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aAnalysisResult.getTime( aData.getStartSampleIndex() ) ) );
+                tr.addChild( TD ).addContent( aData.getEventName() );
 
-              BigInteger tdiData = null;
-              BigInteger tdoData = null;
+                BigInteger tdiData = null;
+                BigInteger tdoData = null;
 
-              // Try to coalesce equal timestamps...
-              if ( ( i + 1 ) < dataSet.size() )
-              {
-                final JTAGData next = dataSet.get( i + 1 );
-                if ( next.getStartSampleIndex() == data.getStartSampleIndex() )
+                if ( aCoalescedData != null )
                 {
-                  tdiData = ( BigInteger )( next.isTdiData() ? next.getDataValue() : data.getDataValue() );
-                  tdoData = ( BigInteger )( next.isTdoData() ? next.getDataValue() : data.getDataValue() );
-                  // Make sure to skip this entry in the next iteration...
-                  i++;
+                  tdiData = ( BigInteger )( aCoalescedData.isTdiData() ? aCoalescedData.getDataValue() : aData
+                      .getDataValue() );
+                  tdoData = ( BigInteger )( aCoalescedData.isTdoData() ? aCoalescedData.getDataValue() : aData
+                      .getDataValue() );
                 }
-              }
 
-              if ( ( tdiData == null ) && data.isTdiData() )
-              {
-                tdiData = ( BigInteger )data.getDataValue();
-                tdoData = null;
-              }
-              else if ( ( tdoData == null ) && data.isTdoData() )
-              {
-                tdiData = null;
-                tdoData = ( BigInteger )data.getDataValue();
-              }
+                if ( ( tdiData == null ) && aData.isTdiData() )
+                {
+                  tdiData = ( BigInteger )aData.getDataValue();
+                  tdoData = null;
+                }
+                else if ( ( tdoData == null ) && aData.isTdoData() )
+                {
+                  tdiData = null;
+                  tdoData = ( BigInteger )aData.getDataValue();
+                }
 
-              if ( tdiData != null )
-              {
-                tr.addChild( TD ).addContent( "0x", tdiData.toString( 16 ) );
-                tr.addChild( TD ).addContent( "0b", tdiData.toString( 2 ) );
-              }
-              else
-              {
-                tr.addChild( TD ).addAttribute( "colspan", "2" );
-              }
-              if ( tdoData != null )
-              {
-                tr.addChild( TD ).addContent( "0x", tdoData.toString( 16 ) );
-                tr.addChild( TD ).addContent( "0b", tdoData.toString( 2 ) );
-              }
-              else
-              {
-                tr.addChild( TD ).addAttribute( "colspan", "2" );
+                if ( tdiData != null )
+                {
+                  tr.addChild( TD ).addContent( "0x", tdiData.toString( 16 ) );
+                  tr.addChild( TD ).addContent( "0b", tdiData.toString( 2 ) );
+                }
+                else
+                {
+                  tr.addChild( TD ).addAttribute( "colspan", "2" );
+                }
+                if ( tdoData != null )
+                {
+                  tr.addChild( TD ).addContent( "0x", tdoData.toString( 16 ) );
+                  tr.addChild( TD ).addContent( "0b", tdoData.toString( 2 ) );
+                }
+                else
+                {
+                  tr.addChild( TD ).addAttribute( "colspan", "2" );
+                }
               }
+              return tr;
             }
-          }
+
+            @Override
+            protected boolean isCoalesced( final JTAGData aData, final JTAGData aNextData )
+            {
+              // Try to coalesce equal timestamps...
+              return !aData.isEvent() && ( aNextData.getStartSampleIndex() == aData.getStartSampleIndex() );
+            }
+          };
         }
 
         return null;
@@ -587,12 +695,14 @@ public final class JTAGProtocolAnalysisDialog extends BaseToolDialog<JTAGDataSet
 
     if ( aFile == null )
     {
-      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+      // Only the statistics; the decoded data is shown in a separate table...
+      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
       return exporter.toString( macroResolver );
     }
     else
     {
-      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ) );
+      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ),
+          true );
       exporter.write( macroResolver );
       exporter.close();
     }
@@ -37,6 +37,9 @@ import java.awt.event.ItemListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -44,7 +47,6 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
-import java.util.TooManyListenersException;
 
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
@@ -72,8 +74,6 @@ import purejavacomm.CommPortIdentifier;
 import purejavacomm.NoSuchPortException;
 import purejavacomm.PortInUseException;
 import purejavacomm.SerialPort;
-import purejavacomm.SerialPortEvent;
-import purejavacomm.SerialPortEventListener;
 import purejavacomm.UnsupportedCommOperationException;
 
 
@@ -115,10 +115,13 @@ public class SerialConsoleWindow extends JFrame implements Closeable
   private JButton connectButton;
   private JButton disconnectButton;
   private JCheckBox autoNewLineMode;
+  private JCheckBox logToFile;
 
   private volatile SerialPort serialPort;
   private volatile InputStream serialInput;
   private volatile OutputStream serialOutput;
+  private volatile OutputStream serialLog;
+  private volatile SerialReceiver serialReceiver;
 
   // CONSTRUCTORS
 
@@ -167,6 +170,18 @@ public class SerialConsoleWindow extends JFrame implements Closeable
   {
     try
     {
+      if ( this.logToFile.isSelected() )
+      {
+        final File logFile = SwingComponentUtils.showFileSaveDialog( this );
+        if ( logFile == null )
+        {
+          // Aborted by user...
+          return;
+        }
+
+        this.serialLog = new BufferedOutputStream( new FileOutputStream( logFile ) );
+      }
+
       this.serialPort = openSerialPort();
 
       this.serialInput = this.serialPort.getInputStream();
@@ -177,10 +192,16 @@ public class SerialConsoleWindow extends JFrame implements Closeable
       this.terminalFrontend.connect( this.serialOutput );
       this.terminalFrontend.setTerminal( this.terminal );
 
+      this.serialReceiver = new SerialReceiver( this.serialInput, this.terminalFrontend, this.serialLog );
+      this.serialReceiver.start();
+
       disableControls();
     }
     catch ( Exception exception )
     {
+      HostUtils.closeResource( this.serialLog );
+      this.serialLog = null;
+
       JErrorDialog.showDialog( getOwner(), "Connect failed!", exception );
     }
   }
@@ -194,6 +215,13 @@ public class SerialConsoleWindow extends JFrame implements Closeable
     {
       enableControls();
 
+      if ( this.serialReceiver != null )
+      {
+        // Waits until the receiver no longer uses the serial port and log,
+        // so both can be closed safely below...
+        this.serialReceiver.stop();
+      }
+
       this.terminalFrontend.disconnect();
 
       if ( this.serialPort != null )
@@ -203,6 +231,8 @@ public class SerialConsoleWindow extends JFrame implements Closeable
 
         this.serialPort.close();
       }
+
+      HostUtils.closeResource( this.serialLog );
     }
     catch ( IOException exception )
     {
@@ -210,9 +240,11 @@ public class SerialConsoleWindow extends JFrame implements Closeable
     }
     finally
     {
+      this.serialReceiver = null;
       this.serialPort = null;
       this.serialInput = null;
       this.serialOutput = null;
+      this.serialLog = null;
     }
   }
 
@@ -395,6 +427,9 @@ public class SerialConsoleWindow extends JFrame implements Closeable
     panel.add( createRightAlignedLabel( "Auto newline mode?" ) );
     panel.add( this.autoNewLineMode );
 
+    panel.add( createRightAlignedLabel( "Log to file?" ) );
+    panel.add( this.logToFile );
+
     SpringLayoutUtils.addSeparator( panel, " " );
 
     panel.add( createRightAlignedLabel( "" ) );
@@ -426,6 +461,7 @@ public class SerialConsoleWindow extends JFrame implements Closeable
     this.paritySelect.setEnabled( false );
     this.stopBitsSelect.setEnabled( false );
     this.flowControlSelect.setEnabled( false );
+    this.logToFile.setEnabled( false );
   }
 
   /**
@@ -446,6 +482,7 @@ public class SerialConsoleWindow extends JFrame implements Closeable
     this.paritySelect.setEnabled( true );
     this.stopBitsSelect.setEnabled( true );
     this.flowControlSelect.setEnabled( true );
+    this.logToFile.setEnabled( true );
   }
 
   /**
@@ -461,7 +498,7 @@ public class SerialConsoleWindow extends JFrame implements Closeable
    *           supported.
    */
   private SerialPort openSerialPort() throws IOException, NoSuchPortException, PortInUseException,
-      UnsupportedCommOperationException, TooManyListenersException
+      UnsupportedCommOperationException
   {
     String portName = String.valueOf( this.portSelect.getSelectedItem() );
 
@@ -540,36 +577,6 @@ public class SerialConsoleWindow extends JFrame implements Closeable
     result.enableReceiveTimeout( 100 );
     result.enableReceiveThreshold( 0 );
 
-    result.notifyOnDataAvailable( true );
-    result.addEventListener( new SerialPortEventListener()
-    {
-      @Override
-      public void serialEvent( SerialPortEvent event )
-      {
-        if ( ( event.getEventType() & SerialPortEvent.DATA_AVAILABLE ) != 0 )
-        {
-          SerialPort port = ( SerialPort )event.getSource();
-
-          try
-          {
-            InputStream is = port.getInputStream();
-
-            Integer[] buf = new Integer[is.available()];
-            for ( int i = 0; i < buf.length; i++ )
-            {
-              buf[i] = Integer.valueOf( is.read() );
-            }
-
-            terminalFrontend.writeCharacters( buf );
-          }
-          catch ( IOException e )
-          {
-            e.printStackTrace();
-          }
-        }
-      }
-    } );
-
     return result;
   }
 
@@ -651,6 +658,9 @@ public class SerialConsoleWindow extends JFrame implements Closeable
       }
     } );
 
+    this.logToFile = new JCheckBox();
+    this.logToFile.setToolTipText( "Write all received data as-is to a file." );
+
     this.serialInputTextField = new JTextField( 80 );
     this.serialInputTextField.setToolTipText( "Enter raw commands here. Use $xx to enter ASCII characters directly." );
     this.serialInputTextField.addActionListener( new ActionListener()
@@ -0,0 +1,275 @@
+/*
+ * OpenBench LogicSniffer / SUMP project 
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2006-2010 Michael Poppitz, www.sump.org
+ * Copyright (C) 2010-2012 J.W. Janssen, www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.serialdebug;
+
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.Timer;
+
+import nl.lxtreme.jvt220.terminal.ITerminalFrontend;
+
+
+/**
+ * Receives the data of a serial port and passes it on to a terminal.
+ * <p>
+ * A dedicated thread reads the serial port in bulk into a ring buffer, and
+ * optionally copies all raw data to a log. The ring buffer is periodically
+ * drained on the event dispatch thread, so the terminal is updated in batches
+ * instead of once per received byte.
+ * </p>
+ */
+final class SerialReceiver implements Runnable
+{
+  // CONSTANTS
+
+  private static final Logger LOG = Logger.getLogger( SerialReceiver.class.getName() );
+
+  /** The capacity of the ring buffer, in bytes. */
+  static final int BUFFER_SIZE = 64 * 1024;
+  /** The maximum number of bytes to read from the serial port at once. */
+  private static final int READ_SIZE = 4096;
+  /** The interval at which the terminal is updated, in milliseconds. */
+  private static final int FLUSH_INTERVAL = 40;
+  /**
+   * The maximum time to wait for the reader thread to stop, in milliseconds;
+   * should be well above the receive timeout of the serial port.
+   */
+  private static final long STOP_TIMEOUT = 1000L;
+
+  /** The (boxed) values of all bytes, as the terminal wants them. */
+  private static final Integer[] BYTE_VALUES = new Integer[256];
+
+  static
+  {
+    for ( int i = 0; i < BYTE_VALUES.length; i++ )
+    {
+      BYTE_VALUES[i] = Integer.valueOf( i );
+    }
+  }
+
+  // VARIABLES
+
+  private final InputStream input;
+  private final ITerminalFrontend frontend;
+  private final OutputStream log;
+  private final Thread thread;
+  private final Timer flushTimer;
+
+  private final byte[] buffer;
+  private int readPos;
+  private int size;
+
+  private volatile boolean running;
+
+  // CONSTRUCTORS
+
+  /**
+   * Creates a new {@link SerialReceiver} instance.
+   * 
+   * @param aInput
+   *          the input stream of the serial port, cannot be <code>null</code>;
+   * @param aFrontend
+   *          the terminal frontend to write the received data to, cannot be
+   *          <code>null</code>;
+   * @param aLog
+   *          the output stream to write all received (raw) data to, can be
+   *          <code>null</code> if no logging is desired.
+   */
+  public SerialReceiver( final InputStream aInput, final ITerminalFrontend aFrontend, final OutputStream aLog )
+  {
+    this.input = aInput;
+    this.frontend = aFrontend;
+    this.log = aLog;
+
+    this.buffer = new byte[BUFFER_SIZE];
+
+    this.thread = new Thread( this, "Serial console receiver" );
+    this.thread.setDaemon( true );
+
+    this.flushTimer = new Timer( FLUSH_INTERVAL, new ActionListener()
+    {
+      @Override
+      public void actionPerformed( final ActionEvent aEvent )
+      {
+        flush();
+      }
+    } );
+  }
+
+  // METHODS
+
+  /**
+   * Reads the serial port until this receiver is stopped.
+   */
+  @Override
+  public void run()
+  {
+    final byte[] chunk = new byte[READ_SIZE];
+
+    try
+    {
+      while ( this.running )
+      {
+        // Returns zero bytes when the receive timeout expires...
+        final int count = this.input.read( chunk );
+        if ( count < 0 )
+        {
+          break;
+        }
+        if ( count > 0 )
+        {
+          if ( this.log != null )
+          {
+            this.log.write( chunk, 0, count );
+          }
+          put( chunk, count );
+        }
+      }
+    }
+    catch ( IOException exception )
+    {
+      // Closing the port while reading causes an exception, so only report it
+      // in case we're still running...
+      if ( this.running )
+      {
+        LOG.log( Level.WARNING, "Reading serial port failed!", exception );
+      }
+    }
+    catch ( InterruptedException exception )
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Starts receiving data.
+   */
+  public void start()
+  {
+    this.running = true;
+
+    this.thread.start();
+    this.flushTimer.start();
+  }
+
+  /**
+   * Stops receiving data. Should be called from the event dispatch thread.
+   * <p>
+   * Waits (for a bounded time) until the reader thread is finished, so that
+   * the log and serial port can safely be closed after this method returns.
+   * </p>
+   */
+  public void stop()
+  {
+    this.running = false;
+
+    this.thread.interrupt();
+    this.flushTimer.stop();
+
+    try
+    {
+      this.thread.join( STOP_TIMEOUT );
+    }
+    catch ( InterruptedException exception )
+    {
+      Thread.currentThread().interrupt();
+    }
+
+    if ( this.thread.isAlive() )
+    {
+      LOG.warning( "Serial console receiver did not stop in time!" );
+    }
+
+    // Show whatever is left...
+    flush();
+  }
+
+  /**
+   * Writes all data in the ring buffer to the terminal.
+   */
+  final void flush()
+  {
+    final Integer[] chars;
+
+    synchronized ( this.buffer )
+    {
+      if ( this.size == 0 )
+      {
+        return;
+      }
+
+      chars = new Integer[this.size];
+      for ( int i = 0; i < chars.length; i++ )
+      {
+        chars[i] = BYTE_VALUES[this.buffer[this.readPos] & 0xFF];
+        this.readPos = ( this.readPos + 1 ) % BUFFER_SIZE;
+      }
+      this.size = 0;
+
+      // Wake up the reader in case it was waiting for room...
+      this.buffer.notifyAll();
+    }
+
+    try
+    {
+      this.frontend.writeCharacters( chars );
+    }
+    catch ( IOException exception )
+    {
+      LOG.log( Level.WARNING, "Writing to terminal failed!", exception );
+    }
+  }
+
+  /**
+   * Adds the given data to the ring buffer, waiting for room if necessary.
+   */
+  final void put( final byte[] aData, final int aLength ) throws InterruptedException
+  {
+    int offset = 0;
+
+    synchronized ( this.buffer )
+    {
+      while ( offset < aLength )
+      {
+        while ( this.size == BUFFER_SIZE )
+        {
+          this.buffer.wait();
+        }
+
+        final int writePos = ( this.readPos + this.size ) % BUFFER_SIZE;
+        final int length = Math.min( aLength - offset,
+            Math.min( BUFFER_SIZE - this.size, BUFFER_SIZE - writePos ) );
+
+        System.arraycopy( aData, offset, this.buffer, writePos, length );
+
+        this.size += length;
+        offset += length;
+      }
+    }
+  }
+}
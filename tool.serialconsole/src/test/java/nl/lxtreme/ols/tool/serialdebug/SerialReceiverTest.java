@@ -0,0 +1,310 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ * Copyright (C) 2006-2010 Michael Poppitz, www.sump.org
+ * Copyright (C) 2010-2012 J.W. Janssen, www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.serialdebug;
+
+
+import static nl.lxtreme.ols.tool.serialdebug.SerialReceiver.*;
+import static org.junit.Assert.*;
+
+import java.awt.*;
+import java.io.*;
+import java.util.*;
+
+import javax.swing.*;
+
+import nl.lxtreme.jvt220.terminal.*;
+import nl.lxtreme.jvt220.terminal.ITerminal.ITextCell;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link SerialReceiver}.
+ */
+public class SerialReceiverTest
+{
+  // INNER TYPES
+
+  /**
+   * Provides a terminal frontend that only records the characters written to
+   * it.
+   */
+  static final class RecordingFrontend implements ITerminalFrontend
+  {
+    // VARIABLES
+
+    final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    // METHODS
+
+    @Override
+    public void connect( final InputStream aInputStream, final OutputStream aOutputStream ) throws IOException
+    {
+      // Nop
+    }
+
+    @Override
+    public void connect( final OutputStream aOutputStream ) throws IOException
+    {
+      // Nop
+    }
+
+    @Override
+    public void disconnect() throws IOException
+    {
+      // Nop
+    }
+
+    @Override
+    public Dimension getMaximumTerminalSize()
+    {
+      return null;
+    }
+
+    @Override
+    public Dimension getSize()
+    {
+      return null;
+    }
+
+    @Override
+    public Writer getWriter()
+    {
+      return null;
+    }
+
+    @Override
+    public boolean isListening()
+    {
+      return true;
+    }
+
+    @Override
+    public void setReverse( final boolean aReverse )
+    {
+      // Nop
+    }
+
+    @Override
+    public void setSize( final int aWidth, final int aHeight )
+    {
+      // Nop
+    }
+
+    @Override
+    public void setTerminal( final ITerminal aTerminal )
+    {
+      // Nop
+    }
+
+    @Override
+    public void terminalChanged( final ITextCell[] aCells, final BitSet aHeatMap )
+    {
+      // Nop
+    }
+
+    @Override
+    public void terminalSizeChanged( final int aColumns, final int aLines )
+    {
+      // Nop
+    }
+
+    @Override
+    public synchronized void writeCharacters( final CharSequence aChars ) throws IOException
+    {
+      for ( int i = 0; i < aChars.length(); i++ )
+      {
+        this.written.write( aChars.charAt( i ) );
+      }
+    }
+
+    @Override
+    public synchronized void writeCharacters( final Integer... aChars ) throws IOException
+    {
+      for ( Integer c : aChars )
+      {
+        this.written.write( c.intValue() );
+      }
+    }
+
+    synchronized byte[] getWritten()
+    {
+      return this.written.toByteArray();
+    }
+  }
+
+  // VARIABLES
+
+  private RecordingFrontend frontend;
+
+  // METHODS
+
+  /**
+   * Set up of this test case.
+   */
+  @Before
+  public void setUp()
+  {
+    this.frontend = new RecordingFrontend();
+  }
+
+  /**
+   * Tests that data that wraps around the end of the ring buffer is written to
+   * the terminal in the order it was received.
+   */
+  @Test( timeout = 10000 )
+  public void testPutWrapsAroundRingBuffer() throws Exception
+  {
+    final SerialReceiver receiver = new SerialReceiver( new ByteArrayInputStream( new byte[0] ), this.frontend, null );
+
+    final byte[] first = createData( ( 3 * BUFFER_SIZE ) / 4, 0 );
+    final byte[] second = createData( BUFFER_SIZE / 2, 7 );
+
+    receiver.put( first, first.length );
+    receiver.flush();
+    // This one starts near the end of the ring buffer, and continues at its
+    // start...
+    receiver.put( second, second.length );
+    receiver.flush();
+
+    assertArrayEquals( concat( first, second ), this.frontend.getWritten() );
+  }
+
+  /**
+   * Tests that adding data to a full ring buffer blocks until the ring buffer
+   * is flushed.
+   */
+  @Test( timeout = 10000 )
+  public void testPutBlocksWhenRingBufferIsFull() throws Exception
+  {
+    final SerialReceiver receiver = new SerialReceiver( new ByteArrayInputStream( new byte[0] ), this.frontend, null );
+
+    final byte[] first = createData( BUFFER_SIZE, 0 );
+    final byte[] second = createData( 100, 3 );
+
+    receiver.put( first, first.length );
+
+    final Thread writer = new Thread()
+    {
+      @Override
+      public void run()
+      {
+        try
+        {
+          receiver.put( second, second.length );
+        }
+        catch ( InterruptedException exception )
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    writer.start();
+
+    writer.join( 200L );
+    assertTrue( "Put should block on a full ring buffer!", writer.isAlive() );
+
+    receiver.flush();
+
+    writer.join();
+    receiver.flush();
+
+    assertArrayEquals( concat( first, second ), this.frontend.getWritten() );
+  }
+
+  /**
+   * Tests that stopping the receiver waits for the reader thread, so all data
+   * read is both logged and written to the terminal when stop returns.
+   */
+  @Test( timeout = 10000 )
+  public void testStopWaitsForReaderThread() throws Exception
+  {
+    final byte[] data = createData( 10000, 1 );
+    final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    final InputStream input = new ByteArrayInputStream( data )
+    {
+      @Override
+      public synchronized int read( final byte[] aBuffer ) throws IOException
+      {
+        final int count = super.read( aBuffer );
+        if ( count > 0 )
+        {
+          return count;
+        }
+        // Mimic the receive timeout of the serial port...
+        try
+        {
+          Thread.sleep( 10L );
+        }
+        catch ( InterruptedException exception )
+        {
+          throw new InterruptedIOException();
+        }
+        return 0;
+      }
+    };
+
+    final SerialReceiver receiver = new SerialReceiver( input, this.frontend, log );
+    receiver.start();
+
+    while ( log.size() < data.length )
+    {
+      Thread.sleep( 10L );
+    }
+
+    // Stopping should be done on the EDT, like the flushes of the timer...
+    SwingUtilities.invokeAndWait( new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        receiver.stop();
+      }
+    } );
+
+    assertArrayEquals( data, log.toByteArray() );
+    assertArrayEquals( data, this.frontend.getWritten() );
+  }
+
+  /**
+   * Concatenates the given arrays.
+   */
+  private static byte[] concat( final byte[] aFirst, final byte[] aSecond )
+  {
+    final byte[] result = Arrays.copyOf( aFirst, aFirst.length + aSecond.length );
+    System.arraycopy( aSecond, 0, result, aFirst.length, aSecond.length );
+    return result;
+  }
+
+  /**
+   * Creates an array with the given length and a recognizable pattern.
+   */
+  private static byte[] createData( final int aLength, final int aSeed )
+  {
+    final byte[] result = new byte[aLength];
+    for ( int i = 0; i < aLength; i++ )
+    {
+      result[i] = ( byte )( ( i * 31 ) + aSeed );
+    }
+    return result;
+  }
+}
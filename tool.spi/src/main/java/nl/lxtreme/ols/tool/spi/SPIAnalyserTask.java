@@ -30,10 +30,10 @@ import nl.lxtreme.ols.api.acquisition.*;
 import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.api.data.annotation.AnnotationListener;
 import nl.lxtreme.ols.api.tools.*;
+import nl.lxtreme.ols.api.util.*;
 import nl.lxtreme.ols.tool.base.annotation.*;
 import nl.lxtreme.ols.util.*;
 import nl.lxtreme.ols.util.NumberUtils.BitOrder;
-import nl.lxtreme.ols.util.analysis.*;
 
 
 /**
@@ -67,6 +67,7 @@ public class SPIAnalyserTask implements ToolTask<SPIDataSet>
   private int misoIdx;
   private int io2Idx;
   private int io3Idx;
+  private volatile SPIDataSet decodedData;
 
   // CONSTRUCTORS
 
@@ -147,6 +148,7 @@ public class SPIAnalyserTask implements ToolTask<SPIDataSet>
     this.pcs.firePropertyChange( PROPERTY_AUTO_DETECT_MODE, null, this.spiMode );
 
     final SPIDataSet decodedData = new SPIDataSet( startOfDecode, endOfDecode, this.context.getData() );
+    this.decodedData = decodedData;
     if ( slaveSelected >= 0 )
     {
       // now the trigger is in b, add trigger event to table
@@ -159,6 +161,18 @@ public class SPIAnalyserTask implements ToolTask<SPIDataSet>
     return decodedData;
   }
 
+  /**
+   * Returns the data that is decoded by this task, which is filled while the
+   * task is still running.
+   * 
+   * @return the decoded data, or <code>null</code> if the decoding is not yet
+   *         started.
+   */
+  public SPIDataSet getDecodedData()
+  {
+    return this.decodedData;
+  }
+
   /**
    * Removes the given property change listener.
    * 
@@ -357,7 +371,12 @@ public class SPIAnalyserTask implements ToolTask<SPIDataSet>
     int misovalue = 0;
     int mosivalue = 0;
 
-    for ( int idx = startOfDecode + 1; idx < endOfDecode; idx++ )
+    // Only the transitions on which the clock or slave-select lines change are
+    // of interest; the data lines are sampled on the clock edges...
+    final int[] transitions = ChannelEdgeIndex.getInstance( data ).getTransitions( sckMask | csMask,
+        startOfDecode + 1, endOfDecode );
+
+    for ( final int idx : transitions )
     {
       final int dataSample = values[idx];
       /* CLK edge detection */
@@ -524,7 +543,7 @@ public class SPIAnalyserTask implements ToolTask<SPIDataSet>
   private SPIMode detectSPIMode( final int aStartIndex, final int aEndIndex )
   {
     final AcquisitionResult data = this.context.getData();
-    final Frequency<Integer> valueStats = new Frequency<Integer>();
+    final IntFrequency valueStats = new IntFrequency( 2 );
 
     final int[] values = data.getValues();
     final int sckMask = 1 << this.sckIdx;
@@ -534,14 +553,14 @@ public class SPIAnalyserTask implements ToolTask<SPIDataSet>
     for ( int i = aStartIndex; i < aEndIndex; i++ )
     {
       final int newValue = ( values[i] & sckMask ) >> this.sckIdx;
-      valueStats.addValue( Integer.valueOf( newValue ) );
+      valueStats.addValue( newValue );
     }
 
     SPIMode result;
 
     // If the clock line's most occurring value is one, then
     // we're fairly sure that CPOL == 1...
-    if ( valueStats.getHighestRanked().intValue() == 1 )
+    if ( !valueStats.isEmpty() && ( valueStats.getHighestRanked() == 1 ) )
     {
       LOG.log( Level.INFO, "SPI mode is probably mode 2 or 3 (CPOL == 1). Assuming mode 2 ..." );
       result = SPIMode.MODE_2;
@@ -720,7 +739,7 @@ public class SPIAnalyserTask implements ToolTask<SPIDataSet>
      * trigger and no edge is found the analysis fails.
      */
     int oldCsValue = values[aStartIndex] & csMask;
-    for ( int i = aStartIndex + 1; i < aEndIndex; i++ )
+    for ( final int i : ChannelEdgeIndex.getInstance( data ).getTransitions( csMask, aStartIndex + 1, aEndIndex ) )
     {
       final int csValue = values[i] & csMask;
       Edge edge = Edge.toEdge( oldCsValue, csValue );
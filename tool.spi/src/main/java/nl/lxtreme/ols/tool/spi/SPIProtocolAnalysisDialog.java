@@ -181,10 +181,130 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
     }
   }
 
+  /**
+   * Provides the table model for showing the decoded SPI data.
+   */
+  final class SPIDataTableModel extends DataSetTableModel<SPIData>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // VARIABLES
+
+    private int bitCount = 8;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new SPIDataTableModel instance.
+     */
+    public SPIDataTableModel()
+    {
+      super( "Index", "Time", "MOSI Hex", "MOSI Bin", "MOSI Dec", "MOSI ASCII", "MISO Hex", "MISO Bin", "MISO Dec",
+          "MISO ASCII" );
+    }
+
+    // METHODS
+
+    /**
+     * Sets the number of data bits used to format the decoded values.
+     * 
+     * @param aBitCount
+     *          the number of data bits, > 0.
+     */
+    public void setBitCount( final int aBitCount )
+    {
+      this.bitCount = aBitCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object getColumnValue( final int aRow, final SPIData aData, final int aColumn )
+    {
+      if ( aColumn == 0 )
+      {
+        return String.valueOf( aRow );
+      }
+      else if ( aColumn == 1 )
+      {
+        return Unit.Time.format( getDataSet().getTime( aData.getStartSampleIndex() ) );
+      }
+
+      // Columns 2..5 are for MOSI, 6..9 for MISO...
+      final boolean mosiColumn = ( aColumn < 6 );
+      final int column = ( aColumn - 2 ) % 4;
+
+      if ( aData.isEvent() )
+      {
+        if ( column != 0 )
+        {
+          return null;
+        }
+        final String event = aData.getEventName();
+        if ( SPIDataSet.SPI_CS_LOW.equals( event ) || SPIDataSet.SPI_CS_HIGH.equals( event ) )
+        {
+          return event;
+        }
+        return "UNKNOWN";
+      }
+
+      if ( mosiColumn ? !aData.isMosiData() : !aData.isMisoData() )
+      {
+        return null;
+      }
+
+      final int value = aData.getDataValue();
+      final int bitAdder = ( ( this.bitCount % 4 ) != 0 ) ? 1 : 0;
+
+      switch ( column )
+      {
+        case 0:
+          return "0x".concat( integerToHexString( value, ( this.bitCount / 4 ) + bitAdder ) );
+        case 1:
+          return "0b".concat( integerToBinString( value, this.bitCount ) );
+        case 2:
+          return String.valueOf( value );
+        default:
+          return toASCII( value );
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Color getRowBackground( final SPIData aData )
+    {
+      if ( !aData.isEvent() )
+      {
+        return null;
+      }
+
+      final String event = aData.getEventName();
+      if ( SPIDataSet.SPI_CS_LOW.equals( event ) )
+      {
+        return CS_LOW_COLOR;
+      }
+      else if ( SPIDataSet.SPI_CS_HIGH.equals( event ) )
+      {
+        return CS_HIGH_COLOR;
+      }
+      // unknown event
+      return EVENT_ERROR_COLOR;
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
 
+  private static final Color CS_LOW_COLOR = new Color( 0xc0ffc0 );
+  private static final Color CS_HIGH_COLOR = new Color( 0xe0e0e0 );
+  private static final Color EVENT_ERROR_COLOR = new Color( 0xff8000 );
+
   private static final Logger LOG = Logger.getLogger( SPIProtocolAnalysisDialog.class.getName() );
 
   // VARIABLES
@@ -205,6 +325,7 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
   private JComboBox order;
   private JComboBox spifiMode;
   private JEditorPane outText;
+  private SPIDataTableModel outTableModel;
   private JCheckBox reportCS;
   private JCheckBox honourCS;
   private JCheckBox invertCS;
@@ -315,6 +436,7 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
   {
     this.outText.setText( getEmptyHtmlPage() );
     this.outText.setEditable( false );
+    this.outTableModel.clear();
 
     this.runAnalysisAction.restore();
 
@@ -405,6 +527,8 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
       this.outText.setText( htmlPage );
       this.outText.setEditable( false );
 
+      this.outTableModel.setDataSet( aAnalysisResult );
+
       this.runAnalysisAction.restore();
     }
     catch ( final IOException exception )
@@ -418,13 +542,28 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onToolProgress( final int aPercentage )
+  {
+    final SPIAnalyserTask toolTask = ( SPIAnalyserTask )getToolTask();
+    if ( toolTask != null )
+    {
+      // Show the data that is decoded so far...
+      this.outTableModel.update( toolTask.getDecodedData() );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onToolStarted()
   {
-    // No-op
+    this.outTableModel.clear();
+    this.outTableModel.setBitCount( Integer.parseInt( ( String )this.bits.getSelectedItem() ) );
   }
 
   /**
@@ -550,10 +689,13 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
    * Creates the HTML template for exports to HTML.
    *
    * @param aExporter
-   *          the HTML exporter instance to use, cannot be <code>null</code>.
+   *          the HTML exporter instance to use, cannot be <code>null</code>;
+   * @param aIncludeDecodedData
+   *          <code>true</code> to include the decoded data, <code>false</code>
+   *          to only include the statistics.
    * @return a HTML exporter filled with the template, never <code>null</code>.
    */
-  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter )
+  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter, final boolean aIncludeDecodedData )
   {
     aExporter.addCssStyle( "body { font-family: sans-serif; } " );
     aExporter.addCssStyle( "table { border-width: 1px; border-spacing: 0px; border-color: gray;"
@@ -586,6 +728,12 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
     tr.addChild( TD ).addAttribute( "class", "w30" ).addContent( "SPI mode" );
     tr.addChild( TD ).addContent( "{detected-spi-mode}" );
 
+    if ( !aIncludeDecodedData )
+    {
+      // The decoded data is shown in a separate table...
+      return aExporter;
+    }
+
     table = body.addChild( TABLE ).addAttribute( "class", "w100" );
     thead = table.addChild( THEAD );
     tr = thead.addChild( TR );
@@ -614,12 +762,15 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
    */
   private JPanel createPreviewPane()
   {
-    final JPanel panTable = new JPanel( new GridLayout( 1, 1, 0, 0 ) );
+    final JPanel panTable = new JPanel( new BorderLayout() );
 
     this.outText = new JEditorPane( "text/html", getEmptyHtmlPage() );
     this.outText.setEditable( false );
 
-    panTable.add( new JScrollPane( this.outText ) );
+    this.outTableModel = new SPIDataTableModel();
+
+    panTable.add( this.outText, BorderLayout.NORTH );
+    panTable.add( new JScrollPane( new DataSetTable( this.outTableModel ) ), BorderLayout.CENTER );
 
     return panTable;
   }
@@ -738,7 +889,7 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
    */
   private String getEmptyHtmlPage()
   {
-    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
     return exporter.toString( new MacroResolver()
     {
       @Override
@@ -894,79 +1045,81 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
         }
         else if ( "decoded-data".equals( aMacro ) )
         {
-          final List<SPIData> decodedData = aDataSet.getData();
-          Element tr;
-
-          for ( int i = 0; i < decodedData.size(); i++ )
+          // Create the rows lazily, allowing them to be streamed to file...
+          return new DataSetHtmlRows<SPIData>( aDataSet )
           {
-            final SPIData ds = decodedData.get( i );
-
-            if ( ds.isEvent() )
+            @Override
+            protected Element createRow( final int aIndex, final SPIData aData, final SPIData aCoalescedData )
             {
-              String event;
-              String bgColor;
-
-              // this is an event
-              if ( SPIDataSet.SPI_CS_LOW.equals( ds.getEventName() ) )
-              {
-                // start condition
-                event = ds.getEventName();
-                bgColor = "#c0ffc0";
-              }
-              else if ( SPIDataSet.SPI_CS_HIGH.equals( ds.getEventName() ) )
+              Element tr = null;
+              if ( aData.isEvent() )
               {
-                // stop condition
-                event = ds.getEventName();
-                bgColor = "#e0e0e0";
+                String event;
+                String bgColor;
+
+                // this is an event
+                if ( SPIDataSet.SPI_CS_LOW.equals( aData.getEventName() ) )
+                {
+                  // start condition
+                  event = aData.getEventName();
+                  bgColor = "#c0ffc0";
+                }
+                else if ( SPIDataSet.SPI_CS_HIGH.equals( aData.getEventName() ) )
+                {
+                  // stop condition
+                  event = aData.getEventName();
+                  bgColor = "#e0e0e0";
+                }
+                else
+                {
+                  // unknown event
+                  event = "UNKNOWN";
+                  bgColor = "#ff8000";
+                }
+
+                tr = TR.clone().addAttribute( "style", "background-color: " + bgColor + ";" );
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( aData.getStartSampleIndex() ) ) );
+                tr.addChild( TD ).addContent( event );
+                tr.addChild( TD );
+                tr.addChild( TD );
+                tr.addChild( TD );
+                tr.addChild( TD ).addContent( event );
+                tr.addChild( TD );
+                tr.addChild( TD );
+                tr.addChild( TD );
               }
-              else
+              else if ( aData.isData() )
               {
-                // unknown event
-                event = "UNKNOWN";
-                bgColor = "#ff8000";
-              }
+                final int sampleIdx = aData.getStartSampleIndex();
 
-              tr = aParent.addChild( TR ).addAttribute( "style", "background-color: " + bgColor + ";" );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( ds.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( event );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD ).addContent( event );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD );
-            }
-            else if ( ds.isData() )
-            {
-              final int sampleIdx = ds.getStartSampleIndex();
-
-              tr = aParent.addChild( TR );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( sampleIdx ) ) );
+                tr = TR.clone();
+                tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+                tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( sampleIdx ) ) );
 
-              int mosiValue = ds.isMosiData() ? ds.getDataValue() : 0;
-              int misoValue = ds.isMisoData() ? ds.getDataValue() : 0;
+                int mosiValue = aData.isMosiData() ? aData.getDataValue() : 0;
+                int misoValue = aData.isMisoData() ? aData.getDataValue() : 0;
 
-              // Try to coalesce equal timestamps...
-              if ( ( i + 1 ) < decodedData.size() )
-              {
-                final SPIData nextDS = decodedData.get( i + 1 );
-                if ( nextDS.getStartSampleIndex() == sampleIdx )
+                if ( aCoalescedData != null )
                 {
-                  mosiValue = nextDS.isMosiData() ? nextDS.getDataValue() : mosiValue;
-                  misoValue = nextDS.isMisoData() ? nextDS.getDataValue() : misoValue;
-                  // Make sure to skip this DS in the next iteration...
-                  i++;
+                  mosiValue = aCoalescedData.isMosiData() ? aCoalescedData.getDataValue() : mosiValue;
+                  misoValue = aCoalescedData.isMisoData() ? aCoalescedData.getDataValue() : misoValue;
                 }
+
+                // MOSI value first, MISO value next...
+                addDataValues( tr, aIndex, sampleIdx, mosiValue );
+                addDataValues( tr, aIndex, sampleIdx, misoValue );
               }
+              return tr;
+            }
 
-              // MOSI value first, MISO value next...
-              addDataValues( tr, i, sampleIdx, mosiValue );
-              addDataValues( tr, i, sampleIdx, misoValue );
+            @Override
+            protected boolean isCoalesced( final SPIData aData, final SPIData aNextData )
+            {
+              // Try to coalesce equal timestamps...
+              return aData.isData() && ( aNextData.getStartSampleIndex() == aData.getStartSampleIndex() );
             }
-          }
+          };
         }
 
         return null;
@@ -989,12 +1142,14 @@ public final class SPIProtocolAnalysisDialog extends BaseToolDialog<SPIDataSet>
 
     if ( aFile == null )
     {
-      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+      // Only the statistics; the decoded data is shown in a separate table...
+      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
       return exporter.toString( macroResolver );
     }
     else
     {
-      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ) );
+      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ),
+          true );
       exporter.write( macroResolver );
       exporter.close();
     }
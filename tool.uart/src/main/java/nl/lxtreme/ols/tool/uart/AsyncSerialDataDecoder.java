@@ -518,6 +518,7 @@ public class AsyncSerialDataDecoder
 
   private SerialDecoderCallback callback;
   private ToolProgressListener progressListener;
+  private SampleCursor cursor;
 
   // CONSTRUCTORS
 
@@ -712,28 +713,16 @@ public class AsyncSerialDataDecoder
       final long aEndOfDecode )
   {
     final int mask = ( 1 << aChannelIndex );
-    long result = -1;
 
-    int oldBitValue = getDataValue( aStartOfDecode, mask );
-    for ( long timeCursor = aStartOfDecode + 1; ( result < 0 ) && ( timeCursor < aEndOfDecode ); timeCursor++ )
+    // As the data value of a timestamp is that of the sample right *before* it
+    // (see #getDataValue), an edge is seen one time unit after its actual
+    // transition...
+    final long edge = getCursor().findEdge( mask, aSampleEdge, aStartOfDecode, aEndOfDecode - 1 );
+    if ( edge < 0 )
     {
-      final int bitValue = getDataValue( timeCursor, mask );
-
-      Edge edge = Edge.toEdge( oldBitValue, bitValue );
-      if ( aSampleEdge.isNone() && !edge.isNone() )
-      {
-        /* No edge given, so any edge will do */
-        result = timeCursor;
-      }
-      else if ( !aSampleEdge.isNone() && ( aSampleEdge == edge ) )
-      {
-        result = timeCursor;
-      }
-
-      oldBitValue = bitValue;
+      return -1L;
     }
-
-    return result;
+    return edge + 1;
   }
 
   /**
@@ -766,6 +755,21 @@ public class AsyncSerialDataDecoder
     return this.callback;
   }
 
+  /**
+   * Returns the sample cursor used to access the sample data, creating it if
+   * necessary.
+   * 
+   * @return a sample cursor, never <code>null</code>.
+   */
+  private SampleCursor getCursor()
+  {
+    if ( this.cursor == null )
+    {
+      this.cursor = SampleCursor.create( this.dataSet );
+    }
+    return this.cursor;
+  }
+
   /**
    * Returns the data value for the given time stamp.
    * 
@@ -776,13 +780,7 @@ public class AsyncSerialDataDecoder
    */
   protected final int getDataValue( final long aTimeValue, final int aMask )
   {
-    final int[] values = this.dataSet.getValues();
-    final long[] timestamps = this.dataSet.getTimestamps();
-    int k = findSampleIndex( timestamps, aTimeValue );
-
-    int value = ( ( k == 0 ) ? values[0] : values[k - 1] );
-
-    return value & aMask;
+    return getCursor().getValueAt( aTimeValue - 1 ) & aMask;
   }
 
   /**
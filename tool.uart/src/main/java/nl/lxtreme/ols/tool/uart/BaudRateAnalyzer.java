@@ -21,7 +21,8 @@
 package nl.lxtreme.ols.tool.uart;
 
 
-import nl.lxtreme.ols.util.analysis.*;
+import nl.lxtreme.ols.api.data.*;
+import nl.lxtreme.ols.api.util.*;
 
 
 /**
@@ -34,7 +35,7 @@ public final class BaudRateAnalyzer
   // VARIABLES
 
   private final double sampleRate;
-  private final Frequency<Integer> statData;
+  private final IntFrequency statData;
 
   // CONSTRUCTORS
 
@@ -49,12 +50,28 @@ public final class BaudRateAnalyzer
   public BaudRateAnalyzer( final int aSampleRate, final int aFixedBaudRate )
   {
     this.sampleRate = aSampleRate;
-    this.statData = new Frequency<Integer>();
+    this.statData = new IntFrequency();
 
     // We already know our baudrate, so lets put a single value for the
     // corresponding bitlength in our frequency mapping to let it be used...
     final int bitLength = ( int )Math.round( aSampleRate / ( double )aFixedBaudRate );
-    this.statData.addValue( Integer.valueOf( bitLength ) );
+    this.statData.addValue( bitLength );
+  }
+
+  /**
+   * Creates a new {@link BaudRateAnalyzer} instance.
+   * 
+   * @param aSampleRate
+   *          the sample rate at which the incoming data was sampled;
+   * @param aPulseWidths
+   *          the distribution of the pulse widths of the data, as gathered by
+   *          {@link ChannelStatistics#getPulseWidths(int)}, cannot be
+   *          <code>null</code>.
+   */
+  public BaudRateAnalyzer( final int aSampleRate, final IntFrequency aPulseWidths )
+  {
+    this.sampleRate = aSampleRate;
+    this.statData = aPulseWidths;
   }
 
   /**
@@ -72,7 +89,7 @@ public final class BaudRateAnalyzer
   public BaudRateAnalyzer( final int aSampleRate, final int[] aValues, final long[] aTimestamps, final int aMask )
   {
     this.sampleRate = aSampleRate;
-    this.statData = new Frequency<Integer>();
+    this.statData = new IntFrequency();
 
     long lastTransition = 0;
     int lastBitValue = aValues[0] & aMask;
@@ -84,7 +101,7 @@ public final class BaudRateAnalyzer
       if ( lastBitValue != bitValue )
       {
         final int bitLength = ( int )( aTimestamps[i] - lastTransition );
-        this.statData.addValue( Integer.valueOf( bitLength ) );
+        this.statData.addValue( bitLength );
 
         lastTransition = aTimestamps[i];
       }
@@ -151,27 +168,29 @@ public final class BaudRateAnalyzer
   public double getBestBitLength()
   {
     // Assume that the one-bit transitions are the most frequent.
-    final Integer highestRanked = this.statData.getHighestRanked();
+    if ( this.statData.isEmpty() )
+    {
+      return -1;
+    }
+
+    final int highestRanked = this.statData.getHighestRanked();
     long sum = 0, count = 0;
 
-    if ( highestRanked != null )
-    {
-      double min = highestRanked.doubleValue() * 0.75;
-      double max = highestRanked.doubleValue() * 1.25;
+    double min = highestRanked * 0.75;
+    double max = highestRanked * 1.25;
 
-      for ( final Integer length : this.statData.values() )
+    for ( final int length : this.statData.values() )
+    {
+      double bitlength = length;
+      if ( min < bitlength && bitlength < max )
       {
-        double bitlength = length.doubleValue();
-        if ( min < bitlength && bitlength < max )
-        {
-          final long rank = this.statData.getCount( length );
-          sum += bitlength * rank;
-          count += rank;
-        }
+        final long rank = this.statData.getCount( length );
+        sum += bitlength * rank;
+        count += rank;
       }
     }
 
     // Return the average of all bit lengths near the most frequent one
-    return ( highestRanked == null ) ? -1 : ( ( ( double )sum ) / count );
+    return ( ( double )sum ) / count;
   }
 }
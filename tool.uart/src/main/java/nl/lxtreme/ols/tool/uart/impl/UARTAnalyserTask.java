@@ -23,12 +23,15 @@ package nl.lxtreme.ols.tool.uart.impl;
 
 import static nl.lxtreme.ols.util.NumberUtils.*;
 
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.logging.*;
 
 import nl.lxtreme.ols.api.acquisition.*;
 import nl.lxtreme.ols.api.data.*;
 import nl.lxtreme.ols.api.data.annotation.AnnotationListener;
 import nl.lxtreme.ols.api.tools.*;
+import nl.lxtreme.ols.api.util.*;
 import nl.lxtreme.ols.tool.base.annotation.*;
 import nl.lxtreme.ols.tool.uart.*;
 import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.ErrorType;
@@ -46,6 +49,113 @@ import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.StopBits;
  */
 public class UARTAnalyserTask implements ToolTask<UARTDataSet>
 {
+  // INNER TYPES
+
+  /**
+   * Decodes a single channel into a data set shared by all channel decoders,
+   * allowing multiple channels to be decoded concurrently.
+   */
+  final class ChannelDecoder implements Callable<Void>, ToolProgressListener
+  {
+    // VARIABLES
+
+    private final int channelIndex;
+    private final int eventType;
+    private final String label;
+    private final UARTDataSet dataSet;
+
+    private volatile int progress;
+    private int baudRate;
+    private Double sampledBitLength;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new ChannelDecoder instance.
+     * 
+     * @param aChannelIndex
+     *          the channel index of the channel to decode;
+     * @param aEventType
+     *          the event type to use for the decoded data, or
+     *          {@link UARTAnalyserTask#CONTROL_LINE} to decode a control line;
+     * @param aLabel
+     *          the default label to use for the decoded channel;
+     * @param aDataSet
+     *          the (shared) data set to report the decoded data to.
+     */
+    ChannelDecoder( final int aChannelIndex, final int aEventType, final String aLabel, final UARTDataSet aDataSet )
+    {
+      this.channelIndex = aChannelIndex;
+      this.eventType = aEventType;
+      this.label = aLabel;
+      this.dataSet = aDataSet;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void call() throws Exception
+    {
+      prepareResult( this.channelIndex, this.label );
+
+      if ( this.eventType == CONTROL_LINE )
+      {
+        decodeControl( this.dataSet, this.channelIndex, this.label, this );
+      }
+      else
+      {
+        this.sampledBitLength = decodeData( this.dataSet, this.channelIndex, this.eventType, this );
+      }
+
+      return null;
+    }
+
+    /**
+     * Applies the baud rate and bit length found by this decoder to the shared
+     * data set.
+     */
+    public void applyBaudRate()
+    {
+      if ( this.eventType != CONTROL_LINE )
+      {
+        this.dataSet.setBaudRate( this.baudRate );
+      }
+      if ( this.sampledBitLength != null )
+      {
+        // Set the actual bit length used, so UARTDataSet can calculate
+        // the actual baud rate used.
+        this.dataSet.setSampledBitLength( this.sampledBitLength.doubleValue() );
+      }
+    }
+
+    /**
+     * Sets the nominal baud rate used to decode this channel.
+     * 
+     * @param aBaudRate
+     *          the baud rate to set.
+     */
+    void setBaudRate( final int aBaudRate )
+    {
+      this.baudRate = aBaudRate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setProgress( final int aPercentage )
+    {
+      if ( this.progress != aPercentage )
+      {
+        this.progress = aPercentage;
+        reportProgress();
+      }
+    }
+  }
+
   // CONSTANTS
 
   private static final Logger LOG = Logger.getLogger( UARTAnalyserTask.class.getName() );
@@ -56,6 +166,12 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
    */
   public static final int AUTO_DETECT_BAUDRATE = -1;
 
+  /** The "event type" used to denote a control line. */
+  static final int CONTROL_LINE = -1;
+
+  /** The maximum number of channels to decode concurrently. */
+  private static final int MAX_THREADS = Math.max( 1, Runtime.getRuntime().availableProcessors() );
+
   // VARIABLES
 
   private final ToolContext context;
@@ -78,6 +194,10 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
   private int bitCount;
   private int baudRate;
 
+  private volatile List<ChannelDecoder> channelDecoders;
+  private int lastProgress;
+  private volatile UARTDataSet decodedData;
+
   // CONSTRUCTORS
 
   /**
@@ -114,10 +234,9 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
 
     /*
      * Start decode from trigger or if no trigger is available from the first
-     * falling edge. The decoder works with two independant decoder runs. First
-     * for RxD and then for TxD, after this CTS, RTS, etc. is detected if
-     * enabled. After decoding all the decoded data are unsortet before the data
-     * is displayed it must be sortet by time.
+     * falling edge. The decoder works with independent decoder runs for RxD,
+     * TxD, CTS, RTS, etc., which run concurrently if enabled and all report
+     * to the same data set. After decoding, the data is sorted by time.
      */
 
     final int[] values = data.getValues();
@@ -149,40 +268,56 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
 
     final UARTDataSet decodedData = new UARTDataSet( startOfDecode, endOfDecode, data );
 
+    final List<ChannelDecoder> decoders = new ArrayList<ChannelDecoder>();
+
     // decode RxD/TxD data lines...
     if ( this.rxdIndex >= 0 )
     {
-      prepareAndDecodeData( decodedData, this.rxdIndex, UARTData.UART_TYPE_RXDATA, UARTDataSet.UART_RXD );
+      decoders.add( new ChannelDecoder( this.rxdIndex, UARTData.UART_TYPE_RXDATA, UARTDataSet.UART_RXD, decodedData ) );
     }
     if ( this.txdIndex >= 0 )
     {
-      prepareAndDecodeData( decodedData, this.txdIndex, UARTData.UART_TYPE_TXDATA, UARTDataSet.UART_TXD );
+      decoders.add( new ChannelDecoder( this.txdIndex, UARTData.UART_TYPE_TXDATA, UARTDataSet.UART_TXD, decodedData ) );
     }
 
     // decode control lines...
     if ( this.ctsIndex >= 0 )
     {
-      prepareAndDecodeControl( decodedData, this.ctsIndex, UARTDataSet.UART_CTS );
+      decoders.add( new ChannelDecoder( this.ctsIndex, CONTROL_LINE, UARTDataSet.UART_CTS, decodedData ) );
     }
     if ( this.rtsIndex >= 0 )
     {
-      prepareAndDecodeControl( decodedData, this.rtsIndex, UARTDataSet.UART_RTS );
+      decoders.add( new ChannelDecoder( this.rtsIndex, CONTROL_LINE, UARTDataSet.UART_RTS, decodedData ) );
     }
     if ( this.dcdIndex >= 0 )
     {
-      prepareAndDecodeControl( decodedData, this.dcdIndex, UARTDataSet.UART_DCD );
+      decoders.add( new ChannelDecoder( this.dcdIndex, CONTROL_LINE, UARTDataSet.UART_DCD, decodedData ) );
     }
     if ( this.riIndex >= 0 )
     {
-      prepareAndDecodeControl( decodedData, this.riIndex, UARTDataSet.UART_RI );
+      decoders.add( new ChannelDecoder( this.riIndex, CONTROL_LINE, UARTDataSet.UART_RI, decodedData ) );
     }
     if ( this.dsrIndex >= 0 )
     {
-      prepareAndDecodeControl( decodedData, this.dsrIndex, UARTDataSet.UART_DSR );
+      decoders.add( new ChannelDecoder( this.dsrIndex, CONTROL_LINE, UARTDataSet.UART_DSR, decodedData ) );
     }
     if ( this.dtrIndex >= 0 )
     {
-      prepareAndDecodeControl( decodedData, this.dtrIndex, UARTDataSet.UART_DTR );
+      decoders.add( new ChannelDecoder( this.dtrIndex, CONTROL_LINE, UARTDataSet.UART_DTR, decodedData ) );
+    }
+
+    // Allow the data decoded so far to be shown...
+    this.decodedData = decodedData;
+
+    // The channels are independent of each other, so decode them
+    // concurrently...
+    decodeChannels( decoders );
+
+    // Apply the baud rates in a fixed order, so the results do not depend on
+    // which channel finished first...
+    for ( ChannelDecoder decoder : decoders )
+    {
+      decoder.applyBaudRate();
     }
 
     // sort the results by time
@@ -191,6 +326,21 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
     return decodedData;
   }
 
+  /**
+   * Returns the data that is decoded by this task.
+   * <p>
+   * While the channels are being decoded, the returned data set contains the
+   * data decoded so far, in the order in which it was reported by the
+   * channels. It is sorted by time once all channels are decoded.
+   * </p>
+   * 
+   * @return the decoded data, or <code>null</code> if not (yet) available.
+   */
+  public UARTDataSet getDecodedData()
+  {
+    return this.decodedData;
+  }
+
   /**
    * Sets baudRate to the given value.
    * 
@@ -341,6 +491,55 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
         String.format( "0x%1$X (%1$c)", Integer.valueOf( aSymbol ) ) ) );
   }
 
+  /**
+   * Runs the given channel decoders, concurrently if more than one channel is
+   * to be decoded.
+   * 
+   * @param aDecoders
+   *          the channel decoders to run, cannot be <code>null</code>.
+   * @throws Exception
+   *           in case one of the decoders failed.
+   */
+  private void decodeChannels( final List<ChannelDecoder> aDecoders ) throws Exception
+  {
+    this.channelDecoders = aDecoders;
+    this.lastProgress = -1;
+
+    if ( aDecoders.size() < 2 )
+    {
+      for ( ChannelDecoder decoder : aDecoders )
+      {
+        decoder.call();
+      }
+      return;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool( Math.min( aDecoders.size(), MAX_THREADS ) );
+    try
+    {
+      for ( Future<Void> future : executor.invokeAll( aDecoders ) )
+      {
+        try
+        {
+          future.get();
+        }
+        catch ( ExecutionException exception )
+        {
+          final Throwable cause = exception.getCause();
+          if ( cause instanceof Exception )
+          {
+            throw ( Exception )cause;
+          }
+          throw exception;
+        }
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
   /**
    * Decodes a control line.
    * 
@@ -349,9 +548,12 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
    * @param aChannelIndex
    *          the channel index of the control-line to decode;
    * @param aName
-   *          the name of the control line to decode.
+   *          the name of the control line to decode;
+   * @param aProgressListener
+   *          the progress listener to report the progress to.
    */
-  private void decodeControl( final UARTDataSet aDataSet, final int aChannelIndex, final String aName )
+  private void decodeControl( final UARTDataSet aDataSet, final int aChannelIndex, final String aName,
+      final ToolProgressListener aProgressListener )
   {
     final AcquisitionResult data = this.context.getData();
 
@@ -366,7 +568,7 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
     final int endSampleIdx = aDataSet.getEndOfDecode();
 
     final int[] values = data.getValues();
-    this.progressListener.setProgress( 0 );
+    aProgressListener.setProgress( 0 );
 
     int oldValue = values[startSampleIdx] & mask;
     for ( int i = startSampleIdx + 1; i < endSampleIdx; i++ )
@@ -385,7 +587,7 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
       oldValue = value;
 
       // update progress
-      this.progressListener.setProgress( getPercentage( i, startSampleIdx, endSampleIdx ) );
+      aProgressListener.setProgress( getPercentage( i, startSampleIdx, endSampleIdx ) );
     }
   }
 
@@ -395,9 +597,14 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
    * @param aChannelIndex
    *          the channel index to decode;
    * @param aType
-   *          type of the data (rx or tx)
+   *          type of the data (rx or tx);
+   * @param aDecoder
+   *          the channel decoder to report the baud rate and progress to.
+   * @return the bit length used in decoding, or <code>null</code> if no
+   *         (usable) baud rate could be determined.
    */
-  private void decodeData( final UARTDataSet aDataSet, final int aChannelIndex, final int aEventType )
+  private Double decodeData( final UARTDataSet aDataSet, final int aChannelIndex, final int aEventType,
+      final ChannelDecoder aDecoder )
   {
     final AcquisitionResult data = this.context.getData();
 
@@ -405,16 +612,17 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
 
     if ( this.baudRate == AUTO_DETECT_BAUDRATE )
     {
-      // Auto detect the baud rate...
-      final int mask = ( 1 << aChannelIndex );
-      final BaudRateAnalyzer baudRateAnalyzer = new BaudRateAnalyzer( data.getSampleRate(), data.getValues(), data.getTimestamps(), mask );
+      // Auto detect the baud rate, using the pulse widths that are gathered
+      // upon arrival of the data...
+      final IntFrequency pulseWidths = ChannelStatistics.getInstance( data ).getPulseWidths( aChannelIndex );
+      final BaudRateAnalyzer baudRateAnalyzer = new BaudRateAnalyzer( data.getSampleRate(), pulseWidths );
       baudRate = baudRateAnalyzer.getBaudRateExact();
       // Set nominal (normalized) baud rate
-      aDataSet.setBaudRate( baudRateAnalyzer.getBaudRate() );
+      aDecoder.setBaudRate( baudRateAnalyzer.getBaudRate() );
     } else {
       baudRate = this.baudRate;
       // Set nominal baud rate
-      aDataSet.setBaudRate( baudRate );
+      aDecoder.setBaudRate( baudRate );
     }
 
     LOG.log( Level.FINE, "Baudrate = {0}bps", Integer.valueOf( baudRate ) );
@@ -423,50 +631,47 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
     {
       LOG.log( Level.INFO, "No (usable) {0}-data found for determining bitlength/baudrate ...",
           aChannelIndex == this.rxdIndex ? UARTDataSet.UART_RXD : UARTDataSet.UART_TXD );
+      return null;
     }
-    else
-    {
 
-      SerialConfiguration config = new SerialConfiguration( baudRate, this.bitCount,
-          this.stopBits, this.parity, this.bitEncoding, this.bitOrder, this.idleLevel );
+    SerialConfiguration config = new SerialConfiguration( baudRate, this.bitCount,
+        this.stopBits, this.parity, this.bitEncoding, this.bitOrder, this.idleLevel );
+
+    final int lastSampleIdx = data.getTimestamps().length - 1;
 
-      AsyncSerialDataDecoder decoder = new AsyncSerialDataDecoder( config, this.context );
-      decoder.setProgressListener( this.progressListener );
-      decoder.setCallback( new SerialDecoderCallback()
+    AsyncSerialDataDecoder decoder = new AsyncSerialDataDecoder( config, this.context );
+    decoder.setProgressListener( aDecoder );
+    decoder.setCallback( new SerialDecoderCallback()
+    {
+      @Override
+      public void onError( final int aChannelIdx, final ErrorType aType, final long aTime )
       {
-        @Override
-        public void onError( final int aChannelIdx, final ErrorType aType, final long aTime )
-        {
-          final int sampleIdx = data.getSampleIndex( aTime );
-          final int eventType = ( aEventType == UARTData.UART_TYPE_RXDATA ) ? UARTData.UART_TYPE_RXEVENT
-              : UARTData.UART_TYPE_TXEVENT;
+        final int sampleIdx = data.getSampleIndex( aTime );
+        final int eventType = ( aEventType == UARTData.UART_TYPE_RXDATA ) ? UARTData.UART_TYPE_RXEVENT
+            : UARTData.UART_TYPE_TXEVENT;
 
-          aDataSet.reportError( aType, aChannelIdx, sampleIdx, eventType );
-        }
+        aDataSet.reportError( aType, aChannelIdx, sampleIdx, eventType );
+      }
 
-        @Override
-        public void onEvent( final int aChannelIdx, final String aEvent, final long aStartTime, final long aEndTime )
-        {
-          // Nop
-        }
+      @Override
+      public void onEvent( final int aChannelIdx, final String aEvent, final long aStartTime, final long aEndTime )
+      {
+        // Nop
+      }
 
-        @Override
-        public void onSymbol( final int aChannelIdx, final int aSymbol, final long aStartTime, final long aEndTime )
-        {
-          final int startSampleIdx = Math.max( data.getSampleIndex( aStartTime ), 0 );
-          final int endSampleIdx = Math.min( data.getSampleIndex( aEndTime ), data.getTimestamps().length - 1 );
+      @Override
+      public void onSymbol( final int aChannelIdx, final int aSymbol, final long aStartTime, final long aEndTime )
+      {
+        final int startSampleIdx = Math.max( data.getSampleIndex( aStartTime ), 0 );
+        final int endSampleIdx = Math.min( data.getSampleIndex( aEndTime ), lastSampleIdx );
 
-          aDataSet.reportData( aChannelIndex, startSampleIdx, endSampleIdx, aSymbol, aEventType );
+        aDataSet.reportData( aChannelIndex, startSampleIdx, endSampleIdx, aSymbol, aEventType );
 
-          addSymbolAnnotation( aChannelIndex, aSymbol, aStartTime, aEndTime );
-        }
-      } );
+        addSymbolAnnotation( aChannelIndex, aSymbol, aStartTime, aEndTime );
+      }
+    } );
 
-      final double sampledBitLength = decoder.decodeDataLine( aChannelIndex );
-      // Set the actual bit length used, so UARTDataSet can calculate
-      // the actual baud rate used.
-      aDataSet.setSampledBitLength( sampledBitLength );
-    }
+    return Double.valueOf( decoder.decodeDataLine( aChannelIndex ) );
   }
 
   /**
@@ -529,41 +734,6 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
     return result;
   }
 
-  /**
-   * Prepares and decoded the control line indicated by the given channel index.
-   * 
-   * @param aDataSet
-   *          the dataset to add the decoding results to;
-   * @param aChannelIndex
-   *          the channel index of the channel to decode;
-   * @param aDefaultLabel
-   *          the default label to use for the decoded channel.
-   */
-  private void prepareAndDecodeControl( final UARTDataSet aDataSet, final int aChannelIndex, final String aDefaultLabel )
-  {
-    prepareResult( aChannelIndex, aDefaultLabel );
-    decodeControl( aDataSet, aChannelIndex, aDefaultLabel );
-  }
-
-  /**
-   * Prepares and decoded the data line indicated by the given channel index.
-   * 
-   * @param aDataSet
-   *          the dataset to add the decoding results to;
-   * @param aChannelIndex
-   *          the channel index of the channel to decode;
-   * @param aEventType
-   *          the event type to use for the decoded data;
-   * @param aDefaultLabel
-   *          the default label to use for the decoded channel.
-   */
-  private void prepareAndDecodeData( final UARTDataSet aDataSet, final int aChannelIndex, final int aEventType,
-      final String aDefaultLabel )
-  {
-    prepareResult( aChannelIndex, aDefaultLabel );
-    decodeData( aDataSet, aChannelIndex, aEventType );
-  }
-
   /**
    * Determines the resulting channel label and clears any existing annotations.
    * 
@@ -577,4 +747,29 @@ public class UARTAnalyserTask implements ToolTask<UARTDataSet>
     this.annotationListener.clearAnnotations( aChannelIndex );
     this.annotationListener.onAnnotation( new ChannelLabelAnnotation( aChannelIndex, aLabel ) );
   }
+
+  /**
+   * Reports the progress of all channel decoders as a single progress value.
+   */
+  private synchronized void reportProgress()
+  {
+    final List<ChannelDecoder> decoders = this.channelDecoders;
+    if ( ( decoders == null ) || decoders.isEmpty() )
+    {
+      return;
+    }
+
+    int total = 0;
+    for ( ChannelDecoder decoder : decoders )
+    {
+      total += decoder.progress;
+    }
+
+    final int progress = total / decoders.size();
+    if ( progress != this.lastProgress )
+    {
+      this.lastProgress = progress;
+      this.progressListener.setProgress( progress );
+    }
+  }
 }
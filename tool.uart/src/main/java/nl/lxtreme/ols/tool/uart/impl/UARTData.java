@@ -83,7 +83,14 @@ public final class UARTData extends BaseData<UARTData>
   @Override
   public int compareTo( final UARTData aComparable )
   {
-    return ( getStartSampleIndex() - aComparable.getStartSampleIndex() );
+    int result = getStartSampleIndex() - aComparable.getStartSampleIndex();
+    if ( result == 0 )
+    {
+      // Channels are decoded concurrently, so do not let the order in which
+      // they reported their data decide...
+      result = getChannelIdx() - aComparable.getChannelIdx();
+    }
+    return result;
   }
 
   /**
@@ -29,6 +29,12 @@ import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.ErrorType;
 
 
 /**
+ * Provides the data set of the UART decoder.
+ * <p>
+ * Multiple channels can report their decoded data concurrently to a single
+ * data set; the reported data is sorted once all channels are decoded.
+ * </p>
+ * 
  * @author jajans
  */
 public final class UARTDataSet extends BaseDataSet<UARTData>
@@ -105,7 +111,7 @@ public final class UARTDataSet extends BaseDataSet<UARTData>
    * 
    * @return a number of decoded (data) symbols, >= 0.
    */
-  public int getDecodedSymbols()
+  public synchronized int getDecodedSymbols()
   {
     return this.decodedSymbols;
   }
@@ -115,7 +121,7 @@ public final class UARTDataSet extends BaseDataSet<UARTData>
    * 
    * @return an error count, >= 0.
    */
-  public int getDetectedErrors()
+  public synchronized int getDetectedErrors()
   {
     return this.detectedErrors;
   }
@@ -136,7 +142,7 @@ public final class UARTDataSet extends BaseDataSet<UARTData>
    * @param aTime
    * @param aName
    */
-  public void reportControlHigh( final int aChannelIdx, final int aSampleIdx, final String aName )
+  public synchronized void reportControlHigh( final int aChannelIdx, final int aSampleIdx, final String aName )
   {
     final int idx = size();
     addData( new UARTData( idx, aChannelIdx, aSampleIdx, aName.toUpperCase() + "_HIGH" ) );
@@ -146,7 +152,7 @@ public final class UARTDataSet extends BaseDataSet<UARTData>
    * @param aTime
    * @param aName
    */
-  public void reportControlLow( final int aChannelIdx, final int aSampleIdx, final String aName )
+  public synchronized void reportControlLow( final int aChannelIdx, final int aSampleIdx, final String aName )
   {
     final int idx = size();
     addData( new UARTData( idx, aChannelIdx, aSampleIdx, aName.toUpperCase() + "_LOW" ) );
@@ -157,7 +163,7 @@ public final class UARTDataSet extends BaseDataSet<UARTData>
    * @param aValue
    * @param aEventType
    */
-  public void reportData( final int aChannelIdx, final int aStartSampleIdx, final int aEndSampleIdx, final int aValue,
+  public synchronized void reportData( final int aChannelIdx, final int aStartSampleIdx, final int aEndSampleIdx, final int aValue,
       final int aEventType )
   {
     final int idx = size();
@@ -169,7 +175,7 @@ public final class UARTDataSet extends BaseDataSet<UARTData>
    * @param aTime
    * @param aEventType
    */
-  public void reportError( final ErrorType aType, final int aChannelIdx, final int aSampleIdx, final int aEventType )
+  public synchronized void reportError( final ErrorType aType, final int aChannelIdx, final int aSampleIdx, final int aEventType )
   {
     final int idx = size();
     this.detectedErrors++;
@@ -227,10 +227,131 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
     }
   }
 
+  /**
+   * Provides the table model for showing the decoded UART data.
+   */
+  final class UARTDataTableModel extends DataSetTableModel<UARTData>
+  {
+    // CONSTANTS
+
+    private static final long serialVersionUID = 1L;
+
+    // VARIABLES
+
+    private int bitCount = 8;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new UARTDataTableModel instance.
+     */
+    public UARTDataTableModel()
+    {
+      super( "Index", "Time", "RxD Hex", "RxD Bin", "RxD Dec", "RxD ASCII", "TxD Hex", "TxD Bin", "TxD Dec",
+          "TxD ASCII" );
+    }
+
+    // METHODS
+
+    /**
+     * Sets the number of data bits used to format the decoded values.
+     * 
+     * @param aBitCount
+     *          the number of data bits, > 0.
+     */
+    public void setBitCount( final int aBitCount )
+    {
+      this.bitCount = aBitCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object getColumnValue( final int aRow, final UARTData aData, final int aColumn )
+    {
+      if ( aColumn == 0 )
+      {
+        return String.valueOf( aRow );
+      }
+      else if ( aColumn == 1 )
+      {
+        return Unit.Time.format( getDataSet().getTime( aData.getStartSampleIndex() ) );
+      }
+
+      // Columns 2..5 are for RxD, 6..9 for TxD...
+      final boolean rxdColumn = ( aColumn < 6 );
+      final int column = ( aColumn - 2 ) % 4;
+
+      if ( aData.isEvent() )
+      {
+        final int type = aData.getType();
+        if ( ( column == 0 )
+            && ( ( UARTData.UART_TYPE_EVENT == type ) || ( rxdColumn && ( UARTData.UART_TYPE_RXEVENT == type ) ) || ( !rxdColumn && ( UARTData.UART_TYPE_TXEVENT == type ) ) ) )
+        {
+          return aData.getEventName();
+        }
+        return null;
+      }
+
+      if ( rxdColumn != ( UARTData.UART_TYPE_RXDATA == aData.getType() ) )
+      {
+        return null;
+      }
+
+      final int value = aData.getData();
+      final int bitAdder = ( ( this.bitCount % 4 ) != 0 ) ? 1 : 0;
+
+      switch ( column )
+      {
+        case 0:
+          return "0x".concat( integerToHexString( value, ( this.bitCount / 4 ) + bitAdder ) );
+        case 1:
+          return "0b".concat( integerToBinString( value, this.bitCount ) );
+        case 2:
+          return String.valueOf( value );
+        default:
+          return toASCII( value );
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Color getRowBackground( final UARTData aData )
+    {
+      if ( !aData.isEvent() )
+      {
+        return null;
+      }
+
+      final int type = aData.getType();
+      if ( aData.getEventName().endsWith( "_ERR" ) )
+      {
+        return EVENT_ERROR_COLOR;
+      }
+      else if ( UARTData.UART_TYPE_EVENT == type )
+      {
+        return EVENT_COLOR;
+      }
+      else if ( ( UARTData.UART_TYPE_RXEVENT == type ) || ( UARTData.UART_TYPE_TXEVENT == type ) )
+      {
+        return DATA_EVENT_COLOR;
+      }
+      // unknown event
+      return EVENT_ERROR_COLOR;
+    }
+  }
+
   // CONSTANTS
 
   private static final long serialVersionUID = 1L;
 
+  private static final Color EVENT_COLOR = new Color( 0xe0e0e0 );
+  private static final Color DATA_EVENT_COLOR = new Color( 0xc0ffc0 );
+  private static final Color EVENT_ERROR_COLOR = new Color( 0xff8000 );
+
   private static final Logger LOG = Logger.getLogger( UARTProtocolAnalysisDialog.class.getName() );
 
   // VARIABLES
@@ -252,6 +373,7 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
   private JCheckBox autoDetectBaudRate;
   private JComboBox baudrate;
   private JEditorPane outText;
+  private UARTDataTableModel outTableModel;
 
   private RestorableAction runAnalysisAction;
   private Action closeAction;
@@ -334,6 +456,7 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
   {
     this.outText.setText( getEmptyHtmlPage() );
     this.outText.setEditable( false );
+    this.outTableModel.clear();
 
     this.runAnalysisAction.restore();
 
@@ -387,6 +510,9 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
       this.outText.setText( htmlPage );
       this.outText.setEditable( false );
 
+      this.outTableModel.setBitCount( Integer.parseInt( ( String )this.bits.getSelectedItem() ) );
+      this.outTableModel.setDataSet( aAnalysisResult );
+
       this.runAnalysisAction.restore();
     }
     catch ( final IOException exception )
@@ -400,13 +526,28 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onToolProgress( final int aPercentage )
+  {
+    final UARTAnalyserTask toolTask = ( UARTAnalyserTask )getToolTask();
+    if ( toolTask != null )
+    {
+      // Show the data that is decoded so far...
+      this.outTableModel.update( toolTask.getDecodedData() );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected void onToolStarted()
   {
-    // NO-op
+    this.outTableModel.clear();
+    this.outTableModel.setBitCount( Integer.parseInt( ( String )this.bits.getSelectedItem() ) );
   }
 
   /**
@@ -479,10 +620,13 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
    * Creates the HTML template for exports to HTML.
    *
    * @param aExporter
-   *          the HTML exporter instance to use, cannot be <code>null</code>.
+   *          the HTML exporter instance to use, cannot be <code>null</code>;
+   * @param aIncludeDecodedData
+   *          <code>true</code> to include the decoded data, <code>false</code>
+   *          to only include the statistics.
    * @return a HTML exporter filled with the template, never <code>null</code>.
    */
-  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter )
+  private HtmlExporter createHtmlTemplate( final HtmlExporter aExporter, final boolean aIncludeDecodedData )
   {
     aExporter.addCssStyle( "body { font-family: sans-serif; } " );
     aExporter.addCssStyle( "table { border-width: 1px; border-spacing: 0px; border-color: gray;"
@@ -524,6 +668,12 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
     tr.addChild( TD ).addAttribute( "class", "w30" ).addContent( "Baudrate" );
     tr.addChild( TD ).addContent( "{baudrate}" );
 
+    if ( !aIncludeDecodedData )
+    {
+      // The decoded data is shown in a separate table...
+      return aExporter;
+    }
+
     table = body.addChild( TABLE ).addAttribute( "class", "w100" );
     thead = table.addChild( THEAD );
     tr = thead.addChild( TR );
@@ -552,12 +702,15 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
    */
   private JPanel createPreviewPane()
   {
-    final JPanel panTable = new JPanel( new GridLayout( 1, 1, 0, 0 ) );
+    final JPanel panTable = new JPanel( new BorderLayout() );
 
     this.outText = new JEditorPane( "text/html", getEmptyHtmlPage() );
     this.outText.setEditable( false );
 
-    panTable.add( new JScrollPane( this.outText ) );
+    this.outTableModel = new UARTDataTableModel();
+
+    panTable.add( this.outText, BorderLayout.NORTH );
+    panTable.add( new JScrollPane( new DataSetTable( this.outTableModel ) ), BorderLayout.CENTER );
 
     return panTable;
   }
@@ -687,7 +840,7 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
    */
   private String getEmptyHtmlPage()
   {
-    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+    final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
     return exporter.toString( new MacroResolver()
     {
       @Override
@@ -888,109 +1041,129 @@ public final class UARTProtocolAnalysisDialog extends BaseToolDialog<UARTDataSet
         }
         else if ( "decoded-data".equals( aMacro ) )
         {
-          final List<UARTData> decodedData = aDataSet.getData();
-          Element tr;
-
-          for ( int i = 0; i < decodedData.size(); i++ )
+          // Create the rows lazily, allowing them to be streamed to file...
+          return new DataSetHtmlRows<UARTData>( aDataSet )
           {
-            final UARTData ds = decodedData.get( i );
-
-            if ( ds.isEvent() )
-            {
-              String rxEventData = "";
-              String txEventData = "";
-
-              String bgColor;
-              if ( UARTData.UART_TYPE_EVENT == ds.getType() )
-              {
-                rxEventData = txEventData = ds.getEventName();
-                bgColor = "#e0e0e0";
-              }
-              else if ( UARTData.UART_TYPE_RXEVENT == ds.getType() )
-              {
-                rxEventData = ds.getEventName();
-                bgColor = "#c0ffc0";
-              }
-              else if ( UARTData.UART_TYPE_TXEVENT == ds.getType() )
-              {
-                txEventData = ds.getEventName();
-                bgColor = "#c0ffc0";
-              }
-              else
-              {
-                // unknown event
-                bgColor = "#ff8000";
-              }
-
-              if ( txEventData.endsWith( "_ERR" ) || rxEventData.endsWith( "_ERR" ) )
-              {
-                bgColor = "#ff8000";
-              }
-
-              tr = aParent.addChild( TR ).addAttribute( "style", "background-color: " + bgColor + ";" );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( ds.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( rxEventData );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD ).addContent( txEventData );
-              tr.addChild( TD );
-              tr.addChild( TD );
-              tr.addChild( TD );
-            }
-            else
+            @Override
+            protected Element createRow( final int aIndex, final UARTData aData, final UARTData aCoalescedData )
             {
-              String rxDataHex = "", rxDataBin = "", rxDataDec = "", rxDataASCII = "";
-              String txDataHex = "", txDataBin = "", txDataDec = "", txDataASCII = "";
-
-              // Normal data...
-              if ( UARTData.UART_TYPE_RXDATA == ds.getType() )
-              {
-                final int rxData = ds.getData();
-
-                rxDataHex = integerToHexString( rxData, ( bitCount / 4 ) + bitAdder );
-                rxDataBin = integerToBinString( rxData, bitCount );
-                rxDataDec = String.valueOf( rxData );
-                rxDataASCII = toASCII( ( char )rxData );
-              }
-              else
-              /* if ( UARTData.UART_TYPE_TXDATA == ds.getType() ) */
-              {
-                final int txData = ds.getData();
-
-                txDataHex = integerToHexString( txData, ( bitCount / 4 ) + bitAdder );
-                txDataBin = integerToBinString( txData, bitCount );
-                txDataDec = String.valueOf( txData );
-                txDataASCII = toASCII( txData );
-              }
-
-              tr = aParent.addChild( TR );
-              tr.addChild( TD ).addContent( String.valueOf( i ) );
-              tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( ds.getStartSampleIndex() ) ) );
-              tr.addChild( TD ).addContent( "0x", rxDataHex );
-              tr.addChild( TD ).addContent( "0b", rxDataBin );
-              tr.addChild( TD ).addContent( rxDataDec );
-              tr.addChild( TD ).addContent( rxDataASCII );
-              tr.addChild( TD ).addContent( "0x", txDataHex );
-              tr.addChild( TD ).addContent( "0b", txDataBin );
-              tr.addChild( TD ).addContent( txDataDec );
-              tr.addChild( TD ).addContent( txDataASCII );
+              return createDecodedDataRow( aIndex, aData );
             }
-          }
+          };
         }
         return null;
       }
+
+      /**
+       * Creates a single table row for the given decoded data.
+       * 
+       * @param aIndex
+       *          the index of the decoded data;
+       * @param aData
+       *          the decoded data to create a table row for.
+       * @return a new table row, never <code>null</code>.
+       */
+      private Element createDecodedDataRow( final int aIndex, final UARTData aData )
+      {
+        final Element tr;
+
+        if ( aData.isEvent() )
+        {
+          String rxEventData = "";
+          String txEventData = "";
+
+          String bgColor;
+          if ( UARTData.UART_TYPE_EVENT == aData.getType() )
+          {
+            rxEventData = txEventData = aData.getEventName();
+            bgColor = "#e0e0e0";
+          }
+          else if ( UARTData.UART_TYPE_RXEVENT == aData.getType() )
+          {
+            rxEventData = aData.getEventName();
+            bgColor = "#c0ffc0";
+          }
+          else if ( UARTData.UART_TYPE_TXEVENT == aData.getType() )
+          {
+            txEventData = aData.getEventName();
+            bgColor = "#c0ffc0";
+          }
+          else
+          {
+            // unknown event
+            bgColor = "#ff8000";
+          }
+
+          if ( txEventData.endsWith( "_ERR" ) || rxEventData.endsWith( "_ERR" ) )
+          {
+            bgColor = "#ff8000";
+          }
+
+          tr = TR.clone().addAttribute( "style", "background-color: " + bgColor + ";" );
+          tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+          tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( aData.getStartSampleIndex() ) ) );
+          tr.addChild( TD ).addContent( rxEventData );
+          tr.addChild( TD );
+          tr.addChild( TD );
+          tr.addChild( TD );
+          tr.addChild( TD ).addContent( txEventData );
+          tr.addChild( TD );
+          tr.addChild( TD );
+          tr.addChild( TD );
+        }
+        else
+        {
+          String rxDataHex = "", rxDataBin = "", rxDataDec = "", rxDataASCII = "";
+          String txDataHex = "", txDataBin = "", txDataDec = "", txDataASCII = "";
+
+          // Normal data...
+          if ( UARTData.UART_TYPE_RXDATA == aData.getType() )
+          {
+            final int rxData = aData.getData();
+
+            rxDataHex = integerToHexString( rxData, ( bitCount / 4 ) + bitAdder );
+            rxDataBin = integerToBinString( rxData, bitCount );
+            rxDataDec = String.valueOf( rxData );
+            rxDataASCII = toASCII( ( char )rxData );
+          }
+          else
+          /* if ( UARTData.UART_TYPE_TXDATA == aData.getType() ) */
+          {
+            final int txData = aData.getData();
+
+            txDataHex = integerToHexString( txData, ( bitCount / 4 ) + bitAdder );
+            txDataBin = integerToBinString( txData, bitCount );
+            txDataDec = String.valueOf( txData );
+            txDataASCII = toASCII( txData );
+          }
+
+          tr = TR.clone();
+          tr.addChild( TD ).addContent( String.valueOf( aIndex ) );
+          tr.addChild( TD ).addContent( Unit.Time.format( aDataSet.getTime( aData.getStartSampleIndex() ) ) );
+          tr.addChild( TD ).addContent( "0x", rxDataHex );
+          tr.addChild( TD ).addContent( "0b", rxDataBin );
+          tr.addChild( TD ).addContent( rxDataDec );
+          tr.addChild( TD ).addContent( rxDataASCII );
+          tr.addChild( TD ).addContent( "0x", txDataHex );
+          tr.addChild( TD ).addContent( "0b", txDataBin );
+          tr.addChild( TD ).addContent( txDataDec );
+          tr.addChild( TD ).addContent( txDataASCII );
+        }
+
+        return tr;
+      }
     };
 
     if ( aFile == null )
     {
-      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter() );
+      // Only the statistics; the decoded data is shown in a separate table...
+      final HtmlExporter exporter = createHtmlTemplate( ExportUtils.createHtmlExporter(), false );
       return exporter.toString( macroResolver );
     }
     else
     {
-      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ) );
+      final HtmlFileExporter exporter = ( HtmlFileExporter )createHtmlTemplate( ExportUtils.createHtmlExporter( aFile ),
+          true );
       exporter.write( macroResolver );
       exporter.close();
     }
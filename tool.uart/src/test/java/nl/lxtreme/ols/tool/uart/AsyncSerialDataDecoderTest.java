@@ -0,0 +1,324 @@
+/*
+ * OpenBench LogicSniffer / SUMP project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110, USA
+ *
+ *
+ * Copyright (C) 2010-2011 - J.W. Janssen, http://www.lxtreme.nl
+ */
+package nl.lxtreme.ols.tool.uart;
+
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import nl.lxtreme.ols.api.acquisition.*;
+import nl.lxtreme.ols.api.data.*;
+import nl.lxtreme.ols.test.data.*;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.BitEncoding;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.BitLevel;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.BitOrder;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.ErrorType;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.Parity;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.SerialConfiguration;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.SerialDecoderCallback;
+import nl.lxtreme.ols.tool.uart.AsyncSerialDataDecoder.StopBits;
+
+import org.junit.*;
+
+
+/**
+ * Test cases for {@link AsyncSerialDataDecoder} using synthetic captures.
+ */
+public class AsyncSerialDataDecoderTest
+{
+  // INNER TYPES
+
+  /**
+   * Denotes a single error reported by the decoder.
+   */
+  static final class RecordedError
+  {
+    // VARIABLES
+
+    final ErrorType type;
+    final long time;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new RecordedError instance.
+     */
+    RecordedError( final ErrorType aType, final long aTime )
+    {
+      this.type = aType;
+      this.time = aTime;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals( final Object aObject )
+    {
+      if ( !( aObject instanceof RecordedError ) )
+      {
+        return false;
+      }
+      final RecordedError other = ( RecordedError )aObject;
+      return ( this.type == other.type ) && ( this.time == other.time );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+      return ( 31 * this.type.hashCode() ) + ( int )( this.time ^ ( this.time >>> 32 ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+      return this.type + "@" + this.time;
+    }
+  }
+
+  /**
+   * Denotes a single symbol reported by the decoder.
+   */
+  static final class RecordedSymbol
+  {
+    // VARIABLES
+
+    final int value;
+    final long startTime;
+    final long endTime;
+
+    // CONSTRUCTORS
+
+    /**
+     * Creates a new RecordedSymbol instance.
+     */
+    RecordedSymbol( final int aValue, final long aStartTime, final long aEndTime )
+    {
+      this.value = aValue;
+      this.startTime = aStartTime;
+      this.endTime = aEndTime;
+    }
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals( final Object aObject )
+    {
+      if ( !( aObject instanceof RecordedSymbol ) )
+      {
+        return false;
+      }
+      final RecordedSymbol other = ( RecordedSymbol )aObject;
+      return ( this.value == other.value ) && ( this.startTime == other.startTime )
+          && ( this.endTime == other.endTime );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+      int result = this.value;
+      result = ( 31 * result ) + ( int )( this.startTime ^ ( this.startTime >>> 32 ) );
+      result = ( 31 * result ) + ( int )( this.endTime ^ ( this.endTime >>> 32 ) );
+      return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+      return this.value + "@[" + this.startTime + ".." + this.endTime + "]";
+    }
+  }
+
+  /**
+   * Records all symbols and errors reported by the decoder.
+   */
+  static final class RecordingCallback implements SerialDecoderCallback
+  {
+    // VARIABLES
+
+    final List<RecordedSymbol> symbols = new ArrayList<RecordedSymbol>();
+    final List<RecordedError> errors = new ArrayList<RecordedError>();
+
+    // METHODS
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onError( final int aChannelIdx, final ErrorType aType, final long aTime )
+    {
+      this.errors.add( new RecordedError( aType, aTime ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onEvent( final int aChannelIdx, final String aEvent, final long aStartTime, final long aEndTime )
+    {
+      // Nop
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onSymbol( final int aChannelIdx, final int aSymbol, final long aStartTime, final long aEndTime )
+    {
+      this.symbols.add( new RecordedSymbol( aSymbol, aStartTime, aEndTime ) );
+    }
+  }
+
+  // CONSTANTS
+
+  private static final int SAMPLE_RATE = 100000000; // 100 MHz
+  private static final int BAUD_RATE = 9600;
+
+  // METHODS
+
+  /**
+   * Tests that a slow serial line captured at a high sample rate is decoded
+   * correctly, and in reasonable time, as the decoding time should depend on
+   * the number of transitions, not on the number of samples.
+   */
+  @Test( timeout = 10000L )
+  public void testDecodeSlowBaudRateAtHighSampleRate() throws Exception
+  {
+    final Random rnd = new Random( 1234L );
+    final List<Integer> expectedSymbols = new ArrayList<Integer>();
+
+    final AcquisitionResult data = createSerialData( rnd, 250, expectedSymbols );
+
+    final RecordingCallback callback = decode( data );
+
+    assertEquals( expectedSymbols, getSymbolValues( callback ) );
+    assertEquals( Collections.emptyList(), callback.errors );
+  }
+
+  /**
+   * Tests that the decoding results do not depend on how the samples are
+   * stored.
+   */
+  @Test
+  public void testDecodeYieldsIdenticalResultsForAllSampleStores() throws Exception
+  {
+    final Random rnd = new Random( 2345L );
+    final List<Integer> expectedSymbols = new ArrayList<Integer>();
+
+    final CapturedData arrayData = createSerialData( rnd, 25, expectedSymbols );
+    final CapturedData compactData = DataTestUtils.createCompactCopy( arrayData );
+
+    final RecordingCallback expected = decode( arrayData );
+    final RecordingCallback actual = decode( compactData );
+
+    assertEquals( expectedSymbols, getSymbolValues( expected ) );
+    assertEquals( expected.symbols, actual.symbols );
+    assertEquals( expected.errors, actual.errors );
+  }
+
+  /**
+   * Creates a capture with the given number of random 8N1-encoded symbols on
+   * the first channel, separated by random idle periods.
+   */
+  private static CapturedData createSerialData( final Random aRnd, final int aCount, final List<Integer> aSymbols )
+      throws IOException
+  {
+    final double bitLength = SAMPLE_RATE / ( double )BAUD_RATE;
+
+    final CapturedDataBuilder builder = new CapturedDataBuilder();
+
+    double time = 0.0;
+    builder.add( 0x01, 0L );
+    time += 5 * bitLength;
+
+    for ( int i = 0; i < aCount; i++ )
+    {
+      final int symbol = aRnd.nextInt( 256 );
+      aSymbols.add( Integer.valueOf( symbol ) );
+
+      // Start bit, eight data bits (LSB first) and a stop bit...
+      final int frame = ( 1 << 9 ) | ( symbol << 1 );
+      for ( int bit = 0; bit < 10; bit++ )
+      {
+        builder.add( ( frame >> bit ) & 0x01, Math.round( time ) );
+        time += bitLength;
+      }
+
+      // Idle time between symbols...
+      time += aRnd.nextInt( 4 ) * bitLength;
+    }
+
+    builder.add( 0x01, Math.round( time ) );
+    time += 5 * bitLength;
+
+    return builder.build( -1L, SAMPLE_RATE, 8, 0xFF, Math.round( time ) );
+  }
+
+  /**
+   * Returns the symbol values recorded by the given callback.
+   */
+  private static List<Integer> getSymbolValues( final RecordingCallback aCallback )
+  {
+    final List<Integer> result = new ArrayList<Integer>();
+    for ( RecordedSymbol symbol : aCallback.symbols )
+    {
+      result.add( Integer.valueOf( symbol.value ) );
+    }
+    return result;
+  }
+
+  /**
+   * Decodes the first channel of the given acquisition result as 8N1 serial
+   * data.
+   */
+  private static RecordingCallback decode( final AcquisitionResult aData )
+  {
+    final SerialConfiguration config = new SerialConfiguration( BAUD_RATE, 8, StopBits.ONE, Parity.NONE,
+        BitEncoding.HIGH_IS_MARK, BitOrder.LSB_FIRST, BitLevel.HIGH );
+
+    final RecordingCallback callback = new RecordingCallback();
+
+    final AsyncSerialDataDecoder decoder = new AsyncSerialDataDecoder( config, DataTestUtils.createToolContext( aData ) );
+    decoder.setCallback( callback );
+    decoder.decodeDataLine( 0 );
+
+    return callback;
+  }
+}
@@ -211,6 +211,19 @@ public final class ExportUtils
        *         <code>null</code>.
        */
       String toString( final MacroResolver aResolver );
+
+      /**
+       * Writes the string representation of this HTML-element directly to the
+       * given writer.
+       * 
+       * @param aWriter
+       *          the writer to write to, cannot be <code>null</code>;
+       * @param aResolver
+       *          the macro resolver to use for any found macros.
+       * @throws IOException
+       *           in case of I/O problems.
+       */
+      void write( final Writer aWriter, final MacroResolver aResolver ) throws IOException;
     }
 
     /**
@@ -230,7 +243,9 @@ public final class ExportUtils
        *          the parent element containing the macro, cannot be
        *          <code>null</code>.
        * @return the result of the macro, can be <code>null</code> if no result
-       *         is available.
+       *         is available. An {@link Iterable} result is written item by
+       *         item, allowing large results (such as table rows) to be
+       *         created lazily while writing.
        */
       public Object resolve( final String aMacro, final Element aParent );
     }
@@ -307,7 +322,8 @@ public final class ExportUtils
 
     /**
      * Writes the HTML export to file using the given macro resolver to resolve
-     * any macros.
+     * any macros. The HTML-structure is streamed to file, and is never
+     * completely kept in memory.
      * 
      * @param aResolver
      *          the macro resolver to use, cannot be <code>null</code>.
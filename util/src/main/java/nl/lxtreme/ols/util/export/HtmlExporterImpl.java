@@ -21,6 +21,7 @@
 package nl.lxtreme.ols.util.export;
 
 
+import java.io.*;
 import java.util.logging.*;
 
 import nl.lxtreme.ols.util.ExportUtils.HtmlExporter;
@@ -130,19 +131,42 @@ public class HtmlExporterImpl implements HtmlExporter
   @Override
   public String toString( final MacroResolver aResolver )
   {
-    final StringBuilder sb = new StringBuilder();
-    if ( this.includeDTD )
+    final StringWriter writer = new StringWriter();
+    try
+    {
+      write( writer, aResolver );
+    }
+    catch ( IOException exception )
     {
-      sb.append( "<!DOCTYPE HTML PUBLIC \"-//W3C//DTD HTML 4.01//EN\" \"http://www.w3.org/TR/html4/strict.dtd\">" )
-          .append( '\n' );
+      // Should not happen for a StringWriter...
+      throw new RuntimeException( exception );
     }
-    sb.append( this.root.toString( aResolver ) );
 
     if ( LOG.isLoggable( Level.FINE ) )
     {
-      LOG.fine( "+++\n" + sb + "\n---\n" );
+      LOG.fine( "+++\n" + writer + "\n---\n" );
     }
 
-    return sb.toString();
+    return writer.toString();
+  }
+
+  /**
+   * Writes the HTML-structure to the given writer, with all macro's resolved.
+   * 
+   * @param aWriter
+   *          the writer to write to, cannot be <code>null</code>;
+   * @param aResolver
+   *          the macro resolver to use, cannot be <code>null</code>.
+   * @throws IOException
+   *           in case of I/O problems.
+   */
+  protected void write( final Writer aWriter, final MacroResolver aResolver ) throws IOException
+  {
+    if ( this.includeDTD )
+    {
+      aWriter.write( "<!DOCTYPE HTML PUBLIC \"-//W3C//DTD HTML 4.01//EN\" \"http://www.w3.org/TR/html4/strict.dtd\">" );
+      aWriter.write( '\n' );
+    }
+    this.root.write( aWriter, aResolver );
   }
 }
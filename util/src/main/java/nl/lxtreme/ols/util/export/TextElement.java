@@ -21,6 +21,7 @@
 package nl.lxtreme.ols.util.export;
 
 
+import java.io.*;
 import java.util.*;
 import java.util.regex.*;
 
@@ -171,20 +172,68 @@ public final class TextElement implements Element
    */
   @Override
   public String toString( final MacroResolver aResolver )
+  {
+    final StringWriter writer = new StringWriter();
+    try
+    {
+      write( writer, aResolver );
+    }
+    catch ( IOException exception )
+    {
+      // Should not happen for a StringWriter...
+      throw new RuntimeException( exception );
+    }
+    return writer.toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void write( final Writer aWriter, final MacroResolver aResolver ) throws IOException
   {
     final Matcher matcher = MACRO_PATTERN.matcher( this.value );
     if ( matcher.matches() )
     {
-      Object result = aResolver.resolve( matcher.group( 1 ), this.parent );
-      if ( result != null )
-      {
-        return String.valueOf( result );
-      }
-      else
+      writeMacroResult( aWriter, aResolver, aResolver.resolve( matcher.group( 1 ), this.parent ) );
+    }
+    else
+    {
+      aWriter.write( this.value );
+    }
+  }
+
+  /**
+   * Writes the result of a resolved macro. Elements are written directly, while
+   * iterables are written item by item, allowing large results to be written
+   * without keeping them in memory.
+   * 
+   * @param aWriter
+   *          the writer to write to;
+   * @param aResolver
+   *          the macro resolver to use;
+   * @param aResult
+   *          the macro result to write, can be <code>null</code>.
+   * @throws IOException
+   *           in case of I/O problems.
+   */
+  private void writeMacroResult( final Writer aWriter, final MacroResolver aResolver, final Object aResult )
+      throws IOException
+  {
+    if ( aResult instanceof Iterable<?> )
+    {
+      for ( Object item : ( Iterable<?> )aResult )
       {
-        return "";
+        writeMacroResult( aWriter, aResolver, item );
       }
     }
-    return this.value;
+    else if ( aResult instanceof Element )
+    {
+      ( ( Element )aResult ).write( aWriter, aResolver );
+    }
+    else if ( aResult != null )
+    {
+      aWriter.write( String.valueOf( aResult ) );
+    }
   }
 }
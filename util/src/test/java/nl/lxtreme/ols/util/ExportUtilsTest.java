@@ -22,6 +22,10 @@ package nl.lxtreme.ols.util;
 
 
 import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
 import nl.lxtreme.ols.util.ExportUtils.*;
 import nl.lxtreme.ols.util.ExportUtils.HtmlExporter.*;
 import nl.lxtreme.ols.util.export.*;
@@ -176,6 +180,36 @@ public class ExportUtilsTest
         .toString( new UppercaseMacroResolver() ) );
   }
 
+  /**
+   * Tests that macros resolving to an iterable are written item by item.
+   */
+  @Test
+  public void testResolveIterableMacros()
+  {
+    Element cur = this.exporter.getBody().addChild( HtmlExporter.TABLE );
+    cur.addContent( "{rows}" );
+
+    final MacroResolver resolver = new MacroResolver()
+    {
+      @Override
+      public Object resolve( final String aMacro, final Element aParent )
+      {
+        final List<Object> result = new ArrayList<Object>();
+        for ( int i = 0; i < 3; i++ )
+        {
+          final Element tr = HtmlExporter.TR.clone();
+          tr.addChild( HtmlExporter.TD ).addContent( "{cell}" );
+          result.add( tr );
+        }
+        result.add( "text" );
+        return "rows".equals( aMacro ) ? result : aMacro;
+      }
+    };
+
+    assertEquals( "<html><head><title></title></head><body><table><tr><td>cell</td></tr><tr><td>cell</td></tr>"
+        + "<tr><td>cell</td></tr>text</table></body></html>", this.exporter.toString( resolver ) );
+  }
+
   /**
    * 
    */
@@ -214,4 +248,43 @@ public class ExportUtilsTest
 
     assertEquals( "<html><head><title></title></head><body><h1>test</h1></body></html>", this.exporter.toString() );
   }
+
+  /**
+   * Tests that writing a HTML file yields the same result as the string
+   * representation of the HTML export.
+   */
+  @Test
+  public void testWriteHtmlFile() throws IOException
+  {
+    final File file = File.createTempFile( "export", ".html" );
+    file.deleteOnExit();
+
+    final HtmlFileExporter exporter = ExportUtils.createHtmlExporter( file );
+    exporter.getBody().addChild( HtmlExporter.H1 ).addContent( "{foo}" );
+    exporter.getBody().addChild( HtmlExporter.DIV ).addContent( "b\u00e4r" );
+
+    final String expected = exporter.toString( new UppercaseMacroResolver() );
+
+    exporter.write( new UppercaseMacroResolver() );
+    exporter.close();
+
+    final Reader reader = new InputStreamReader( new FileInputStream( file ), "UTF8" );
+    try
+    {
+      final StringBuilder actual = new StringBuilder();
+      final char[] buf = new char[256];
+      int read;
+      while ( ( read = reader.read( buf ) ) >= 0 )
+      {
+        actual.append( buf, 0, read );
+      }
+
+      assertEquals( expected, actual.toString() );
+    }
+    finally
+    {
+      reader.close();
+      file.delete();
+    }
+  }
 }